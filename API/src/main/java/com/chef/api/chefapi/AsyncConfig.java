@@ -0,0 +1,54 @@
+package com.chef.api.chefapi;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Provides the executors that blocking work runs on, so that servlet threads are
+ * released while DAO writes complete and change feed events are delivered
+ *
+ * @author SWEN Faculty
+ */
+@Configuration
+public class AsyncConfig {
+    /**
+     * Creates the dedicated I/O executor used by the asynchronous DAOs
+     *
+     * @param threads Number of threads performing storage operations
+     * @param queueCapacity Number of operations allowed to wait for a thread
+     *
+     * @return The persistence executor
+     */
+    @Bean
+    public ThreadPoolTaskExecutor persistenceExecutor(@Value("${chef.persistence.threads:4}") int threads,
+            @Value("${chef.persistence.queue:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("persistence-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * Creates the executor that writes change feed events to their subscribers
+     * <br>
+     * Each subscriber has at most one drain task queued, so the queue is bounded by
+     * the number of subscribers with undelivered events
+     *
+     * @param threads Number of threads writing to subscriber connections
+     *
+     * @return The change feed executor
+     */
+    @Bean
+    public ThreadPoolTaskExecutor feedExecutor(@Value("${chef.feed.threads:2}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("feed-");
+        return executor;
+    }
+}
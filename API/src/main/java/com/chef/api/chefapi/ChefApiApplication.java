@@ -2,12 +2,18 @@ package com.chef.api.chefapi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 
 @SpringBootApplication
 public class ChefApiApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(ChefApiApplication.class, args);
+		ConfigurableApplicationContext context = SpringApplication.run(ChefApiApplication.class, args);
+
+		// Training run of the cds profile: start up fully, then exit so the JVM
+		// can dump the classes it loaded into the class data sharing archive
+		if (Boolean.getBoolean("chef.startup.exit"))
+			context.close();
 	}
 
 }
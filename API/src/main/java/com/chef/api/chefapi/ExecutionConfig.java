@@ -0,0 +1,60 @@
+package com.chef.api.chefapi;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Opt-in request execution mode that runs the controller handlers on virtual threads
+ * <p>
+ * Enabled with {@code chef.threads.virtual=true}. The project targets Java 11, so the
+ * virtual thread executor is looked up reflectively and only used when the server is
+ * started on a JDK that provides it (21+). On older runtimes Tomcat keeps its
+ * platform thread pool and a warning is logged.
+ *
+ * @author SWEN Faculty
+ */
+@Configuration
+@ConditionalOnProperty(name = "chef.threads.virtual", havingValue = "true")
+public class ExecutionConfig {
+    private static final Logger LOG = Logger.getLogger(ExecutionConfig.class.getName());
+
+    /**
+     * Replaces the Tomcat connector's executor with a virtual-thread-per-task executor
+     *
+     * @return The customizer applied to the Tomcat protocol handler
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        ExecutorService executor = newVirtualThreadExecutor();
+        return protocolHandler -> {
+            if (executor != null)
+                protocolHandler.setExecutor(executor);
+        };
+    }
+
+    /**
+     * Creates a virtual-thread-per-task executor if the running JDK supports one
+     *
+     * @return The executor, or null if virtual threads are not available
+     */
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            LOG.info("Handling requests on virtual threads");
+            return (ExecutorService) factory.invoke(null);
+        }
+        catch(ReflectiveOperationException e) {
+            LOG.log(Level.WARNING,"Virtual threads are not supported by this JDK, "
+                    + "keeping the platform thread pool");
+            return null;
+        }
+    }
+}
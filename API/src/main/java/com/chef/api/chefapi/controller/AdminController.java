@@ -0,0 +1,112 @@
+package com.chef.api.chefapi.controller;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.chef.api.chefapi.persistence.CatalogBackups;
+
+/**
+ * Handles the REST API requests for the administration of the catalog
+ * <p>
+ * {@literal @}RestController Spring annotation identifies this class as a REST API
+ * method handler to the Spring framework
+ * 
+ * @author SWEN Faculty
+ */
+@RestController
+@RequestMapping("admin")
+public class AdminController {
+    private static final Logger LOG = Logger.getLogger(AdminController.class.getName());
+    private CatalogBackups backups;
+
+    /**
+     * Creates a REST API controller to reponds to requests
+     * 
+     * @param backups The {@link CatalogBackups backups} of the catalog
+     * <br>
+     * This dependency is injected by the Spring Framework
+     */
+    public AdminController(CatalogBackups backups) {
+        this.backups = backups;
+    }
+
+    /**
+     * Responds to the POST request for a backup of the catalog, written in the background
+     * 
+     * @return ResponseEntity with the {@link CatalogBackups.Backup backup} and HTTP status of ACCEPTED,
+     * which is the backup still being written if there is one<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     * <p>
+     * Example: Back up the catalog to data/snapshots
+     * POST http://localhost:8080/admin/snapshot
+     */
+    @PostMapping("/snapshot")
+    public ResponseEntity<CatalogBackups.Backup> takeSnapshot() {
+        LOG.info("POST /admin/snapshot");
+        try {
+            return new ResponseEntity<CatalogBackups.Backup>(backups.backup(),HttpStatus.ACCEPTED);
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Responds to the GET request for the backups of the catalog that were written
+     * 
+     * @return ResponseEntity with the names of the backups, oldest first, and HTTP status of OK<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     */
+    @GetMapping("/snapshots")
+    public ResponseEntity<List<String>> getSnapshots() {
+        LOG.info("GET /admin/snapshots");
+        try {
+            return new ResponseEntity<List<String>>(backups.getBackups(),HttpStatus.OK);
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Responds to the POST request to restore a backup of the catalog, replacing both
+     * stores together
+     * 
+     * @param name The name of the backup
+     * 
+     * @return ResponseEntity with HTTP status of OK<br>
+     * ResponseEntity with HTTP status of NOT_FOUND if there is no backup of that name<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     * <p>
+     * Example: Restore a backup of data/snapshots
+     * POST http://localhost:8080/admin/snapshots/20240101T120000000Z/restore
+     */
+    @PostMapping("/snapshots/{name}/restore")
+    public ResponseEntity<Void> restoreSnapshot(@PathVariable String name) {
+        LOG.info("POST /admin/snapshots/" + name + "/restore");
+        try {
+            backups.restore(name);
+            return new ResponseEntity<>(HttpStatus.OK);
+        }
+        catch(NoSuchFileException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
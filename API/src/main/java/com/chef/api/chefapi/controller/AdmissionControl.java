@@ -0,0 +1,249 @@
+package com.chef.api.chefapi.controller;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Admission control for the write endpoints of the REST API controllers
+ * <p>
+ * Every write first takes a token from its client's bucket, refilled at
+ * {@code chef.admission.rate} tokens per second up to {@code chef.admission.burst};
+ * a client that has run out is answered with TOO_MANY_REQUESTS. At most
+ * {@code chef.admission.writers} admitted writes run at a time and up to
+ * {@code chef.admission.queue} more wait for their turn without holding a thread.
+ * Once that queue is full, or the observed write latency is above
+ * {@code chef.admission.latency} milliseconds while writers are busy, further writes
+ * are shed with SERVICE_UNAVAILABLE, and the token the write took is given back to
+ * its client. Both rejections carry a Retry-After header.
+ * <br>
+ * Reads never pass through here, so they keep being served during a write storm.
+ * 
+ * {@literal @}Component Spring annotation instantiates a single instance of this
+ * class and injects the instance into other classes as needed
+ * 
+ * @author SWEN Faculty
+ */
+@Component
+public class AdmissionControl {
+    private static final Logger LOG = Logger.getLogger(AdmissionControl.class.getName());
+
+    /**
+     * Admits every write immediately, used by controllers created outside of Spring
+     */
+    static final AdmissionControl UNLIMITED =
+        new AdmissionControl(Double.MAX_VALUE,Integer.MAX_VALUE,Integer.MAX_VALUE,0,Long.MAX_VALUE);
+
+    private static final int MAX_CLIENTS = 10000;  // Buckets kept before the least recently
+                                        // used is dropped
+    private static final double LATENCY_WEIGHT = 0.2; // Weight of the newest write in the average
+
+    private final double rate;          // Tokens added to a bucket per second
+    private final int burst;            // Capacity of a bucket
+    private final int writers;          // Writes allowed to run at the same time
+    private final int queueDepth;       // Writes allowed to wait for a writer
+    private final long latencyThreshold;// Average write latency in milliseconds above which writes are shed
+    private final Map<String,TokenBucket> buckets;  // Access ordered, guarded by itself
+    private final ArrayDeque<Runnable> queue = new ArrayDeque<>();  // Guarded by this
+    private int running;                // Guarded by this
+    private volatile double latency;    // Moving average of write latency in milliseconds
+
+    /**
+     * Creates the admission control for the write endpoints
+     * 
+     * @param rate Tokens added to each client's bucket per second
+     * @param burst Number of writes a client may make at once after being idle
+     * @param writers Number of writes that may run at the same time
+     * @param queueDepth Number of writes that may wait for a writer before writes are shed
+     * @param latencyThreshold Average write latency in milliseconds above which writes are shed
+     */
+    @Autowired
+    public AdmissionControl(@Value("${chef.admission.rate:20}") double rate,
+            @Value("${chef.admission.burst:40}") int burst,
+            @Value("${chef.admission.writers:4}") int writers,
+            @Value("${chef.admission.queue:64}") int queueDepth,
+            @Value("${chef.admission.latency:2000}") long latencyThreshold) {
+        this.rate = rate;
+        this.burst = burst;
+        this.writers = writers;
+        this.queueDepth = queueDepth;
+        this.latencyThreshold = latencyThreshold;
+        this.buckets = new LinkedHashMap<>(16,0.75f,true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String,TokenBucket> eldest) {
+                return size() > MAX_CLIENTS;
+            }
+        };
+    }
+
+    /**
+     * Admits a write from the client of the current request
+     * 
+     * @param write Starts the write and returns its response
+     * 
+     * @return The response of the write once it has run, or a response with HTTP status
+     * of TOO_MANY_REQUESTS or SERVICE_UNAVAILABLE and a Retry-After header if it was shed
+     */
+    public <T> CompletableFuture<ResponseEntity<T>> submit(Supplier<CompletableFuture<ResponseEntity<T>>> write) {
+        return submit(currentClient(),write);
+    }
+
+    /**
+     * Admits a write from a client
+     * 
+     * @param client Identifies the client whose bucket the write takes a token from
+     * @param write Starts the write and returns its response
+     * 
+     * @return The response of the write once it has run, or a response with HTTP status
+     * of TOO_MANY_REQUESTS or SERVICE_UNAVAILABLE and a Retry-After header if it was shed
+     */
+    <T> CompletableFuture<ResponseEntity<T>> submit(String client, Supplier<CompletableFuture<ResponseEntity<T>>> write) {
+        TokenBucket bucket = bucket(client);
+        long wait = bucket.take();
+        if (wait > 0) {
+            LOG.info("Rate limited " + client);
+            return CompletableFuture.completedFuture(reject(HttpStatus.TOO_MANY_REQUESTS,wait));
+        }
+
+        CompletableFuture<ResponseEntity<T>> result = new CompletableFuture<>();
+        Runnable task = () -> run(write,result);
+        synchronized (this) {
+            if (running < writers) {
+                running++;
+            }
+            else if (queue.size() >= queueDepth || latency > latencyThreshold) {
+                // Roughly the time the writes ahead of this one need to finish
+                long backlog = (long) (latency * (queue.size() + 1) / writers);
+                LOG.info("Shed a write, " + queue.size() + " queued, " + (long) latency + " ms average latency");
+                bucket.refund();    // the client is not to blame for the backlog
+                return CompletableFuture.completedFuture(
+                    reject(HttpStatus.SERVICE_UNAVAILABLE,TimeUnit.MILLISECONDS.toNanos(backlog)));
+            }
+            else {
+                queue.add(task);
+                return result;
+            }
+        }
+        task.run();
+        return result;
+    }
+
+    /**
+     * Retrieves the number of writes waiting for a writer
+     * 
+     * @return The queue depth
+     */
+    public synchronized int getQueued() {return queue.size();}
+
+    /**
+     * Runs an admitted write, records its latency and hands its writer to the next
+     * queued write once it completes
+     */
+    private <T> void run(Supplier<CompletableFuture<ResponseEntity<T>>> write,
+            CompletableFuture<ResponseEntity<T>> result) {
+        long start = System.nanoTime();
+        CompletableFuture<ResponseEntity<T>> future;
+        try {
+            future = write.get();
+        }
+        catch(RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((response,e) -> {
+            double elapsed = (System.nanoTime() - start) / 1e6;
+            Runnable next;
+            synchronized (this) {
+                latency += LATENCY_WEIGHT * (elapsed - latency);
+                next = queue.poll();
+                if (next == null)
+                    running--;
+            }
+            if (e != null)
+                result.completeExceptionally(e);
+            else
+                result.complete(response);
+            if (next != null)
+                next.run();
+        });
+    }
+
+    /**
+     * Builds the response for a shed write
+     * 
+     * @param status TOO_MANY_REQUESTS or SERVICE_UNAVAILABLE
+     * @param wait Nanoseconds after which the client may try again
+     */
+    private static <T> ResponseEntity<T> reject(HttpStatus status, long wait) {
+        long seconds = Math.max(1,(wait + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        return ResponseEntity.status(status).header(HttpHeaders.RETRY_AFTER,String.valueOf(seconds)).build();
+    }
+
+    /**
+     * Retrieves the bucket of a client; the bucket of the client idle the longest is
+     * dropped once there are too many, as it is the one most likely to have refilled
+     */
+    private TokenBucket bucket(String client) {
+        synchronized (buckets) {
+            return buckets.computeIfAbsent(client,c -> new TokenBucket());
+        }
+    }
+
+    /**
+     * Identifies the client of the request being handled by its remote address
+     */
+    private static String currentClient() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes)
+            return ((ServletRequestAttributes) attributes).getRequest().getRemoteAddr();
+        return "local";
+    }
+
+    /**
+     * The write tokens of a single client
+     */
+    private class TokenBucket {
+        private double tokens = burst;
+        private long updated = System.nanoTime();
+
+        /**
+         * Takes a token
+         * 
+         * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+         */
+        synchronized long take() {
+            refill();
+            if (tokens >= 1) {
+                tokens--;
+                return 0;
+            }
+            return (long) ((1 - tokens) / rate * TimeUnit.SECONDS.toNanos(1));
+        }
+
+        /**
+         * Gives back a token taken by a write that was then shed
+         */
+        synchronized void refund() {
+            tokens = Math.min(burst,tokens + 1);
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(burst,tokens + (now - updated) * rate / TimeUnit.SECONDS.toNanos(1));
+            updated = now;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.chef.api.chefapi.controller;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.chef.api.chefapi.persistence.ChangeEvent;
+import com.chef.api.chefapi.persistence.ChangeListener;
+
+/**
+ * Fans the {@linkplain ChangeEvent changes} of a Data Access Object out to Server-Sent
+ * Events subscribers
+ * <p>
+ * The most recent events are kept in a bounded history so a reconnecting client can
+ * resume from the last event id it saw. An event id is the time the feed was created
+ * followed by the event's sequence number, {@code <epoch>-<sequence>}: sequence numbers
+ * start over when the server restarts, so an id from another epoch cannot be resumed
+ * from and its client is sent a reset. Each subscriber has its own bounded buffer
+ * that is drained on the dispatcher executor; a subscriber that falls so far behind
+ * that its buffer fills up is evicted and has to reconnect. An idle subscriber holds
+ * no thread and no buffered events, only its emitter.
+ *
+ * @param <T> The type of entity whose changes are published
+ *
+ * @author SWEN Faculty
+ */
+public class ChangeFeed<T> implements ChangeListener<T> {
+    private static final Logger LOG = Logger.getLogger(ChangeFeed.class.getName());
+
+    /**
+     * Name of the event telling a client its last event id is too old to resume from,
+     * so it has to fetch the full list again
+     */
+    static final String RESET_EVENT = "reset";
+
+    private final String name;              // Used in log messages
+    private final long epoch = System.currentTimeMillis();  // Tells apart the event ids
+                                        // of this run of the server from earlier ones
+    private final int historySize;          // Number of events kept for resuming clients
+    private final int bufferSize;           // Events a subscriber may fall behind by
+    private final long timeout;             // Emitter timeout in milliseconds
+    private final Executor dispatcher;      // Writes buffered events to the subscribers
+    private final ArrayDeque<ChangeEvent<T>> history = new ArrayDeque<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock lock = new ReentrantLock();  // Orders history appends
+                                        // against subscribers joining with a replay
+
+    /**
+     * Creates a change feed
+     *
+     * @param name Name of the feed, used in log messages
+     * @param historySize Number of recent events kept so clients can resume
+     * @param bufferSize Number of undelivered events after which a subscriber is evicted
+     * @param timeout Milliseconds after which a subscription is closed and the client
+     * is expected to reconnect
+     * @param dispatcher Executor the events are written to the subscribers on
+     */
+    public ChangeFeed(String name, int historySize, int bufferSize, long timeout, Executor dispatcher) {
+        this.name = name;
+        this.historySize = historySize;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Opens a subscription
+     *
+     * @param lastEventId The id of the last event the client saw, null for a client
+     * that only wants changes from now on
+     *
+     * @return The emitter the events are sent through
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        lock.lock();
+        try {
+            if (lastEventId != null) {
+                long last = sequenceOf(lastEventId);
+                long first = history.isEmpty() ? 1 : history.peekFirst().getSequence();
+                long latest = history.isEmpty() ? 0 : history.peekLast().getSequence();
+                // From before a restart, too old to replay, or too far behind to buffer
+                if (last < 0 || last < first - 1 || latest - last > bufferSize || last > latest)
+                    subscriber.reset = true;
+                else {
+                    for (ChangeEvent<T> event : history) {
+                        if (event.getSequence() > last)
+                            subscriber.offer(event);
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        finally {
+            lock.unlock();
+        }
+        subscriber.schedule();
+        return emitter;
+    }
+
+    /**
+     * Builds the id an event is sent with
+     *
+     * @param sequence The sequence number of the event
+     *
+     * @return The id, {@code <epoch>-<sequence>}
+     */
+    String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    /**
+     * Extracts the sequence number of an event id
+     *
+     * @return The sequence number, -1 if the id is from another epoch or not an event id
+     */
+    private long sequenceOf(String eventId) {
+        int dash = eventId.indexOf('-');
+        if (dash < 0 || !eventId.substring(0,dash).equals(String.valueOf(epoch)))
+            return -1;
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        }
+        catch(NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Retrieves the number of open subscriptions
+     *
+     * @return The number of subscribers
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public void onChange(ChangeEvent<T> event) {
+        List<Subscriber> targets;
+        lock.lock();
+        try {
+            history.addLast(event);
+            if (history.size() > historySize)
+                history.removeFirst();
+            targets = new ArrayList<>(subscribers);
+        }
+        finally {
+            lock.unlock();
+        }
+        for (Subscriber subscriber : targets) {
+            if (subscriber.offer(event))
+                subscriber.schedule();
+            else {
+                LOG.info(name + " feed evicted a slow subscriber");
+                subscriber.close();
+            }
+        }
+    }
+
+    /**
+     * A single open subscription and the events waiting to be written to it
+     */
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final Queue<ChangeEvent<T>> buffer = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+        private volatile boolean reset;  // Send a reset event before anything else
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * Buffers an event for delivery
+         *
+         * @return false if the buffer is full and the subscriber should be evicted
+         */
+        boolean offer(ChangeEvent<T> event) {
+            if (closed)
+                return true;
+            if (pending.incrementAndGet() > bufferSize)
+                return false;
+            buffer.add(event);
+            return true;
+        }
+
+        /**
+         * Makes sure a drain is running if there is anything to send
+         */
+        void schedule() {
+            if ((reset || !buffer.isEmpty()) && !closed && draining.compareAndSet(false,true))
+                dispatcher.execute(this::drain);
+        }
+
+        /**
+         * Writes the buffered events to the emitter
+         */
+        private void drain() {
+            try {
+                if (reset) {
+                    reset = false;
+                    emitter.send(SseEmitter.event().name(RESET_EVENT).data(""));
+                }
+                ChangeEvent<T> event;
+                while (!closed && (event = buffer.poll()) != null) {
+                    pending.decrementAndGet();
+                    emitter.send(SseEmitter.event()
+                        .id(eventId(event.getSequence()))
+                        .name(event.getType().name().toLowerCase())
+                        .data(event,MediaType.APPLICATION_JSON));
+                }
+            }
+            catch(IOException | IllegalStateException e) {
+                close();  // the client went away or the emitter already completed
+            }
+            finally {
+                draining.set(false);
+            }
+            schedule();  // pick up anything offered after the last poll
+        }
+
+        /**
+         * Ends the subscription and releases its buffered events
+         */
+        void close() {
+            if (closed)
+                return;
+            closed = true;
+            subscribers.remove(this);
+            buffer.clear();
+            emitter.complete();
+        }
+    }
+}
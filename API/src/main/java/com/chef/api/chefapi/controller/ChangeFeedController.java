@@ -0,0 +1,98 @@
+package com.chef.api.chefapi.controller;
+
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.logging.Logger;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.Recipe;
+import com.chef.api.chefapi.persistence.IngredientDAO;
+import com.chef.api.chefapi.persistence.RecipeDAO;
+
+/**
+ * Handles the Server-Sent Events change feeds for the Recipe and Ingredient resources
+ * <p>
+ * Clients open a feed once and receive a {@code created}, {@code updated} or
+ * {@code deleted} event for every change instead of polling the full lists. Every
+ * event carries the time the server started and its sequence number as the event id,
+ * so a reconnecting {@code EventSource} resumes automatically through the
+ * {@code Last-Event-ID} header. A {@code reset} event means the client missed too much,
+ * or its last event is from before the server restarted, and should fetch the full
+ * list again.
+ * 
+ * @author SWEN Faculty
+ */
+@RestController
+public class ChangeFeedController {
+    private static final Logger LOG = Logger.getLogger(ChangeFeedController.class.getName());
+    private ChangeFeed<Recipe> recipeFeed;
+    private ChangeFeed<Ingredient> ingredientFeed;
+
+    /**
+     * Creates a REST API controller serving the change feeds
+     * 
+     * @param recipeDao The {@link RecipeDAO Recipe Data Access Object} whose changes are published
+     * @param ingredientDao The {@link IngredientDAO Ingredient Data Access Object} whose changes are published
+     * @param historySize Number of recent events kept so clients can resume
+     * @param bufferSize Number of undelivered events after which a subscriber is evicted
+     * @param timeout Milliseconds after which a subscription is closed and the client reconnects
+     * @param dispatcher Executor that writes the events to the subscribers
+     * <br>
+     * These dependencies are injected by the Spring Framework
+     */
+    public ChangeFeedController(RecipeDAO recipeDao, IngredientDAO ingredientDao,
+            @Value("${chef.feed.history:1024}") int historySize,
+            @Value("${chef.feed.buffer:64}") int bufferSize,
+            @Value("${chef.feed.timeout:300000}") long timeout,
+            @Qualifier("feedExecutor") Executor dispatcher) {
+        recipeFeed = new ChangeFeed<>("recipes",historySize,bufferSize,timeout,dispatcher);
+        ingredientFeed = new ChangeFeed<>("ingredients",historySize,bufferSize,timeout,dispatcher);
+        recipeDao.addChangeListener(recipeFeed);
+        ingredientDao.addChangeListener(ingredientFeed);
+    }
+
+    /**
+     * Responds to the GET request for the {@linkplain Recipe recipe} change feed
+     * 
+     * @param lastEventId The id of the last event the client received, sent by
+     * {@code EventSource} when it reconnects
+     * @param since Alternative to the header for clients that resume explicitly
+     * 
+     * @return The event stream
+     * <p>
+     * Example: GET http://localhost:8080/recipes/changes
+     */
+    @GetMapping(path = "recipes/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getRecipeChanges(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(required = false) String since) {
+        LOG.info("GET /recipes/changes");
+        return recipeFeed.subscribe(lastEventId != null ? lastEventId : since);
+    }
+
+    /**
+     * Responds to the GET request for the {@linkplain Ingredient ingredient} change feed
+     * 
+     * @param lastEventId The id of the last event the client received, sent by
+     * {@code EventSource} when it reconnects
+     * @param since Alternative to the header for clients that resume explicitly
+     * 
+     * @return The event stream
+     * <p>
+     * Example: GET http://localhost:8080/ingredients/changes
+     */
+    @GetMapping(path = "ingredients/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getIngredientChanges(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(required = false) String since) {
+        LOG.info("GET /ingredients/changes");
+        return ingredientFeed.subscribe(lastEventId != null ? lastEventId : since);
+    }
+}
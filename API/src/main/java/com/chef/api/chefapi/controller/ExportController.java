@@ -0,0 +1,165 @@
+package com.chef.api.chefapi.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.Recipe;
+import com.chef.api.chefapi.persistence.CatalogSnapshot;
+import com.chef.api.chefapi.persistence.IngredientDAO;
+import com.chef.api.chefapi.persistence.RecipeDAO;
+import com.chef.api.chefapi.persistence.Snapshot;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Handles the REST API requests for an export of the whole catalog
+ * <p>
+ * An export is a {@linkplain CatalogSnapshot point-in-time consistent snapshot} of
+ * both stores, taken without locking them when the request arrives and then streamed
+ * to the client entity by entity through a compressing stream. Nothing is copied or
+ * held besides the snapshot itself, which is the stores' own cache as it was, so
+ * memory stays constant whatever the size of the catalog, and writers carry on
+ * while a slow client downloads it.
+ * <p>
+ * {@literal @}RestController Spring annotation identifies this class as a REST API
+ * method handler to the Spring framework
+ * 
+ * @author SWEN Faculty
+ */
+@RestController
+@RequestMapping("export")
+public class ExportController {
+    private static final Logger LOG = Logger.getLogger(ExportController.class.getName());
+    private static final int BUFFER = 64 * 1024;
+    private RecipeDAO recipeDao;
+    private IngredientDAO ingredientDao;
+    private ObjectMapper objectMapper;
+
+    /**
+     * Creates a REST API controller to reponds to requests
+     * 
+     * @param recipeDao The {@link RecipeDAO Recipe Data Access Object} whose recipes are exported
+     * @param ingredientDao The {@link IngredientDAO Ingredient Data Access Object} whose ingredients are exported
+     * @param objectMapper Provides conversion of the entities to JSON
+     * <br>
+     * These dependencies are injected by the Spring Framework
+     */
+    public ExportController(RecipeDAO recipeDao, IngredientDAO ingredientDao, ObjectMapper objectMapper) {
+        this.recipeDao = recipeDao;
+        this.ingredientDao = ingredientDao;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Responds to the GET request for an export of all {@linkplain Recipe recipes} and
+     * {@linkplain Ingredient ingredients}
+     * 
+     * @param format ndjson for gzip compressed newline delimited JSON: a first line
+     * {"snapshot":{"ingredients":count,"recipes":count}}, then a line {"ingredient":{...}}
+     * per ingredient and a line {"recipe":{...}} per recipe; zip for a zip of
+     * ingredients.json and recipes.json in the format of the data files
+     * 
+     * @return ResponseEntity streaming the export and HTTP status of OK<br>
+     * ResponseEntity with HTTP status of BAD_REQUEST if the format is unknown<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     * <p>
+     * Example: Back up the catalog as data files
+     * GET http://localhost:8080/export?format=zip
+     */
+    @GetMapping("")
+    public ResponseEntity<StreamingResponseBody> exportCatalog(@RequestParam(defaultValue = "ndjson") String format) {
+        LOG.info("GET /export?format=" + format);
+        if (!format.equals("ndjson") && !format.equals("zip"))
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        CatalogSnapshot snapshot;
+        try {
+            snapshot = CatalogSnapshot.take(recipeDao,ingredientDao);
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        StreamingResponseBody body;
+        if (format.equals("zip")) {
+            headers.setContentType(MediaType.parseMediaType("application/zip"));
+            headers.setContentDisposition(ContentDisposition.attachment().filename("chef-export.zip").build());
+            body = out -> writeZip(snapshot,out);
+        }
+        else {
+            headers.setContentType(MediaType.parseMediaType("application/gzip"));
+            headers.setContentDisposition(ContentDisposition.attachment().filename("chef-export.ndjson.gz").build());
+            body = out -> writeNdjson(snapshot,out);
+        }
+        return new ResponseEntity<>(body,headers,HttpStatus.OK);
+    }
+
+    /**
+     * Writes a snapshot as gzip compressed newline delimited JSON
+     */
+    void writeNdjson(CatalogSnapshot snapshot, OutputStream out) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out,BUFFER);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(gzip);
+        generator.setRootValueSeparator(null);
+        generator.writeStartObject();
+        generator.writeObjectFieldStart("snapshot");
+        generator.writeNumberField("ingredients",snapshot.getIngredients().size());
+        generator.writeNumberField("recipes",snapshot.getRecipes().size());
+        generator.writeEndObject();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+        writeLines(generator,"ingredient",snapshot.getIngredients());
+        writeLines(generator,"recipe",snapshot.getRecipes());
+        generator.flush();
+        gzip.finish();
+    }
+
+    private static void writeLines(JsonGenerator generator, String field, Snapshot<?> entities) throws IOException {
+        for (Object entity : entities) {
+            generator.writeStartObject();
+            generator.writeObjectField(field,entity);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+    }
+
+    /**
+     * Writes a snapshot as a zip of the data files
+     */
+    void writeZip(CatalogSnapshot snapshot, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        writeEntry(zip,"ingredients.json",snapshot.getIngredients());
+        writeEntry(zip,"recipes.json",snapshot.getRecipes());
+        zip.finish();
+    }
+
+    private void writeEntry(ZipOutputStream zip, String name, Snapshot<?> entities) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(zip)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.writeStartArray();
+        for (Object entity : entities)
+            generator.writeObject(entity);
+        generator.writeEndArray();
+        generator.close();
+        zip.closeEntry();
+    }
+}
@@ -0,0 +1,203 @@
+package com.chef.api.chefapi.controller;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Remembers the responses to the writes sent with an {@value #HEADER} header, so a
+ * client retrying a write it got no answer to does not make the change twice
+ * <p>
+ * A write is remembered under its endpoint and key, with a fingerprint of its
+ * request. Sent again with the same request, it is answered with the remembered
+ * response, marked by an {@value #REPLAYED} header, without reaching the store; a
+ * retry arriving while the write is still running waits for its response. Sent again
+ * with a different request, it is refused with UNPROCESSABLE_ENTITY, as the key was
+ * reused by mistake. Writes that were shed or failed are forgotten, so their retries
+ * are made again.
+ * <br>
+ * Up to {@code chef.idempotency.capacity} writes are remembered for
+ * {@code chef.idempotency.ttl} milliseconds, the oldest being forgotten first. A
+ * write is not forgotten while it is still running, even if that leaves more than
+ * the capacity remembered for a moment.
+ * 
+ * {@literal @}Component Spring annotation instantiates a single instance of this
+ * class and injects the instance into other classes as needed
+ * 
+ * @author SWEN Faculty
+ */
+@Component
+public class IdempotencyCache {
+    private static final Logger LOG = Logger.getLogger(IdempotencyCache.class.getName());
+    static final String HEADER = "Idempotency-Key";
+    static final String REPLAYED = "Idempotent-Replayed";
+    private static final int MAX_KEY = 255;     // Longest key accepted
+
+    private final ObjectMapper objectMapper;
+    private final long ttl;             // Milliseconds a write is remembered for
+    private final Map<String,Entry> entries;    // By endpoint and key, oldest first; guarded by this
+
+    /**
+     * Creates the cache of write responses
+     * 
+     * @param objectMapper Serializes the requests that are fingerprinted
+     * @param capacity Most writes remembered
+     * @param ttl Milliseconds a write is remembered for
+     */
+    @Autowired
+    public IdempotencyCache(ObjectMapper objectMapper, @Value("${chef.idempotency.capacity:10000}") int capacity,
+            @Value("${chef.idempotency.ttl:3600000}") long ttl) {
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        entries = new LinkedHashMap<String,Entry>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String,Entry> eldest) {
+                // A write still running is kept, so its retries keep waiting for it
+                // rather than making it again
+                for (Iterator<Entry> oldest = values().iterator(); size() > capacity && oldest.hasNext();) {
+                    if (oldest.next().response.isDone())
+                        oldest.remove();
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Runs a write once per key
+     * 
+     * @param key The {@value #HEADER} of the request, null if it has none
+     * @param endpoint The method and path the write was sent to
+     * @param request The parts of the request that make the write, such as its body
+     * @param write Makes the write and returns its response
+     * 
+     * @return The response of the write, or the remembered response if it was made already<br>
+     * ResponseEntity with HTTP status of UNPROCESSABLE_ENTITY if the key was used for another request<br>
+     * ResponseEntity with HTTP status of BAD_REQUEST if the key is empty or too long
+     */
+    public <T> CompletableFuture<ResponseEntity<T>> execute(String key, String endpoint, Object request,
+            Supplier<CompletableFuture<ResponseEntity<T>>> write) {
+        if (key == null)
+            return write.get();
+        if (key.isEmpty() || key.length() > MAX_KEY)
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        byte[] fingerprint;
+        try {
+            fingerprint = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+        }
+        catch(JsonProcessingException | NoSuchAlgorithmException e) {
+            LOG.log(Level.WARNING,"Could not fingerprint a write, making it without its key: " + e.getLocalizedMessage());
+            return write.get();
+        }
+
+        String scoped = endpoint + " " + key;
+        CompletableFuture<ResponseEntity<T>> response = new CompletableFuture<>();
+        Entry entry = new Entry(fingerprint,System.currentTimeMillis(),response);
+        synchronized (this) {
+            expire(entry.created);
+            Entry existing = entries.putIfAbsent(scoped,entry);
+            if (existing != null) {
+                if (!MessageDigest.isEqual(existing.fingerprint,fingerprint)) {
+                    LOG.info("Refused a reused " + HEADER + " on " + endpoint);
+                    return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.UNPROCESSABLE_ENTITY));
+                }
+                LOG.info("Replayed the response to " + endpoint);
+                return replay(existing.<T>response());
+            }
+        }
+
+        CompletableFuture<ResponseEntity<T>> result;
+        try {
+            result = write.get();
+        }
+        catch(RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((made,e) -> {
+            // Forgotten before the client learns of it, so its retry is made again
+            if (e != null || made.getStatusCode().is5xxServerError()
+                    || made.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS)
+                forget(scoped,entry);
+            if (e != null)
+                response.completeExceptionally(e);
+            else
+                response.complete(made);
+        });
+        return response;
+    }
+
+    /**
+     * Retrieves the number of writes remembered, including expired ones not yet dropped
+     * 
+     * @return The number of writes remembered
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drops the writes remembered for longer than the time to live, which are the
+     * oldest ones, unless they are still running
+     */
+    private void expire(long now) {
+        for (Iterator<Entry> oldest = entries.values().iterator(); oldest.hasNext();) {
+            Entry entry = oldest.next();
+            if (now - entry.created < ttl)
+                break;
+            if (entry.response.isDone())
+                oldest.remove();
+        }
+    }
+
+    private synchronized void forget(String scoped, Entry entry) {
+        entries.remove(scoped,entry);
+    }
+
+    /**
+     * Copies a remembered response, marked as replayed
+     */
+    private static <T> CompletableFuture<ResponseEntity<T>> replay(CompletableFuture<ResponseEntity<T>> response) {
+        return response.thenApply(made -> ResponseEntity.status(made.getStatusCode())
+            .headers(made.getHeaders())
+            .header(REPLAYED,"true")
+            .body(made.getBody()));
+    }
+
+    /**
+     * A remembered write
+     */
+    private static class Entry {
+        final byte[] fingerprint;
+        final long created;
+        private final CompletableFuture<?> response;
+
+        Entry(byte[] fingerprint, long created, CompletableFuture<?> response) {
+            this.fingerprint = fingerprint;
+            this.created = created;
+            this.response = response;
+        }
+
+        /**
+         * Retrieves the response, of the type of the endpoint the entry is scoped to
+         */
+        @SuppressWarnings("unchecked")
+        <T> CompletableFuture<ResponseEntity<T>> response() {
+            return (CompletableFuture<ResponseEntity<T>>) response;
+        }
+    }
+}
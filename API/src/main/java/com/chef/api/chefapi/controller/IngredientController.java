@@ -1,5 +1,6 @@
 package com.chef.api.chefapi.controller;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -8,14 +9,20 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.chef.api.chefapi.persistence.IngredientAsyncDAO;
 import com.chef.api.chefapi.persistence.IngredientDAO;
 import com.chef.api.chefapi.model.Ingredient;
 
@@ -33,17 +40,30 @@ import com.chef.api.chefapi.model.Ingredient;
 @RequestMapping("ingredients")
 public class IngredientController {
     private static final Logger LOG = Logger.getLogger(IngredientController.class.getName());
+    private static final int MAX_LIMIT = 1000;
     private IngredientDAO ingredientDao;
+    private IngredientAsyncDAO ingredientAsyncDao;
+    private AdmissionControl admission;
+    private IdempotencyCache idempotency;
 
     /**
      * Creates a REST API controller to reponds to requests
      * 
      * @param ingredientDao The {@link IngredientDAO Ingredient Data Access Object} to perform CRUD operations
+     * @param ingredientAsyncDao The {@link IngredientAsyncDAO asynchronous Ingredient Data Access Object} the
+     * write operations are handed to, so the servlet thread is released while they complete
+     * @param admission The {@link AdmissionControl admission control} every write has to pass
+     * @param idempotency The {@link IdempotencyCache responses} writes sent again are answered from
      * <br>
-     * This dependency is injected by the Spring Framework
+     * These dependencies are injected by the Spring Framework
      */
-    public IngredientController(IngredientDAO ingredientDao) {
+    @Autowired
+    public IngredientController(IngredientDAO ingredientDao, IngredientAsyncDAO ingredientAsyncDao, AdmissionControl admission,
+            IdempotencyCache idempotency) {
         this.ingredientDao = ingredientDao;
+        this.ingredientAsyncDao = ingredientAsyncDao;
+        this.admission = admission;
+        this.idempotency = idempotency;
     }
 
     /**
@@ -126,27 +146,79 @@ public class IngredientController {
     }
 
     /**
-     * Creates a {@linkplain Ingredient ingredient} with the provided ingredient object
+     * Responds to the GET request for the {@linkplain Ingredient ingredients} with the given
+     * name, ignoring case, accents and extra whitespace
      * 
-     * @param ingredient - The {@link Ingredient ingredient} to create
+     * @param name The name to look up
      * 
-     * @return ResponseEntity with created {@link Ingredient ingredient} object and HTTP status of CREATED<br>
-     * ResponseEntity with HTTP status of CONFLICT if {@link Ingredient ingredient} object already exists<br>
+     * @return ResponseEntity with array of {@link Ingredient ingredient} objects (may be empty) and
+     * HTTP status of OK<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     * <p>
+     * Example: Find the ingredients named tomato, however they were capitalized
+     * GET http://localhost:8080/ingredients/lookup?name=Tomato
      */
-    @PostMapping("")
-    public ResponseEntity<Ingredient> createIngredient(@RequestBody Ingredient ingredient) {
-        LOG.info("POST /ingredients " + ingredient);
+    @GetMapping("/lookup")
+    public ResponseEntity<Ingredient[]> lookupIngredients(@RequestParam String name) {
+        LOG.info("GET /ingredients/lookup?name=" + name);
+        try {
+            return new ResponseEntity<Ingredient[]>(ingredientDao.findIngredientsByName(name),HttpStatus.OK);
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
 
-        //Replaced with my implementation - Rylie
+    /**
+     * Responds to the GET request for the {@linkplain Ingredient ingredients} whose name starts
+     * with the given prefix, ignoring case, accents and extra whitespace
+     * 
+     * @param prefix The prefix to match against
+     * @param limit The most number of {@link Ingredient ingredients} to return, at most 1000
+     * 
+     * @return ResponseEntity with array of {@link Ingredient ingredient} objects in order of name
+     * (may be empty) and HTTP status of OK<br>
+     * ResponseEntity with HTTP status of BAD_REQUEST if limit is not positive<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     * <p>
+     * Example: Find the first ten ingredients starting with "tom"
+     * GET http://localhost:8080/ingredients/prefix?prefix=tom&limit=10
+     */
+    @GetMapping("/prefix")
+    public ResponseEntity<Ingredient[]> prefixIngredients(@RequestParam String prefix,
+            @RequestParam(defaultValue = "50") int limit) {
+        LOG.info("GET /ingredients/prefix?prefix=" + prefix + "&limit=" + limit);
+        if (limit <= 0)
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        try {
+            Ingredient[] ingredients = ingredientDao.findIngredientsByPrefix(prefix,Math.min(limit,MAX_LIMIT));
+            return new ResponseEntity<Ingredient[]>(ingredients,HttpStatus.OK);
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Resolves a batch of names to {@linkplain Ingredient ingredient} ids in one request,
+     * ignoring case, accents and extra whitespace
+     * 
+     * @param names The names to resolve
+     * 
+     * @return ResponseEntity with an object mapping each name to the lowest id of the
+     * {@link Ingredient ingredients} with that name, or null if there are none, and HTTP status of OK<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     * <p>
+     * Example: Resolve the ingredients of a recipe being built
+     * POST http://localhost:8080/ingredients/resolve ["Tomato","basil "]
+     */
+    @PostMapping("/resolve")
+    public ResponseEntity<Map<String,Integer>> resolveIngredients(@RequestBody List<String> names) {
+        LOG.info("POST /ingredients/resolve " + names.size() + " names");
         try {
-            Ingredient []ingredients = ingredientDao.getIngredients();
-            for(Ingredient h : ingredients){
-                if(h == ingredient)
-                    return new ResponseEntity<>(HttpStatus.CONFLICT);
-            }
-            Ingredient newIngredient = ingredientDao.createIngredient(ingredient);
-            return new ResponseEntity<Ingredient>(newIngredient,HttpStatus.CREATED);
+            return new ResponseEntity<Map<String,Integer>>(ingredientDao.resolveIngredients(names),HttpStatus.OK);
         }
         catch(IOException e) {
             LOG.log(Level.SEVERE,e.getLocalizedMessage());
@@ -155,56 +227,105 @@ public class IngredientController {
     }
 
     /**
-     * Updates the {@linkplain Ingredient ingredient} with the provided {@linkplain Ingredient ingredient} object, if it exists
+     * Creates a {@linkplain Ingredient ingredient} with the provided ingredient object,
+     * once per idempotency key
+     * 
+     * @param ingredient - The {@link Ingredient ingredient} to create
+     * @param idempotencyKey Identifies the write across retries, as explained by {@link IdempotencyCache}
+     * 
+     * @return ResponseEntity with created {@link Ingredient ingredient} object and HTTP status of CREATED<br>
+     * ResponseEntity with HTTP status of CONFLICT if {@link Ingredient ingredient} object already exists<br>
+     * ResponseEntity with HTTP status of UNPROCESSABLE_ENTITY if the key was used for another request<br>
+     * ResponseEntity with HTTP status of TOO_MANY_REQUESTS or SERVICE_UNAVAILABLE if the write was shed<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     */
+    @PostMapping("")
+    public CompletableFuture<ResponseEntity<Ingredient>> createIngredient(@RequestBody Ingredient ingredient,
+            @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey) {
+        LOG.info("POST /ingredients " + ingredient);
+
+        //Replaced with my implementation - Rylie
+        return idempotency.execute(idempotencyKey,"POST /ingredients",ingredient,() -> admission.submit(() ->
+            ingredientAsyncDao.createIngredient(ingredient)
+                .thenApply(newIngredient -> {
+                    if (newIngredient != null)
+                        return new ResponseEntity<Ingredient>(newIngredient,HttpStatus.CREATED);
+                    else
+                        return new ResponseEntity<Ingredient>(HttpStatus.CONFLICT);
+                })
+                .exceptionally(this::handleFailure)));
+    }
+
+    /**
+     * Updates the {@linkplain Ingredient ingredient} with the provided {@linkplain Ingredient ingredient}
+     * object, if it exists, once per idempotency key
      * 
      * @param ingredient The {@link Ingredient ingredient} to update
+     * @param idempotencyKey Identifies the write across retries, as explained by {@link IdempotencyCache}
      * 
      * @return ResponseEntity with updated {@link Ingredient ingredient} object and HTTP status of OK if updated<br>
      * ResponseEntity with HTTP status of NOT_FOUND if not found<br>
+     * ResponseEntity with HTTP status of UNPROCESSABLE_ENTITY if the key was used for another request<br>
+     * ResponseEntity with HTTP status of TOO_MANY_REQUESTS or SERVICE_UNAVAILABLE if the write was shed<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
      */
     @PutMapping("")
-    public ResponseEntity<Ingredient> updateIngredient(@RequestBody Ingredient ingredient) {
+    public CompletableFuture<ResponseEntity<Ingredient>> updateIngredient(@RequestBody Ingredient ingredient,
+            @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey) {
         LOG.info("PUT /ingredients " + ingredient);
 
         //Replaced with my implementation - Rylie
-        try {
-            Ingredient h = ingredientDao.updateIngredient(ingredient);
-            if(h != null)
-                return new ResponseEntity<Ingredient>(h,HttpStatus.OK);
-            else
-                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
-        catch(IOException e) {
-            LOG.log(Level.SEVERE,e.getLocalizedMessage());
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+        return idempotency.execute(idempotencyKey,"PUT /ingredients",ingredient,() -> admission.submit(() ->
+            ingredientAsyncDao.updateIngredient(ingredient)
+                .thenApply(h -> {
+                    if(h != null)
+                        return new ResponseEntity<Ingredient>(h,HttpStatus.OK);
+                    else
+                        return new ResponseEntity<Ingredient>(HttpStatus.NOT_FOUND);
+                })
+                .exceptionally(this::handleFailure)));
     }
 
     /**
-     * Deletes a {@linkplain Ingredient ingredient} with the given id
+     * Deletes a {@linkplain Ingredient ingredient} with the given id, once per idempotency
+     * key, so a retry is answered OK rather than NOT_FOUND
      * 
      * @param id The id of the {@link Ingredient ingredient} to deleted
+     * @param idempotencyKey Identifies the write across retries, as explained by {@link IdempotencyCache}
      * 
      * @return ResponseEntity HTTP status of OK if deleted<br>
      * ResponseEntity with HTTP status of NOT_FOUND if not found<br>
+     * ResponseEntity with HTTP status of UNPROCESSABLE_ENTITY if the key was used for another request<br>
+     * ResponseEntity with HTTP status of TOO_MANY_REQUESTS or SERVICE_UNAVAILABLE if the write was shed<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Ingredient> deleteIngredient(@PathVariable int id) {
+    public CompletableFuture<ResponseEntity<Ingredient>> deleteIngredient(@PathVariable int id,
+            @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey) {
         LOG.info("DELETE /ingredients/" + id);
 
         //Replaced with my implementation - Rylie
-        try {
-            boolean h = ingredientDao.deleteIngredient(id);
-            if(h)
-                return new ResponseEntity<Ingredient>(HttpStatus.OK);
-            else
-                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
-        catch(IOException e) {
-            LOG.log(Level.SEVERE,e.getLocalizedMessage());
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+        return idempotency.execute(idempotencyKey,"DELETE /ingredients/" + id,id,() -> admission.submit(() ->
+            ingredientAsyncDao.deleteIngredient(id)
+                .thenApply(h -> {
+                    if(h)
+                        return new ResponseEntity<Ingredient>(HttpStatus.OK);
+                    else
+                        return new ResponseEntity<Ingredient>(HttpStatus.NOT_FOUND);
+                })
+                .exceptionally(this::handleFailure)));
+    }
+
+    /**
+     * Maps a failed asynchronous DAO operation to a response
+     * 
+     * @param e The exception the operation completed with
+     * 
+     * @return ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR
+     */
+    private <T> ResponseEntity<T> handleFailure(Throwable e) {
+        Throwable cause = (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+        LOG.log(Level.SEVERE,cause.getLocalizedMessage());
+        return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
     }
 }
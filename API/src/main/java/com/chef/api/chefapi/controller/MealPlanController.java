@@ -0,0 +1,82 @@
+package com.chef.api.chefapi.controller;
+
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.chef.api.chefapi.model.MealPlan;
+import com.chef.api.chefapi.model.User;
+import com.chef.api.chefapi.persistence.UserDAO;
+import com.chef.api.chefapi.service.MealPlanner;
+
+/**
+ * Handles the REST API requests for a user's meal plan
+ * <p>
+ * {@literal @}RestController Spring annotation identifies this class as a REST API
+ * method handler to the Spring framework
+ * 
+ * @author SWEN Faculty
+ */
+@RestController
+@RequestMapping("users")
+public class MealPlanController {
+    private static final Logger LOG = Logger.getLogger(MealPlanController.class.getName());
+    private UserDAO userDao;
+    private MealPlanner mealPlanner;
+
+    /**
+     * Creates a REST API controller to reponds to requests
+     * 
+     * @param userDao The {@link UserDAO User Data Access Object} the pantries are read from
+     * @param mealPlanner The {@link MealPlanner planner} that picks the recipes
+     * <br>
+     * These dependencies are injected by the Spring Framework
+     */
+    public MealPlanController(UserDAO userDao, MealPlanner mealPlanner) {
+        this.userDao = userDao;
+        this.mealPlanner = mealPlanner;
+    }
+
+    /**
+     * Responds to the GET request for a {@linkplain MealPlan meal plan} that makes the most
+     * of the pantry of the {@linkplain User user} with the given id
+     * 
+     * @param id The id of the {@link User user}
+     * @param k The number of recipes to plan
+     * @param budget The time in milliseconds the planner may search for
+     * 
+     * @return ResponseEntity with the {@link MealPlan meal plan} and HTTP status of OK<br>
+     * ResponseEntity with HTTP status of NOT_FOUND if the {@link User user} does not exist<br>
+     * ResponseEntity with HTTP status of BAD_REQUEST if k or budget is not positive<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     * <p>
+     * Example: Plan seven recipes for user 0, searching for at most half a second
+     * GET http://localhost:8080/users/0/mealplan?k=7&budget=500
+     */
+    @GetMapping("/{id}/mealplan")
+    public ResponseEntity<MealPlan> getMealPlan(@PathVariable int id,
+            @RequestParam(defaultValue = "7") int k,
+            @RequestParam(defaultValue = "200") long budget) {
+        LOG.info("GET /users/" + id + "/mealplan?k=" + k + "&budget=" + budget);
+        if (k <= 0 || budget <= 0)
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        try {
+            User user = userDao.getUser(id);
+            if (user == null)
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            return new ResponseEntity<MealPlan>(mealPlanner.plan(user.getPantry(),k,budget),HttpStatus.OK);
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.chef.api.chefapi.controller;
+
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Handles the readiness probe used by load balancers and autoscalers
+ * <p>
+ * {@literal @}RestController Spring annotation identifies this class as a REST API
+ * method handler to the Spring framework
+ * 
+ * @author SWEN Faculty
+ */
+@RestController
+public class ReadinessController {
+    private ApplicationAvailability availability;
+
+    /**
+     * Creates a REST API controller reporting the application's readiness
+     * 
+     * @param availability The application availability state maintained by Spring Boot
+     * <br>
+     * This dependency is injected by the Spring Framework
+     */
+    public ReadinessController(ApplicationAvailability availability) {
+        this.availability = availability;
+    }
+
+    /**
+     * Responds to the GET request for the readiness of the application
+     * 
+     * @return ResponseEntity with the readiness state and HTTP status of OK if the data
+     * stores are loaded and requests can be served<br>
+     * ResponseEntity with the readiness state and HTTP status of SERVICE_UNAVAILABLE otherwise
+     */
+    @GetMapping("ready")
+    public ResponseEntity<ReadinessState> getReadiness() {
+        ReadinessState state = availability.getReadinessState();
+        if (state == ReadinessState.ACCEPTING_TRAFFIC)
+            return new ResponseEntity<ReadinessState>(state,HttpStatus.OK);
+        else
+            return new ResponseEntity<ReadinessState>(state,HttpStatus.SERVICE_UNAVAILABLE);
+    }
+}
@@ -1,5 +1,6 @@
 package com.chef.api.chefapi.controller;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -8,14 +9,22 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.chef.api.chefapi.model.Recipe;
+import com.chef.api.chefapi.persistence.RecipeAsyncDAO;
 import com.chef.api.chefapi.persistence.RecipeDAO;
+import com.chef.api.chefapi.persistence.RecipePopularity;
+import com.chef.api.chefapi.persistence.RecipeSearch;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -33,17 +42,37 @@ import java.util.logging.Logger;
 @RequestMapping("recipes")
 public class RecipeController {
     private static final Logger LOG = Logger.getLogger(RecipeController.class.getName());
+    static final int MAX_RANKED = 100;  // The most recipes a ranked search returns
+    static final int MAX_TOP = 100;     // The most trending recipes returned
     private RecipeDAO recipeDao;
+    private RecipeAsyncDAO recipeAsyncDao;
+    private RecipeSearch recipeSearch;
+    private RecipePopularity popularity;
+    private AdmissionControl admission;
+    private IdempotencyCache idempotency;
 
     /**
      * Creates a REST API controller to reponds to requests
      * 
      * @param recipeDao The {@link RecipeDAO Recipe Data Access Object} to perform CRUD operations
+     * @param recipeAsyncDao The {@link RecipeAsyncDAO asynchronous Recipe Data Access Object} the
+     * write operations are handed to, so the servlet thread is released while they complete
+     * @param recipeSearch The {@link RecipeSearch search layer} name searches are answered by
+     * @param popularity The {@link RecipePopularity view counts} the trending recipes are ranked by
+     * @param admission The {@link AdmissionControl admission control} every write has to pass
+     * @param idempotency The {@link IdempotencyCache responses} writes sent again are answered from
      * <br>
-     * This dependency is injected by the Spring Framework
+     * These dependencies are injected by the Spring Framework
      */
-    public RecipeController(RecipeDAO recipeDao) {
+    @Autowired
+    public RecipeController(RecipeDAO recipeDao, RecipeAsyncDAO recipeAsyncDao, RecipeSearch recipeSearch,
+            RecipePopularity popularity, AdmissionControl admission, IdempotencyCache idempotency) {
         this.recipeDao = recipeDao;
+        this.recipeAsyncDao = recipeAsyncDao;
+        this.recipeSearch = recipeSearch;
+        this.popularity = popularity;
+        this.admission = admission;
+        this.idempotency = idempotency;
     }
 
     /**
@@ -60,8 +89,10 @@ public class RecipeController {
         LOG.info("GET /recipes/" + id);
         try {
             Recipe recipe = recipeDao.getRecipe(id);
-            if (recipe != null)
+            if (recipe != null) {
+                popularity.recordView(id);
                 return new ResponseEntity<Recipe>(recipe,HttpStatus.OK);
+            }
             else
                 return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -72,20 +103,66 @@ public class RecipeController {
     }
 
     /**
-     * Responds to the GET request for all {@linkplain Recipe recipes}
+     * Responds to the GET request for the trending {@linkplain Recipe recipes}, those
+     * viewed the most lately
+     * <br>
+     * The ranking is refreshed in the background, so it lags the views by a moment
+     * 
+     * @param k The number of {@link Recipe recipes} returned, at most {@value #MAX_TOP}
      * 
-     * @return ResponseEntity with array of {@link Recipe recipe} objects (may be empty) and
-     * HTTP status of OK<br>
+     * @return ResponseEntity with array of {@link Recipe recipe} objects, most viewed first,
+     * (may be empty) and HTTP status of OK<br>
+     * ResponseEntity with HTTP status of BAD_REQUEST if k is out of range<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     * <p>
+     * Example: The five trending recipes
+     * GET http://localhost:8080/recipes/top?k=5
+     */
+    @GetMapping("/top")
+    public ResponseEntity<Recipe[]> getTopRecipes(@RequestParam(defaultValue = "5") int k) {
+        LOG.info("GET /recipes/top?k=" + k);
+        if (k < 1 || k > MAX_TOP)
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        try {
+            List<Recipe> recipes = new ArrayList<>();
+            for (int id : popularity.top(k)) {
+                Recipe recipe = recipeDao.getRecipe(id);
+                if (recipe != null)     // Deleted since it was viewed
+                    recipes.add(recipe);
+            }
+            return new ResponseEntity<Recipe[]>(recipes.toArray(new Recipe[0]),HttpStatus.OK);
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Responds to the GET request for all {@linkplain Recipe recipes}, projected on some of their fields
+     * 
+     * @param fields The fields to respond with, such as id,name, as parsed by {@link RecipeProjection};
+     * all of them if not given
+     * 
+     * @return ResponseEntity with array of {@link Recipe recipe} objects, or of their projections,
+     * (may be empty) and HTTP status of OK<br>
+     * ResponseEntity with HTTP status of BAD_REQUEST if fields names an unknown field<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     * <p>
+     * Example: List the ids and names of all recipes
+     * GET http://localhost:8080/recipes?fields=id,name
      */
     @GetMapping("")
-    public ResponseEntity<Recipe[]> getRecipes() {
-        LOG.info("GET /recipes");
+    public ResponseEntity<?> getRecipes(@RequestParam(required = false) String fields) {
+        LOG.info("GET /recipes" + (fields != null ? "?fields=" + fields : ""));
+        RecipeProjection projection = fields == null ? null : projection(fields);
+        if (fields != null && projection == null)
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         //Replaced with my implementation - Rylie
         try {
             Recipe[] recipes = recipeDao.getRecipes();
             if(recipes != null)
-                return new ResponseEntity<Recipe[]>(recipes,HttpStatus.OK);
+                return project(recipes,projection);
             else
                 return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -97,25 +174,54 @@ public class RecipeController {
 
     /**
      * Responds to the GET request for all {@linkplain Recipe recipes} whose name contains
-     * the text in name
+     * the text in name, in fuzzy mode whose name has words within a few typos of
+     * each word of it, or in ranked mode the k most relevant to its words, projected
+     * on some of their fields
      * 
      * @param name The name parameter which contains the text used to find the {@link Recipe recipes}
+     * @param fuzzy Whether to tolerate typos; fuzzy matches ignore case and come closest first
+     * @param distance The typos allowed per word in fuzzy mode, at most 2; by default
+     * none for words of up to two letters, one up to five letters and two beyond
+     * @param ranked Whether to rank by BM25 relevance over the words of recipe and ingredient names
+     * @param k The number of {@link Recipe recipes} returned in ranked mode, at most {@value #MAX_RANKED}
+     * @param fields The fields to respond with, such as id,name, as parsed by {@link RecipeProjection};
+     * all of them if not given
      * 
-     * @return ResponseEntity with array of {@link Recipe recipe} objects (may be empty) and
-     * HTTP status of OK<br>
+     * @return ResponseEntity with array of {@link Recipe recipe} objects, or of their projections,
+     * (may be empty) and HTTP status of OK<br>
+     * ResponseEntity with HTTP status of BAD_REQUEST if fields names an unknown field, both
+     * modes are asked for or k is out of range<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
      * <p>
      * Example: Find all recipes that contain the text "ma"
      * GET http://localhost:8080/recipes/?name=ma
+     * <br>
+     * Example: Find tomato soup despite the typos
+     * GET http://localhost:8080/recipes/?name=tomatoe sup&amp;fuzzy=true
+     * <br>
+     * Example: The five recipes most relevant to tomato and basil
+     * GET http://localhost:8080/recipes/?name=tomato basil&amp;ranked=true&amp;k=5
+     * <br>
+     * Example: The ids and names of the recipes that contain the text "ma"
+     * GET http://localhost:8080/recipes/?name=ma&amp;fields=id,name
      */
     @GetMapping("/")
-    public ResponseEntity<Recipe[]> searchRecipes(@RequestParam String name) {
-        LOG.info("GET /recipes/?name="+name);
+    public ResponseEntity<?> searchRecipes(@RequestParam String name,
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            @RequestParam(defaultValue = "-1") int distance,
+            @RequestParam(defaultValue = "false") boolean ranked,
+            @RequestParam(defaultValue = "10") int k,
+            @RequestParam(required = false) String fields) {
+        LOG.info("GET /recipes/?name=" + name + (fuzzy ? "&fuzzy=true" : "") + (ranked ? "&ranked=true&k=" + k : ""));
+        RecipeProjection projection = fields == null ? null : projection(fields);
+        if ((fields != null && projection == null) || (ranked && (fuzzy || k < 1 || k > MAX_RANKED)))
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         //Replaced with my implementation - Rylie
         try {
-            Recipe[] recipes = recipeDao.findRecipes(name);
+            Recipe[] recipes = ranked ? recipeSearch.rankRecipes(name,k)
+                : fuzzy ? recipeSearch.findRecipes(name,distance) : recipeSearch.findRecipes(name);
             if(recipes != null)
-                return new ResponseEntity<Recipe[]>(recipes,HttpStatus.OK);
+                return project(recipes,projection);
             else
                 return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -126,85 +232,182 @@ public class RecipeController {
     }
 
     /**
-     * Creates a {@linkplain Recipe recipe} with the provided recipe object
+     * Creates a {@linkplain Recipe recipe} with the provided recipe object, once per
+     * idempotency key
+     * <br>
+     * A recipe with the same name and ingredient lines as a saved one is a duplicate
      * 
      * @param recipe - The {@link Recipe recipe} to create
+     * @param returnExisting Whether a CONFLICT response carries the saved {@link Recipe recipe},
+     * so the client learns its id
+     * @param idempotencyKey Identifies the write across retries, as explained by {@link IdempotencyCache}
      * 
      * @return ResponseEntity with created {@link Recipe recipe} object and HTTP status of CREATED<br>
      * ResponseEntity with HTTP status of CONFLICT if {@link Recipe recipe} object already exists<br>
+     * ResponseEntity with HTTP status of UNPROCESSABLE_ENTITY if the key was used for another request<br>
+     * ResponseEntity with HTTP status of TOO_MANY_REQUESTS or SERVICE_UNAVAILABLE if the write was shed<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     * <p>
+     * Example: Create a recipe, or learn the id of the one that already exists
+     * POST http://localhost:8080/recipes?returnExisting=true
+     * <br>
+     * Example: Create a recipe, safe to send again if no response arrives
+     * POST http://localhost:8080/recipes with header Idempotency-Key: 5f1c0b7e-6d33-4b8e-9c1a-0e2f7a4d8b19
      */
     @PostMapping("")
-    public ResponseEntity<Recipe> createRecipe(@RequestBody Recipe recipe) {
+    public CompletableFuture<ResponseEntity<Recipe>> createRecipe(@RequestBody Recipe recipe,
+            @RequestParam(defaultValue = "false") boolean returnExisting,
+            @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey) {
         LOG.info("POST /recipes " + recipe);
-
-        //Replaced with my implementation - Rylie
-        try {
-            Recipe []recipes = recipeDao.getRecipes();
-            for(Recipe h : recipes){
-                if(h == recipe)
-                    return new ResponseEntity<>(HttpStatus.CONFLICT);
+        return idempotency.execute(idempotencyKey,"POST /recipes",new Object[] {recipe,returnExisting},() -> {
+            // Answer known duplicates without taking a write slot; the DAO checks again
+            // while holding its write lock
+            try {
+                Recipe existing = recipeDao.findDuplicate(recipe);
+                if (existing != null)
+                    return CompletableFuture.completedFuture(conflict(returnExisting ? existing : null));
             }
-            Recipe newRecipe = recipeDao.createRecipe(recipe);
-            return new ResponseEntity<Recipe>(newRecipe,HttpStatus.CREATED);
-        }
-        catch(IOException e) {
-            LOG.log(Level.SEVERE,e.getLocalizedMessage());
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+            catch(IOException e) {
+                LOG.log(Level.SEVERE,e.getLocalizedMessage());
+                return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR));
+            }
+            return admission.submit(() -> recipeAsyncDao.createRecipe(recipe)
+                .thenApply(newRecipe -> {
+                    if(newRecipe != null)
+                        return new ResponseEntity<Recipe>(newRecipe,HttpStatus.CREATED);
+                    else
+                        return conflict(returnExisting ? duplicateOf(recipe) : null);
+                })
+                .exceptionally(this::handleFailure));
+        });
     }
 
     /**
-     * Updates the {@linkplain Recipe recipe} with the provided {@linkplain Recipe recipe} object, if it exists
+     * Updates the {@linkplain Recipe recipe} with the provided {@linkplain Recipe recipe} object,
+     * if it exists, once per idempotency key
      * 
      * @param recipe The {@link Recipe recipe} to update
+     * @param idempotencyKey Identifies the write across retries, as explained by {@link IdempotencyCache}
      * 
      * @return ResponseEntity with updated {@link Recipe recipe} object and HTTP status of OK if updated<br>
      * ResponseEntity with HTTP status of NOT_FOUND if not found<br>
+     * ResponseEntity with HTTP status of UNPROCESSABLE_ENTITY if the key was used for another request<br>
+     * ResponseEntity with HTTP status of TOO_MANY_REQUESTS or SERVICE_UNAVAILABLE if the write was shed<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
      */
     @PutMapping("")
-    public ResponseEntity<Recipe> updateRecipe(@RequestBody Recipe recipe) {
+    public CompletableFuture<ResponseEntity<Recipe>> updateRecipe(@RequestBody Recipe recipe,
+            @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey) {
         LOG.info("PUT /recipes " + recipe);
 
         //Replaced with my implementation - Rylie
-        try {
-            Recipe h = recipeDao.updateRecipe(recipe);
-            if(h != null)
-                return new ResponseEntity<Recipe>(h,HttpStatus.OK);
-            else
-                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
-        catch(IOException e) {
-            LOG.log(Level.SEVERE,e.getLocalizedMessage());
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+        return idempotency.execute(idempotencyKey,"PUT /recipes",recipe,() -> admission.submit(() ->
+            recipeAsyncDao.updateRecipe(recipe)
+                .thenApply(h -> {
+                    if(h != null)
+                        return new ResponseEntity<Recipe>(h,HttpStatus.OK);
+                    else
+                        return new ResponseEntity<Recipe>(HttpStatus.NOT_FOUND);
+                })
+                .exceptionally(this::handleFailure)));
     }
 
     /**
-     * Deletes a {@linkplain Recipe recipe} with the given id
+     * Deletes a {@linkplain Recipe recipe} with the given id, once per idempotency key,
+     * so a retry is answered OK rather than NOT_FOUND
      * 
      * @param id The id of the {@link Recipe recipe} to deleted
+     * @param idempotencyKey Identifies the write across retries, as explained by {@link IdempotencyCache}
      * 
      * @return ResponseEntity HTTP status of OK if deleted<br>
      * ResponseEntity with HTTP status of NOT_FOUND if not found<br>
+     * ResponseEntity with HTTP status of UNPROCESSABLE_ENTITY if the key was used for another request<br>
+     * ResponseEntity with HTTP status of TOO_MANY_REQUESTS or SERVICE_UNAVAILABLE if the write was shed<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Recipe> deleteRecipe(@PathVariable int id) {
+    public CompletableFuture<ResponseEntity<Recipe>> deleteRecipe(@PathVariable int id,
+            @RequestHeader(value = IdempotencyCache.HEADER, required = false) String idempotencyKey) {
         LOG.info("DELETE /recipes/" + id);
 
         //Replaced with my implementation - Rylie
+        return idempotency.execute(idempotencyKey,"DELETE /recipes/" + id,id,() -> admission.submit(() ->
+            recipeAsyncDao.deleteRecipe(id)
+                .thenApply(h -> {
+                    if(h)
+                        return new ResponseEntity<Recipe>(HttpStatus.OK);
+                    else
+                        return new ResponseEntity<Recipe>(HttpStatus.NOT_FOUND);
+                })
+                .exceptionally(this::handleFailure)));
+    }
+
+    /**
+     * Builds the response to a duplicate {@linkplain Recipe recipe}
+     * 
+     * @param existing The saved {@link Recipe recipe} to include, null for none
+     * 
+     * @return ResponseEntity with HTTP status of CONFLICT
+     */
+    private ResponseEntity<Recipe> conflict(Recipe existing) {
+        if (existing == null)
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        return new ResponseEntity<Recipe>(existing,HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Finds the saved {@linkplain Recipe recipe} a recipe the DAO refused duplicates
+     * 
+     * @param recipe The duplicate {@link Recipe recipe}
+     * 
+     * @return The saved {@link Recipe recipe}, null if it could not be read
+     */
+    private Recipe duplicateOf(Recipe recipe) {
         try {
-            boolean h = recipeDao.deleteRecipe(id);
-            if(h)
-                return new ResponseEntity<Recipe>(HttpStatus.OK);
-            else
-                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            return recipeDao.findDuplicate(recipe);
         }
         catch(IOException e) {
             LOG.log(Level.SEVERE,e.getLocalizedMessage());
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+            return null;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Maps a failed asynchronous DAO operation to a response
+     * 
+     * @param e The exception the operation completed with
+     * 
+     * @return ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR
+     */
+    private <T> ResponseEntity<T> handleFailure(Throwable e) {
+        Throwable cause = (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+        LOG.log(Level.SEVERE,cause.getLocalizedMessage());
+        return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    /**
+     * Parses the fields parameter of a list request
+     * 
+     * @return The projection, null if the fields cannot be parsed
+     */
+    private static RecipeProjection projection(String fields) {
+        try {
+            return RecipeProjection.parse(fields);
+        }
+        catch(IllegalArgumentException e) {
+            LOG.info(e.getLocalizedMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Builds the response to a successful list request
+     * 
+     * @param projection The projection, null to respond with whole recipes
+     */
+    private static ResponseEntity<?> project(Recipe[] recipes, RecipeProjection projection) {
+        if (projection == null)
+            return new ResponseEntity<Recipe[]>(recipes,HttpStatus.OK);
+        return new ResponseEntity<>(projection.project(recipes),HttpStatus.OK);
+    }
+}
@@ -0,0 +1,130 @@
+package com.chef.api.chefapi.controller;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.chef.api.chefapi.model.Recipe;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+/**
+ * Selects the fields of {@linkplain Recipe recipes} a list response carries
+ * <p>
+ * A projection is parsed from a {@code fields=} parameter such as {@code id,name} or
+ * {@code id,name,ingredientCount}. The recipes handed to it are the DAO's own, and
+ * the selected fields are written straight from them to the response, so neither a
+ * copy of each recipe nor a map per recipe is built and the ingredients of a recipe
+ * are only serialized when they are asked for.
+ * 
+ * @author SWEN Faculty
+ */
+public class RecipeProjection {
+    private final List<Field> fields;
+
+    private RecipeProjection(List<Field> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Parses a list of field names
+     * 
+     * @param fields The names separated by commas, each once, out of id, name,
+     * ingredients and ingredientCount
+     * 
+     * @return The projection writing those fields in that order
+     * 
+     * @throws IllegalArgumentException if a name is unknown or repeated, or there is none
+     */
+    public static RecipeProjection parse(String fields) {
+        List<Field> parsed = new ArrayList<>();
+        for (String name : fields.split(",")) {
+            Field field = Field.named(name.trim());
+            if (parsed.contains(field))
+                throw new IllegalArgumentException("Field " + field.name + " is repeated");
+            parsed.add(field);
+        }
+        return new RecipeProjection(parsed);
+    }
+
+    /**
+     * Projects {@linkplain Recipe recipes}
+     * 
+     * @param recipes The {@link Recipe recipes}
+     * 
+     * @return A JSON array of one object per recipe with only the selected fields
+     */
+    public JsonSerializable project(Recipe[] recipes) {
+        return new Projected(recipes);
+    }
+
+    /**
+     * The fields a recipe can be projected on
+     */
+    enum Field {
+        ID("id"),
+        NAME("name"),
+        INGREDIENTS("ingredients"),
+        INGREDIENT_COUNT("ingredientCount");
+
+        private final String name;
+
+        Field(String name) {
+            this.name = name;
+        }
+
+        static Field named(String name) {
+            for (Field field : values()) {
+                if (field.name.equals(name))
+                    return field;
+            }
+            throw new IllegalArgumentException("Unknown field '" + name + "'");
+        }
+    }
+
+    /**
+     * Writes the selected fields of the recipes when the response is serialized
+     */
+    private class Projected extends JsonSerializable.Base {
+        private final Recipe[] recipes;
+
+        Projected(Recipe[] recipes) {
+            this.recipes = recipes;
+        }
+
+        @Override
+        public void serialize(JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartArray();
+            for (Recipe recipe : recipes) {
+                generator.writeStartObject();
+                for (Field field : fields) {
+                    switch (field) {
+                        case ID:
+                            generator.writeNumberField(field.name,recipe.getId());
+                            break;
+                        case NAME:
+                            generator.writeStringField(field.name,recipe.getName());
+                            break;
+                        case INGREDIENTS:
+                            provider.defaultSerializeField(field.name,recipe.getIngredients(),generator);
+                            break;
+                        case INGREDIENT_COUNT:
+                            generator.writeNumberField(field.name,
+                                recipe.getIngredients() == null ? 0 : recipe.getIngredients().size());
+                            break;
+                    }
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+
+        @Override
+        public void serializeWithType(JsonGenerator generator, SerializerProvider provider, TypeSerializer typeSerializer)
+                throws IOException {
+            serialize(generator,provider);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.chef.api.chefapi.controller;
+
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.chef.api.chefapi.model.Recipe;
+import com.chef.api.chefapi.persistence.RecipeQuery;
+import com.chef.api.chefapi.persistence.RecipeQueryPlanner;
+
+/**
+ * Handles the REST API requests for structured {@linkplain RecipeQuery recipe queries}
+ * <p>
+ * {@literal @}RestController Spring annotation identifies this class as a REST API
+ * method handler to the Spring framework
+ * 
+ * @author SWEN Faculty
+ */
+@RestController
+@RequestMapping("recipes")
+public class RecipeQueryController {
+    private static final Logger LOG = Logger.getLogger(RecipeQueryController.class.getName());
+    private RecipeQueryPlanner queryPlanner;
+
+    /**
+     * Creates a REST API controller to reponds to requests
+     * 
+     * @param queryPlanner The {@link RecipeQueryPlanner planner} queries are run by
+     * <br>
+     * This dependency is injected by the Spring Framework
+     */
+    public RecipeQueryController(RecipeQueryPlanner queryPlanner) {
+        this.queryPlanner = queryPlanner;
+    }
+
+    /**
+     * Responds to the GET request for the {@linkplain Recipe recipes} matching a query
+     * 
+     * @param q The query, in the syntax described by {@link RecipeQuery}
+     * @param explain Whether to respond with the plan the query was run with instead of the recipes
+     * 
+     * @return ResponseEntity with array of matching {@link Recipe recipe} objects (may be empty),
+     * or the {@link RecipeQueryPlanner.Result plan and counts} if explain is set, and HTTP status of OK<br>
+     * ResponseEntity with HTTP status of BAD_REQUEST if the query cannot be parsed<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     * <p>
+     * Example: Find the recipes with chicken and no nuts in six ingredients or fewer
+     * GET http://localhost:8080/recipes/query?q=chicken AND NOT nuts AND ingredients &lt;= 6
+     */
+    @GetMapping("/query")
+    public ResponseEntity<?> queryRecipes(@RequestParam String q,
+            @RequestParam(defaultValue = "false") boolean explain) {
+        LOG.info("GET /recipes/query?q=" + q + (explain ? "&explain=true" : ""));
+        RecipeQuery query;
+        try {
+            query = RecipeQuery.parse(q);
+        }
+        catch(IllegalArgumentException e) {
+            LOG.info(e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            RecipeQueryPlanner.Result result = queryPlanner.query(query);
+            if (explain)
+                return new ResponseEntity<RecipeQueryPlanner.Result>(result,HttpStatus.OK);
+            return new ResponseEntity<Recipe[]>(result.getRecipes(),HttpStatus.OK);
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
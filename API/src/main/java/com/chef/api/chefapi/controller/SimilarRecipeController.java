@@ -0,0 +1,89 @@
+package com.chef.api.chefapi.controller;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.chef.api.chefapi.model.Recipe;
+import com.chef.api.chefapi.persistence.RecipeDAO;
+import com.chef.api.chefapi.persistence.RecipeSimilarityIndex;
+
+/**
+ * Handles the REST API requests for recipes similar to a {@linkplain Recipe recipe}
+ * <p>
+ * {@literal @}RestController Spring annotation identifies this class as a REST API
+ * method handler to the Spring framework
+ * 
+ * @author SWEN Faculty
+ */
+@RestController
+@RequestMapping("recipes")
+public class SimilarRecipeController {
+    private static final Logger LOG = Logger.getLogger(SimilarRecipeController.class.getName());
+    private static final int MAX_K = 100;
+    private RecipeDAO recipeDao;
+    private RecipeSimilarityIndex similarityIndex;
+
+    /**
+     * Creates a REST API controller to reponds to requests
+     * 
+     * @param recipeDao The {@link RecipeDAO Recipe Data Access Object} the similar recipes are read from
+     * @param similarityIndex The {@link RecipeSimilarityIndex index} similar recipes are found with
+     * <br>
+     * These dependencies are injected by the Spring Framework
+     */
+    public SimilarRecipeController(RecipeDAO recipeDao, RecipeSimilarityIndex similarityIndex) {
+        this.recipeDao = recipeDao;
+        this.similarityIndex = similarityIndex;
+    }
+
+    /**
+     * Responds to the GET request for the {@linkplain Recipe recipes} whose ingredients
+     * are most like those of the recipe with the given id
+     * 
+     * @param id The id of the {@link Recipe recipe}
+     * @param k The most number of {@link Recipe recipes} to return, at most 100
+     * 
+     * @return ResponseEntity with array of {@link Recipe recipe} objects, most similar first
+     * (may be empty), and HTTP status of OK<br>
+     * ResponseEntity with HTTP status of NOT_FOUND if the {@link Recipe recipe} does not exist<br>
+     * ResponseEntity with HTTP status of BAD_REQUEST if k is not positive<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     * <p>
+     * Example: Find the five recipes most like recipe 1
+     * GET http://localhost:8080/recipes/1/similar?k=5
+     */
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<Recipe[]> getSimilarRecipes(@PathVariable int id,
+            @RequestParam(defaultValue = "10") int k) {
+        LOG.info("GET /recipes/" + id + "/similar?k=" + k);
+        if (k <= 0)
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        try {
+            if (recipeDao.getRecipe(id) == null)
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
+            List<Recipe> similar = new ArrayList<>();
+            for (int similarId : similarityIndex.findSimilar(id,Math.min(k,MAX_K))) {
+                Recipe recipe = recipeDao.getRecipe(similarId);
+                if (recipe != null)  // deleted since it was found
+                    similar.add(recipe);
+            }
+            return new ResponseEntity<Recipe[]>(similar.toArray(new Recipe[0]),HttpStatus.OK);
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.chef.api.chefapi.controller;
+
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.chef.api.chefapi.persistence.NameSuggestions;
+
+/**
+ * Handles the REST API requests for typeahead suggestions of recipe and ingredient names
+ * <p>
+ * {@literal @}RestController Spring annotation identifies this class as a REST API
+ * method handler to the Spring framework
+ * 
+ * @author SWEN Faculty
+ */
+@RestController
+public class SuggestionController {
+    private static final Logger LOG = Logger.getLogger(SuggestionController.class.getName());
+    private NameSuggestions suggestions;
+
+    /**
+     * Creates a REST API controller to reponds to requests
+     * 
+     * @param suggestions The {@link NameSuggestions suggestions} names are suggested from
+     * <br>
+     * This dependency is injected by the Spring Framework
+     */
+    public SuggestionController(NameSuggestions suggestions) {
+        this.suggestions = suggestions;
+    }
+
+    /**
+     * Responds to the GET request for the most popular recipe names starting with a prefix
+     * 
+     * @param prefix The prefix typed so far
+     * @param limit The most number of names to return, at most 10
+     * 
+     * @return ResponseEntity with array of names, most popular first (may be empty), and
+     * HTTP status of OK<br>
+     * ResponseEntity with HTTP status of BAD_REQUEST if limit is not positive<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     * <p>
+     * Example: Suggest five recipe names starting with "to"
+     * GET http://localhost:8080/recipes/suggest?prefix=to&limit=5
+     */
+    @GetMapping("recipes/suggest")
+    public ResponseEntity<String[]> suggestRecipes(@RequestParam(defaultValue = "") String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        LOG.info("GET /recipes/suggest?prefix=" + prefix + "&limit=" + limit);
+        if (limit <= 0)
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        try {
+            return new ResponseEntity<String[]>(suggestions.suggestRecipes(prefix,limit),HttpStatus.OK);
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Responds to the GET request for the most popular ingredient names starting with a prefix
+     * 
+     * @param prefix The prefix typed so far
+     * @param limit The most number of names to return, at most 10
+     * 
+     * @return ResponseEntity with array of names, most used first (may be empty), and
+     * HTTP status of OK<br>
+     * ResponseEntity with HTTP status of BAD_REQUEST if limit is not positive<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     * <p>
+     * Example: Suggest ingredient names starting with "tom"
+     * GET http://localhost:8080/ingredients/suggest?prefix=tom
+     */
+    @GetMapping("ingredients/suggest")
+    public ResponseEntity<String[]> suggestIngredients(@RequestParam(defaultValue = "") String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        LOG.info("GET /ingredients/suggest?prefix=" + prefix + "&limit=" + limit);
+        if (limit <= 0)
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        try {
+            return new ResponseEntity<String[]>(suggestions.suggestIngredients(prefix,limit),HttpStatus.OK);
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.chef.api.chefapi.controller;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.chef.api.chefapi.persistence.CatalogTransaction;
+import com.chef.api.chefapi.persistence.CatalogTransactions;
+
+/**
+ * Handles the REST API requests for transactions over the ingredients and recipes
+ * <p>
+ * {@literal @}RestController Spring annotation identifies this class as a REST API
+ * method handler to the Spring framework
+ * 
+ * @author SWEN Faculty
+ */
+@RestController
+@RequestMapping("transactions")
+public class TransactionController {
+    private static final Logger LOG = Logger.getLogger(TransactionController.class.getName());
+    private CatalogTransactions transactions;
+    private AdmissionControl admission;
+
+    /**
+     * Creates a REST API controller to reponds to requests
+     * 
+     * @param transactions The {@link CatalogTransactions transaction manager} committing the transactions
+     * @param admission The {@link AdmissionControl admission control} every transaction has to pass
+     * <br>
+     * These dependencies are injected by the Spring Framework
+     */
+    @Autowired
+    public TransactionController(CatalogTransactions transactions, AdmissionControl admission) {
+        this.transactions = transactions;
+        this.admission = admission;
+    }
+
+    /**
+     * Commits a {@linkplain CatalogTransaction transaction}: all of its changes are made, or none
+     * 
+     * @param transaction The {@link CatalogTransaction transaction} to commit
+     * 
+     * @return ResponseEntity with the created and updated entities and HTTP status of OK<br>
+     * ResponseEntity with HTTP status of CONFLICT if an entity to change does not exist, a recipe
+     * already exists, or a recipe would use an ingredient that does not exist<br>
+     * ResponseEntity with HTTP status of TOO_MANY_REQUESTS or SERVICE_UNAVAILABLE if the transaction was shed<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     * <p>
+     * Example: Create a recipe together with the new ingredient it uses
+     * POST http://localhost:8080/transactions {"ingredients":{"create":[{"name":"Basil"}]},
+     * "recipes":{"create":[{"name":"Pesto","ingredients":[{"name":"basil","quantity":2,"unit":"cups"}]}]}}
+     */
+    @PostMapping("")
+    public CompletableFuture<ResponseEntity<CatalogTransaction.Result>> commitTransaction(
+            @RequestBody CatalogTransaction transaction) {
+        LOG.info("POST /transactions");
+        return admission.submit(() -> transactions.commitAsync(transaction)
+            .thenApply(result -> new ResponseEntity<CatalogTransaction.Result>(result,HttpStatus.OK))
+            .exceptionally(this::handleFailure));
+    }
+
+    /**
+     * Maps a failed transaction to a response
+     * 
+     * @param e The exception the transaction completed with
+     * 
+     * @return ResponseEntity with HTTP status of CONFLICT if the transaction was refused<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     */
+    private <T> ResponseEntity<T> handleFailure(Throwable e) {
+        Throwable cause = (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+        if (cause instanceof IllegalStateException) {
+            LOG.info(cause.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+        LOG.log(Level.SEVERE,cause.getLocalizedMessage());
+        return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+}
@@ -0,0 +1,240 @@
+package com.chef.api.chefapi.controller;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.chef.api.chefapi.model.Recipe;
+import com.chef.api.chefapi.model.User;
+import com.chef.api.chefapi.persistence.RecipeAsyncDAO;
+import com.chef.api.chefapi.persistence.RecipeAsyncDAOAdapter;
+import com.chef.api.chefapi.persistence.RecipePartitions;
+import com.chef.api.chefapi.persistence.UserDAO;
+
+/**
+ * Handles the REST API requests for the private {@linkplain Recipe recipes} of a
+ * {@linkplain User user}, kept in the user's own {@linkplain RecipePartitions partition}
+ * <p>
+ * {@literal @}RestController Spring annotation identifies this class as a REST API
+ * method handler to the Spring framework
+ * 
+ * @author SWEN Faculty
+ */
+@RestController
+@RequestMapping("users/{user}/recipes")
+public class UserRecipeController {
+    private static final Logger LOG = Logger.getLogger(UserRecipeController.class.getName());
+    private UserDAO userDao;
+    private RecipePartitions partitions;
+    private Executor executor;
+    private AdmissionControl admission;
+
+    /**
+     * Creates a REST API controller to reponds to requests
+     * 
+     * @param userDao The {@link UserDAO User Data Access Object} the users are checked against
+     * @param partitions The {@link RecipePartitions partitions} holding the recipes of each user
+     * @param executor The executor that runs the blocking writes
+     * @param admission The {@link AdmissionControl admission control} every write has to pass
+     * <br>
+     * These dependencies are injected by the Spring Framework
+     */
+    @Autowired
+    public UserRecipeController(UserDAO userDao, RecipePartitions partitions,
+            @Qualifier("persistenceExecutor") Executor executor, AdmissionControl admission) {
+        this.userDao = userDao;
+        this.partitions = partitions;
+        this.executor = executor;
+        this.admission = admission;
+    }
+
+    /**
+     * Responds to the GET request for all the {@linkplain Recipe recipes} of a user
+     * 
+     * @param user The id of the {@link User user}
+     * 
+     * @return ResponseEntity with array of {@link Recipe recipe} objects (may be empty) and
+     * HTTP status of OK<br>
+     * ResponseEntity with HTTP status of NOT_FOUND if the {@link User user} does not exist<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     */
+    @GetMapping("")
+    public ResponseEntity<Recipe[]> getRecipes(@PathVariable int user) {
+        LOG.info("GET /users/" + user + "/recipes");
+        try {
+            if (userDao.getUser(user) == null)
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            try (RecipePartitions.Lease lease = partitions.lease(user)) {
+                return new ResponseEntity<Recipe[]>(lease.getRecipeDao().getRecipes(),HttpStatus.OK);
+            }
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Responds to the GET request for a {@linkplain Recipe recipe} of a user
+     * 
+     * @param user The id of the {@link User user}
+     * @param id The id of the {@link Recipe recipe}
+     * 
+     * @return ResponseEntity with {@link Recipe recipe} object and HTTP status of OK if found<br>
+     * ResponseEntity with HTTP status of NOT_FOUND if the {@link User user} or {@link Recipe recipe} does not exist<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<Recipe> getRecipe(@PathVariable int user, @PathVariable int id) {
+        LOG.info("GET /users/" + user + "/recipes/" + id);
+        try {
+            if (userDao.getUser(user) == null)
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            try (RecipePartitions.Lease lease = partitions.lease(user)) {
+                Recipe recipe = lease.getRecipeDao().getRecipe(id);
+                if (recipe != null)
+                    return new ResponseEntity<Recipe>(recipe,HttpStatus.OK);
+                else
+                    return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Creates a {@linkplain Recipe recipe} of a user
+     * 
+     * @param user The id of the {@link User user}
+     * @param recipe The {@link Recipe recipe} to create
+     * 
+     * @return ResponseEntity with created {@link Recipe recipe} object and HTTP status of CREATED<br>
+     * ResponseEntity with HTTP status of CONFLICT if the user already has the {@link Recipe recipe}<br>
+     * ResponseEntity with HTTP status of NOT_FOUND if the {@link User user} does not exist<br>
+     * ResponseEntity with HTTP status of TOO_MANY_REQUESTS or SERVICE_UNAVAILABLE if the write was shed<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     */
+    @PostMapping("")
+    public CompletableFuture<ResponseEntity<Recipe>> createRecipe(@PathVariable int user, @RequestBody Recipe recipe) {
+        LOG.info("POST /users/" + user + "/recipes " + recipe);
+        return write(user,recipeAsyncDao -> recipeAsyncDao.createRecipe(recipe)
+            .thenApply(newRecipe -> {
+                if (newRecipe != null)
+                    return new ResponseEntity<Recipe>(newRecipe,HttpStatus.CREATED);
+                else
+                    return new ResponseEntity<Recipe>(HttpStatus.CONFLICT);
+            }));
+    }
+
+    /**
+     * Updates a {@linkplain Recipe recipe} of a user, if it exists
+     * 
+     * @param user The id of the {@link User user}
+     * @param recipe The {@link Recipe recipe} to update
+     * 
+     * @return ResponseEntity with updated {@link Recipe recipe} object and HTTP status of OK if updated<br>
+     * ResponseEntity with HTTP status of NOT_FOUND if the {@link User user} or {@link Recipe recipe} does not exist<br>
+     * ResponseEntity with HTTP status of TOO_MANY_REQUESTS or SERVICE_UNAVAILABLE if the write was shed<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     */
+    @PutMapping("")
+    public CompletableFuture<ResponseEntity<Recipe>> updateRecipe(@PathVariable int user, @RequestBody Recipe recipe) {
+        LOG.info("PUT /users/" + user + "/recipes " + recipe);
+        return write(user,recipeAsyncDao -> recipeAsyncDao.updateRecipe(recipe)
+            .thenApply(updated -> {
+                if (updated != null)
+                    return new ResponseEntity<Recipe>(updated,HttpStatus.OK);
+                else
+                    return new ResponseEntity<Recipe>(HttpStatus.NOT_FOUND);
+            }));
+    }
+
+    /**
+     * Deletes a {@linkplain Recipe recipe} of a user
+     * 
+     * @param user The id of the {@link User user}
+     * @param id The id of the {@link Recipe recipe} to delete
+     * 
+     * @return ResponseEntity HTTP status of OK if deleted<br>
+     * ResponseEntity with HTTP status of NOT_FOUND if the {@link User user} or {@link Recipe recipe} does not exist<br>
+     * ResponseEntity with HTTP status of TOO_MANY_REQUESTS or SERVICE_UNAVAILABLE if the write was shed<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     */
+    @DeleteMapping("/{id}")
+    public CompletableFuture<ResponseEntity<Recipe>> deleteRecipe(@PathVariable int user, @PathVariable int id) {
+        LOG.info("DELETE /users/" + user + "/recipes/" + id);
+        return write(user,recipeAsyncDao -> recipeAsyncDao.deleteRecipe(id)
+            .thenApply(deleted -> {
+                if (deleted)
+                    return new ResponseEntity<Recipe>(HttpStatus.OK);
+                else
+                    return new ResponseEntity<Recipe>(HttpStatus.NOT_FOUND);
+            }));
+    }
+
+    /**
+     * Runs a write on the partition of a user once it is admitted, holding a lease on
+     * the partition until the write completes
+     * 
+     * @param user The id of the {@link User user}
+     * @param write The write, given the partition's store
+     * 
+     * @return The response of the write<br>
+     * ResponseEntity with HTTP status of NOT_FOUND if the {@link User user} does not exist
+     */
+    private <T> CompletableFuture<ResponseEntity<T>> write(int user,
+            Function<RecipeAsyncDAO,CompletableFuture<ResponseEntity<T>>> write) {
+        try {
+            if (userDao.getUser(user) == null)
+                return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR));
+        }
+        return admission.submit(() -> {
+            RecipePartitions.Lease lease;
+            try {
+                lease = partitions.lease(user);
+            }
+            catch(IOException e) {
+                return CompletableFuture.completedFuture(handleFailure(e));
+            }
+            return write.apply(new RecipeAsyncDAOAdapter(lease.getRecipeDao(),executor))
+                .exceptionally(this::handleFailure)
+                .whenComplete((response,e) -> lease.close());
+        });
+    }
+
+    /**
+     * Maps a failed write to a response
+     * 
+     * @param e The exception the write completed with
+     * 
+     * @return ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR
+     */
+    private <T> ResponseEntity<T> handleFailure(Throwable e) {
+        Throwable cause = (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+        LOG.log(Level.SEVERE,cause.getLocalizedMessage());
+        return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+}
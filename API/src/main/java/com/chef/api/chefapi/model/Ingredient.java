@@ -1,5 +1,6 @@
 package com.chef.api.chefapi.model;
 
+import java.util.Objects;
 import java.util.logging.Logger;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -58,5 +59,22 @@ public class Ingredient {
 
     public String getUnit() {return unit;}
 
-    
+    /**
+     * Compares ingredients by content
+     * @param o The object to compare with
+     * @return true if o is an ingredient with the same id, name, quantity and unit
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof Ingredient))
+            return false;
+        Ingredient other = (Ingredient) o;
+        return id == other.id && Double.compare(quantity,other.quantity) == 0
+            && Objects.equals(name,other.name) && Objects.equals(unit,other.unit);
+    }
+
+    @Override
+    public int hashCode() {return Objects.hash(id,name,quantity,unit);}
 }
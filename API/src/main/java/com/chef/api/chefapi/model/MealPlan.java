@@ -0,0 +1,67 @@
+package com.chef.api.chefapi.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Represents a set of recipes planned together, and what they take from the pantry
+ * and from the shop
+ * 
+ * @author SWEN Faculty
+ */
+public class MealPlan {
+    @JsonProperty("recipes") private final List<Recipe> recipes;
+    @JsonProperty("pantryUsed") private final List<String> pantryUsed;
+    @JsonProperty("toBuy") private final List<String> toBuy;
+    @JsonProperty("score") private final int score;
+    @JsonProperty("optimal") private final boolean optimal;
+
+    /**
+     * Create a meal plan
+     * @param recipes The planned {@link Recipe recipes}
+     * @param pantryUsed The names of the pantry ingredients the recipes use
+     * @param toBuy The names of the ingredients the recipes need that are not in the pantry
+     * @param score The number of pantry ingredients used less the number to buy
+     * @param optimal Whether the search proved no better plan exists, rather than
+     * running out of time
+     */
+    public MealPlan(List<Recipe> recipes, List<String> pantryUsed, List<String> toBuy, int score,
+            boolean optimal) {
+        this.recipes = recipes;
+        this.pantryUsed = pantryUsed;
+        this.toBuy = toBuy;
+        this.score = score;
+        this.optimal = optimal;
+    }
+
+    /**
+     * Retrieves the planned recipes
+     * @return The {@link Recipe recipes}
+     */
+    public List<Recipe> getRecipes() {return recipes;}
+
+    /**
+     * Retrieves the pantry ingredients the plan uses
+     * @return The ingredient names
+     */
+    public List<String> getPantryUsed() {return pantryUsed;}
+
+    /**
+     * Retrieves the ingredients the plan needs to buy
+     * @return The ingredient names
+     */
+    public List<String> getToBuy() {return toBuy;}
+
+    /**
+     * Retrieves the score of the plan
+     * @return The number of pantry ingredients used less the number to buy
+     */
+    public int getScore() {return score;}
+
+    /**
+     * Reports whether the plan is known to be the best one
+     * @return false if the time budget ran out before the search finished
+     */
+    public boolean isOptimal() {return optimal;}
+}
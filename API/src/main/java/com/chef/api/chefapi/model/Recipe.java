@@ -5,6 +5,7 @@ import java.util.logging.Logger;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.List;
+import java.util.Objects;
 /**
  * Represents a Recipe entity
  * 
@@ -67,4 +68,24 @@ public class Recipe {
      * @return The list of ingredients
      */
     public List<Ingredient> getIngredients() {return ingredients;}
+
+    /**
+     * Compares recipes by content, so that reloaded copies of an unchanged recipe
+     * are recognised as equal
+     * @param o The object to compare with
+     * @return true if o is a recipe with the same id, name and ingredients
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof Recipe))
+            return false;
+        Recipe other = (Recipe) o;
+        return id == other.id && Objects.equals(name,other.name)
+            && Objects.equals(ingredients,other.ingredients);
+    }
+
+    @Override
+    public int hashCode() {return Objects.hash(id,name,ingredients);}
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.chef.api.chefapi.model;
+
+import java.util.List;
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Represents a User entity
+ * 
+ * @author SWEN Faculty
+ */
+public class User {
+    @JsonProperty("id") private int id;
+    @JsonProperty("fname") private String fname;
+    @JsonProperty("lname") private String lname;
+    @JsonProperty("pantry") private List<Ingredient> pantry;
+
+    /**
+     * Create a user with the given id, name and pantry
+     * @param id The id of the user
+     * @param fname The first name of the user
+     * @param lname The last name of the user
+     * @param pantry The {@link Ingredient ingredients} the user has at home
+     * 
+     * {@literal @}JsonProperty is used in serialization and deserialization
+     * of the JSON object to the Java object in mapping the fields.  If a field
+     * is not provided in the JSON object, the Java field gets the default Java
+     * value, i.e. 0 for int
+     */
+    public User(@JsonProperty("id") int id, @JsonProperty("fname") String fname,
+            @JsonProperty("lname") String lname, @JsonProperty("pantry") List<Ingredient> pantry) {
+        this.id = id;
+        this.fname = fname;
+        this.lname = lname;
+        this.pantry = pantry;
+    }
+
+    /**
+     * Retrieves the id of the user
+     * @return The id of the user
+     */
+    public int getId() {return id;}
+
+    /**
+     * Retrieves the first name of the user
+     * @return The first name of the user
+     */
+    public String getFname() {return fname;}
+
+    /**
+     * Retrieves the last name of the user
+     * @return The last name of the user
+     */
+    public String getLname() {return lname;}
+
+    /**
+     * Retrieves the pantry of the user
+     * @return The {@link Ingredient ingredients} the user has at home
+     */
+    public List<Ingredient> getPantry() {return pantry;}
+
+    /**
+     * Sets the pantry of the user - necessary for JSON object to Java object deserialization
+     * @param pantry The {@link Ingredient ingredients} the user has at home
+     */
+    public void setPantry(List<Ingredient> pantry) {this.pantry = pantry;}
+
+    /**
+     * Compares users by content
+     * @param o The object to compare with
+     * @return true if o is a user with the same id, names and pantry
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof User))
+            return false;
+        User other = (User) o;
+        return id == other.id && Objects.equals(fname,other.fname)
+            && Objects.equals(lname,other.lname) && Objects.equals(pantry,other.pantry);
+    }
+
+    @Override
+    public int hashCode() {return Objects.hash(id,fname,lname,pantry);}
+}
@@ -0,0 +1,44 @@
+package com.chef.api.chefapi.persistence;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs blocking persistence work on an executor and exposes the result as a
+ * {@link CompletableFuture}
+ * 
+ * @author SWEN Faculty
+ */
+final class AsyncTasks {
+    private AsyncTasks() {}
+
+    /**
+     * Submits a task that may throw a checked exception, such as the
+     * {@link java.io.IOException IOException} of a synchronous DAO call
+     * 
+     * @param task The work to run
+     * @param executor The executor to run it on
+     * 
+     * @return A future completed with the task's result, or exceptionally with
+     * whatever the task threw
+     */
+    static <T> CompletableFuture<T> supply(Callable<T> task, Executor executor) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(task.call());
+                }
+                catch(Exception e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        }
+        catch(RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+}
@@ -0,0 +1,322 @@
+package com.chef.api.chefapi.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.Recipe;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Backs up the {@linkplain Recipe recipes} and {@linkplain Ingredient ingredients}
+ * while the application is running
+ * <p>
+ * A backup is a {@linkplain CatalogSnapshot consistent snapshot} of both stores,
+ * taken without a lock when it is asked for, then written in the background to a
+ * directory of {@code chef.backups.directory} named by the time it was taken. Only
+ * one backup is written at a time: asking for a backup while one is being written
+ * returns that one rather than holding a second snapshot in a queue. The
+ * snapshot is the stores' own cache as it was, so writers carry on while it is
+ * written and nothing is copied. The directory holds ingredients.json and
+ * recipes.json in the format of the data files, and a manifest.json describing the
+ * backup. It is written under a temporary name, its files forced to disk, and only
+ * then renamed, so a directory with the backup's name is always complete.
+ * <p>
+ * A backup is restored while the application is running as a single
+ * {@linkplain CatalogTransactions transaction} replacing both stores, so readers see
+ * either the catalog as it was or the backup, and a crash in the middle is completed
+ * at the next start. While the application is stopped, copying the two data files
+ * back over those of the stores does the same.
+ * <p>
+ * Once a backup is written, all but the {@code chef.backups.retain} most recent are
+ * deleted, as are those older than {@code chef.backups.max-age} milliseconds; the
+ * most recent one is always kept.
+ * 
+ * {@literal @}Component Spring annotation instantiates a single instance of this
+ * class and injects the instance into other classes as needed
+ * 
+ * @author SWEN Faculty
+ */
+@Component
+public class CatalogBackups {
+    private static final Logger LOG = Logger.getLogger(CatalogBackups.class.getName());
+    private static final DateTimeFormatter NAMES =
+        DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmssSSS'Z'").withZone(ZoneOffset.UTC);
+    private static final String PARTIAL = ".partial";   // Suffix of a backup being written
+    private static final String NAME = "\\d{8}T\\d{9}Z";    // Name of a written backup
+    private static final int BUFFER = 64 * 1024;
+
+    private final RecipeDAO recipeDao;
+    private final IngredientDAO ingredientDao;
+    private final CatalogTransactions transactions;     // Restores backups
+    private final ObjectMapper objectMapper;
+    private final Path directory;       // Holds a directory per backup
+    private final int retain;           // Most backups kept
+    private final long maxAge;          // Milliseconds after which a backup is deleted
+    private long lastTaken;             // Time of the last backup, guarded by this
+    private Backup pending;             // The backup being written, guarded by this
+    private final ExecutorService writer;
+
+    /**
+     * Creates the backups of the catalog, removing the partial backups left behind
+     * by a crash
+     * 
+     * @param recipeDao The {@link RecipeDAO Recipe Data Access Object} whose recipes are backed up
+     * @param ingredientDao The {@link IngredientDAO Ingredient Data Access Object} whose ingredients are backed up
+     * @param transactions The {@link CatalogTransactions transactions} that restore a backup
+     * @param objectMapper Provides conversion of the entities to JSON
+     * @param directory Directory the backups are written to
+     * @param retain Most backups kept
+     * @param maxAge Milliseconds after which a backup is deleted
+     * 
+     * @throws IOException when the directory cannot be created or read
+     */
+    @Autowired
+    public CatalogBackups(RecipeDAO recipeDao, IngredientDAO ingredientDao, CatalogTransactions transactions,
+            ObjectMapper objectMapper,
+            @Value("${chef.backups.directory:data/snapshots}") String directory,
+            @Value("${chef.backups.retain:7}") int retain,
+            @Value("${chef.backups.max-age:604800000}") long maxAge) throws IOException {
+        this.recipeDao = recipeDao;
+        this.ingredientDao = ingredientDao;
+        this.transactions = transactions;
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(directory);
+        this.retain = Math.max(1,retain);
+        this.maxAge = maxAge;
+        Files.createDirectories(this.directory);
+        try (DirectoryStream<Path> partial = Files.newDirectoryStream(this.directory,"*" + PARTIAL)) {
+            for (Path backup : partial)
+                delete(backup);
+        }
+        writer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task,"catalog-backup");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Takes a backup of the catalog, which is written in the background
+     * <br>
+     * If a backup is still being written, that backup is returned instead of taking
+     * another, so it may have been taken a moment before this call
+     * 
+     * @return The backup, whose {@link Backup#getWritten() completion} tells when it is written
+     * 
+     * @throws IOException if the stores cannot be read, or keep changing while the
+     * snapshot is taken
+     */
+    public synchronized Backup backup() throws IOException {
+        if (pending != null)
+            return pending;
+        CatalogSnapshot snapshot = CatalogSnapshot.take(recipeDao,ingredientDao);
+        long taken = Math.max(System.currentTimeMillis(),lastTaken + 1);     // Names are unique
+        lastTaken = taken;
+        Backup backup = new Backup(NAMES.format(Instant.ofEpochMilli(taken)),Instant.ofEpochMilli(taken),
+            snapshot.getIngredients().size(),snapshot.getRecipes().size());
+        pending = backup;
+        CompletableFuture.runAsync(() -> {
+            try {
+                write(backup,snapshot);
+                prune(taken);
+                finished(backup);
+                backup.written.complete(directory.resolve(backup.name));
+            }
+            catch(IOException e) {
+                LOG.log(Level.SEVERE,"Could not write backup " + backup.name + ": " + e.getLocalizedMessage());
+                finished(backup);
+                backup.written.completeExceptionally(e);
+            }
+        },writer);
+        return backup;
+    }
+
+    /**
+     * Lets the next call to {@link #backup()} take a new backup
+     */
+    private synchronized void finished(Backup backup) {
+        if (pending == backup)
+            pending = null;
+    }
+
+    /**
+     * Restores a backup, replacing the whole catalog in a single transaction
+     * 
+     * @param name The name of the backup
+     * 
+     * @throws NoSuchFileException if there is no backup of that name
+     * @throws IOException if the backup cannot be read or the stores written; the
+     * catalog is then left as it was
+     */
+    public void restore(String name) throws IOException {
+        Path backup = directory.resolve(name);
+        if (!name.matches(NAME) || !Files.isDirectory(backup))
+            throw new NoSuchFileException(name);
+        Ingredient[] ingredients = objectMapper.readValue(backup.resolve("ingredients.json").toFile(),
+            Ingredient[].class);
+        Recipe[] recipes = objectMapper.readValue(backup.resolve("recipes.json").toFile(),Recipe[].class);
+        transactions.replace(ingredients,recipes);
+        LOG.info("Restored backup " + name + " of " + ingredients.length + " ingredients and "
+            + recipes.length + " recipes");
+    }
+
+    /**
+     * Retrieves the backups that were written
+     * 
+     * @return The names of the backups, oldest first
+     * 
+     * @throws IOException if the directory cannot be read
+     */
+    public List<String> getBackups() throws IOException {
+        List<String> names = new ArrayList<>();
+        try (Stream<Path> backups = Files.list(directory)) {
+            backups.filter(Files::isDirectory)
+                .map(backup -> backup.getFileName().toString())
+                .filter(name -> name.matches(NAME))     // Not partial, nor another directory
+                .sorted()
+                .forEach(names::add);
+        }
+        return names;
+    }
+
+    /**
+     * Writes a backup to its partial directory, then renames it
+     */
+    private void write(Backup backup, CatalogSnapshot snapshot) throws IOException {
+        long start = System.nanoTime();
+        Path partial = directory.resolve(backup.name + PARTIAL);
+        Files.createDirectories(partial);
+        writeFile(partial.resolve("ingredients.json"),snapshot.getIngredients());
+        writeFile(partial.resolve("recipes.json"),snapshot.getRecipes());
+        writeFile(partial.resolve("manifest.json"),backup);
+        Files.move(partial,directory.resolve(backup.name),StandardCopyOption.ATOMIC_MOVE);
+        LOG.info("Wrote backup " + backup.name + " of " + backup.ingredients + " ingredients and "
+            + backup.recipes + " recipes in " + (System.nanoTime() - start) / 1000000 + " ms");
+    }
+
+    /**
+     * Writes a file, an array of entities as the data files hold or a single object,
+     * and forces it to disk
+     */
+    private void writeFile(Path file, Object content) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file.toFile())) {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(new BufferedOutputStream(out,BUFFER));
+            if (content instanceof Snapshot) {
+                generator.writeStartArray();
+                for (Object entity : (Snapshot<?>) content)
+                    generator.writeObject(entity);
+                generator.writeEndArray();
+            }
+            else
+                generator.writeObject(content);
+            generator.flush();
+            out.getChannel().force(true);
+        }
+    }
+
+    /**
+     * Deletes the backups beyond the number retained or older than the maximum age,
+     * keeping the most recent one
+     */
+    private void prune(long now) throws IOException {
+        List<String> names = getBackups();
+        Collections.sort(names,Comparator.reverseOrder());
+        for (int i = 1; i < names.size(); ++i) {
+            long taken = Instant.from(NAMES.parse(names.get(i))).toEpochMilli();
+            if (i >= retain || now - taken > maxAge) {
+                delete(directory.resolve(names.get(i)));
+                LOG.info("Deleted backup " + names.get(i));
+            }
+        }
+    }
+
+    private static void delete(Path backup) throws IOException {
+        try (Stream<Path> files = Files.list(backup)) {
+            for (Path file : (Iterable<Path>) files::iterator)
+                Files.delete(file);
+        }
+        Files.delete(backup);
+    }
+
+    /**
+     * Stops writing backups when the application shuts down, after the one being
+     * written if any
+     */
+    @PreDestroy
+    public void close() {
+        writer.shutdown();
+    }
+
+    /**
+     * A backup of the catalog, also written as its manifest
+     */
+    public static class Backup {
+        @JsonProperty("name") private final String name;
+        @JsonProperty("taken") private final String taken;
+        @JsonProperty("ingredients") private final int ingredients;
+        @JsonProperty("recipes") private final int recipes;
+        @JsonIgnore private final CompletableFuture<Path> written = new CompletableFuture<>();
+
+        Backup(String name, Instant taken, int ingredients, int recipes) {
+            this.name = name;
+            this.taken = taken.toString();
+            this.ingredients = ingredients;
+            this.recipes = recipes;
+        }
+
+        /**
+         * Retrieves the name of the backup, which is also its directory's
+         * @return The name of the backup
+         */
+        public String getName() {return name;}
+
+        /**
+         * Retrieves the number of ingredients backed up
+         * @return The number of {@link Ingredient ingredients}
+         */
+        public int getIngredients() {return ingredients;}
+
+        /**
+         * Retrieves the number of recipes backed up
+         * @return The number of {@link Recipe recipes}
+         */
+        public int getRecipes() {return recipes;}
+
+        /**
+         * Tells when the backup is written
+         * @return Completed with the directory of the backup once written
+         */
+        @JsonIgnore
+        public CompletableFuture<Path> getWritten() {return written;}
+    }
+}
@@ -0,0 +1,96 @@
+package com.chef.api.chefapi.persistence;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.Recipe;
+
+/**
+ * A point-in-time consistent view of both the recipe and the ingredient store
+ * <p>
+ * The two stores change independently, so snapshots of each taken one after the
+ * other could show a state that never existed, such as a recipe saved after an
+ * ingredient was deleted together with that ingredient. A catalog snapshot takes the
+ * recipes, then the ingredients, then the recipes again, and only keeps the result
+ * when both recipe snapshots are of the same state: the recipes were then unchanged
+ * while the ingredients were taken, so both are as they were at that moment.
+ * Otherwise it tries again. No lock is taken, so writers are never held up.
+ * <p>
+ * A {@linkplain CatalogTransactions transaction} swaps in both caches one after the
+ * other, so it marks the swap with a version that is odd while it lasts. A snapshot
+ * is only kept when the version was even and unchanged throughout, so it holds
+ * either all of a transaction's changes or none of them.
+ * 
+ * @author SWEN Faculty
+ */
+public class CatalogSnapshot {
+    static final int ATTEMPTS = 100;   // Before giving up on a store that keeps changing
+    private static final AtomicLong version = new AtomicLong();    // Odd while a transaction
+                                        // is swapping in the caches of both stores
+
+    private final Snapshot<Recipe> recipes;
+    private final Snapshot<Ingredient> ingredients;
+
+    private CatalogSnapshot(Snapshot<Recipe> recipes, Snapshot<Ingredient> ingredients) {
+        this.recipes = recipes;
+        this.ingredients = ingredients;
+    }
+
+    /**
+     * Takes a consistent snapshot of both stores
+     * 
+     * @param recipeDao The {@link RecipeDAO Recipe Data Access Object}
+     * @param ingredientDao The {@link IngredientDAO Ingredient Data Access Object}
+     * 
+     * @return The snapshot
+     * 
+     * @throws IOException if a store cannot be read, or the recipes changed during
+     * every one of {@value #ATTEMPTS} attempts
+     */
+    public static CatalogSnapshot take(RecipeDAO recipeDao, IngredientDAO ingredientDao) throws IOException {
+        int attempts = 0;
+        while (attempts < ATTEMPTS) {
+            long before = version.get();
+            if ((before & 1) != 0) {
+                Thread.yield();     // a transaction is halfway through its swap, which is brief
+                continue;
+            }
+            Snapshot<Recipe> recipes = recipeDao.snapshot();
+            Snapshot<Ingredient> ingredients = ingredientDao.snapshot();
+            Snapshot<Recipe> after = recipeDao.snapshot();
+            if (after.isSameAs(recipes) && version.get() == before)
+                return new CatalogSnapshot(recipes,ingredients);
+            ++attempts;
+        }
+        throw new IOException("The recipes kept changing while taking a snapshot");
+    }
+
+    /**
+     * Marks the start of a transaction swapping in the caches of both stores
+     * <br>
+     * Must be followed by {@link #endSwap()}, and transactions must not overlap
+     */
+    static void beginSwap() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Marks the end of a transaction swapping in the caches of both stores
+     */
+    static void endSwap() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Retrieves the recipes
+     * @return The {@link Recipe recipes} of the snapshot
+     */
+    public Snapshot<Recipe> getRecipes() {return recipes;}
+
+    /**
+     * Retrieves the ingredients
+     * @return The {@link Ingredient ingredients} of the snapshot
+     */
+    public Snapshot<Ingredient> getIngredients() {return ingredients;}
+}
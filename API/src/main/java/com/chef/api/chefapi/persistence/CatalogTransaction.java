@@ -0,0 +1,145 @@
+package com.chef.api.chefapi.persistence;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.Recipe;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * A unit of work over the ingredient and recipe stores, committed all at once by
+ * {@link CatalogTransactions}
+ * <p>
+ * The ingredients are changed first, so the recipes of a transaction can use the
+ * ingredients it creates: an ingredient of a recipe given without an id, read as
+ * {@link #BY_NAME}, is looked up by name, ignoring case, accents and extra whitespace,
+ * among the ingredients as the transaction leaves them. Only the recipes of a
+ * transaction are read this way; elsewhere an ingredient without an id has id 0.
+ * 
+ * @author SWEN Faculty
+ */
+public class CatalogTransaction {
+    /**
+     * The id of a recipe's ingredient given by name only; 0 is the id of a real ingredient
+     */
+    public static final int BY_NAME = -1;
+
+    @JsonProperty("ingredients") private Changes<Ingredient> ingredients;
+    @JsonProperty("recipes") private Changes<Recipe> recipes;
+
+    /**
+     * Create a transaction
+     * @param ingredients The changes to the {@link Ingredient ingredients}, may be null
+     * @param recipes The changes to the {@link Recipe recipes}, may be null
+     */
+    public CatalogTransaction(@JsonProperty("ingredients") Changes<Ingredient> ingredients,
+            @JsonProperty("recipes") @JsonDeserialize(using = RecipeChangesDeserializer.class) Changes<Recipe> recipes) {
+        this.ingredients = ingredients == null ? new Changes<>(null,null,null) : ingredients;
+        this.recipes = recipes == null ? new Changes<>(null,null,null) : recipes;
+    }
+
+    /**
+     * Retrieves the changes to the ingredients
+     * @return The changes to the {@link Ingredient ingredients}
+     */
+    public Changes<Ingredient> getIngredients() {return ingredients;}
+
+    /**
+     * Retrieves the changes to the recipes
+     * @return The changes to the {@link Recipe recipes}
+     */
+    public Changes<Recipe> getRecipes() {return recipes;}
+
+    /**
+     * The changes a transaction makes to one store
+     */
+    public static class Changes<T> {
+        @JsonProperty("create") private List<T> create;
+        @JsonProperty("update") private List<T> update;
+        @JsonProperty("delete") private List<Integer> delete;
+
+        /**
+         * Create a set of changes
+         * @param create The entities to create, their ids are ignored; may be null
+         * @param update The entities to replace, by id; may be null
+         * @param delete The ids of the entities to delete; may be null
+         */
+        public Changes(@JsonProperty("create") List<T> create, @JsonProperty("update") List<T> update,
+                @JsonProperty("delete") List<Integer> delete) {
+            this.create = create == null ? new ArrayList<>() : create;
+            this.update = update == null ? new ArrayList<>() : update;
+            this.delete = delete == null ? new ArrayList<>() : delete;
+        }
+
+        /**
+         * Retrieves the entities to create
+         * @return The entities to create, may be empty
+         */
+        public List<T> getCreate() {return create;}
+
+        /**
+         * Retrieves the entities to replace
+         * @return The entities to replace, may be empty
+         */
+        public List<T> getUpdate() {return update;}
+
+        /**
+         * Retrieves the ids of the entities to delete
+         * @return The ids to delete, may be empty
+         */
+        public List<Integer> getDelete() {return delete;}
+    }
+
+    /**
+     * Reads the changes to the recipes, giving the ingredients without an id the id
+     * {@link #BY_NAME}
+     */
+    static class RecipeChangesDeserializer extends JsonDeserializer<Changes<Recipe>> {
+        private static final TypeReference<Changes<Recipe>> TYPE = new TypeReference<Changes<Recipe>>() {};
+
+        @Override
+        public Changes<Recipe> deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            ObjectCodec codec = parser.getCodec();
+            JsonNode changes = codec.readTree(parser);
+            for (String list : new String[] {"create","update"}) {
+                for (JsonNode recipe : changes.path(list)) {
+                    for (JsonNode line : recipe.path("ingredients")) {
+                        if (line.isObject() && !line.hasNonNull("id"))
+                            ((ObjectNode) line).put("id",BY_NAME);
+                    }
+                }
+            }
+            return codec.readValue(codec.treeAsTokens(changes),TYPE);
+        }
+    }
+
+    /**
+     * The entities a committed transaction created or updated, as they were saved
+     */
+    public static class Result {
+        @JsonProperty("ingredients") private List<Ingredient> ingredients = new ArrayList<>();
+        @JsonProperty("recipes") private List<Recipe> recipes = new ArrayList<>();
+
+        /**
+         * Retrieves the saved ingredients
+         * @return The created and updated {@link Ingredient ingredients}, in the order they were given
+         */
+        public List<Ingredient> getIngredients() {return ingredients;}
+
+        /**
+         * Retrieves the saved recipes
+         * @return The created and updated {@link Recipe recipes}, in the order they were given
+         */
+        public List<Recipe> getRecipes() {return recipes;}
+    }
+}
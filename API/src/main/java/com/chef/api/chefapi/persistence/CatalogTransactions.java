@@ -0,0 +1,548 @@
+package com.chef.api.chefapi.persistence;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Lock;
+import java.util.function.ToIntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.Recipe;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Commits {@linkplain CatalogTransaction transactions} that change the ingredient and
+ * recipe stores together, so that either all of their changes are made or none
+ * <p>
+ * A transaction takes the write locks of both stores, always the ingredients' first,
+ * and stages its changes on copies of their caches, checking along the way that every
+ * recipe it saves only uses ingredients that exist and that it deletes no ingredient
+ * a recipe still uses. It then commits with a single durable write: a journal of the
+ * entities it saves and deletes, written to a temporary file, forced to disk and
+ * renamed into place. Each data file is then rewritten once, however many changes
+ * the transaction made to it, and both caches are swapped in together, out of sight
+ * of {@link CatalogSnapshot snapshots}, before the journal is removed.
+ * <p>
+ * A crash after the journal was written leaves it behind, and the transaction is
+ * completed from it the next time the server starts. A data file that cannot be
+ * written rolls the transaction back instead.
+ * 
+ * {@literal @}Component Spring annotation instantiates a single instance of this
+ * class and injects the instance into other classes as needed
+ * 
+ * @author SWEN Faculty
+ */
+@Component
+public class CatalogTransactions {
+    private static final Logger LOG = Logger.getLogger(CatalogTransactions.class.getName());
+    private RecipeFileDAO recipeDao;
+    private FileRepository<Recipe> recipeStore;
+    private FileRepository<Ingredient> ingredientStore;
+    private ObjectMapper objectMapper;  // Writes the journal
+    private Path journal;               // Present only while a transaction is being committed
+    private Executor executor;          // Runs the blocking commits
+
+    /**
+     * Creates the transaction manager of the catalog, completing a transaction the
+     * server stopped in the middle of
+     * 
+     * @param recipeDao The {@link RecipeFileDAO} owning the recipes file
+     * @param ingredientDao The {@link IngredientFileDAO} owning the ingredients file
+     * @param objectMapper Provides conversion of the entities to JSON
+     * @param journal Filename of the journal of the transaction being committed
+     * @param executor The executor that runs the blocking commits
+     * 
+     * @throws IOException when an unfinished transaction cannot be completed
+     */
+    @Autowired
+    public CatalogTransactions(RecipeFileDAO recipeDao, IngredientFileDAO ingredientDao, ObjectMapper objectMapper,
+            @Value("${chef.transactions.journal:data/catalog.journal}") String journal,
+            @Qualifier("persistenceExecutor") Executor executor) throws IOException {
+        this.recipeDao = recipeDao;
+        this.recipeStore = recipeDao.getRepository();
+        this.ingredientStore = ingredientDao.getRepository();
+        this.objectMapper = objectMapper;
+        this.journal = Paths.get(journal);
+        this.executor = executor;
+        recover();
+    }
+
+    /**
+     * Commits a transaction
+     * 
+     * @param transaction The {@link CatalogTransaction transaction} to commit
+     * 
+     * @return The {@link CatalogTransaction.Result entities} the transaction saved
+     * 
+     * @throws IllegalStateException if the transaction changes an entity that does not
+     * exist, creates a duplicate recipe, or would leave a recipe using an ingredient
+     * that does not exist; nothing is changed
+     * @throws IOException if the transaction could not be committed; nothing is changed,
+     * unless the journal was written and could not be rolled back, in which case the
+     * transaction is completed the next time the server starts
+     */
+    public CatalogTransaction.Result commit(CatalogTransaction transaction) throws IOException {
+        return locked(() -> {
+            CatalogTransaction.Result result = new CatalogTransaction.Result();
+            Stage<Ingredient> ingredients = new Stage<>(ingredientStore.cache());
+            Stage<Recipe> recipes = new Stage<>(recipeStore.cache());
+            stageIngredients(transaction.getIngredients(),ingredients,result);
+            stageRecipes(transaction.getRecipes(),ingredients,recipes,result);
+            apply(ingredients,recipes);
+            return result;
+        });
+    }
+
+    /**
+     * Replaces the whole catalog, such as with a backup, in a single transaction
+     * <br>
+     * The entities keep their ids; those the stores hold that are not given are
+     * deleted, and every change is published as for any transaction
+     * 
+     * @param ingredients The {@link Ingredient ingredients} the catalog is to hold
+     * @param recipes The {@link Recipe recipes} the catalog is to hold
+     * 
+     * @throws IOException if the catalog could not be replaced; as for
+     * {@link #commit(CatalogTransaction)}, nothing is changed unless the journal could
+     * not be rolled back
+     */
+    public void replace(Ingredient[] ingredients, Recipe[] recipes) throws IOException {
+        locked(() -> {
+            Stage<Ingredient> ingredientStage = new Stage<>(ingredientStore.cache());
+            ingredientStage.replace(ingredients,Ingredient::getId);
+            Stage<Recipe> recipeStage = new Stage<>(recipeStore.cache());
+            recipeStage.replace(recipes,Recipe::getId);
+            apply(ingredientStage,recipeStage);
+            return null;
+        });
+    }
+
+    /**
+     * Runs work while holding the write locks of both stores, always taking the
+     * ingredients' first, so transactions cannot deadlock
+     */
+    private <R> R locked(Locked<R> work) throws IOException {
+        Lock ingredientLock = ingredientStore.writeLock();
+        Lock recipeLock = recipeStore.writeLock();
+        ingredientLock.lock();
+        try {
+            recipeLock.lock();
+            try {
+                return work.run();
+            }
+            finally {
+                recipeLock.unlock();
+            }
+        }
+        finally {
+            ingredientLock.unlock();
+            ingredientStore.dispatch();
+            recipeStore.dispatch();
+        }
+    }
+
+    /**
+     * Commits staged changes: writes the journal, then the data files, then swaps in
+     * both caches
+     * <br>
+     * Must be called while holding the write locks of both stores
+     */
+    private void apply(Stage<Ingredient> ingredients, Stage<Recipe> recipes) throws IOException {
+        if (!ingredients.isChanged() && !recipes.isChanged())
+            return;
+        JsonFileStorage.replace(journal,objectMapper.writeValueAsBytes(
+            new CatalogTransaction(ingredients.journal(),recipes.journal())));
+        try {
+            writeFiles(ingredients,recipes);
+        }
+        catch(IOException e) {
+            rollBack(ingredients,recipes);
+            throw e;
+        }
+        install(ingredients,recipes);
+    }
+
+    /**
+     * Commits a transaction on the persistence executor
+     * 
+     * @param transaction The {@link CatalogTransaction transaction} to commit
+     * 
+     * @return A future completed as {@link #commit(CatalogTransaction)} returns or throws
+     */
+    public CompletableFuture<CatalogTransaction.Result> commitAsync(CatalogTransaction transaction) {
+        return AsyncTasks.supply(() -> commit(transaction),executor);
+    }
+
+    /**
+     * Stages the changes of a transaction to the {@linkplain Ingredient ingredients}
+     */
+    private void stageIngredients(CatalogTransaction.Changes<Ingredient> changes, Stage<Ingredient> stage,
+            CatalogTransaction.Result result) {
+        for (Ingredient ingredient : changes.getCreate()) {
+            Ingredient created = new Ingredient(ingredientStore.nextId(),ingredient.getName(),
+                ingredient.getQuantity(),ingredient.getUnit());
+            stage.put(ChangeEvent.Type.CREATED,created.getId(),created);
+            result.getIngredients().add(created);
+        }
+        for (Ingredient ingredient : changes.getUpdate()) {
+            if (stage.get(ingredient.getId()) == null)
+                throw new IllegalStateException("Ingredient " + ingredient.getId() + " does not exist");
+            stage.put(ChangeEvent.Type.UPDATED,ingredient.getId(),ingredient);
+            result.getIngredients().add(ingredient);
+        }
+        for (int id : changes.getDelete()) {
+            if (stage.get(id) == null)
+                throw new IllegalStateException("Ingredient " + id + " does not exist");
+            stage.remove(id);
+        }
+    }
+
+    /**
+     * Stages the changes of a transaction to the {@linkplain Recipe recipes}, once the
+     * changes to the {@linkplain Ingredient ingredients} have been staged
+     */
+    private void stageRecipes(CatalogTransaction.Changes<Recipe> changes, Stage<Ingredient> ingredients,
+            Stage<Recipe> stage, CatalogTransaction.Result result) {
+        IngredientDictionary dictionary = null;     // Built when a recipe first needs it
+        Set<Integer> creates = new HashSet<>();
+        for (Recipe recipe : changes.getCreate()) {
+            if (dictionary == null && needsLookup(recipe))
+                dictionary = new IngredientDictionary(ingredients.values());
+            Recipe resolved = resolve(recipe,ingredients,dictionary);
+            Recipe created = new Recipe(recipeStore.nextId(),resolved.getName(),resolved.getIngredients());
+            stage.put(ChangeEvent.Type.CREATED,created.getId(),created);
+            result.getRecipes().add(created);
+            creates.add(created.getId());
+        }
+        for (Recipe recipe : changes.getUpdate()) {
+            if (stage.get(recipe.getId()) == null)
+                throw new IllegalStateException("Recipe " + recipe.getId() + " does not exist");
+            if (dictionary == null && needsLookup(recipe))
+                dictionary = new IngredientDictionary(ingredients.values());
+            Recipe resolved = resolve(recipe,ingredients,dictionary);
+            stage.put(ChangeEvent.Type.UPDATED,resolved.getId(),resolved);
+            result.getRecipes().add(resolved);
+        }
+        for (int id : changes.getDelete()) {
+            if (stage.get(id) == null)
+                throw new IllegalStateException("Recipe " + id + " does not exist");
+            stage.remove(id);
+        }
+        refuseDuplicates(stage,creates);
+
+        Set<Integer> deleted = ingredients.deleted();
+        if (!deleted.isEmpty()) {
+            for (Recipe recipe : stage.values().values()) {
+                for (Ingredient ingredient : lines(recipe))
+                    if (deleted.contains(ingredient.getId()))
+                        throw new IllegalStateException("Ingredient " + ingredient.getId()
+                            + " is still used by recipe '" + recipe.getName() + "'");
+            }
+        }
+    }
+
+    /**
+     * Refuses the recipes a transaction creates that have the same content as another
+     * recipe the transaction leaves: one it also saves, or a saved one it neither
+     * changes nor deletes
+     * <br>
+     * Checked once all the recipes are staged, so a recipe may be created in place of
+     * one the same transaction deletes
+     */
+    private void refuseDuplicates(Stage<Recipe> stage, Set<Integer> creates) {
+        if (creates.isEmpty())
+            return;
+        Set<Integer> changed = new HashSet<>();
+        for (ChangeEvent<Recipe> change : stage.changes)
+            changed.add(change.getId());
+        Map<String,Integer> saved = new HashMap<>();    // Id of a staged recipe by content hash
+        for (int id : changed) {
+            Recipe recipe = stage.get(id);
+            if (recipe == null)
+                continue;
+            Integer other = saved.putIfAbsent(ContentHash.of(recipe),id);
+            if (other != null && (creates.contains(id) || creates.contains(other)))
+                throw duplicate(stage.get(creates.contains(id) ? id : other));
+        }
+        for (int id : creates) {
+            Recipe created = stage.get(id);
+            for (int existing : recipeDao.findDuplicates(created))
+                if (!changed.contains(existing))
+                    throw duplicate(created);
+        }
+    }
+
+    private static IllegalStateException duplicate(Recipe recipe) {
+        return new IllegalStateException("Recipe '" + recipe.getName() + "' already exists");
+    }
+
+    /**
+     * Checks whether a {@linkplain Recipe recipe} has ingredients given by name only
+     */
+    private static boolean needsLookup(Recipe recipe) {
+        for (Ingredient ingredient : lines(recipe))
+            if (ingredient.getId() == CatalogTransaction.BY_NAME)
+                return true;
+        return false;
+    }
+
+    /**
+     * Checks that the ingredients of a {@linkplain Recipe recipe} exist, and looks up
+     * those given by name only
+     * 
+     * @return The recipe with the id of each of its ingredients
+     */
+    private static Recipe resolve(Recipe recipe, Stage<Ingredient> ingredients, IngredientDictionary dictionary) {
+        List<Ingredient> resolved = new ArrayList<>();
+        for (Ingredient ingredient : lines(recipe)) {
+            if (ingredient.getId() != CatalogTransaction.BY_NAME) {
+                if (ingredients.get(ingredient.getId()) == null)
+                    throw new IllegalStateException("Recipe '" + recipe.getName() + "' uses ingredient "
+                        + ingredient.getId() + ", which does not exist");
+                resolved.add(ingredient);
+            }
+            else {
+                Ingredient[] found = dictionary.lookup(ingredient.getName());
+                if (found.length == 0)
+                    throw new IllegalStateException("Recipe '" + recipe.getName() + "' uses ingredient '"
+                        + ingredient.getName() + "', which does not exist");
+                resolved.add(new Ingredient(found[0].getId(),found[0].getName(),ingredient.getQuantity(),
+                    ingredient.getUnit()));
+            }
+        }
+        return new Recipe(recipe.getId(),recipe.getName(),resolved);
+    }
+
+    private static List<Ingredient> lines(Recipe recipe) {
+        List<Ingredient> lines = new ArrayList<>();
+        if (recipe.getIngredients() != null)
+            for (Ingredient ingredient : recipe.getIngredients())
+                if (ingredient != null)
+                    lines.add(ingredient);
+        return lines;
+    }
+
+    /**
+     * Writes the data files of the stores a transaction changes
+     * 
+     * @throws IOException when a file cannot be written; files already written are
+     * left changed
+     */
+    private void writeFiles(Stage<Ingredient> ingredients, Stage<Recipe> recipes) throws IOException {
+        if (ingredients.isChanged())
+            ingredients.content = ingredientStore.commit(ingredients.values());
+        if (recipes.isChanged())
+            recipes.content = recipeStore.commit(recipes.values());
+    }
+
+    /**
+     * Swaps in the caches of a transaction whose data files have been written, removes
+     * its journal and queues its changes for the listeners
+     * <br>
+     * Must be called while holding the write locks of both stores
+     */
+    private void install(Stage<Ingredient> ingredients, Stage<Recipe> recipes) {
+        CatalogSnapshot.beginSwap();
+        try {
+            if (ingredients.isChanged())
+                ingredientStore.install(ingredients.values(),ingredients.changes,ingredients.content);
+            if (recipes.isChanged())
+                recipeStore.install(recipes.values(),recipes.changes,recipes.content);
+        }
+        finally {
+            CatalogSnapshot.endSwap();
+        }
+        try {
+            Files.deleteIfExists(journal);
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,"Could not remove the journal of a committed transaction",e);
+        }
+        ingredientStore.publish(ingredients.changes);
+        recipeStore.publish(recipes.changes);
+    }
+
+    /**
+     * Restores the data files a transaction may have written and removes its journal
+     */
+    private void rollBack(Stage<Ingredient> ingredients, Stage<Recipe> recipes) {
+        try {
+            if (ingredients.isChanged())
+                ingredientStore.commit(ingredients.current);
+            if (recipes.isChanged())
+                recipeStore.commit(recipes.current);
+            Files.deleteIfExists(journal);
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,"Could not roll back a transaction, it will be completed at the next start",e);
+        }
+    }
+
+    /**
+     * Completes the transaction whose journal was left behind, if any
+     * <br>
+     * The journal holds every entity the transaction saved, with its id, and the ids it
+     * deleted, so applying it again to data files it already reached changes nothing
+     * 
+     * @throws IOException when the journal cannot be read or the data files written
+     */
+    private void recover() throws IOException {
+        if (!Files.exists(journal))
+            return;
+        CatalogTransaction pending = objectMapper.readValue(journal.toFile(),CatalogTransaction.class);
+        Lock ingredientLock = ingredientStore.writeLock();
+        Lock recipeLock = recipeStore.writeLock();
+        ingredientLock.lock();
+        try {
+            recipeLock.lock();
+            try {
+                Stage<Ingredient> ingredients = new Stage<>(ingredientStore.cache());
+                for (Ingredient ingredient : pending.getIngredients().getUpdate())
+                    ingredients.put(ingredients.get(ingredient.getId()) == null ? ChangeEvent.Type.CREATED
+                        : ChangeEvent.Type.UPDATED,ingredient.getId(),ingredient);
+                for (int id : pending.getIngredients().getDelete())
+                    if (ingredients.get(id) != null)
+                        ingredients.remove(id);
+                Stage<Recipe> recipes = new Stage<>(recipeStore.cache());
+                for (Recipe recipe : pending.getRecipes().getUpdate())
+                    recipes.put(recipes.get(recipe.getId()) == null ? ChangeEvent.Type.CREATED
+                        : ChangeEvent.Type.UPDATED,recipe.getId(),recipe);
+                for (int id : pending.getRecipes().getDelete())
+                    if (recipes.get(id) != null)
+                        recipes.remove(id);
+
+                writeFiles(ingredients,recipes);
+                install(ingredients,recipes);
+                LOG.info("Completed the transaction left in " + journal);
+            }
+            finally {
+                recipeLock.unlock();
+            }
+        }
+        finally {
+            ingredientLock.unlock();
+            ingredientStore.dispatch();
+            recipeStore.dispatch();
+        }
+    }
+
+    /**
+     * Work done while holding the write locks of both stores
+     */
+    @FunctionalInterface
+    private interface Locked<R> {
+        R run() throws IOException;
+    }
+
+    /**
+     * The changes a transaction makes to the cache of one store
+     * <br>
+     * The cache is only copied once it is first changed
+     */
+    private static class Stage<T> {
+        final Map<Integer,T> current;   // The published cache, never modified
+        private Map<Integer,T> updated;
+        final List<ChangeEvent<T>> changes = new ArrayList<>();
+        byte[] content;     // The data file as written
+
+        Stage(Map<Integer,T> current) {
+            this.current = current;
+        }
+
+        T get(int id) {
+            return values().get(id);
+        }
+
+        Map<Integer,T> values() {
+            return updated == null ? current : updated;
+        }
+
+        boolean isChanged() {
+            return !changes.isEmpty();
+        }
+
+        void put(ChangeEvent.Type type, int id, T entity) {
+            copy().put(id,entity);
+            changes.add(new ChangeEvent<>(0,type,id,entity));
+        }
+
+        void remove(int id) {
+            copy().remove(id);
+            changes.add(new ChangeEvent<>(0,ChangeEvent.Type.DELETED,id,null));
+        }
+
+        /**
+         * Stages whatever makes the cache hold exactly a set of entities
+         */
+        void replace(T[] entities, ToIntFunction<T> idOf) {
+            Map<Integer,T> replacing = new TreeMap<>();
+            for (T entity : entities)
+                replacing.put(idOf.applyAsInt(entity),entity);
+            for (int id : current.keySet()) {
+                if (!replacing.containsKey(id))
+                    remove(id);
+            }
+            for (Map.Entry<Integer,T> entry : replacing.entrySet()) {
+                T existing = current.get(entry.getKey());
+                if (existing == null)
+                    put(ChangeEvent.Type.CREATED,entry.getKey(),entry.getValue());
+                else if (!existing.equals(entry.getValue()))
+                    put(ChangeEvent.Type.UPDATED,entry.getKey(),entry.getValue());
+            }
+        }
+
+        /**
+         * Retrieves the ids this transaction deleted, and did not create again
+         */
+        Set<Integer> deleted() {
+            Set<Integer> deleted = new HashSet<>();
+            for (ChangeEvent<T> change : changes)
+                if (!values().containsKey(change.getId()))
+                    deleted.add(change.getId());
+            return deleted;
+        }
+
+        /**
+         * Describes the outcome of the changes for the journal: the entities saved, with
+         * their ids, and the ids deleted
+         */
+        CatalogTransaction.Changes<T> journal() {
+            Set<Integer> ids = new LinkedHashSet<>();
+            for (ChangeEvent<T> change : changes)
+                ids.add(change.getId());
+            List<T> saved = new ArrayList<>();
+            List<Integer> deleted = new ArrayList<>();
+            for (int id : ids) {
+                if (values().containsKey(id))
+                    saved.add(values().get(id));
+                else
+                    deleted.add(id);
+            }
+            return new CatalogTransaction.Changes<>(null,saved,deleted);
+        }
+
+        private Map<Integer,T> copy() {
+            if (updated == null)
+                updated = new TreeMap<>(current);
+            return updated;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.chef.api.chefapi.persistence;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Describes a single mutation applied by a Data Access Object
+ * <p>
+ * Sequence numbers are assigned by the DAO that made the change, start at 1 and
+ * increase by one with every mutation, so a consumer that remembers the last
+ * sequence it saw can tell exactly which changes it has missed.
+ * 
+ * @param <T> The type of entity that changed
+ * 
+ * @author SWEN Faculty
+ */
+public class ChangeEvent<T> {
+    /**
+     * The kind of mutation
+     */
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    @JsonProperty("sequence") private final long sequence;
+    @JsonProperty("type") private final Type type;
+    @JsonProperty("id") private final int id;
+    @JsonProperty("entity") private final T entity;
+
+    /**
+     * Create a change event
+     * @param sequence The sequence number of the change
+     * @param type The kind of mutation
+     * @param id The id of the entity that changed
+     * @param entity The entity after the change, null if it was deleted
+     */
+    public ChangeEvent(long sequence, Type type, int id, T entity) {
+        this.sequence = sequence;
+        this.type = type;
+        this.id = id;
+        this.entity = entity;
+    }
+
+    /**
+     * Retrieves the sequence number of the change
+     * @return The sequence number
+     */
+    public long getSequence() {return sequence;}
+
+    /**
+     * Retrieves the kind of mutation
+     * @return The kind of mutation
+     */
+    public Type getType() {return type;}
+
+    /**
+     * Retrieves the id of the entity that changed
+     * @return The id of the entity
+     */
+    public int getId() {return id;}
+
+    /**
+     * Retrieves the entity after the change
+     * @return The entity, null if it was deleted
+     */
+    public T getEntity() {return entity;}
+}
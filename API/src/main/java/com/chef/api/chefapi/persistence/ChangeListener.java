@@ -0,0 +1,23 @@
+package com.chef.api.chefapi.persistence;
+
+/**
+ * Receives the {@linkplain ChangeEvent changes} made by a Data Access Object
+ * <p>
+ * Listeners are called in sequence order, one change at a time, once the DAO has
+ * released its write lock, usually on the thread that made the change. A change may
+ * therefore reach them after a later write has already been saved. They should
+ * still return quickly, as the writer delivering the change waits for them.
+ * 
+ * @param <T> The type of entity being observed
+ * 
+ * @author SWEN Faculty
+ */
+@FunctionalInterface
+public interface ChangeListener<T> {
+    /**
+     * Called after a change has been saved
+     * 
+     * @param event The change that was made
+     */
+    void onChange(ChangeEvent<T> event);
+}
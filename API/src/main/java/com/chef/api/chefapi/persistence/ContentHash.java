@@ -0,0 +1,86 @@
+package com.chef.api.chefapi.persistence;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.Recipe;
+
+/**
+ * Computes content hashes of data files, used to recognise a file a DAO wrote itself,
+ * and of recipes, used to recognise a recipe that has already been saved
+ * 
+ * @author SWEN Faculty
+ */
+final class ContentHash {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private ContentHash() {}
+
+    /**
+     * Hashes the given content with SHA-256
+     * 
+     * @param content The bytes to hash
+     * 
+     * @return The hash as a lower case hex string
+     */
+    static String of(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            char[] hex = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; ++i) {
+                hex[i * 2] = HEX[(digest[i] >> 4) & 0xf];
+                hex[i * 2 + 1] = HEX[digest[i] & 0xf];
+            }
+            return new String(hex);
+        }
+        catch(NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available",e);  // required of every JVM
+        }
+    }
+
+    /**
+     * Hashes the canonical form of a recipe: its name followed by its ingredient lines
+     * in sorted order
+     * <br>
+     * Names and units are compared ignoring case, surrounding and repeated whitespace
+     * and Unicode representation, quantities by value, and ids are left out, so two
+     * recipes hash the same when a cook would call them the same recipe
+     * 
+     * @param recipe The {@link Recipe recipe} to hash
+     * 
+     * @return The hash as a lower case hex string
+     */
+    static String of(Recipe recipe) {
+        List<String> lines = new ArrayList<>();
+        if (recipe.getIngredients() != null) {
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                if (ingredient == null)
+                    continue;
+                lines.add(normalize(ingredient.getName()) + '\t'
+                    + BigDecimal.valueOf(ingredient.getQuantity()).stripTrailingZeros().toPlainString()
+                    + '\t' + normalize(ingredient.getUnit()));
+            }
+        }
+        Collections.sort(lines);
+
+        StringBuilder canonical = new StringBuilder(normalize(recipe.getName()));
+        for (String line : lines)
+            canonical.append('\n').append(line);
+        return of(canonical.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String normalize(String text) {
+        if (text == null)
+            return "";
+        return Normalizer.normalize(text,Normalizer.Form.NFC).trim()
+            .replaceAll("\\s+"," ").toLowerCase(Locale.ROOT);
+    }
+}
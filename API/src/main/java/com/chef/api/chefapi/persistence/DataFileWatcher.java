@@ -0,0 +1,152 @@
+package com.chef.api.chefapi.persistence;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Watches the data files for changes made out of band, such as an edit or a restore
+ * by operations, and has the owning DAO reload them in the background
+ * <p>
+ * Enabled with {@code chef.reload.enabled=true}. Editors and copy tools often write a
+ * file in several steps, so events are collected until the directory has been quiet
+ * for {@code chef.reload.quiet-period} milliseconds before anything is reloaded.
+ * 
+ * {@literal @}Component Spring annotation instantiates a single instance of this
+ * class and injects the instance into other classes as needed
+ * 
+ * @author SWEN Faculty
+ */
+@Component
+@ConditionalOnProperty(name = "chef.reload.enabled", havingValue = "true")
+public class DataFileWatcher {
+    private static final Logger LOG = Logger.getLogger(DataFileWatcher.class.getName());
+
+    /**
+     * Reloads one watched file
+     */
+    @FunctionalInterface
+    interface Reloader {
+        boolean reload() throws IOException;
+    }
+
+    private final WatchService watchService;
+    private final Map<Path,Reloader> reloaders = new HashMap<>();  // Keyed by absolute file path
+    private final long quietPeriod;     // Milliseconds without events before reloading
+    private final Thread thread;
+
+    /**
+     * Creates a watcher for the recipe and ingredient data files and starts it
+     * 
+     * @param recipeDao The {@link RecipeFileDAO} owning the recipes file
+     * @param ingredientDao The {@link IngredientFileDAO} owning the ingredients file
+     * @param recipesFile The recipes file
+     * @param ingredientsFile The ingredients file
+     * @param quietPeriod Milliseconds the files must be left alone before they are reloaded
+     * 
+     * @throws IOException when the files cannot be read or watched
+     */
+    public DataFileWatcher(RecipeFileDAO recipeDao, IngredientFileDAO ingredientDao,
+            @Value("${recipes.file}") String recipesFile,
+            @Value("${ingredients.file}") String ingredientsFile,
+            @Value("${chef.reload.quiet-period:200}") long quietPeriod) throws IOException {
+        this.quietPeriod = quietPeriod;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        recipeDao.enableHotReload();
+        ingredientDao.enableHotReload();
+        watch(Paths.get(recipesFile),recipeDao::reload);
+        watch(Paths.get(ingredientsFile),ingredientDao::reload);
+
+        thread = new Thread(this::run,"data-file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Registers the directory of a file with the watch service
+     * <br>
+     * Creations are watched as well as modifications because restores usually
+     * replace the file rather than rewrite it
+     */
+    private void watch(Path file, Reloader reloader) throws IOException {
+        Path absolute = file.toAbsolutePath().normalize();
+        absolute.getParent().register(watchService,
+            StandardWatchEventKinds.ENTRY_CREATE,StandardWatchEventKinds.ENTRY_MODIFY);
+        reloaders.put(absolute,reloader);
+    }
+
+    /**
+     * Waits for changes and reloads the affected files until the watcher is closed
+     */
+    private void run() {
+        try {
+            while (true) {
+                Set<Path> changed = new HashSet<>();
+                collect(watchService.take(),changed);
+                WatchKey key;
+                while ((key = watchService.poll(quietPeriod,TimeUnit.MILLISECONDS)) != null)
+                    collect(key,changed);
+
+                for (Path file : changed) {
+                    Reloader reloader = reloaders.get(file);
+                    if (reloader == null)
+                        continue;  // some other file in the data directory
+                    try {
+                        reloader.reload();
+                    }
+                    catch(IOException e) {
+                        // Most likely caught mid-write, the next event will retry
+                        LOG.log(Level.WARNING,"Could not reload " + file + ": " + e.getLocalizedMessage());
+                    }
+                }
+            }
+        }
+        catch(InterruptedException | ClosedWatchServiceException e) {
+            // shutting down
+        }
+    }
+
+    /**
+     * Adds the files a watch key reports as changed to the set and re-arms the key
+     */
+    private void collect(WatchKey key, Set<Path> changed) {
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW)
+                changed.addAll(reloaders.keySet());  // events were lost, check everything
+            else
+                changed.add(directory.resolve((Path) event.context()));
+        }
+        key.reset();
+    }
+
+    /**
+     * Stops watching when the application shuts down
+     * 
+     * @throws IOException if the watch service cannot be closed
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+}
@@ -0,0 +1,226 @@
+package com.chef.api.chefapi.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides when and on which thread the file DAOs read their data files at startup
+ * <p>
+ * Selected with {@code chef.startup.mode}:
+ * <ul>
+ * <li>{@code eager} - each DAO loads its file in its constructor, one after the other (default)</li>
+ * <li>{@code parallel} - the files are loaded concurrently while the rest of the
+ * context is created, and the server starts once all of them are loaded</li>
+ * <li>{@code lazy} - the server starts without waiting; the files load in the
+ * background, requests that need a store wait for it, and the application reports
+ * {@link ReadinessState#REFUSING_TRAFFIC} until every store is loaded</li>
+ * </ul>
+ * 
+ * {@literal @}Component Spring annotation instantiates a single instance of this
+ * class and injects the instance into other classes as needed
+ * 
+ * @author SWEN Faculty
+ */
+@Component
+public class DataStoreLoader implements SmartInitializingSingleton {
+    private static final Logger LOG = Logger.getLogger(DataStoreLoader.class.getName());
+
+    /**
+     * The startup modes
+     */
+    public enum Mode { EAGER, PARALLEL, LAZY }
+
+    /**
+     * Loads in the calling thread, used by DAOs created outside of Spring
+     */
+    static final DataStoreLoader EAGER = new DataStoreLoader(Mode.EAGER,null);
+
+    private final Mode mode;
+    private final ApplicationEventPublisher publisher;  // Publishes readiness changes
+    private final List<CompletableFuture<Void>> pending = new CopyOnWriteArrayList<>();
+    private ExecutorService executor;   // Created on first use, not needed when eager
+    private volatile boolean ready;     // Every store submitted so far has loaded
+
+    /**
+     * Creates the loader used by the Spring managed DAOs
+     * 
+     * @param mode The startup mode, one of eager, parallel or lazy
+     * @param publisher Publishes the readiness of the application
+     */
+    @Autowired
+    public DataStoreLoader(@Value("${chef.startup.mode:eager}") String mode, ApplicationEventPublisher publisher) {
+        this(Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT)),publisher);
+    }
+
+    DataStoreLoader(Mode mode, ApplicationEventPublisher publisher) {
+        this.mode = mode;
+        this.publisher = publisher;
+        this.ready = mode != Mode.LAZY;
+    }
+
+    /**
+     * Retrieves the startup mode
+     * 
+     * @return The mode
+     */
+    public Mode getMode() {return mode;}
+
+    /**
+     * Loads a store according to the startup mode
+     * 
+     * @param name Name of the store, used in log messages
+     * @param loader Reads the store's file
+     * 
+     * @return A future completed once the store has been loaded; already complete when eager
+     * 
+     * @throws IOException when loading eagerly and the file cannot be accessed or read from
+     */
+    CompletableFuture<Void> load(String name, Callable<?> loader) throws IOException {
+        if (mode == Mode.EAGER) {
+            call(loader);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                call(loader);
+            }
+            catch(IOException e) {
+                throw new CompletionException(e);
+            }
+            LOG.info("Loaded " + name + " in " + (System.nanoTime() - start) / 1000000 + " ms");
+        },executor());
+        pending.add(future);
+        return future;
+    }
+
+    /**
+     * Blocks until a store has been loaded
+     * 
+     * @param loaded The future returned by {@link #load(String, Callable)}
+     * 
+     * @throws UncheckedIOException if the store could not be loaded
+     */
+    static void await(CompletableFuture<Void> loaded) {
+        if (loaded.isDone() && !loaded.isCompletedExceptionally())
+            return;
+        try {
+            loaded.join();
+        }
+        catch(CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+                throw new UncheckedIOException((IOException) cause);
+            throw e;
+        }
+    }
+
+    /**
+     * Reports whether every store has been loaded
+     * 
+     * @return true once all stores are loaded
+     */
+    public boolean isReady() {return ready;}
+
+    /**
+     * Called once all the DAOs have been created and have submitted their loads
+     * <br>
+     * In parallel mode this waits for them, so a file that cannot be read still fails
+     * startup. In lazy mode it only arranges for readiness to be published when they finish.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (pending.isEmpty())
+            return;
+        CompletableFuture<Void> all = CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0]));
+        all.whenComplete((result,e) -> executor.shutdown());
+
+        if (mode == Mode.PARALLEL) {
+            try {
+                all.join();
+            }
+            catch(CompletionException e) {
+                throw new IllegalStateException("Could not load the data stores",e.getCause());
+            }
+        }
+        else {
+            all.whenComplete((result,e) -> {
+                if (e != null) {
+                    LOG.log(Level.SEVERE,"Could not load the data stores",e);
+                    AvailabilityChangeEvent.publish(publisher,this,LivenessState.BROKEN);
+                    return;
+                }
+                markReady();
+            });
+        }
+    }
+
+    /**
+     * Holds readiness back while lazily loaded stores are still being read
+     * <br>
+     * Spring Boot reports the application as accepting traffic as soon as it has started,
+     * which in lazy mode is before the stores are loaded
+     * 
+     * @param event The readiness change
+     */
+    @EventListener
+    public synchronized void onReadinessChange(AvailabilityChangeEvent<ReadinessState> event) {
+        if (event.getState() == ReadinessState.ACCEPTING_TRAFFIC && !ready)
+            AvailabilityChangeEvent.publish(publisher,this,ReadinessState.REFUSING_TRAFFIC);
+    }
+
+    /**
+     * Marks the stores as loaded and reports the application as ready
+     * <br>
+     * Synchronized with {@link #onReadinessChange} so Spring Boot's own readiness event
+     * cannot overtake this one and leave the application refusing traffic
+     */
+    private synchronized void markReady() {
+        ready = true;
+        AvailabilityChangeEvent.publish(publisher,this,ReadinessState.ACCEPTING_TRAFFIC);
+    }
+
+    private synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task,"data-loader");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    private static void call(Callable<?> loader) throws IOException {
+        try {
+            loader.call();
+        }
+        catch(IOException | RuntimeException e) {
+            throw e;
+        }
+        catch(Exception e) {
+            throw new IOException(e);
+        }
+    }
+}
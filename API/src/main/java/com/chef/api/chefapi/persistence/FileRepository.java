@@ -0,0 +1,487 @@
+package com.chef.api.chefapi.persistence;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps a store of entities by id in memory, written through to a {@linkplain
+ * RepositoryStorage storage}, for the file DAOs to build on
+ * <p>
+ * Readers never take a lock: the entities are held in a map that is never modified
+ * once published. Writers hold the {@linkplain #writeLock() write lock}, copy the map,
+ * change the copy, write it to the storage and only then swap it in, so a write that
+ * fails changes nothing, and a {@link Snapshot} is only a reference to the map. The
+ * {@linkplain RepositoryIndex secondary indexes} are kept up to date under the same
+ * lock. Every change is queued under the lock once it is written and delivered to the
+ * {@linkplain ChangeListener listeners} after the lock is released, by one writer at
+ * a time and in sequence order, so the listeners do not lengthen the writes that
+ * wait for the lock. A writer delivers its own change before it returns, unless
+ * another writer is delivering at the time, in which case that one delivers it.
+ * <p>
+ * Ids are assigned from one more than the greatest id in the storage. With hot reload
+ * enabled, changes made to the storage by someone else are {@linkplain #reload()
+ * applied} while the repository's own writes are recognised by their hash and skipped.
+ * 
+ * @param <T> The type of the entities
+ * 
+ * @author SWEN Faculty
+ */
+public class FileRepository<T> {
+    private static final Logger LOG = Logger.getLogger(FileRepository.class.getName());
+    private final RepositoryStorage<T> storage;
+    private final ToIntFunction<T> idOf;    // Retrieves the id of an entity
+    private final IntFunction<T[]> newArray;    // Creates the arrays the storage is given
+    private final List<RepositoryIndex<T>> indexes;
+    private volatile Map<Integer,T> entities;   // Provides a local cache of the entities
+                                // so that we don't need to read the storage each time.
+                                // Writers copy it, change the copy and swap it in, so
+                                // readers never take a lock
+    private int nextId;     // The next Id to assign to a new entity, guarded by this
+    private final ReentrantLock lock = new ReentrantLock();  // Serializes writers; unlike a
+                                        // monitor it does not pin a virtual thread's
+                                        // carrier while the storage blocks on disk
+    private final List<ChangeListener<T>> listeners = new CopyOnWriteArrayList<>();
+    private final Queue<ChangeEvent<T>> undelivered = new ConcurrentLinkedQueue<>();  // In
+                                        // sequence order, appended under the write lock
+    private final AtomicBoolean delivering = new AtomicBoolean();   // Set while a thread
+                                        // delivers the undelivered changes
+    private long sequence;      // Sequence number of the last change, guarded by the write lock
+    private volatile String lastHash;   // Hash of the storage as last written or loaded,
+                                        // null unless hot reload is enabled
+    private final CompletableFuture<Void> loaded;   // Completes once the storage has been read
+
+    /**
+     * Creates a repository and loads its entities
+     * 
+     * @param storage The {@link RepositoryStorage storage} the entities are kept in
+     * @param idOf Retrieves the id of an entity
+     * @param newArray Creates an array of entities of the given length, such as {@code Recipe[]::new}
+     * @param loader Decides whether the storage is read now or in the background
+     * @param indexes The {@link RepositoryIndex secondary indexes} kept alongside the entities
+     * 
+     * @throws IOException when the storage cannot be accessed or read from
+     */
+    @SafeVarargs
+    public FileRepository(RepositoryStorage<T> storage, ToIntFunction<T> idOf, IntFunction<T[]> newArray,
+            DataStoreLoader loader, RepositoryIndex<T>... indexes) throws IOException {
+        this.storage = storage;
+        this.idOf = idOf;
+        this.newArray = newArray;
+        this.indexes = Arrays.asList(indexes);
+        loaded = loader.load(storage.getName(),this::load);   // load the entities from the storage
+    }
+
+    /**
+     * Generates the next id for a new entity
+     * 
+     * @return The next id
+     */
+    synchronized int nextId() {
+        int id = nextId;
+        ++nextId;
+        return id;
+    }
+
+    /**
+     * Makes sure ids that exist are never assigned again
+     */
+    private synchronized void reserve(Set<Integer> ids) {
+        for (int id : ids)
+            if (id >= nextId)
+                nextId = id + 1;
+    }
+
+    /**
+     * Retrieves the local cache, waiting for the storage to be loaded first if the
+     * {@link DataStoreLoader} is loading it in the background
+     * 
+     * @return The current cache of entities by id, never modified
+     */
+    Map<Integer,T> cache() {
+        DataStoreLoader.await(loaded);
+        return entities;
+    }
+
+    /**
+     * Loads the entities from the storage into the map and builds the indexes
+     * <br>
+     * Also sets next id to one more than the greatest id found in the storage
+     * 
+     * @return true if the storage was read successfully
+     * 
+     * @throws IOException when the storage cannot be accessed or read from
+     */
+    private boolean load() throws IOException {
+        Map<Integer,T> read = new TreeMap<>();
+        nextId = 0;
+        for (T entity : storage.read()) {
+            read.put(idOf.applyAsInt(entity),entity);
+            if (idOf.applyAsInt(entity) > nextId)
+                nextId = idOf.applyAsInt(entity);
+        }
+        // Make the next id one greater than the maximum from the storage
+        ++nextId;
+        for (RepositoryIndex<T> index : indexes)
+            index.rebuild(read);
+        entities = read;
+        return true;
+    }
+
+    /**
+     * Retrieves the name of the storage
+     * 
+     * @return The name of the {@link RepositoryStorage storage}, such as its filename
+     */
+    public String getName() {
+        return storage.getName();
+    }
+
+    /**
+     * Retrieves all entities
+     * 
+     * @return An array of the entities in order of id, may be empty
+     */
+    public T[] getAll() {
+        return cache().values().toArray(newArray.apply(0));
+    }
+
+    /**
+     * Retrieves an entity with the given id
+     * 
+     * @param id The id of the entity to get
+     * 
+     * @return The entity with the matching id<br>
+     * null if no entity with a matching id is found
+     */
+    public T get(int id) {
+        return cache().get(id);
+    }
+
+    /**
+     * Creates and saves a new entity with the next id
+     * 
+     * @param build Builds the entity from the id it is assigned
+     * 
+     * @return The new entity
+     * 
+     * @throws IOException if the entity could not be saved; nothing is changed
+     */
+    public T create(IntFunction<T> build) throws IOException {
+        lock.lock();
+        try {
+            T entity = build.apply(nextId());
+            Map<Integer,T> updated = new TreeMap<>(cache());
+            updated.put(idOf.applyAsInt(entity),entity);
+            save(updated,ChangeEvent.Type.CREATED,idOf.applyAsInt(entity),entity);
+            return entity;
+        }
+        finally {
+            lock.unlock();
+            dispatch();
+        }
+    }
+
+    /**
+     * Updates and saves an entity
+     * 
+     * @param entity The entity to update and save
+     * 
+     * @return The updated entity<br>
+     * null if no entity with the same id exists
+     * 
+     * @throws IOException if the entity could not be saved; nothing is changed
+     */
+    public T update(T entity) throws IOException {
+        int id = idOf.applyAsInt(entity);
+        lock.lock();
+        try {
+            if (cache().containsKey(id) == false)
+                return null;  // entity does not exist
+
+            Map<Integer,T> updated = new TreeMap<>(cache());
+            updated.put(id,entity);
+            save(updated,ChangeEvent.Type.UPDATED,id,entity);
+            return entity;
+        }
+        finally {
+            lock.unlock();
+            dispatch();
+        }
+    }
+
+    /**
+     * Deletes an entity with the given id
+     * 
+     * @param id The id of the entity to delete
+     * 
+     * @return true if the entity was deleted<br>
+     * false if no entity with the id exists
+     * 
+     * @throws IOException if the deletion could not be saved; nothing is changed
+     */
+    public boolean delete(int id) throws IOException {
+        lock.lock();
+        try {
+            if (cache().containsKey(id) == false)
+                return false;
+
+            Map<Integer,T> updated = new TreeMap<>(cache());
+            updated.remove(id);
+            save(updated,ChangeEvent.Type.DELETED,id,null);
+            return true;
+        }
+        finally {
+            lock.unlock();
+            dispatch();
+        }
+    }
+
+    /**
+     * Writes a changed copy of the cache to the storage, then swaps it in and
+     * publishes the change
+     * <br>
+     * Must be called while holding the write lock
+     */
+    private void save(Map<Integer,T> updated, ChangeEvent.Type type, int id, T entity) throws IOException {
+        byte[] content = storage.write(updated.values().toArray(newArray.apply(updated.size())));  // may throw an IOException
+
+        // Remember what we wrote so the file watcher can skip our own writes
+        if (lastHash != null)
+            lastHash = ContentHash.of(content);
+        swap(updated,Set.of(id));
+        publish(type,id,entity);
+    }
+
+    /**
+     * Updates the indexes and publishes a new cache
+     * <br>
+     * Must be called while holding the write lock
+     */
+    private void swap(Map<Integer,T> updated, Set<Integer> changed) {
+        Map<Integer,T> current = entities;
+        for (RepositoryIndex<T> index : indexes)
+            index.update(current,updated,changed);
+        entities = updated;
+    }
+
+    /**
+     * Queues a change that has just been saved for the registered listeners
+     * <br>
+     * Must be called while holding the write lock so events are queued in sequence order;
+     * they are delivered by {@link #dispatch()} once the lock is released
+     * 
+     * @param type The kind of mutation
+     * @param id The id of the entity that changed
+     * @param entity The entity after the change, null if it was deleted
+     */
+    private void publish(ChangeEvent.Type type, int id, T entity) {
+        undelivered.add(new ChangeEvent<>(++sequence,type,id,entity));
+    }
+
+    /**
+     * Delivers the queued changes to the registered listeners, in sequence order
+     * <br>
+     * Called after releasing the write lock. Does nothing while the calling thread
+     * still holds it, as the outermost release delivers, or while another thread is
+     * delivering, as that thread goes on until the queue is empty.
+     */
+    void dispatch() {
+        if (lock.isHeldByCurrentThread())
+            return;
+        // Checked again after letting go, for a change queued just before
+        while (!undelivered.isEmpty() && delivering.compareAndSet(false,true)) {
+            try {
+                ChangeEvent<T> event;
+                while ((event = undelivered.poll()) != null) {
+                    for (ChangeListener<T> listener : listeners) {
+                        try {
+                            listener.onChange(event);
+                        }
+                        catch(RuntimeException e) {
+                            LOG.log(Level.WARNING,"Change listener failed",e);
+                        }
+                    }
+                }
+            }
+            finally {
+                delivering.set(false);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the lock that serializes writers, so that a {@link CatalogTransactions
+     * transaction} can hold it while it changes this store together with another
+     * <br>
+     * Whoever releases it must then call {@link #dispatch()}
+     * 
+     * @return The write lock
+     */
+    Lock writeLock() {
+        return lock;
+    }
+
+    /**
+     * Writes a set of entities to the storage durably and atomically, for a {@link
+     * CatalogTransactions transaction}, without swapping them in
+     * 
+     * @param staged The entities by id
+     * 
+     * @return The content written
+     * 
+     * @throws IOException when the storage cannot be written; it is left as it was
+     */
+    byte[] commit(Map<Integer,T> staged) throws IOException {
+        return storage.write(staged.values().toArray(newArray.apply(staged.size())));
+    }
+
+    /**
+     * Swaps in the cache a {@link CatalogTransactions transaction} has staged and
+     * {@linkplain #commit(Map) committed}, without saving it again
+     * <br>
+     * Must be called while holding the write lock; the changes are queued
+     * separately with {@link #publish(List)}
+     * 
+     * @param updated The new cache of entities
+     * @param changes The changes between the current cache and the new one
+     * @param content The content of the storage as the transaction wrote it
+     */
+    void install(Map<Integer,T> updated, List<ChangeEvent<T>> changes, byte[] content) {
+        Set<Integer> changed = new LinkedHashSet<>();
+        for (ChangeEvent<T> change : changes)
+            changed.add(change.getId());
+        swap(updated,changed);
+        if (lastHash != null)
+            lastHash = ContentHash.of(content);
+        reserve(changed);
+    }
+
+    /**
+     * Queues changes that have just been installed for the registered listeners
+     * <br>
+     * Must be called while holding the write lock; the caller delivers them with
+     * {@link #dispatch()} once it has released the lock
+     * 
+     * @param changes The changes, in the order they were made
+     */
+    void publish(List<ChangeEvent<T>> changes) {
+        for (ChangeEvent<T> change : changes)
+            publish(change.getType(),change.getId(),change.getEntity());
+    }
+
+    /**
+     * Starts tracking the content hash of the storage, so that {@link #reload()} can
+     * tell changes made out of band apart from this repository's own writes
+     * 
+     * @throws IOException when the storage cannot be accessed or read from
+     */
+    public void enableHotReload() throws IOException {
+        cache();  // the hash must describe the content the cache was loaded from
+        lock.lock();
+        try {
+            lastHash = ContentHash.of(storage.content());
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reloads the storage if it was changed by someone other than this repository
+     * <br>
+     * The storage is compared with the cache by id and only the entities that were
+     * added, changed or removed are applied and published as changes. The updated
+     * cache is swapped in at once, so readers never block and never see a partly
+     * applied reload.
+     * 
+     * @return true if the storage had changed and the changes were applied
+     * 
+     * @throws IOException when the storage cannot be accessed or parsed
+     */
+    public boolean reload() throws IOException {
+        lock.lock();
+        try {
+            // Read under the lock, so a write made meanwhile is never undone by older content
+            byte[] content = storage.content();
+            String hash = ContentHash.of(content);
+            if (hash.equals(lastHash))
+                return false;  // unchanged, or the write we just made ourselves
+
+            T[] read = storage.decode(content);
+            Map<Integer,T> current = cache();
+            Map<Integer,T> reloaded = new TreeMap<>(current);
+            Map<Integer,T> stored = new TreeMap<>();
+            List<ChangeEvent<T>> changes = new ArrayList<>();
+
+            for (T entity : read) {
+                int id = idOf.applyAsInt(entity);
+                stored.put(id,entity);
+                T existing = current.get(id);
+                if (existing == null)
+                    changes.add(new ChangeEvent<>(0,ChangeEvent.Type.CREATED,id,entity));
+                else if (!existing.equals(entity))
+                    changes.add(new ChangeEvent<>(0,ChangeEvent.Type.UPDATED,id,entity));
+            }
+            for (Integer id : current.keySet()) {
+                if (!stored.containsKey(id))
+                    changes.add(new ChangeEvent<>(0,ChangeEvent.Type.DELETED,id,null));
+            }
+
+            Set<Integer> changed = new LinkedHashSet<>();
+            for (ChangeEvent<T> change : changes) {
+                if (change.getType() == ChangeEvent.Type.DELETED)
+                    reloaded.remove(change.getId());
+                else
+                    reloaded.put(change.getId(),change.getEntity());
+                changed.add(change.getId());
+            }
+            swap(reloaded,changed);
+            lastHash = hash;
+            reserve(stored.keySet());
+            publish(changes);
+
+            LOG.info("Reloaded " + storage.getName() + ": " + changes.size() + " entities changed");
+            return true;
+        }
+        finally {
+            lock.unlock();
+            dispatch();
+        }
+    }
+
+    /**
+     * Takes a point-in-time view of the entities, without copying them or taking a lock
+     * 
+     * @return A {@link Snapshot snapshot} unaffected by later changes
+     */
+    public Snapshot<T> snapshot() {
+        return new Snapshot<>(cache());    // published caches are replaced, never modified
+    }
+
+    /**
+     * Registers a listener notified of every change once it has been saved, after the
+     * write lock is released
+     * 
+     * @param listener The {@link ChangeListener listener} to register
+     */
+    public void addChangeListener(ChangeListener<T> listener) {
+        listeners.add(listener);
+    }
+}
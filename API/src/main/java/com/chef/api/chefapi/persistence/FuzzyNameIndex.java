@@ -0,0 +1,286 @@
+package com.chef.api.chefapi.persistence;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.chef.api.chefapi.model.Recipe;
+
+/**
+ * Finds {@linkplain Recipe recipes} whose names nearly match a text, tolerating typos
+ * <p>
+ * The words of all recipe names form a vocabulary kept in a BK-tree, in which every
+ * child hangs off its parent by its edit distance to it. By the triangle inequality,
+ * the words within distance k of a query word can only be under children whose edge
+ * lies within k of the query's distance to their parent, so a lookup only measures a
+ * small part of the vocabulary instead of every recipe name.
+ * <br>
+ * A recipe matches when every word of the text is within its edit distance of some
+ * word of the recipe's name; matches are ranked by the sum of those distances. The
+ * tree cannot drop a word, so a word no recipe uses any more is only skipped until
+ * such words outnumber the live ones and the tree is rebuilt.
+ * 
+ * @author SWEN Faculty
+ */
+public class FuzzyNameIndex implements ChangeListener<Recipe> {
+    static final int MAX_DISTANCE = 2;  // The most edits allowed per word
+
+    private final RecipeDAO recipeDao;
+    private final Map<Integer,Recipe> recipes = new HashMap<>();
+    private final Map<String,Set<Integer>> postings = new HashMap<>();  // Word to ids of recipes using it
+    private BkNode root;
+    private int words;      // Words in the tree
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean built; // Changed only while holding the write lock
+
+    /**
+     * Creates the index; its owner must pass it the DAO's change events
+     * 
+     * @param recipeDao The {@link RecipeDAO Recipe Data Access Object} the index is built from
+     */
+    public FuzzyNameIndex(RecipeDAO recipeDao) {
+        this.recipeDao = recipeDao;
+    }
+
+    /**
+     * The edit distance allowed for a word when none is given: none for words of up to
+     * two letters, one for words of up to five letters, and two for longer words
+     * 
+     * @param word The word
+     * 
+     * @return The number of edits allowed
+     */
+    static int automaticDistance(String word) {
+        return word.length() <= 2 ? 0 : word.length() <= 5 ? 1 : MAX_DISTANCE;
+    }
+
+    /**
+     * Finds the {@linkplain Recipe recipes} whose names match a text within a number of edits per word
+     * 
+     * @param text The text, split into words the way names are
+     * @param maxDistance The edits allowed per word, at most {@value #MAX_DISTANCE};
+     * negative to choose by the length of each word
+     * 
+     * @return The matching {@link Recipe recipes}, closest first and then in order of id, may be empty
+     * 
+     * @throws IOException if the index has to be built and the recipes cannot be read
+     */
+    public Recipe[] find(String text, int maxDistance) throws IOException {
+        List<String> queryWords = RecipeQuery.words(text);
+        if (queryWords.isEmpty())
+            return new Recipe[0];
+        if (!built)
+            build();
+        lock.readLock().lock();
+        try {
+            Map<Integer,Integer> totals = null;    // Recipe id to the sum of its best distances
+            for (String word : new HashSet<>(queryWords)) {
+                int k = maxDistance < 0 ? automaticDistance(word) : Math.min(maxDistance,MAX_DISTANCE);
+                Map<Integer,Integer> best = new HashMap<>();
+                for (Map.Entry<String,Integer> near : near(word,k).entrySet()) {
+                    for (Integer id : postings.get(near.getKey()))
+                        best.merge(id,near.getValue(),Math::min);
+                }
+                if (totals == null) {
+                    totals = best;
+                }
+                else {
+                    Map<Integer,Integer> both = new HashMap<>();
+                    for (Map.Entry<Integer,Integer> entry : totals.entrySet()) {
+                        Integer distance = best.get(entry.getKey());
+                        if (distance != null)
+                            both.put(entry.getKey(),entry.getValue() + distance);
+                    }
+                    totals = both;
+                }
+                if (totals.isEmpty())
+                    break;
+            }
+            List<Map.Entry<Integer,Integer>> ranked = new ArrayList<>(totals.entrySet());
+            ranked.sort((a,b) -> !a.getValue().equals(b.getValue()) ? Integer.compare(a.getValue(),b.getValue())
+                : Integer.compare(a.getKey(),b.getKey()));
+            Recipe[] found = new Recipe[ranked.size()];
+            for (int i = 0; i < found.length; ++i)
+                found[i] = recipes.get(ranked.get(i).getKey());
+            return found;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onChange(ChangeEvent<Recipe> event) {
+        lock.writeLock().lock();
+        try {
+            if (!built)
+                return;  // the build will read the change from the DAO
+            remove(event.getId());
+            if (event.getType() != ChangeEvent.Type.DELETED)
+                add(event.getEntity());
+            if (words > 64 && words > 2 * postings.size())
+                rebuildTree();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the live words within k edits of a word; called with the read lock held
+     * 
+     * @return The words found and their distances
+     */
+    private Map<String,Integer> near(String word, int k) {
+        Map<String,Integer> found = new HashMap<>();
+        if (root == null)
+            return found;
+        Deque<BkNode> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            BkNode node = pending.pop();
+            int distance = distance(word,node.word);
+            if (distance <= k && postings.containsKey(node.word))
+                found.put(node.word,distance);
+            if (node.children != null) {
+                for (int edge = Math.max(1,distance - k); edge <= distance + k; ++edge) {
+                    BkNode child = node.children.get(edge);
+                    if (child != null)
+                        pending.push(child);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Indexes every recipe of the DAO the first time the index is used
+     */
+    private void build() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (built)
+                return;
+            for (Recipe recipe : recipeDao.getRecipes())
+                add(recipe);
+            built = true;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a recipe; called with the write lock held
+     */
+    private void add(Recipe recipe) {
+        recipes.put(recipe.getId(),recipe);
+        for (String word : RecipeQuery.words(recipe.getName())) {
+            Set<Integer> ids = postings.get(word);
+            if (ids == null) {
+                ids = new HashSet<>();
+                postings.put(word,ids);
+                insert(word);
+            }
+            ids.add(recipe.getId());
+        }
+    }
+
+    /**
+     * Removes a recipe; its words stay in the tree; called with the write lock held
+     */
+    private void remove(int id) {
+        Recipe recipe = recipes.remove(id);
+        if (recipe == null)
+            return;
+        for (String word : RecipeQuery.words(recipe.getName())) {
+            Set<Integer> ids = postings.get(word);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty())
+                    postings.remove(word);
+            }
+        }
+    }
+
+    /**
+     * Adds a word to the tree unless it is already there
+     */
+    private void insert(String word) {
+        if (root == null) {
+            root = new BkNode(word);
+            words = 1;
+            return;
+        }
+        BkNode node = root;
+        while (true) {
+            int distance = distance(word,node.word);
+            if (distance == 0)
+                return;
+            if (node.children == null)
+                node.children = new HashMap<>();
+            BkNode child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance,new BkNode(word));
+                ++words;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Rebuilds the tree from the live words only
+     */
+    private void rebuildTree() {
+        root = null;
+        words = 0;
+        for (String word : postings.keySet())
+            insert(word);
+    }
+
+    /**
+     * The Levenshtein distance between two words, the number of single character
+     * insertions, deletions and substitutions turning one into the other
+     */
+    static int distance(String a, String b) {
+        if (a.equals(b))
+            return 0;
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); ++j)
+            previous[j] = j;
+        for (int i = 1; i <= a.length(); ++i) {
+            current[0] = i;
+            char c = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); ++j) {
+                int substitute = previous[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitute,Math.min(previous[j],current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static class BkNode {
+        private final String word;
+        private Map<Integer,BkNode> children;  // By edit distance to this word, created on demand
+
+        BkNode(String word) {
+            this.word = word;
+        }
+    }
+}
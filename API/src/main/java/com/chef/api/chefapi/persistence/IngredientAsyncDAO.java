@@ -0,0 +1,77 @@
+package com.chef.api.chefapi.persistence;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.chef.api.chefapi.model.Ingredient;
+
+/**
+ * Defines the asynchronous interface for Ingredient object persistence
+ * <p>
+ * Mirrors {@link IngredientDAO} but every operation returns a {@link CompletableFuture} so
+ * callers are not tied up while the underlying storage is accessed. Storage failures
+ * complete the future exceptionally with the {@link java.io.IOException IOException}
+ * the synchronous operation would have thrown.
+ * 
+ * @author SWEN Faculty
+ */
+public interface IngredientAsyncDAO {
+    /**
+     * Retrieves all {@linkplain Ingredient ingredients}
+     * 
+     * @return A future of an array of {@link Ingredient ingredient} objects, may be empty
+     */
+    CompletableFuture<Ingredient[]> getIngredients();
+
+    /**
+     * Finds all {@linkplain Ingredient ingredients} whose name contains the given text
+     * 
+     * @param containsText The text to match against
+     * 
+     * @return A future of an array of {@link Ingredient ingredients} whose names contains the given text, may be empty
+     */
+    CompletableFuture<Ingredient[]> findIngredients(String containsText);
+
+    /**
+     * Retrieves a {@linkplain Ingredient ingredient} with the given id
+     * 
+     * @param id The id of the {@link Ingredient ingredient} to get
+     * 
+     * @return A future of the {@link Ingredient ingredient} object with the matching id
+     * <br>
+     * completed with null if no {@link Ingredient ingredient} with a matching id is found
+     */
+    CompletableFuture<Ingredient> getIngredient(int id);
+
+    /**
+     * Creates and saves a {@linkplain Ingredient ingredient}
+     * 
+     * @param ingredient {@linkplain Ingredient ingredient} object to be created and saved
+     * <br>
+     * The id of the ingredient object is ignored and a new uniqe id is assigned
+     *
+     * @return A future of the new {@link Ingredient ingredient}, completed with null if the
+     * same {@link Ingredient ingredient} has already been saved
+     */
+    CompletableFuture<Ingredient> createIngredient(Ingredient ingredient);
+
+    /**
+     * Updates and saves a {@linkplain Ingredient ingredient}
+     * 
+     * @param ingredient {@link Ingredient ingredient} object to be updated and saved
+     * 
+     * @return A future of the updated {@link Ingredient ingredient}, completed with null if
+     * {@link Ingredient ingredient} could not be found
+     */
+    CompletableFuture<Ingredient> updateIngredient(Ingredient ingredient);
+
+    /**
+     * Deletes a {@linkplain Ingredient ingredient} with the given id
+     * 
+     * @param id The id of the {@link Ingredient ingredient}
+     * 
+     * @return A future completed with true if the {@link Ingredient ingredient} was deleted
+     * <br>
+     * false if ingredient with the given id does not exist
+     */
+    CompletableFuture<Boolean> deleteIngredient(int id);
+}
@@ -0,0 +1,83 @@
+package com.chef.api.chefapi.persistence;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import com.chef.api.chefapi.model.Ingredient;
+
+/**
+ * Adapts a synchronous {@link IngredientDAO} to the {@link IngredientAsyncDAO} interface by
+ * running each operation on the dedicated persistence executor
+ * 
+ * {@literal @}Component Spring annotation instantiates a single instance of this
+ * class and injects the instance into other classes as needed
+ * 
+ * @author SWEN Faculty
+ */
+@Component
+public class IngredientAsyncDAOAdapter implements IngredientAsyncDAO {
+    private IngredientDAO ingredientDao;    // The synchronous DAO doing the actual work
+    private Executor executor;              // Runs the blocking storage calls
+
+    /**
+     * Creates an asynchronous view of a Ingredient Data Access Object
+     * 
+     * @param ingredientDao The synchronous {@link IngredientDAO} to delegate to
+     * @param executor The executor that runs the blocking storage calls
+     */
+    public IngredientAsyncDAOAdapter(IngredientDAO ingredientDao, @Qualifier("persistenceExecutor") Executor executor) {
+        this.ingredientDao = ingredientDao;
+        this.executor = executor;
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Ingredient[]> getIngredients() {
+        return AsyncTasks.supply(() -> ingredientDao.getIngredients(),executor);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Ingredient[]> findIngredients(String containsText) {
+        return AsyncTasks.supply(() -> ingredientDao.findIngredients(containsText),executor);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Ingredient> getIngredient(int id) {
+        return AsyncTasks.supply(() -> ingredientDao.getIngredient(id),executor);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Ingredient> createIngredient(Ingredient ingredient) {
+        return AsyncTasks.supply(() -> ingredientDao.createIngredient(ingredient),executor);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Ingredient> updateIngredient(Ingredient ingredient) {
+        return AsyncTasks.supply(() -> ingredientDao.updateIngredient(ingredient),executor);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Boolean> deleteIngredient(int id) {
+        return AsyncTasks.supply(() -> ingredientDao.deleteIngredient(id),executor);
+    }
+}
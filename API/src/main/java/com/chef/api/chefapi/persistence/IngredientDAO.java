@@ -1,6 +1,9 @@
 package com.chef.api.chefapi.persistence;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
 import com.chef.api.chefapi.model.Ingredient;
 
 /**
@@ -19,7 +22,8 @@ public interface IngredientDAO {
     Ingredient[] getIngredients() throws IOException;
 
     /**
-     * Finds all {@linkplain Ingredient ingredients} whose name contains the given text
+     * Finds all {@linkplain Ingredient ingredients} whose name contains the given text,
+     * ignoring case, accents and extra whitespace
      * 
      * @param containsText The text to match against
      * 
@@ -29,6 +33,44 @@ public interface IngredientDAO {
      */
     Ingredient[] findIngredients(String containsText) throws IOException;
 
+    /**
+     * Finds the {@linkplain Ingredient ingredients} with the given name, ignoring case,
+     * accents and extra whitespace
+     * 
+     * @param name The name to look up
+     * 
+     * @return An array of the matching {@link Ingredient ingredients} in order of id, may be empty
+     * 
+     * @throws IOException if an issue with underlying storage
+     */
+    Ingredient[] findIngredientsByName(String name) throws IOException;
+
+    /**
+     * Finds the {@linkplain Ingredient ingredients} whose name starts with the given prefix,
+     * ignoring case, accents and extra whitespace
+     * 
+     * @param prefix The prefix to match against
+     * @param limit The most number of {@link Ingredient ingredients} to return
+     * 
+     * @return An array of the matching {@link Ingredient ingredients} in order of name, may be empty
+     * 
+     * @throws IOException if an issue with underlying storage
+     */
+    Ingredient[] findIngredientsByPrefix(String prefix, int limit) throws IOException;
+
+    /**
+     * Resolves a batch of names to the ids of the {@linkplain Ingredient ingredients} with
+     * those names, ignoring case, accents and extra whitespace
+     * 
+     * @param names The names to resolve
+     * 
+     * @return A map from each name, in the given order, to the lowest id of the
+     * {@link Ingredient ingredients} with that name, or null if there are none
+     * 
+     * @throws IOException if an issue with underlying storage
+     */
+    Map<String,Integer> resolveIngredients(List<String> names) throws IOException;
+
     /**
      * Retrieves a {@linkplain Ingredient ingredient} with the given id
      * 
@@ -79,5 +121,21 @@ public interface IngredientDAO {
      * @throws IOException if underlying storage cannot be accessed
      */
     boolean deleteIngredient(int id) throws IOException;
-}
 
+    /**
+     * Takes a point-in-time {@linkplain Snapshot snapshot} of all {@linkplain Ingredient ingredients}
+     * 
+     * @return The {@link Ingredient ingredients} as they are now, unaffected by later changes
+     * 
+     * @throws IOException if an issue with underlying storage
+     */
+    Snapshot<Ingredient> snapshot() throws IOException;
+
+    /**
+     * Registers a listener that is notified after every successful create, update
+     * and delete of a {@linkplain Ingredient ingredient}
+     * 
+     * @param listener The {@link ChangeListener listener} to notify
+     */
+    void addChangeListener(ChangeListener<Ingredient> listener);
+}
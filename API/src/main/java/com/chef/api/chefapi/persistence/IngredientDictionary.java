@@ -0,0 +1,228 @@
+package com.chef.api.chefapi.persistence;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.chef.api.chefapi.model.Ingredient;
+
+/**
+ * An immutable dictionary of {@linkplain Ingredient ingredients} by normalized name
+ * <p>
+ * Names are folded into keys so that spelling variants of the same name meet: the
+ * name is decomposed (NFKD), accents and other combining marks are dropped, it is
+ * lower cased, and runs of whitespace are collapsed to a single space and trimmed.
+ * "Crème  Fraîche " and "creme fraiche" share a key.
+ * <br>
+ * Exact lookups are a single hash lookup; the keys are also kept sorted so that all
+ * names starting with a prefix are one binary search and a contiguous range away.
+ * A dictionary is built from a snapshot of the cache and replaced together with it,
+ * so it never needs locking; after a change, the next dictionary is derived from the
+ * previous one, folding only the names of the ingredients that changed.
+ * 
+ * @author SWEN Faculty
+ */
+final class IngredientDictionary {
+    static final IngredientDictionary EMPTY = new IngredientDictionary(new TreeMap<>());
+    private static final Ingredient[] NONE = new Ingredient[0];
+
+    private final Map<String,Ingredient[]> entries;    // Ingredients of a key, by id
+    private final String[] keys;    // Sorted
+
+    /**
+     * Builds the dictionary of a snapshot of the cache
+     * 
+     * @param ingredients The {@link Ingredient ingredients} by id, in order of id
+     */
+    IngredientDictionary(Map<Integer,Ingredient> ingredients) {
+        entries = new HashMap<>();
+        Map<String,List<Ingredient>> grouped = new HashMap<>();
+        for (Ingredient ingredient : ingredients.values()) {
+            String key = key(ingredient.getName());
+            if (!key.isEmpty())
+                grouped.computeIfAbsent(key,k -> new ArrayList<>()).add(ingredient);
+        }
+        for (Map.Entry<String,List<Ingredient>> entry : grouped.entrySet())
+            entries.put(entry.getKey(),entry.getValue().toArray(NONE));
+        keys = entries.keySet().toArray(new String[0]);
+        Arrays.sort(keys);
+    }
+
+    private IngredientDictionary(Map<String,Ingredient[]> entries, String[] keys) {
+        this.entries = entries;
+        this.keys = keys;
+    }
+
+    /**
+     * Derives the dictionary of a changed cache from the dictionary of the cache before
+     * the change
+     * <br>
+     * Only the names of the changed ingredients are folded, and only the keys they had
+     * or have are regrouped; the sorted keys are merged rather than sorted again.
+     * 
+     * @param current The {@link Ingredient ingredients} by id this dictionary was built from
+     * @param updated The {@link Ingredient ingredients} by id after the change
+     * @param changed The ids that were created, updated or deleted
+     * 
+     * @return The dictionary of the updated ingredients
+     */
+    IngredientDictionary update(Map<Integer,Ingredient> current, Map<Integer,Ingredient> updated,
+            Set<Integer> changed) {
+        Map<String,Map<Integer,Ingredient>> regrouped = new HashMap<>();   // The changed keys
+        for (int id : changed) {
+            Ingredient previous = current.get(id);
+            if (previous != null) {
+                String key = key(previous.getName());
+                if (!key.isEmpty())
+                    regrouped.computeIfAbsent(key,this::group);
+            }
+        }
+        for (int id : changed) {
+            Ingredient ingredient = updated.get(id);
+            if (ingredient != null) {
+                String key = key(ingredient.getName());
+                if (!key.isEmpty())
+                    regrouped.computeIfAbsent(key,this::group).put(id,ingredient);
+            }
+        }
+
+        Map<String,Ingredient[]> next = new HashMap<>(entries);
+        SortedSet<String> added = new TreeSet<>();
+        Set<String> removed = new HashSet<>();
+        for (Map.Entry<String,Map<Integer,Ingredient>> entry : regrouped.entrySet()) {
+            Map<Integer,Ingredient> group = entry.getValue();
+            group.keySet().removeIf(id -> changed.contains(id) && updated.get(id) != group.get(id));
+            if (group.isEmpty()) {
+                if (next.remove(entry.getKey()) != null)
+                    removed.add(entry.getKey());
+            }
+            else if (next.put(entry.getKey(),group.values().toArray(NONE)) == null) {
+                added.add(entry.getKey());
+            }
+        }
+        if (added.isEmpty() && removed.isEmpty())
+            return new IngredientDictionary(next,keys);
+
+        // Merge the sorted keys with the sorted added ones, leaving out the removed ones
+        String[] merged = new String[keys.length - removed.size() + added.size()];
+        int i = 0;
+        int m = 0;
+        for (String key : added) {
+            for (; i < keys.length && keys[i].compareTo(key) < 0; ++i) {
+                if (!removed.contains(keys[i]))
+                    merged[m++] = keys[i];
+            }
+            merged[m++] = key;
+        }
+        for (; i < keys.length; ++i) {
+            if (!removed.contains(keys[i]))
+                merged[m++] = keys[i];
+        }
+        return new IngredientDictionary(next,merged);
+    }
+
+    /**
+     * Retrieves the ingredients of a key as a map by id, which may then be changed
+     */
+    private Map<Integer,Ingredient> group(String key) {
+        Map<Integer,Ingredient> group = new TreeMap<>();
+        Ingredient[] found = entries.get(key);
+        if (found != null) {
+            for (Ingredient ingredient : found)
+                group.put(ingredient.getId(),ingredient);
+        }
+        return group;
+    }
+
+    /**
+     * Folds a name into its dictionary key
+     * 
+     * @param name The name, may be null
+     * 
+     * @return The key, empty if the name is null or blank
+     */
+    static String key(String name) {
+        if (name == null)
+            return "";
+        String folded = Normalizer.normalize(name,Normalizer.Form.NFKD).replaceAll("\\p{M}+","");
+        return folded.toLowerCase(Locale.ROOT).replaceAll("\\s+"," ").trim();
+    }
+
+    /**
+     * Finds the {@linkplain Ingredient ingredients} whose name folds to the same key as a name
+     * 
+     * @param name The name to look up
+     * 
+     * @return The matching {@link Ingredient ingredients} in order of id, may be empty
+     */
+    Ingredient[] lookup(String name) {
+        Ingredient[] found = entries.get(key(name));
+        return found == null ? NONE : found.clone();
+    }
+
+    /**
+     * Finds the {@linkplain Ingredient ingredients} whose folded name starts with a folded prefix
+     * 
+     * @param prefix The prefix
+     * @param limit The most number of {@link Ingredient ingredients} to return
+     * 
+     * @return The matching {@link Ingredient ingredients} in order of key, then id, may be empty
+     */
+    Ingredient[] prefix(String prefix, int limit) {
+        String start = key(prefix);
+        int i = Arrays.binarySearch(keys,start);
+        if (i < 0)
+            i = -i - 1;  // the first key after the prefix
+        List<Ingredient> found = new ArrayList<>();
+        for (; i < keys.length && keys[i].startsWith(start) && found.size() < limit; ++i) {
+            for (Ingredient ingredient : entries.get(keys[i])) {
+                if (found.size() == limit)
+                    break;
+                found.add(ingredient);
+            }
+        }
+        return found.toArray(NONE);
+    }
+
+    /**
+     * Finds the {@linkplain Ingredient ingredients} whose folded name contains a folded text
+     * <br>
+     * Each distinct name is tested once, however many ingredients share it
+     * 
+     * @param text The text
+     * 
+     * @return The matching {@link Ingredient ingredients} in order of id, may be empty
+     */
+    Ingredient[] containing(String text) {
+        String folded = key(text);
+        Map<Integer,Ingredient> found = new TreeMap<>();
+        for (String key : keys) {
+            if (key.contains(folded)) {
+                for (Ingredient ingredient : entries.get(key))
+                    found.put(ingredient.getId(),ingredient);
+            }
+        }
+        return found.values().toArray(NONE);
+    }
+
+    /**
+     * Resolves a name to the id of the first {@linkplain Ingredient ingredient} with its key
+     * 
+     * @param name The name
+     * 
+     * @return The lowest id of the matching {@link Ingredient ingredients}, null if there are none
+     */
+    Integer resolve(String name) {
+        Ingredient[] found = entries.get(key(name));
+        return found == null ? null : found[0].getId();
+    }
+}
@@ -1,14 +1,14 @@
 package com.chef.api.chefapi.persistence;
 
-import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
-import java.util.logging.Logger;
+import java.util.Set;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -16,6 +16,9 @@ import com.chef.api.chefapi.model.Ingredient;
 
 /**
  * Implements the functionality for JSON file-based peristance for Ingredients
+ * <p>
+ * The ingredients are kept by a {@link FileRepository}, which keeps the
+ * {@linkplain IngredientDictionary dictionary} of their names as an index
  * 
  * {@literal @}Component Spring annotation instantiates a single instance of this
  * class and injects the instance into other classes as needed
@@ -24,117 +27,103 @@ import com.chef.api.chefapi.model.Ingredient;
  */
 @Component
 public class IngredientFileDAO implements IngredientDAO {
-    private static final Logger LOG = Logger.getLogger(IngredientFileDAO.class.getName());
-    Map<Integer,Ingredient> ingredients;   // Provides a local cache of the ingredient objects
-                                // so that we don't need to read from the file
-                                // each time
-    private ObjectMapper objectMapper;  // Provides conversion between Ingredient
-                                        // objects and JSON text format written
-                                        // to the file
-    private static int nextId;  // The next Id to assign to a new ingredient
-    private String filename;    // Filename to read from and write to
+    volatile IngredientDictionary dictionary = IngredientDictionary.EMPTY;  // The names of the
+                                // cache, replaced together with it
+    private final FileRepository<Ingredient> repository;    // Provides the local cache of the
+                                        // ingredient objects, written through to the file
 
     /**
      * Creates a Ingredient File Data Access Object
      * 
      * @param filename Filename to read from and write to
      * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
+     * @param loader Decides whether the file is read now or in the background
      * 
      * @throws IOException when file cannot be accessed or read from
      */
-    public IngredientFileDAO(@Value("${ingredients.file}") String filename,ObjectMapper objectMapper) throws IOException {
-        this.filename = filename;
-        this.objectMapper = objectMapper;
-        load();  // load the ingredients from the file
+    @Autowired
+    public IngredientFileDAO(@Value("${ingredients.file}") String filename,ObjectMapper objectMapper,
+            DataStoreLoader loader) throws IOException {
+        repository = new FileRepository<>(new JsonFileStorage<>(filename,objectMapper,Ingredient[].class),
+            Ingredient::getId,Ingredient[]::new,loader,new DictionaryIndex());  // load the ingredients from the file
     }
 
     /**
-     * Generates the next id for a new {@linkplain Ingredient ingredient}
+     * Creates a Ingredient File Data Access Object that loads its file right away
      * 
-     * @return The next id
+     * @param filename Filename to read from and write to
+     * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
+     * 
+     * @throws IOException when file cannot be accessed or read from
      */
-    private synchronized static int nextId() {
-        int id = nextId;
-        ++nextId;
-        return id;
+    public IngredientFileDAO(String filename,ObjectMapper objectMapper) throws IOException {
+        this(filename,objectMapper,DataStoreLoader.EAGER);
     }
 
     /**
-     * Generates an array of {@linkplain Ingredient ingredients} from the tree map
+     * Retrieves the repository keeping the ingredients, so that a {@link CatalogTransactions
+     * transaction} can change it together with another
      * 
-     * @return  The array of {@link Ingredient ingredients}, may be empty
+     * @return The {@link FileRepository repository} of {@link Ingredient ingredients}
      */
-    private Ingredient[] getIngredientsArray() {
-        return getIngredientsArray(null);
+    FileRepository<Ingredient> getRepository() {
+        return repository;
     }
 
     /**
-     * Generates an array of {@linkplain Ingredient ingredients} from the tree map for any
-     * {@linkplain Ingredient ingredients} that contains the text specified by containsText
-     * <br>
-     * If containsText is null, the array contains all of the {@linkplain Ingredient ingredients}
-     * in the tree map
+     * Retrieves the dictionary of the names in the local cache, waiting for the file
+     * to be loaded first if necessary
      * 
-     * @return  The array of {@link Ingredient ingredients}, may be empty
+     * @return The current {@link IngredientDictionary dictionary}
      */
-    private Ingredient[] getIngredientsArray(String containsText) { // if containsText == null, no filter
-        ArrayList<Ingredient> ingredientArrayList = new ArrayList<>();
+    private IngredientDictionary dictionary() {
+        repository.cache();
+        return dictionary;
+    }
 
-        for (Ingredient ingredient : ingredients.values()) {
-            if (containsText == null || ingredient.getName().contains(containsText)) {
-                ingredientArrayList.add(ingredient);
-            }
+    /**
+     * Keeps the {@linkplain IngredientDictionary dictionary} of the cache, replacing it
+     * together with the cache
+     */
+    private class DictionaryIndex implements RepositoryIndex<Ingredient> {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void rebuild(Map<Integer,Ingredient> ingredients) {
+            dictionary = new IngredientDictionary(ingredients);
         }
 
-        Ingredient[] ingredientArray = new Ingredient[ingredientArrayList.size()];
-        ingredientArrayList.toArray(ingredientArray);
-        return ingredientArray;
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void update(Map<Integer,Ingredient> current, Map<Integer,Ingredient> updated, Set<Integer> changed) {
+            dictionary = dictionary.update(current,updated,changed);
+        }
     }
 
     /**
-     * Saves the {@linkplain Ingredient ingredients} from the map into the file as an array of JSON objects
-     * 
-     * @return true if the {@link Ingredient ingredients} were written successfully
+     * Starts tracking the content hash of the file, so that {@link #reload()} can tell
+     * changes made out of band apart from this DAO's own writes
      * 
-     * @throws IOException when file cannot be accessed or written to
+     * @throws IOException when file cannot be accessed or read from
      */
-    private boolean save() throws IOException {
-        Ingredient[] ingredientArray = getIngredientsArray();
-
-        // Serializes the Java Objects to JSON objects into the file
-        // writeValue will thrown an IOException if there is an issue
-        // with the file or reading from the file
-        objectMapper.writeValue(new File(filename),ingredientArray);
-        return true;
+    public void enableHotReload() throws IOException {
+        repository.enableHotReload();
     }
 
     /**
-     * Loads {@linkplain Ingredient ingredients} from the JSON file into the map
-     * <br>
-     * Also sets next id to one more than the greatest id found in the file
+     * Reloads the file if it was changed by someone other than this DAO
      * 
-     * @return true if the file was read successfully
+     * @return true if the file had changed and the changes were applied
      * 
-     * @throws IOException when file cannot be accessed or read from
+     * @throws IOException when file cannot be accessed or parsed
+     * 
+     * @see FileRepository#reload()
      */
-    private boolean load() throws IOException {
-        ingredients = new TreeMap<>();
-        nextId = 0;
-
-        // Deserializes the JSON objects from the file into an array of ingredients
-        // readValue will throw an IOException if there's an issue with the file
-        // or reading from the file
-        Ingredient[] ingredientArray = objectMapper.readValue(new File(filename),Ingredient[].class);
-
-        // Add each ingredient to the tree map and keep track of the greatest id
-        for (Ingredient ingredient : ingredientArray) {
-            ingredients.put(ingredient.getId(),ingredient);
-            if (ingredient.getId() > nextId)
-                nextId = ingredient.getId();
-        }
-        // Make the next id one greater than the maximum from the file
-        ++nextId;
-        return true;
+    public boolean reload() throws IOException {
+        return repository.reload();
     }
 
     /**
@@ -142,9 +131,7 @@ public class IngredientFileDAO implements IngredientDAO {
      */
     @Override
     public Ingredient[] getIngredients() {
-        synchronized(ingredients) {
-            return getIngredientsArray();
-        }
+        return repository.getAll();
     }
 
     /**
@@ -152,9 +139,37 @@ public class IngredientFileDAO implements IngredientDAO {
      */
     @Override
     public Ingredient[] findIngredients(String containsText) {
-        synchronized(ingredients) {
-            return getIngredientsArray(containsText);
-        }
+        if (IngredientDictionary.key(containsText).isEmpty())
+            return repository.getAll();
+        return dictionary().containing(containsText);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public Ingredient[] findIngredientsByName(String name) {
+        return dictionary().lookup(name);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public Ingredient[] findIngredientsByPrefix(String prefix, int limit) {
+        return dictionary().prefix(prefix,limit);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public Map<String,Integer> resolveIngredients(List<String> names) {
+        IngredientDictionary current = dictionary();
+        Map<String,Integer> ids = new LinkedHashMap<>();
+        for (String name : names)
+            ids.put(name,current.resolve(name));
+        return ids;
     }
 
     /**
@@ -162,12 +177,7 @@ public class IngredientFileDAO implements IngredientDAO {
      */
     @Override
     public Ingredient getIngredient(int id) {
-        synchronized(ingredients) {
-            if (ingredients.containsKey(id))
-                return ingredients.get(id);
-            else
-                return null;
-        }
+        return repository.get(id);
     }
 
     /**
@@ -175,13 +185,23 @@ public class IngredientFileDAO implements IngredientDAO {
      */
     @Override
     public Ingredient createIngredient(Ingredient ingredient) throws IOException {
-        synchronized(ingredients) {
+        repository.writeLock().lock();   // held across the check, so no duplicate slips in
+        try {
+            // Only the ingredients of the same folded name can be the same ingredient
+            for (Ingredient existing : dictionary().lookup(ingredient.getName())) {
+                if (existing.equals(new Ingredient(existing.getId(),ingredient.getName(),ingredient.getQuantity(),
+                        ingredient.getUnit())))
+                    return null;  // the same ingredient has already been saved
+            }
+
             // We create a new ingredient object because the id field is immutable
             // and we need to assign the next unique id
-            Ingredient newIngredient = new Ingredient(nextId(),ingredient.getName(), ingredient.getQuantity(), ingredient.getUnit());
-            ingredients.put(newIngredient.getId(),newIngredient);
-            save(); // may throw an IOException
-            return newIngredient;
+            return repository.create(id -> new Ingredient(id,ingredient.getName(),ingredient.getQuantity(),
+                ingredient.getUnit()));
+        }
+        finally {
+            repository.writeLock().unlock();
+            repository.dispatch();
         }
     }
 
@@ -190,14 +210,7 @@ public class IngredientFileDAO implements IngredientDAO {
      */
     @Override
     public Ingredient updateIngredient(Ingredient ingredient) throws IOException {
-        synchronized(ingredients) {
-            if (ingredients.containsKey(ingredient.getId()) == false)
-                return null;  // ingredient does not exist
-
-            ingredients.put(ingredient.getId(),ingredient);
-            save(); // may throw an IOException
-            return ingredient;
-        }
+        return repository.update(ingredient);
     }
 
     /**
@@ -205,13 +218,22 @@ public class IngredientFileDAO implements IngredientDAO {
      */
     @Override
     public boolean deleteIngredient(int id) throws IOException {
-        synchronized(ingredients) {
-            if (ingredients.containsKey(id)) {
-                ingredients.remove(id);
-                return save();
-            }
-            else
-                return false;
-        }
+        return repository.delete(id);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public Snapshot<Ingredient> snapshot() {
+        return repository.snapshot();
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public void addChangeListener(ChangeListener<Ingredient> listener) {
+        repository.addChangeListener(listener);
     }
 }
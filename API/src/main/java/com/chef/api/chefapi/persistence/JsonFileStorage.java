@@ -0,0 +1,110 @@
+package com.chef.api.chefapi.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Keeps the entities of a {@link FileRepository} in a file as an array of JSON objects
+ * 
+ * @param <T> The type of the entities
+ * 
+ * @author SWEN Faculty
+ */
+public class JsonFileStorage<T> implements RepositoryStorage<T> {
+    private final String filename;  // Filename to read from and write to
+    private final ObjectMapper objectMapper;    // Provides conversion between the
+                                        // entities and JSON text format written
+                                        // to the file
+    private final Class<T[]> arrayType;    // The type the file is read as
+
+    /**
+     * Creates the storage of a JSON file
+     * 
+     * @param filename Filename to read from and write to
+     * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
+     * @param arrayType The array type of the entities, such as {@code Recipe[].class}
+     */
+    public JsonFileStorage(String filename, ObjectMapper objectMapper, Class<T[]> arrayType) {
+        this.filename = filename;
+        this.objectMapper = objectMapper;
+        this.arrayType = arrayType;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return filename;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T[] read() throws IOException {
+        // readValue will throw an IOException if there's an issue with the file
+        // or reading from the file
+        return objectMapper.readValue(new File(filename),arrayType);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <br>
+     * The file is never rewritten in place, so the file watcher never reads it half written
+     */
+    @Override
+    public byte[] write(T[] entities) throws IOException {
+        // writeValueAsBytes will throw an IOException if the entities cannot be converted,
+        // replace if there is an issue with the file or writing to the file
+        byte[] content = objectMapper.writeValueAsBytes(entities);
+        replace(Paths.get(filename),content);
+        return content;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] content() throws IOException {
+        return Files.readAllBytes(Paths.get(filename));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T[] decode(byte[] content) throws IOException {
+        return objectMapper.readValue(content,arrayType);
+    }
+
+    /**
+     * Writes a file durably and atomically: the content goes to a temporary file that is
+     * forced to disk, then renamed over the file
+     * 
+     * @param file The file to replace
+     * @param content The content to write
+     * 
+     * @throws IOException when the file cannot be written; it is left as it was
+     */
+    static void replace(Path file, byte[] content) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary,StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            channel.force(true);
+        }
+        Files.move(temporary,file,StandardCopyOption.REPLACE_EXISTING,StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,289 @@
+package com.chef.api.chefapi.persistence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Suggests the most popular names that start with a prefix
+ * <p>
+ * Names are kept in a radix tree: chains of nodes with a single child are merged into
+ * one edge labelled with the whole run of characters, and the children of a node are
+ * held in an array sorted by their first character. Every node caches the most
+ * popular names of its subtree, so a suggestion costs a walk down the prefix and a
+ * copy of at most {@code capacity} names, however many names share the prefix.
+ * <br>
+ * A name's popularity is its weight, adjusted up and down as the names it stands for
+ * are added and removed; a name whose weight drops to zero is removed from the tree.
+ * An adjustment only recomputes the cached names of the nodes along that name's path.
+ * Names are matched by their folded {@link IngredientDictionary#key(String) key} and
+ * suggested as they were first spelled.
+ * 
+ * @author SWEN Faculty
+ */
+public class NameSuggester {
+    private static final Comparator<Term> POPULAR = Comparator.comparingLong((Term term) -> -term.weight)
+        .thenComparing(term -> term.key);
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Term[] NO_TERMS = new Term[0];
+
+    private final int capacity;
+    private final Node root = new Node("");
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Creates an empty suggester
+     * 
+     * @param capacity The most number of names a suggestion can return
+     */
+    public NameSuggester(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Suggests the most popular names starting with a prefix
+     * 
+     * @param prefix The prefix, matched ignoring case, accents and extra whitespace
+     * @param limit The most number of names to return, at most the capacity
+     * 
+     * @return The names, most popular first and then in order of key, may be empty
+     */
+    public String[] suggest(String prefix, int limit) {
+        String key = IngredientDictionary.key(prefix);
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int i = 0;
+            while (i < key.length()) {
+                Node child = node.child(key.charAt(i));
+                if (child == null)
+                    return new String[0];
+                int common = common(child.label,key,i);
+                if (common < child.label.length() && i + common < key.length())
+                    return new String[0];   // the key leaves the edge before the prefix ends
+                node = child;
+                i += common;
+            }
+            int size = Math.min(Math.min(limit,capacity),node.top.length);
+            String[] names = new String[size];
+            for (int n = 0; n < size; ++n)
+                names[n] = node.top[n].display;
+            return names;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adjusts the weight of a name, adding it if it is new and removing it once its
+     * weight is no longer positive
+     * 
+     * @param name The name
+     * @param delta The change in weight
+     */
+    public void adjust(String name, long delta) {
+        String key = IngredientDictionary.key(name);
+        if (key.isEmpty() || delta == 0)
+            return;
+        lock.writeLock().lock();
+        try {
+            List<Node> path = new ArrayList<>();
+            Node node = delta > 0 ? insert(key,path) : find(key,path);
+            if (node == null || (node.term == null && delta < 0))
+                return;
+            if (node.term == null)
+                node.term = new Term(key,name.trim());
+            node.term.weight += delta;
+            if (node.term.weight <= 0) {
+                node.term = null;
+                prune(path);
+            }
+            for (int n = path.size() - 1; n >= 0; --n)
+                path.get(n).rank(capacity);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves the weight of a name
+     * 
+     * @param name The name
+     * 
+     * @return The weight, 0 if the name is not in the tree
+     */
+    public long weight(String name) {
+        lock.readLock().lock();
+        try {
+            Node node = find(IngredientDictionary.key(name),new ArrayList<>());
+            return node == null || node.term == null ? 0 : node.term.weight;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the node a key ends at, splitting an edge or adding a leaf if necessary
+     */
+    private Node insert(String key, List<Node> path) {
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                child = new Node(key.substring(i));
+                node.add(child);
+                path.add(child);
+                return child;
+            }
+            int common = common(child.label,key,i);
+            if (common < child.label.length()) {
+                // Split the edge where the key leaves it
+                Node middle = new Node(child.label.substring(0,common));
+                node.replace(middle);
+                child.label = child.label.substring(common);
+                middle.add(child);
+                middle.top = child.top;
+                child = middle;
+            }
+            node = child;
+            path.add(node);
+            i += common;
+        }
+        return node;
+    }
+
+    /**
+     * Finds the node a key ends at without changing the tree
+     */
+    private Node find(String key, List<Node> path) {
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.child(key.charAt(i));
+            if (child == null || common(child.label,key,i) < child.label.length())
+                return null;
+            node = child;
+            path.add(node);
+            i += child.label.length();
+        }
+        return node;
+    }
+
+    /**
+     * Removes the node at the end of a path if it no longer holds a name or leads to
+     * one, and merges its parent into its remaining child if that leaves it with one
+     */
+    private void prune(List<Node> path) {
+        Node node = path.get(path.size() - 1);
+        if (node != root && node.term == null && node.children.length == 0) {
+            Node parent = path.get(path.size() - 2);
+            parent.remove(node);
+            path.remove(path.size() - 1);
+            node = parent;
+        }
+        if (node != root && node.term == null && node.children.length == 1) {
+            Node child = node.children[0];
+            node.label = node.label + child.label;
+            node.children = child.children;
+            node.term = child.term;
+            node.top = child.top;
+        }
+    }
+
+    /**
+     * The length of the common prefix of an edge label and a key from a position on
+     */
+    private static int common(String label, String key, int from) {
+        int n = 0;
+        while (n < label.length() && from + n < key.length() && label.charAt(n) == key.charAt(from + n))
+            ++n;
+        return n;
+    }
+
+    private static class Node {
+        private String label;   // The characters on the edge into this node
+        private Node[] children = NO_CHILDREN;  // Sorted by the first character of their label
+        private Term term;      // The name ending at this node, if any
+        private Term[] top = NO_TERMS;  // The most popular names of the subtree
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node child(char first) {
+            int i = search(first);
+            return i >= 0 ? children[i] : null;
+        }
+
+        void add(Node child) {
+            int i = -search(child.label.charAt(0)) - 1;
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children,0,grown,0,i);
+            grown[i] = child;
+            System.arraycopy(children,i,grown,i + 1,children.length - i);
+            children = grown;
+        }
+
+        void replace(Node child) {
+            children[search(child.label.charAt(0))] = child;
+        }
+
+        void remove(Node child) {
+            int i = search(child.label.charAt(0));
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children,0,shrunk,0,i);
+            System.arraycopy(children,i + 1,shrunk,i,children.length - i - 1);
+            children = shrunk;
+        }
+
+        /**
+         * Recomputes the most popular names of the subtree from the node's own name and
+         * the most popular names of its children, which must be up to date
+         */
+        void rank(int capacity) {
+            List<Term> candidates = new ArrayList<>();
+            if (term != null)
+                candidates.add(term);
+            for (Node child : children)
+                candidates.addAll(Arrays.asList(child.top));
+            candidates.sort(POPULAR);
+            top = candidates.subList(0,Math.min(capacity,candidates.size())).toArray(NO_TERMS);
+        }
+
+        private int search(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char c = children[middle].label.charAt(0);
+                if (c < first)
+                    low = middle + 1;
+                else if (c > first)
+                    high = middle - 1;
+                else
+                    return middle;
+            }
+            return -(low + 1);
+        }
+    }
+
+    private static class Term {
+        private final String key;
+        private final String display;
+        private long weight;
+
+        Term(String key, String display) {
+            this.key = key;
+            this.display = display;
+        }
+    }
+}
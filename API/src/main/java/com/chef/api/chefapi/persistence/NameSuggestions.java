@@ -0,0 +1,150 @@
+package com.chef.api.chefapi.persistence;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.Recipe;
+
+/**
+ * Keeps the {@linkplain NameSuggester typeahead suggestions} for recipe and ingredient names
+ * <p>
+ * A recipe name is as popular as the number of recipes with that name. An ingredient
+ * name is as popular as the number of recipes using it, plus one for every ingredient
+ * of that name in the ingredient catalog. Both suggesters are filled from the DAOs
+ * on first use and then adjusted from their change events, by the difference between
+ * the entity before and after each change.
+ * 
+ * {@literal @}Component Spring annotation instantiates a single instance of this
+ * class and injects the instance into other classes as needed
+ * 
+ * @author SWEN Faculty
+ */
+@Component
+public class NameSuggestions {
+    static final int CAPACITY = 10;     // Names cached per node, the most a suggestion returns
+
+    private final RecipeDAO recipeDao;
+    private final IngredientDAO ingredientDao;
+    private final NameSuggester recipeNames = new NameSuggester(CAPACITY);
+    private final NameSuggester ingredientNames = new NameSuggester(CAPACITY);
+    private final Map<Integer,Recipe> recipes = new HashMap<>();        // As last counted
+    private final Map<Integer,String> ingredients = new HashMap<>();    // As last counted
+    private volatile boolean built; // Changed only while holding the monitor
+
+    /**
+     * Creates the suggestions and subscribes them to the DAOs' changes
+     * 
+     * @param recipeDao The {@link RecipeDAO Recipe Data Access Object} recipes are read from
+     * @param ingredientDao The {@link IngredientDAO Ingredient Data Access Object} the catalog is read from
+     */
+    @Autowired
+    public NameSuggestions(RecipeDAO recipeDao, IngredientDAO ingredientDao) {
+        this.recipeDao = recipeDao;
+        this.ingredientDao = ingredientDao;
+        recipeDao.addChangeListener(this::onRecipeChange);
+        ingredientDao.addChangeListener(this::onIngredientChange);
+    }
+
+    /**
+     * Suggests the most popular {@linkplain Recipe recipe} names starting with a prefix
+     * 
+     * @param prefix The prefix, matched ignoring case, accents and extra whitespace
+     * @param limit The most number of names to return, at most {@value #CAPACITY}
+     * 
+     * @return The names, most popular first, may be empty
+     * 
+     * @throws IOException if the suggestions have to be built and the DAOs cannot be read
+     */
+    public String[] suggestRecipes(String prefix, int limit) throws IOException {
+        if (!built)
+            build();
+        return recipeNames.suggest(prefix,limit);
+    }
+
+    /**
+     * Suggests the most popular {@linkplain Ingredient ingredient} names starting with a prefix
+     * 
+     * @param prefix The prefix, matched ignoring case, accents and extra whitespace
+     * @param limit The most number of names to return, at most {@value #CAPACITY}
+     * 
+     * @return The names, most popular first, may be empty
+     * 
+     * @throws IOException if the suggestions have to be built and the DAOs cannot be read
+     */
+    public String[] suggestIngredients(String prefix, int limit) throws IOException {
+        if (!built)
+            build();
+        return ingredientNames.suggest(prefix,limit);
+    }
+
+    /**
+     * Adjusts the suggestions by the difference a change made to a recipe
+     */
+    synchronized void onRecipeChange(ChangeEvent<Recipe> event) {
+        if (!built)
+            return;  // the build will read the change from the DAO
+        count(recipes.remove(event.getId()),-1);
+        if (event.getType() != ChangeEvent.Type.DELETED) {
+            recipes.put(event.getId(),event.getEntity());
+            count(event.getEntity(),1);
+        }
+    }
+
+    /**
+     * Adjusts the ingredient suggestions by the difference a change made to the catalog
+     */
+    synchronized void onIngredientChange(ChangeEvent<Ingredient> event) {
+        if (!built)
+            return;
+        String previous = ingredients.remove(event.getId());
+        if (previous != null)
+            ingredientNames.adjust(previous,-1);
+        if (event.getType() != ChangeEvent.Type.DELETED && event.getEntity().getName() != null) {
+            ingredients.put(event.getId(),event.getEntity().getName());
+            ingredientNames.adjust(event.getEntity().getName(),1);
+        }
+    }
+
+    /**
+     * Fills the suggesters from the DAOs the first time they are used
+     */
+    private synchronized void build() throws IOException {
+        if (built)
+            return;
+        for (Recipe recipe : recipeDao.getRecipes()) {
+            recipes.put(recipe.getId(),recipe);
+            count(recipe,1);
+        }
+        for (Ingredient ingredient : ingredientDao.getIngredients()) {
+            if (ingredient.getName() != null) {
+                ingredients.put(ingredient.getId(),ingredient.getName());
+                ingredientNames.adjust(ingredient.getName(),1);
+            }
+        }
+        built = true;
+    }
+
+    /**
+     * Adds or takes away the weight a recipe gives its name and ingredient names
+     */
+    private void count(Recipe recipe, int delta) {
+        if (recipe == null)
+            return;
+        if (recipe.getName() != null)
+            recipeNames.adjust(recipe.getName(),delta);
+        Map<String,String> names = new HashMap<>();  // Each folded name counts once, as first spelled
+        if (recipe.getIngredients() != null) {
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                if (ingredient != null && ingredient.getName() != null)
+                    names.putIfAbsent(IngredientDictionary.key(ingredient.getName()),ingredient.getName());
+            }
+        }
+        for (String name : names.values())
+            ingredientNames.adjust(name,delta);
+    }
+}
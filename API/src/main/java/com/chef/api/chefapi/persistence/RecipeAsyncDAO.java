@@ -0,0 +1,77 @@
+package com.chef.api.chefapi.persistence;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.chef.api.chefapi.model.Recipe;
+
+/**
+ * Defines the asynchronous interface for Recipe object persistence
+ * <p>
+ * Mirrors {@link RecipeDAO} but every operation returns a {@link CompletableFuture} so
+ * callers are not tied up while the underlying storage is accessed. Storage failures
+ * complete the future exceptionally with the {@link java.io.IOException IOException}
+ * the synchronous operation would have thrown.
+ * 
+ * @author SWEN Faculty
+ */
+public interface RecipeAsyncDAO {
+    /**
+     * Retrieves all {@linkplain Recipe recipes}
+     * 
+     * @return A future of an array of {@link Recipe recipe} objects, may be empty
+     */
+    CompletableFuture<Recipe[]> getRecipes();
+
+    /**
+     * Finds all {@linkplain Recipe recipes} whose name contains the given text
+     * 
+     * @param containsText The text to match against
+     * 
+     * @return A future of an array of {@link Recipe recipes} whose names contains the given text, may be empty
+     */
+    CompletableFuture<Recipe[]> findRecipes(String containsText);
+
+    /**
+     * Retrieves a {@linkplain Recipe recipe} with the given id
+     * 
+     * @param id The id of the {@link Recipe recipe} to get
+     * 
+     * @return A future of the {@link Recipe recipe} object with the matching id
+     * <br>
+     * completed with null if no {@link Recipe recipe} with a matching id is found
+     */
+    CompletableFuture<Recipe> getRecipe(int id);
+
+    /**
+     * Creates and saves a {@linkplain Recipe recipe}
+     * 
+     * @param recipe {@linkplain Recipe recipe} object to be created and saved
+     * <br>
+     * The id of the recipe object is ignored and a new uniqe id is assigned
+     *
+     * @return A future of the new {@link Recipe recipe}, completed with null if a
+     * {@link Recipe recipe} with the same content already exists
+     */
+    CompletableFuture<Recipe> createRecipe(Recipe recipe);
+
+    /**
+     * Updates and saves a {@linkplain Recipe recipe}
+     * 
+     * @param recipe {@link Recipe recipe} object to be updated and saved
+     * 
+     * @return A future of the updated {@link Recipe recipe}, completed with null if
+     * {@link Recipe recipe} could not be found
+     */
+    CompletableFuture<Recipe> updateRecipe(Recipe recipe);
+
+    /**
+     * Deletes a {@linkplain Recipe recipe} with the given id
+     * 
+     * @param id The id of the {@link Recipe recipe}
+     * 
+     * @return A future completed with true if the {@link Recipe recipe} was deleted
+     * <br>
+     * false if recipe with the given id does not exist
+     */
+    CompletableFuture<Boolean> deleteRecipe(int id);
+}
@@ -0,0 +1,83 @@
+package com.chef.api.chefapi.persistence;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import com.chef.api.chefapi.model.Recipe;
+
+/**
+ * Adapts a synchronous {@link RecipeDAO} to the {@link RecipeAsyncDAO} interface by
+ * running each operation on the dedicated persistence executor
+ * 
+ * {@literal @}Component Spring annotation instantiates a single instance of this
+ * class and injects the instance into other classes as needed
+ * 
+ * @author SWEN Faculty
+ */
+@Component
+public class RecipeAsyncDAOAdapter implements RecipeAsyncDAO {
+    private RecipeDAO recipeDao;    // The synchronous DAO doing the actual work
+    private Executor executor;      // Runs the blocking storage calls
+
+    /**
+     * Creates an asynchronous view of a Recipe Data Access Object
+     * 
+     * @param recipeDao The synchronous {@link RecipeDAO} to delegate to
+     * @param executor The executor that runs the blocking storage calls
+     */
+    public RecipeAsyncDAOAdapter(RecipeDAO recipeDao, @Qualifier("persistenceExecutor") Executor executor) {
+        this.recipeDao = recipeDao;
+        this.executor = executor;
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Recipe[]> getRecipes() {
+        return AsyncTasks.supply(() -> recipeDao.getRecipes(),executor);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Recipe[]> findRecipes(String containsText) {
+        return AsyncTasks.supply(() -> recipeDao.findRecipes(containsText),executor);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Recipe> getRecipe(int id) {
+        return AsyncTasks.supply(() -> recipeDao.getRecipe(id),executor);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Recipe> createRecipe(Recipe recipe) {
+        return AsyncTasks.supply(() -> recipeDao.createRecipe(recipe),executor);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Recipe> updateRecipe(Recipe recipe) {
+        return AsyncTasks.supply(() -> recipeDao.updateRecipe(recipe),executor);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Boolean> deleteRecipe(int id) {
+        return AsyncTasks.supply(() -> recipeDao.deleteRecipe(id),executor);
+    }
+}
@@ -0,0 +1,598 @@
+package com.chef.api.chefapi.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.Recipe;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+/**
+ * Imports and exports large recipe datasets offline, writing and reading the
+ * {@link RecipeFileDAO recipe file} directly instead of going through the REST API
+ * <p>
+ * Inputs may be a JSON array of recipes, newline delimited JSON with a recipe per
+ * line, or CSV with one row per ingredient line under the header
+ * {@code recipe,name,ingredient,quantity,unit}, where consecutive rows with the same
+ * {@code recipe} key form one recipe. Every input file is parsed on its own thread
+ * and validated on a pool of workers; batches pass between them through bounded
+ * queues and are streamed to the output by a single writer, so memory stays bounded
+ * whatever the size of the dataset.
+ * <br>
+ * Each recipe needs a name, and each ingredient line a name and a finite, non negative
+ * quantity. Ingredient names are resolved against the ingredients file by their folded
+ * {@link IngredientDictionary#key(String) key}, taking the id and spelling of the
+ * catalog entry, and lines of the same ingredient and unit within a recipe are merged.
+ * Recipes using an ingredient the catalog does not have are rejected, unless the
+ * ingredient is to be added to the catalog. Imported recipes are given new ids after
+ * those already in the recipe file.
+ * <br>
+ * The server must not be running while the files are rewritten. Run with
+ * <pre>
+ * mvn compile exec:java@bulk -Dexec.args="import --format ndjson dataset.ndjson"
+ * mvn compile exec:java@bulk -Dexec.args="export --format csv recipes.csv"
+ * </pre>
+ * 
+ * @author SWEN Faculty
+ */
+public class RecipeBulkTool {
+    static final int BATCH_SIZE = 512;  // Recipes per batch handed between threads
+    private static final int REASONS = 20;   // Rejections reported by reason
+    private static final List<Recipe> END = Collections.emptyList();    // Marks the end of a queue
+    private static final String[] CSV_COLUMNS = {"recipe","name","ingredient","quantity","unit"};
+    private static final String USAGE = String.join("\n",
+        "usage: import [--format json|ndjson|csv] [--recipes FILE] [--ingredients FILE] [--threads N]",
+        "              [--append] [--add-ingredients] INPUT...",
+        "       export [--format json|ndjson|csv] [--recipes FILE] OUTPUT",
+        "The format defaults to the one of the file extension; the files to data/recipes.json",
+        "and data/ingredients.json; --append keeps the recipes already in the recipe file.");
+
+    /**
+     * The formats datasets are read and written in
+     */
+    public enum Format {
+        JSON, NDJSON, CSV;
+
+        /**
+         * Chooses the format of a file by its extension
+         * 
+         * @param file The file
+         * 
+         * @return The format
+         * 
+         * @throws IllegalArgumentException if the extension is not one of a format
+         */
+        static Format of(Path file) {
+            String name = file.getFileName().toString();
+            return named(name.substring(name.lastIndexOf('.') + 1));
+        }
+
+        static Format named(String name) {
+            switch (name.toLowerCase(Locale.ROOT)) {
+                case "json": return JSON;
+                case "ndjson": case "jsonl": return NDJSON;
+                case "csv": return CSV;
+                default: throw new IllegalArgumentException("Unknown format '" + name + "'");
+            }
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CsvMapper csvMapper = new CsvMapper();
+    private final int threads;
+
+    /**
+     * Creates a tool validating on a number of threads
+     * 
+     * @param threads The number of validating threads, besides one per input file and the writer
+     */
+    public RecipeBulkTool(int threads) {
+        this.threads = Math.max(1,threads);
+    }
+
+    /**
+     * Runs an import or export from the command line
+     * 
+     * @param args The command and its options, as described by the usage
+     */
+    public static void main(String[] args) {
+        try {
+            System.out.println(run(Arrays.asList(args)));
+        }
+        catch(IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        catch(IOException e) {
+            System.err.println("Failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs a command
+     * 
+     * @return What was done, to report to the user
+     */
+    static String run(List<String> args) throws IOException {
+        if (args.isEmpty())
+            throw new IllegalArgumentException("No command");
+        Format format = null;
+        Path recipesFile = Paths.get("data/recipes.json");
+        Path ingredientsFile = Paths.get("data/ingredients.json");
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean append = false;
+        boolean addIngredients = false;
+        List<Path> files = new ArrayList<>();
+        for (int i = 1; i < args.size(); ++i) {
+            String arg = args.get(i);
+            switch (arg) {
+                case "--format": format = Format.named(value(args,++i)); break;
+                case "--recipes": recipesFile = Paths.get(value(args,++i)); break;
+                case "--ingredients": ingredientsFile = Paths.get(value(args,++i)); break;
+                case "--threads": threads = Integer.parseInt(value(args,++i)); break;
+                case "--append": append = true; break;
+                case "--add-ingredients": addIngredients = true; break;
+                default:
+                    if (arg.startsWith("--"))
+                        throw new IllegalArgumentException("Unknown option " + arg);
+                    files.add(Paths.get(arg));
+            }
+        }
+        RecipeBulkTool tool = new RecipeBulkTool(threads);
+        switch (args.get(0)) {
+            case "import":
+                if (files.isEmpty())
+                    throw new IllegalArgumentException("No input files");
+                return tool.importRecipes(files,format,recipesFile,ingredientsFile,append,addIngredients).toString();
+            case "export":
+                if (files.size() != 1)
+                    throw new IllegalArgumentException("Exactly one output file is needed");
+                long exported = tool.exportRecipes(recipesFile,files.get(0),format);
+                return "Exported " + exported + " recipes to " + files.get(0);
+            default:
+                throw new IllegalArgumentException("Unknown command " + args.get(0));
+        }
+    }
+
+    private static String value(List<String> args, int i) {
+        if (i >= args.size())
+            throw new IllegalArgumentException("Option " + args.get(i - 1) + " needs a value");
+        return args.get(i);
+    }
+
+    /**
+     * Imports datasets into the recipe file
+     * 
+     * @param inputs The files to import
+     * @param format The format of all of them, null to choose by the extension of each
+     * @param recipesFile The recipe file, replaced once the import succeeds
+     * @param ingredientsFile The ingredient catalog ingredient names are resolved against
+     * @param append Whether to keep the recipes already in the recipe file
+     * @param addIngredients Whether to add unknown ingredients to the catalog instead of
+     * rejecting the recipes using them
+     * 
+     * @return What was imported and rejected
+     * 
+     * @throws IOException if a file cannot be read or written, or an input is malformed;
+     * the recipe and ingredient files are then left as they were
+     */
+    public Report importRecipes(List<Path> inputs, Format format, Path recipesFile, Path ingredientsFile,
+            boolean append, boolean addIngredients) throws IOException {
+        long start = System.nanoTime();
+        Ingredient[] catalog = objectMapper.readValue(ingredientsFile.toFile(),Ingredient[].class);
+        Validator validator = new Validator(catalog,addIngredients);
+        Report report = new Report();
+
+        BlockingQueue<List<Recipe>> parsed = new ArrayBlockingQueue<>(2 * threads);
+        BlockingQueue<List<Recipe>> valid = new ArrayBlockingQueue<>(2 * threads);
+        AtomicReference<IOException> failure = new AtomicReference<>();
+        AtomicInteger reading = new AtomicInteger(inputs.size());
+        ExecutorService pool = Executors.newFixedThreadPool(inputs.size() + threads);
+        Path temporary = temporary(recipesFile);
+        try {
+            for (Path input : inputs) {
+                Format inputFormat = format != null ? format : Format.of(input);
+                pool.execute(() -> {
+                    try {
+                        read(input,inputFormat,batch -> parsed.put(batch));
+                    }
+                    catch(IOException | RuntimeException e) {
+                        failure.compareAndSet(null,new IOException(input + ": " + e.getMessage(),e));
+                    }
+                    catch(InterruptedException e) {
+                        return;  // the import is being abandoned
+                    }
+                    if (reading.decrementAndGet() == 0)
+                        endAll(parsed,threads);
+                });
+            }
+            for (int t = 0; t < threads; ++t)
+                pool.execute(() -> validate(parsed,valid,validator,report,failure));
+            write(temporary,append ? recipesFile : null,valid,report);
+            if (failure.get() != null)
+                throw failure.get();
+            if (!validator.added.isEmpty()) {
+                Path catalogTemporary = temporary(ingredientsFile);
+                List<Ingredient> grown = new ArrayList<>(Arrays.asList(catalog));
+                grown.addAll(new TreeMap<>(validator.addedById()).values());
+                objectMapper.writeValue(catalogTemporary.toFile(),grown);
+                Files.move(catalogTemporary,ingredientsFile,StandardCopyOption.REPLACE_EXISTING);
+                report.ingredientsAdded = validator.added.size();
+            }
+            Files.move(temporary,recipesFile,StandardCopyOption.REPLACE_EXISTING);
+            report.millis = (System.nanoTime() - start) / 1_000_000;
+            return report;
+        }
+        finally {
+            pool.shutdownNow();
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Exports the recipe file
+     * 
+     * @param recipesFile The recipe file
+     * @param output The file to write
+     * @param format The format to write, null to choose by the extension of the output
+     * 
+     * @return The number of recipes exported
+     * 
+     * @throws IOException if a file cannot be read or written
+     */
+    public long exportRecipes(Path recipesFile, Path output, Format format) throws IOException {
+        Format outputFormat = format != null ? format : Format.of(output);
+        long exported = 0;
+        try (MappingIterator<Recipe> recipes = objectMapper.readerFor(Recipe.class).readValues(recipesFile.toFile());
+                Writer writer = Files.newBufferedWriter(output,StandardCharsets.UTF_8)) {
+            switch (outputFormat) {
+                case JSON:
+                    try (SequenceWriter sequence = objectMapper.writer().writeValuesAsArray(writer)) {
+                        for (; recipes.hasNextValue(); ++exported)
+                            sequence.write(recipes.nextValue());
+                    }
+                    break;
+                case NDJSON:
+                    try (JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)) {
+                        generator.setRootValueSeparator(null);
+                        for (; recipes.hasNextValue(); ++exported) {
+                            generator.writeObject(recipes.nextValue());
+                            generator.writeRaw('\n');
+                        }
+                    }
+                    break;
+                case CSV:
+                    CsvSchema schema = CsvSchema.builder().addColumns(Arrays.asList(CSV_COLUMNS),CsvSchema.ColumnType.STRING)
+                        .build().withHeader();
+                    try (SequenceWriter sequence = csvMapper.writer(schema).writeValues(writer)) {
+                        for (; recipes.hasNextValue(); ++exported) {
+                            Recipe recipe = recipes.nextValue();
+                            List<Ingredient> ingredients = recipe.getIngredients() == null
+                                ? Collections.emptyList() : recipe.getIngredients();
+                            if (ingredients.isEmpty())
+                                sequence.write(Arrays.asList(recipe.getId(),recipe.getName(),"","",""));
+                            for (Ingredient ingredient : ingredients)
+                                sequence.write(Arrays.asList(recipe.getId(),recipe.getName(),ingredient.getName(),
+                                    ingredient.getQuantity(),ingredient.getUnit()));
+                        }
+                    }
+                    break;
+            }
+        }
+        return exported;
+    }
+
+    /**
+     * Parses an input file, handing its recipes on in batches
+     */
+    private void read(Path input, Format format, BatchSink sink) throws IOException, InterruptedException {
+        List<Recipe> batch = new ArrayList<>(BATCH_SIZE);
+        if (format == Format.CSV) {
+            CsvSchema schema = CsvSchema.emptySchema().withHeader();
+            ObjectReader reader = csvMapper.readerFor(Map.class).with(schema);
+            try (MappingIterator<Map<String,String>> rows = reader.readValues(input.toFile())) {
+                String key = null;
+                Recipe recipe = null;
+                while (rows.hasNextValue()) {
+                    Map<String,String> row = rows.nextValue();
+                    if (!row.containsKey("recipe") || !row.containsKey("name"))
+                        throw new IOException("CSV needs the header " + String.join(",",CSV_COLUMNS));
+                    if (recipe == null || !String.valueOf(row.get("recipe")).equals(key)) {
+                        batch = add(batch,recipe,sink);
+                        key = String.valueOf(row.get("recipe"));
+                        recipe = new Recipe(0,row.get("name"),new ArrayList<>());
+                    }
+                    String ingredient = row.get("ingredient");
+                    if (ingredient != null && !ingredient.isEmpty())
+                        recipe.getIngredients().add(new Ingredient(0,ingredient,quantity(row.get("quantity")),row.get("unit")));
+                }
+                batch = add(batch,recipe,sink);
+            }
+        }
+        else {
+            // A root level array is iterated over its elements, and root level values
+            // follow each other one per line in newline delimited JSON
+            ObjectReader reader = objectMapper.readerFor(Recipe.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+            try (MappingIterator<Recipe> recipes = reader.readValues(input.toFile())) {
+                while (recipes.hasNextValue())
+                    batch = add(batch,recipes.nextValue(),sink);
+            }
+        }
+        if (!batch.isEmpty())
+            sink.accept(batch);
+    }
+
+    private static List<Recipe> add(List<Recipe> batch, Recipe recipe, BatchSink sink) throws InterruptedException {
+        if (recipe == null)
+            return batch;
+        batch.add(recipe);
+        if (batch.size() < BATCH_SIZE)
+            return batch;
+        sink.accept(batch);
+        return new ArrayList<>(BATCH_SIZE);
+    }
+
+    private static double quantity(String text) {
+        if (text == null || text.trim().isEmpty())
+            return 0;
+        try {
+            return Double.parseDouble(text.trim());
+        }
+        catch(NumberFormatException e) {
+            return Double.NaN;  // rejected by the validator with the recipe's name
+        }
+    }
+
+    /**
+     * Validates the batches of one queue into another until the first queue ends
+     */
+    private static void validate(BlockingQueue<List<Recipe>> parsed, BlockingQueue<List<Recipe>> valid,
+            Validator validator, Report report, AtomicReference<IOException> failure) {
+        try {
+            while (true) {
+                List<Recipe> batch = parsed.take();
+                if (batch == END)
+                    break;
+                List<Recipe> accepted = new ArrayList<>(batch.size());
+                for (Recipe recipe : batch) {
+                    try {
+                        accepted.add(validator.validate(recipe));
+                    }
+                    catch(IllegalArgumentException e) {
+                        report.reject(e.getMessage());
+                    }
+                }
+                valid.put(accepted);
+            }
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();  // the import is being abandoned
+            return;
+        }
+        catch(RuntimeException e) {
+            failure.compareAndSet(null,new IOException("Validation failed: " + e,e));
+        }
+        endAll(valid,1);    // so the writer does not wait for this thread
+    }
+
+    /**
+     * Streams the recipes to keep and the validated ones to a file, numbering the
+     * validated ones after the greatest id kept
+     * 
+     * @param output The file to write
+     * @param kept The recipe file whose recipes are kept, null to keep none
+     */
+    private void write(Path output, Path kept, BlockingQueue<List<Recipe>> valid, Report report) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(
+                Files.newBufferedWriter(output,StandardCharsets.UTF_8))) {
+            generator.writeStartArray();
+            int nextId = 1;
+            if (kept != null && Files.exists(kept)) {
+                try (MappingIterator<Recipe> recipes = objectMapper.readerFor(Recipe.class).readValues(kept.toFile())) {
+                    while (recipes.hasNextValue()) {
+                        Recipe recipe = recipes.nextValue();
+                        generator.writeObject(recipe);
+                        nextId = Math.max(nextId,recipe.getId() + 1);
+                    }
+                }
+            }
+            for (int ended = 0; ended < threads; ) {
+                List<Recipe> batch = valid.take();
+                if (batch == END) {
+                    ++ended;
+                    continue;
+                }
+                for (Recipe recipe : batch)
+                    generator.writeObject(new Recipe(nextId++,recipe.getName(),recipe.getIngredients()));
+                report.imported.addAndGet(batch.size());
+            }
+            generator.writeEndArray();
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import interrupted");
+        }
+    }
+
+    private static void endAll(BlockingQueue<List<Recipe>> queue, int consumers) {
+        try {
+            for (int i = 0; i < consumers; ++i)
+                queue.put(END);
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Path temporary(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        return File.createTempFile(file.getFileName().toString(),".tmp",directory.toFile()).toPath();
+    }
+
+    /**
+     * Receives the batches of an input file
+     */
+    private interface BatchSink {
+        void accept(List<Recipe> batch) throws InterruptedException;
+    }
+
+    /**
+     * Checks and normalizes imported recipes against the ingredient catalog; shared by
+     * the validating threads
+     */
+    static class Validator {
+        private final IngredientDictionary dictionary;
+        private final boolean addIngredients;
+        private final Map<String,Ingredient> added = new ConcurrentHashMap<>();  // By key
+        private final AtomicInteger nextIngredientId;
+
+        Validator(Ingredient[] catalog, boolean addIngredients) {
+            Map<Integer,Ingredient> byId = new TreeMap<>();
+            int greatest = -1;
+            for (Ingredient ingredient : catalog) {
+                byId.put(ingredient.getId(),ingredient);
+                greatest = Math.max(greatest,ingredient.getId());
+            }
+            this.dictionary = new IngredientDictionary(byId);
+            this.addIngredients = addIngredients;
+            this.nextIngredientId = new AtomicInteger(greatest + 1);
+        }
+
+        /**
+         * Checks a recipe and resolves its ingredients
+         * 
+         * @return The recipe with catalog ingredients and merged lines, not yet numbered
+         * 
+         * @throws IllegalArgumentException if the recipe is not valid, saying why
+         */
+        Recipe validate(Recipe recipe) {
+            if (recipe.getName() == null || recipe.getName().trim().isEmpty())
+                throw new IllegalArgumentException("A recipe has no name");
+            String name = recipe.getName().trim();
+            Map<String,Ingredient> lines = new LinkedHashMap<>();   // By ingredient key and unit
+            if (recipe.getIngredients() != null) {
+                for (Ingredient line : recipe.getIngredients()) {
+                    if (line == null || IngredientDictionary.key(line.getName()).isEmpty())
+                        throw new IllegalArgumentException("Recipe '" + name + "' has an ingredient without a name");
+                    if (!(line.getQuantity() >= 0) || Double.isInfinite(line.getQuantity()))
+                        throw new IllegalArgumentException("Recipe '" + name + "' has an invalid quantity of " + line.getName());
+                    Ingredient known = resolve(line.getName());
+                    if (known == null)
+                        throw new IllegalArgumentException("Recipe '" + name + "' uses unknown ingredient " + line.getName());
+                    String unit = line.getUnit() == null ? "" : line.getUnit().trim();
+                    lines.merge(known.getId() + "\u0000" + unit.toLowerCase(Locale.ROOT),
+                        new Ingredient(known.getId(),known.getName(),line.getQuantity(),unit),
+                        (a,b) -> new Ingredient(a.getId(),a.getName(),a.getQuantity() + b.getQuantity(),a.getUnit()));
+                }
+            }
+            return new Recipe(0,name,new ArrayList<>(lines.values()));
+        }
+
+        /**
+         * Finds the catalog entry of an ingredient name, adding one if allowed
+         * 
+         * @return The entry, null if there is none
+         */
+        private Ingredient resolve(String name) {
+            Ingredient[] known = dictionary.lookup(name);
+            if (known.length > 0)
+                return known[0];
+            if (!addIngredients)
+                return null;
+            return added.computeIfAbsent(IngredientDictionary.key(name),
+                key -> new Ingredient(nextIngredientId.getAndIncrement(),name.trim(),0,""));
+        }
+
+        Map<Integer,Ingredient> addedById() {
+            Map<Integer,Ingredient> byId = new TreeMap<>();
+            for (Ingredient ingredient : added.values())
+                byId.put(ingredient.getId(),ingredient);
+            return byId;
+        }
+    }
+
+    /**
+     * What an import did
+     */
+    public static class Report {
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final List<String> reasons = Collections.synchronizedList(new ArrayList<>());
+        private int ingredientsAdded;
+        private long millis;
+
+        void reject(String reason) {
+            if (rejected.incrementAndGet() <= REASONS)
+                reasons.add(reason);
+        }
+
+        /**
+         * Retrieves the number of recipes imported
+         * @return The number of recipes written besides the ones kept
+         */
+        public long getImported() {return imported.get();}
+
+        /**
+         * Retrieves the number of recipes rejected
+         * @return The number of recipes that failed validation
+         */
+        public long getRejected() {return rejected.get();}
+
+        /**
+         * Retrieves why recipes were rejected
+         * @return The reasons of the first rejections
+         */
+        public List<String> getReasons() {return new ArrayList<>(reasons);}
+
+        /**
+         * Retrieves the number of ingredients added to the catalog
+         * @return The number of ingredients added
+         */
+        public int getIngredientsAdded() {return ingredientsAdded;}
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(String.format("Imported %d recipes in %d ms, rejected %d, added %d ingredients",
+                imported.get(),millis,rejected.get(),ingredientsAdded));
+            for (String reason : getReasons())
+                text.append("\n  ").append(reason);
+            if (rejected.get() > REASONS)
+                text.append("\n  ...");
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.chef.api.chefapi.persistence;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.chef.api.chefapi.model.Recipe;
+
+/**
+ * Indexes {@linkplain Recipe recipes} by their {@linkplain ContentHash#of(Recipe)
+ * content hash}, so that a recipe that has already been saved is found without a scan
+ * <br>
+ * Updates are not refused for duplicating another recipe, so several recipes may have
+ * the same content; all of them are indexed, and the one with the lowest id is the
+ * one that is found
+ * 
+ * @author SWEN Faculty
+ */
+class RecipeContentIndex implements RepositoryIndex<Recipe> {
+    private volatile Map<String,SortedSet<Integer>> ids = new ConcurrentHashMap<>();  // Ids of
+                                        // the recipes with each content hash; the sets are
+                                        // replaced, never modified, and only while holding
+                                        // the repository's write lock
+
+    /**
+     * Finds the recipe with the same content as another
+     * 
+     * @param recipe The {@link Recipe recipe} to look for, whatever its id
+     * 
+     * @return The lowest id of the saved recipes with the same content<br>
+     * null if there is none
+     */
+    Integer find(Recipe recipe) {
+        SortedSet<Integer> found = ids.get(ContentHash.of(recipe));
+        return found == null ? null : found.first();
+    }
+
+    /**
+     * Finds all the recipes with the same content as another
+     * 
+     * @param recipe The {@link Recipe recipe} to look for, whatever its id
+     * 
+     * @return The ids of the saved recipes with the same content, which may be empty
+     */
+    Set<Integer> findAll(Recipe recipe) {
+        SortedSet<Integer> found = ids.get(ContentHash.of(recipe));
+        return found == null ? Collections.emptySet() : found;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void rebuild(Map<Integer,Recipe> recipes) {
+        Map<String,SortedSet<Integer>> index = new ConcurrentHashMap<>();
+        for (Recipe recipe : recipes.values())
+            index.computeIfAbsent(ContentHash.of(recipe),hash -> new TreeSet<>()).add(recipe.getId());
+        index.replaceAll((hash,found) -> Collections.unmodifiableSortedSet(found));
+        ids = index;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void update(Map<Integer,Recipe> current, Map<Integer,Recipe> updated, Set<Integer> changed) {
+        for (int id : changed) {
+            Recipe previous = current.get(id);
+            if (previous != null)
+                ids.computeIfPresent(ContentHash.of(previous),(hash,found) -> {
+                    if (!found.contains(id))
+                        return found;
+                    if (found.size() == 1)
+                        return null;
+                    SortedSet<Integer> copy = new TreeSet<>(found);
+                    copy.remove(id);
+                    return Collections.unmodifiableSortedSet(copy);
+                });
+        }
+        for (int id : changed) {
+            Recipe recipe = updated.get(id);
+            if (recipe != null)
+                ids.compute(ContentHash.of(recipe),(hash,found) -> {
+                    SortedSet<Integer> copy = found == null ? new TreeSet<>() : new TreeSet<>(found);
+                    copy.add(id);
+                    return Collections.unmodifiableSortedSet(copy);
+                });
+        }
+    }
+}
@@ -50,12 +50,27 @@ public interface RecipeDAO {
      * <br>
      * The id of the recipe object is ignored and a new uniqe id is assigned
      *
-     * @return new {@link Recipe recipe} if successful, false otherwise 
+     * @return new {@link Recipe recipe} if successful, null if a {@link Recipe recipe}
+     * with the same content already exists
      * 
      * @throws IOException if an issue with underlying storage
      */
     Recipe createRecipe(Recipe recipe) throws IOException;
 
+    /**
+     * Finds the saved {@linkplain Recipe recipe} with the same content as the given one
+     * <br>
+     * Recipes have the same content when their names and their ingredient lines match,
+     * regardless of ids, ingredient order, case and whitespace
+     * 
+     * @param recipe The {@link Recipe recipe} to look for
+     * 
+     * @return The saved {@link Recipe recipe}, null if there is none
+     * 
+     * @throws IOException if an issue with underlying storage
+     */
+    Recipe findDuplicate(Recipe recipe) throws IOException;
+
     /**
      * Updates and saves a {@linkplain Recipe recipe}
      * 
@@ -80,4 +95,21 @@ public interface RecipeDAO {
      * @throws IOException if underlying storage cannot be accessed
      */
     boolean deleteRecipe(int id) throws IOException;
+
+    /**
+     * Takes a point-in-time {@linkplain Snapshot snapshot} of all {@linkplain Recipe recipes}
+     * 
+     * @return The {@link Recipe recipes} as they are now, unaffected by later changes
+     * 
+     * @throws IOException if an issue with underlying storage
+     */
+    Snapshot<Recipe> snapshot() throws IOException;
+
+    /**
+     * Registers a listener that is notified after every successful create, update
+     * and delete of a {@linkplain Recipe recipe}
+     * 
+     * @param listener The {@link ChangeListener listener} to notify
+     */
+    void addChangeListener(ChangeListener<Recipe> listener);
 }
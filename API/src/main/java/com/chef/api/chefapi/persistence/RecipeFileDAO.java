@@ -1,20 +1,22 @@
 package com.chef.api.chefapi.persistence;
 
-import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Map;
-import java.util.TreeMap;
-import java.util.logging.Logger;
+import java.util.Set;
 
 import com.chef.api.chefapi.model.Recipe;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
  * Implements the functionality for JSON file-based peristance for Recipes
+ * <p>
+ * The recipes are kept by a {@link FileRepository}, which indexes them by
+ * {@linkplain RecipeContentIndex content} so that duplicates are refused, and by the
+ * {@linkplain RecipeNameIndex trigrams of their names} so that searches do not scan them
  * 
  * {@literal @}Component Spring annotation instantiates a single instance of this
  * class and injects the instance into other classes as needed
@@ -23,117 +25,83 @@ import org.springframework.stereotype.Component;
  */
 @Component
 public class RecipeFileDAO implements RecipeDAO {
-    private static final Logger LOG = Logger.getLogger(RecipeFileDAO.class.getName());
-    Map<Integer,Recipe> recipes;   // Provides a local cache of the recipe objects
-                                // so that we don't need to read from the file
-                                // each time
-    private ObjectMapper objectMapper;  // Provides conversion between Recipe
-                                        // objects and JSON text format written
-                                        // to the file
-    private static int nextId;  // The next Id to assign to a new recipe
-    private String filename;    // Filename to read from and write to
+    private final RecipeContentIndex contentIndex = new RecipeContentIndex();
+    private final RecipeNameIndex nameIndex = new RecipeNameIndex();
+    private final FileRepository<Recipe> repository;    // Provides the local cache of the
+                                        // recipe objects, written through to the file
 
     /**
      * Creates a Recipe File Data Access Object
      * 
      * @param filename Filename to read from and write to
      * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
+     * @param loader Decides whether the file is read now or in the background
      * 
      * @throws IOException when file cannot be accessed or read from
      */
-    public RecipeFileDAO(@Value("${recipes.file}") String filename,ObjectMapper objectMapper) throws IOException {
-        this.filename = filename;
-        this.objectMapper = objectMapper;
-        load();  // load the recipes from the file
+    @Autowired
+    public RecipeFileDAO(@Value("${recipes.file}") String filename,ObjectMapper objectMapper,
+            DataStoreLoader loader) throws IOException {
+        repository = new FileRepository<>(new JsonFileStorage<>(filename,objectMapper,Recipe[].class),
+            Recipe::getId,Recipe[]::new,loader,contentIndex,nameIndex);  // load the recipes from the file
     }
 
     /**
-     * Generates the next id for a new {@linkplain Recipe recipe}
+     * Creates a Recipe File Data Access Object that loads its file right away
      * 
-     * @return The next id
+     * @param filename Filename to read from and write to
+     * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
+     * 
+     * @throws IOException when file cannot be accessed or read from
      */
-    private synchronized static int nextId() {
-        int id = nextId;
-        ++nextId;
-        return id;
+    public RecipeFileDAO(String filename,ObjectMapper objectMapper) throws IOException {
+        this(filename,objectMapper,DataStoreLoader.EAGER);
     }
 
     /**
-     * Generates an array of {@linkplain Recipe recipes} from the tree map
+     * Retrieves the repository keeping the recipes, so that a {@link CatalogTransactions
+     * transaction} can change it together with another
      * 
-     * @return  The array of {@link Recipe recipes}, may be empty
+     * @return The {@link FileRepository repository} of {@link Recipe recipes}
      */
-    private Recipe[] getRecipesArray() {
-        return getRecipesArray(null);
+    FileRepository<Recipe> getRepository() {
+        return repository;
     }
 
     /**
-     * Generates an array of {@linkplain Recipe recipes} from the tree map for any
-     * {@linkplain Recipe recipes} that contains the text specified by containsText
-     * <br>
-     * If containsText is null, the array contains all of the {@linkplain Recipe recipes}
-     * in the tree map
+     * Finds all the saved recipes with the same content as a recipe, so that a
+     * {@link CatalogTransactions transaction} can tell which of them it keeps
+     * 
+     * @param recipe The {@link Recipe recipe} to look for, whatever its id
      * 
-     * @return  The array of {@link Recipe recipes}, may be empty
+     * @return The ids of the recipes with the same content, which may be empty
      */
-    private Recipe[] getRecipesArray(String containsText) { // if containsText == null, no filter
-        ArrayList<Recipe> recipeArrayList = new ArrayList<>();
-
-        for (Recipe recipe : recipes.values()) {
-            if (containsText == null || recipe.getName().contains(containsText)) {
-                recipeArrayList.add(recipe);
-            }
-        }
-
-        Recipe[] recipeArray = new Recipe[recipeArrayList.size()];
-        recipeArrayList.toArray(recipeArray);
-        return recipeArray;
+    Set<Integer> findDuplicates(Recipe recipe) {
+        repository.cache();     // loads the recipes, and the index with them
+        return contentIndex.findAll(recipe);
     }
 
     /**
-     * Saves the {@linkplain Recipe recipes} from the map into the file as an array of JSON objects
+     * Starts tracking the content hash of the file, so that {@link #reload()} can tell
+     * changes made out of band apart from this DAO's own writes
      * 
-     * @return true if the {@link Recipe recipes} were written successfully
-     * 
-     * @throws IOException when file cannot be accessed or written to
+     * @throws IOException when file cannot be accessed or read from
      */
-    private boolean save() throws IOException {
-        Recipe[] recipeArray = getRecipesArray();
-
-        // Serializes the Java Objects to JSON objects into the file
-        // writeValue will thrown an IOException if there is an issue
-        // with the file or reading from the file
-        objectMapper.writeValue(new File(filename),recipeArray);
-        return true;
+    public void enableHotReload() throws IOException {
+        repository.enableHotReload();
     }
 
     /**
-     * Loads {@linkplain Recipe recipes} from the JSON file into the map
-     * <br>
-     * Also sets next id to one more than the greatest id found in the file
+     * Reloads the file if it was changed by someone other than this DAO
      * 
-     * @return true if the file was read successfully
+     * @return true if the file had changed and the changes were applied
      * 
-     * @throws IOException when file cannot be accessed or read from
+     * @throws IOException when file cannot be accessed or parsed
+     * 
+     * @see FileRepository#reload()
      */
-    private boolean load() throws IOException {
-        recipes = new TreeMap<>();
-        nextId = 0;
-
-        // Deserializes the JSON objects from the file into an array of recipes
-        // readValue will throw an IOException if there's an issue with the file
-        // or reading from the file
-        Recipe[] recipeArray = objectMapper.readValue(new File(filename),Recipe[].class);
-
-        // Add each recipe to the tree map and keep track of the greatest id
-        for (Recipe recipe : recipeArray) {
-            recipes.put(recipe.getId(),recipe);
-            if (recipe.getId() > nextId)
-                nextId = recipe.getId();
-        }
-        // Make the next id one greater than the maximum from the file
-        ++nextId;
-        return true;
+    public boolean reload() throws IOException {
+        return repository.reload();
     }
 
     /**
@@ -141,9 +109,7 @@ public class RecipeFileDAO implements RecipeDAO {
      */
     @Override
     public Recipe[] getRecipes() {
-        synchronized(recipes) {
-            return getRecipesArray();
-        }
+        return repository.getAll();
     }
 
     /**
@@ -151,9 +117,9 @@ public class RecipeFileDAO implements RecipeDAO {
      */
     @Override
     public Recipe[] findRecipes(String containsText) {
-        synchronized(recipes) {
-            return getRecipesArray(containsText);
-        }
+        if (containsText == null)
+            return repository.getAll();
+        return nameIndex.find(containsText,repository.cache());
     }
 
     /**
@@ -161,12 +127,17 @@ public class RecipeFileDAO implements RecipeDAO {
      */
     @Override
     public Recipe getRecipe(int id) {
-        synchronized(recipes) {
-            if (recipes.containsKey(id))
-                return recipes.get(id);
-            else
-                return null;
-        }
+        return repository.get(id);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public Recipe findDuplicate(Recipe recipe) {
+        Map<Integer,Recipe> current = repository.cache();
+        Integer id = contentIndex.find(recipe);
+        return id == null ? null : current.get(id);
     }
 
     /**
@@ -174,13 +145,19 @@ public class RecipeFileDAO implements RecipeDAO {
      */
     @Override
     public Recipe createRecipe(Recipe recipe) throws IOException {
-        synchronized(recipes) {
+        repository.writeLock().lock();   // held across the check, so no duplicate slips in
+        try {
+            repository.cache();
+            if (contentIndex.find(recipe) != null)
+                return null;  // the same recipe has already been saved
+
             // We create a new recipe object because the id field is immutable
             // and we need to assign the next unique id
-            Recipe newRecipe = new Recipe(nextId(),recipe.getName(), recipe.getIngredients());
-            recipes.put(newRecipe.getId(),newRecipe);
-            save(); // may throw an IOException
-            return newRecipe;
+            return repository.create(id -> new Recipe(id,recipe.getName(),recipe.getIngredients()));
+        }
+        finally {
+            repository.writeLock().unlock();
+            repository.dispatch();
         }
     }
 
@@ -189,14 +166,7 @@ public class RecipeFileDAO implements RecipeDAO {
      */
     @Override
     public Recipe updateRecipe(Recipe recipe) throws IOException {
-        synchronized(recipes) {
-            if (recipes.containsKey(recipe.getId()) == false)
-                return null;  // recipe does not exist
-
-            recipes.put(recipe.getId(),recipe);
-            save(); // may throw an IOException
-            return recipe;
-        }
+        return repository.update(recipe);
     }
 
     /**
@@ -204,13 +174,22 @@ public class RecipeFileDAO implements RecipeDAO {
      */
     @Override
     public boolean deleteRecipe(int id) throws IOException {
-        synchronized(recipes) {
-            if (recipes.containsKey(id)) {
-                recipes.remove(id);
-                return save();
-            }
-            else
-                return false;
-        }
+        return repository.delete(id);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public Snapshot<Recipe> snapshot() {
+        return repository.snapshot();
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public void addChangeListener(ChangeListener<Recipe> listener) {
+        repository.addChangeListener(listener);
     }
 }
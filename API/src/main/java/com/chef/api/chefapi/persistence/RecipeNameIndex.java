@@ -0,0 +1,128 @@
+package com.chef.api.chefapi.persistence;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.chef.api.chefapi.model.Recipe;
+
+/**
+ * Indexes {@linkplain Recipe recipes} by the trigrams of their names, every substring
+ * of {@value #GRAM} characters, so that a search for the names containing a text only
+ * checks the recipes having every trigram of the text instead of the whole catalog
+ * <br>
+ * A text shorter than a trigram is matched by a scan. The sets of ids are changed in
+ * place under the repository's write lock, ahead of the cache they describe, so every
+ * id found is checked against the recipes the search was given: a recipe renamed or
+ * deleted while a search runs may be missed by it, as by a search starting just after.
+ * 
+ * @author SWEN Faculty
+ */
+class RecipeNameIndex implements RepositoryIndex<Recipe> {
+    static final int GRAM = 3;      // Characters in a trigram
+    private static final Recipe[] NONE = new Recipe[0];
+
+    private volatile Map<String,Set<Integer>> ids = new ConcurrentHashMap<>();  // Ids of the
+                                        // recipes whose names have each trigram
+
+    /**
+     * Finds the recipes whose name contains a text
+     * 
+     * @param text The text to match against, case sensitive
+     * @param recipes The {@link Recipe recipes} by id the search is answered from
+     * 
+     * @return The matching {@link Recipe recipes} in order of id, may be empty
+     */
+    Recipe[] find(String text, Map<Integer,Recipe> recipes) {
+        List<Recipe> found = new ArrayList<>();
+        if (text.length() < GRAM) {
+            for (Recipe recipe : recipes.values()) {
+                if (matches(recipe,text))
+                    found.add(recipe);
+            }
+            return found.toArray(NONE);
+        }
+
+        Map<String,Set<Integer>> current = ids;
+        List<Set<Integer>> sets = new ArrayList<>();
+        for (String gram : grams(text)) {
+            Set<Integer> having = current.get(gram);
+            if (having == null)
+                return NONE;
+            sets.add(having);
+        }
+        sets.sort(Comparator.comparingInt(Set::size));
+        List<Integer> matched = new ArrayList<>();
+        for (Integer id : sets.get(0)) {
+            if (matches(recipes.get(id),text))
+                matched.add(id);
+        }
+        matched.sort(null);
+        for (Integer id : matched)
+            found.add(recipes.get(id));
+        return found.toArray(NONE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void rebuild(Map<Integer,Recipe> recipes) {
+        Map<String,Set<Integer>> index = new ConcurrentHashMap<>();
+        for (Recipe recipe : recipes.values())
+            add(index,recipe);
+        ids = index;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void update(Map<Integer,Recipe> current, Map<Integer,Recipe> updated, Set<Integer> changed) {
+        Map<String,Set<Integer>> index = ids;
+        for (int id : changed) {
+            Recipe previous = current.get(id);
+            Recipe recipe = updated.get(id);
+            if (previous != null && recipe != null && Objects.equals(previous.getName(),recipe.getName()))
+                continue;
+            if (previous != null) {
+                for (String gram : grams(previous.getName())) {
+                    Set<Integer> having = index.get(gram);
+                    if (having != null) {
+                        having.remove(id);
+                        if (having.isEmpty())
+                            index.remove(gram);
+                    }
+                }
+            }
+            if (recipe != null)
+                add(index,recipe);
+        }
+    }
+
+    private static void add(Map<String,Set<Integer>> index, Recipe recipe) {
+        for (String gram : grams(recipe.getName()))
+            index.computeIfAbsent(gram,key -> ConcurrentHashMap.newKeySet()).add(recipe.getId());
+    }
+
+    /**
+     * Collects the distinct trigrams of a name
+     */
+    static Set<String> grams(String name) {
+        if (name == null || name.length() < GRAM)
+            return new HashSet<>();
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= name.length(); ++i)
+            grams.add(name.substring(i,i + GRAM));
+        return grams;
+    }
+
+    private static boolean matches(Recipe recipe, String text) {
+        return recipe != null && recipe.getName() != null && recipe.getName().contains(text);
+    }
+}
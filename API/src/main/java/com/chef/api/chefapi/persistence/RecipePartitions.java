@@ -0,0 +1,233 @@
+package com.chef.api.chefapi.persistence;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.chef.api.chefapi.model.Recipe;
+import com.chef.api.chefapi.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Keeps the private {@linkplain Recipe recipe} collection of each {@linkplain User user}
+ * in a store of its own
+ * <p>
+ * Each partition is a {@link RecipeFileDAO} over its own file, so one user's edits
+ * only ever rewrite that user's file. A partition is opened, and its file read, the
+ * first time it is used, and at most {@code chef.partitions.open} are kept open, the
+ * least recently used being closed first. Partitions left idle for
+ * {@code chef.partitions.idle} milliseconds are closed as well, so memory follows
+ * the users who are active rather than all the users there are.
+ * <p>
+ * Partitions are used through a {@link Lease}, and one that is leased is never
+ * closed: the open partitions may then briefly exceed the bound, but there is never
+ * more than one store writing a file. Stores write every change through to their
+ * file, so closing a partition has nothing left to flush and only drops its cache.
+ * 
+ * {@literal @}Component Spring annotation instantiates a single instance of this
+ * class and injects the instance into other classes as needed
+ * 
+ * @author SWEN Faculty
+ */
+@Component
+public class RecipePartitions {
+    private static final Logger LOG = Logger.getLogger(RecipePartitions.class.getName());
+    private final Path directory;       // Holds a directory per user with its recipes file
+    private final ObjectMapper objectMapper;
+    private final int capacity;         // Most partitions kept open once released
+    private final long idle;            // Milliseconds after which a released partition is closed
+    private final Map<Integer,Partition> open = new LinkedHashMap<>(16,0.75f,true);  // In order
+                                        // of use, least recent first; guarded by this
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * Creates the recipe partitions of the users
+     * 
+     * @param directory Directory holding a directory per user with its recipes file
+     * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
+     * @param capacity Most partitions kept open
+     * @param idle Milliseconds a partition may be left unused before it is closed
+     */
+    @Autowired
+    public RecipePartitions(@Value("${chef.partitions.directory:data/users}") String directory,
+            ObjectMapper objectMapper, @Value("${chef.partitions.open:64}") int capacity,
+            @Value("${chef.partitions.idle:300000}") long idle) {
+        this.directory = Paths.get(directory);
+        this.objectMapper = objectMapper;
+        this.capacity = capacity;
+        this.idle = idle;
+        sweeper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task,"partition-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1,idle / 2);
+        sweeper.scheduleWithFixedDelay(() -> closeIdle(System.currentTimeMillis()),period,period,
+            TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Leases the partition of a user, opening it if it is not open
+     * <br>
+     * The partition stays open at least until the lease is closed, so the lease should
+     * be taken in a try-with-resources statement
+     * 
+     * @param user The id of the {@link User user}
+     * 
+     * @return A lease on the partition
+     * 
+     * @throws IOException when the partition's file cannot be created or read
+     */
+    public Lease lease(int user) throws IOException {
+        Partition partition;
+        synchronized(this) {
+            partition = open.computeIfAbsent(user,Partition::new);
+            ++partition.leases;
+        }
+        try {
+            return new Lease(partition,partition.open());
+        }
+        catch(IOException e) {
+            release(partition);
+            throw e;
+        }
+    }
+
+    /**
+     * Retrieves the number of open partitions
+     * 
+     * @return The number of partitions open
+     */
+    public synchronized int getOpen() {
+        return open.size();
+    }
+
+    /**
+     * Closes the released partitions that were last used before a deadline
+     * 
+     * @param now The current time in milliseconds
+     * 
+     * @return The number of partitions closed
+     */
+    synchronized int closeIdle(long now) {
+        int closed = 0;
+        for (Iterator<Partition> partitions = open.values().iterator(); partitions.hasNext();) {
+            Partition partition = partitions.next();
+            if (partition.leases == 0 && now - partition.lastUsed >= idle) {
+                partitions.remove();
+                ++closed;
+            }
+        }
+        if (closed > 0)
+            LOG.info("Closed " + closed + " idle recipe partitions, " + open.size() + " open");
+        return closed;
+    }
+
+    /**
+     * Ends a lease, then closes the least recently used released partitions while there
+     * are more than the capacity open
+     */
+    private synchronized void release(Partition partition) {
+        --partition.leases;
+        partition.lastUsed = System.currentTimeMillis();
+        List<Partition> evicted = new ArrayList<>();
+        for (Iterator<Partition> partitions = open.values().iterator();
+                partitions.hasNext() && open.size() - evicted.size() > capacity;) {
+            Partition eldest = partitions.next();
+            if (eldest.leases == 0)
+                evicted.add(eldest);
+        }
+        for (Partition eldest : evicted)
+            open.remove(eldest.user);
+    }
+
+    /**
+     * Stops sweeping idle partitions when the application shuts down
+     */
+    @PreDestroy
+    public void close() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * The store of one user, opened on first use
+     */
+    private class Partition {
+        final int user;
+        int leases;         // Guarded by the partitions
+        long lastUsed;      // Guarded by the partitions
+        private RecipeFileDAO dao;  // Guarded by this partition
+
+        Partition(int user) {
+            this.user = user;
+        }
+
+        /**
+         * Opens the store, creating an empty file for a user who has none yet
+         * <br>
+         * Only this partition waits while its file is read, not the others
+         */
+        synchronized RecipeFileDAO open() throws IOException {
+            if (dao == null) {
+                Path file = directory.resolve(Integer.toString(user)).resolve("recipes.json");
+                if (!Files.exists(file)) {
+                    Files.createDirectories(file.getParent());
+                    Files.write(file,"[]".getBytes(StandardCharsets.UTF_8));
+                }
+                dao = new RecipeFileDAO(file.toString(),objectMapper);
+            }
+            return dao;
+        }
+    }
+
+    /**
+     * A lease on the partition of a user, which keeps it open until closed
+     */
+    public class Lease implements AutoCloseable {
+        private final Partition partition;
+        private final RecipeDAO recipeDao;
+        private boolean closed;
+
+        private Lease(Partition partition, RecipeDAO recipeDao) {
+            this.partition = partition;
+            this.recipeDao = recipeDao;
+        }
+
+        /**
+         * Retrieves the store of the partition
+         * 
+         * @return The {@link RecipeDAO Recipe Data Access Object} of the user's recipes
+         */
+        public RecipeDAO getRecipeDao() {
+            return recipeDao;
+        }
+
+        /**
+         * Ends the lease; the partition may be closed from then on
+         */
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(partition);
+            }
+        }
+    }
+}
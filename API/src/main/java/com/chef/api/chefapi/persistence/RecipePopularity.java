@@ -0,0 +1,321 @@
+package com.chef.api.chefapi.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.chef.api.chefapi.model.Recipe;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Counts the views of each {@linkplain Recipe recipe} and keeps the trending ones
+ * <p>
+ * Views are counted in a ring of Count-Min sketches, one per time window: a view
+ * adds one to a counter in each of the {@value #DEPTH} rows of the current window,
+ * and the views of a recipe in a window are estimated by the smallest of its
+ * counters, which can only overcount, and only by the views of the recipes it
+ * collides with. Counting takes no lock and allocates nothing, so it costs a
+ * request a few atomic increments however many recipes there are.
+ * <p>
+ * A recipe is trending by its views decayed with age: each window counts
+ * {@value #DECAY} times as much as the one after it, and the oldest window is
+ * cleared to become the current one when the window ends. Recipes whose views in
+ * the current window reach the least of the trending ones become candidates, and a
+ * background refresh scores the candidates and publishes the {@value #CAPACITY}
+ * top ones in order, so the top k are read in O(k). The counters that are not
+ * zero and the candidates are saved to a file periodically and when the
+ * application shuts down.
+ * 
+ * {@literal @}Component Spring annotation instantiates a single instance of this
+ * class and injects the instance into other classes as needed
+ * 
+ * @author SWEN Faculty
+ */
+@Component
+public class RecipePopularity {
+    private static final Logger LOG = Logger.getLogger(RecipePopularity.class.getName());
+    static final int DEPTH = 4;             // Rows of a sketch, each with its own hash
+    static final int WIDTH = 1 << 11;       // Counters in a row, a power of two
+    static final double DECAY = 0.75;       // Weight of a window relative to the next newer one
+    static final int CAPACITY = 100;        // Most trending recipes kept
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L,0xC2B2AE3D27D4EB4FL,0x165667B19E3779F9L,
+        0xD6E8FEB86659FD93L};
+
+    private final AtomicLongArray[] windows;    // Ring of sketches, DEPTH rows of WIDTH counters each
+    private final long window;          // Milliseconds a window lasts
+    private volatile int current;       // Index of the window views are counted in
+    private long started;               // When the current window started, guarded by this
+    private final Set<Integer> candidates = ConcurrentHashMap.newKeySet();
+    private volatile long admission = 1;    // Views in the current window that make a candidate
+    private volatile int[] trending = new int[0];   // Ids of the trending recipes, most first
+    private final String filename;      // Where the counts are saved, null if they are not
+    private final ObjectMapper objectMapper;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Creates the view counts of the recipes, reading the counts that were saved and
+     * scheduling the refreshes and saves
+     * 
+     * @param filename Filename the counts are saved to
+     * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
+     * @param window Milliseconds a window lasts
+     * @param windows Number of windows views are remembered for
+     * @param refresh Milliseconds between refreshes of the trending recipes
+     * @param persist Milliseconds between saves of the counts
+     */
+    @Autowired
+    public RecipePopularity(@Value("${chef.trending.file:data/trending.json}") String filename,
+            ObjectMapper objectMapper, @Value("${chef.trending.window:300000}") long window,
+            @Value("${chef.trending.windows:12}") int windows, @Value("${chef.trending.refresh:1000}") long refresh,
+            @Value("${chef.trending.persist:60000}") long persist) {
+        this.filename = filename;
+        this.objectMapper = objectMapper;
+        this.window = window;
+        this.windows = new AtomicLongArray[windows];
+        for (int w = 0; w < windows; ++w)
+            this.windows[w] = new AtomicLongArray(DEPTH * WIDTH);
+        started = System.currentTimeMillis();
+        load();
+        refresh(System.currentTimeMillis());
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task,"recipe-popularity");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> refresh(System.currentTimeMillis()),refresh,refresh,
+            TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::save,persist,persist,TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates view counts that are kept in memory only and refreshed only when
+     * {@link #refresh(long)} is called
+     * 
+     * @param window Milliseconds a window lasts
+     * @param windows Number of windows views are remembered for
+     */
+    public RecipePopularity(long window, int windows) {
+        this.filename = null;
+        this.objectMapper = null;
+        this.window = window;
+        this.windows = new AtomicLongArray[windows];
+        for (int w = 0; w < windows; ++w)
+            this.windows[w] = new AtomicLongArray(DEPTH * WIDTH);
+        started = System.currentTimeMillis();
+        scheduler = null;
+    }
+
+    /**
+     * Counts a view of a {@linkplain Recipe recipe}
+     * 
+     * @param id The id of the {@link Recipe recipe} viewed
+     */
+    public void recordView(int id) {
+        AtomicLongArray sketch = windows[current];
+        long views = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; ++row)
+            views = Math.min(views,sketch.incrementAndGet(cell(row,id)));
+        if (views >= admission)
+            candidates.add(id);
+    }
+
+    /**
+     * Retrieves the trending {@linkplain Recipe recipes}, as of the last refresh
+     * 
+     * @param k The most recipes to return, at most {@value #CAPACITY}
+     * 
+     * @return The ids of the trending {@link Recipe recipes}, most viewed first
+     */
+    public int[] top(int k) {
+        int[] ids = trending;
+        return Arrays.copyOf(ids,Math.min(k,ids.length));
+    }
+
+    /**
+     * Moves to a new window if the current one has ended, then scores the candidates
+     * and publishes the trending recipes
+     * 
+     * @param now The current time in milliseconds
+     */
+    synchronized void refresh(long now) {
+        for (int ended = 0; now - started >= window; ++ended) {
+            started = ended < windows.length ? started + window : now;
+            int next = (current + 1) % windows.length;
+            AtomicLongArray oldest = windows[next];
+            for (int i = 0; i < oldest.length(); ++i)
+                oldest.set(i,0);
+            current = next;
+        }
+
+        PriorityQueue<double[]> top = new PriorityQueue<>((a,b) -> Double.compare(a[1],b[1]));
+        List<Integer> dropped = new ArrayList<>();  // Only these leave the candidates, so a
+                                        // recipe added by a view meanwhile stays
+        for (int id : candidates) {
+            double score = score(id);
+            if (score > 0)      // Views older than the windows kept are forgotten
+                top.add(new double[] {id,score});
+            else
+                dropped.add(id);
+            if (top.size() > CAPACITY)
+                dropped.add((int) top.poll()[0]);
+        }
+        int[] ids = new int[top.size()];
+        long least = Long.MAX_VALUE;
+        for (int i = ids.length - 1; i >= 0; --i) {
+            ids[i] = (int) top.poll()[0];
+            least = Math.min(least,estimate(windows[current],ids[i]));
+        }
+        for (int id : dropped)
+            candidates.remove(id);
+        admission = ids.length < CAPACITY ? 1 : Math.max(1,least);
+        trending = ids;
+    }
+
+    /**
+     * Scores a recipe by its views, decayed with the age of the window they were in
+     */
+    private double score(int id) {
+        double score = 0;
+        double weight = 1;
+        for (int age = 0; age < windows.length; ++age) {
+            score += weight * estimate(windows[Math.floorMod(current - age,windows.length)],id);
+            weight *= DECAY;
+        }
+        return score;
+    }
+
+    /**
+     * Estimates the views of a recipe in a window: the least of its counters
+     */
+    private static long estimate(AtomicLongArray sketch, int id) {
+        long views = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; ++row)
+            views = Math.min(views,sketch.get(cell(row,id)));
+        return views;
+    }
+
+    /**
+     * Finds the counter of a recipe in a row of a sketch
+     */
+    private static int cell(int row, int id) {
+        long hash = (id + SEEDS[row]) * 0xBF58476D1CE4E5B9L;
+        hash ^= hash >>> 31;
+        hash *= 0x94D049BB133111EBL;
+        hash ^= hash >>> 29;
+        return row * WIDTH + (int) (hash & (WIDTH - 1));
+    }
+
+    /**
+     * Saves the counters that are not zero and the candidates to the file, through a
+     * temporary file so the saved counts are never half written
+     */
+    synchronized void save() {
+        if (filename == null)
+            return;
+        State state = new State();
+        state.started = started;
+        state.current = current;
+        state.windows = new Counters[windows.length];
+        for (int w = 0; w < windows.length; ++w) {
+            List<long[]> counted = new ArrayList<>();
+            for (int i = 0; i < windows[w].length(); ++i) {
+                long count = windows[w].get(i);
+                if (count != 0)
+                    counted.add(new long[] {i,count});
+            }
+            state.windows[w] = new Counters();
+            state.windows[w].cells = counted.stream().mapToInt(cell -> (int) cell[0]).toArray();
+            state.windows[w].counts = counted.stream().mapToLong(cell -> cell[1]).toArray();
+        }
+        state.candidates = candidates.stream().mapToInt(Integer::intValue).toArray();
+        try {
+            Path file = Paths.get(filename);
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            objectMapper.writeValue(temporary.toFile(),state);
+            Files.move(temporary,file,StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch(IOException e) {
+            LOG.log(Level.WARNING,"Could not save the recipe views: " + e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Reads the saved counts and candidates, if the file holds counts of the same shape
+     */
+    private void load() {
+        File file = new File(filename);
+        if (!file.exists())
+            return;
+        try {
+            State state = objectMapper.readValue(file,State.class);
+            if (state.windows == null || state.windows.length != windows.length || state.current < 0
+                    || state.current >= windows.length)
+                return;
+            for (Counters counters : state.windows)
+                if (counters == null || counters.cells.length != counters.counts.length
+                        || Arrays.stream(counters.cells).anyMatch(cell -> cell < 0 || cell >= DEPTH * WIDTH))
+                    return;
+            for (int w = 0; w < windows.length; ++w)
+                for (int i = 0; i < state.windows[w].cells.length; ++i)
+                    windows[w].set(state.windows[w].cells[i],state.windows[w].counts[i]);
+            current = state.current;
+            started = state.started;
+            for (int id : state.candidates)
+                candidates.add(id);
+        }
+        catch(IOException e) {
+            LOG.log(Level.WARNING,"Could not read the recipe views, starting afresh: " + e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Stops refreshing and saves the counts when the application shuts down
+     */
+    @PreDestroy
+    public void close() {
+        if (scheduler != null)
+            scheduler.shutdownNow();
+        save();
+    }
+
+    /**
+     * The counts as saved to the file
+     */
+    static class State {
+        @JsonProperty("started") long started;
+        @JsonProperty("current") int current;
+        @JsonProperty("windows") Counters[] windows;
+        @JsonProperty("candidates") int[] candidates = new int[0];
+    }
+
+    /**
+     * The counters of a window that are not zero, as saved to the file
+     */
+    static class Counters {
+        @JsonProperty("cells") int[] cells = new int[0];
+        @JsonProperty("counts") long[] counts = new long[0];
+    }
+}
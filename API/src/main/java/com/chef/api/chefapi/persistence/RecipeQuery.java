@@ -0,0 +1,559 @@
+package com.chef.api.chefapi.persistence;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.Recipe;
+
+/**
+ * A structured query over {@linkplain Recipe recipes}, parsed into a tree of predicates
+ * <p>
+ * The syntax, with keywords in any case:
+ * <pre>
+ * query = and { OR and }
+ * and   = unary { AND unary }
+ * unary = NOT unary | '(' query ')' | term
+ * term  = [contains] word                  an ingredient name has the word (or phrase)
+ *       | name ':' word                    the recipe name contains the text
+ *       | ingredients op count             the recipe has that many ingredients
+ *       | op count ingredients
+ *       | uses op amount unit [of word]    an ingredient is measured in that amount
+ * op    = '&lt;' | '&lt;=' | '≤' | '&gt;' | '&gt;=' | '≥' | '='
+ * </pre>
+ * A word is a run of letters, digits and {@code . - _ '}, or any text in double quotes.
+ * For example: {@code contains chicken AND NOT nuts AND <= 6 ingredients AND uses >= 2 cups}
+ * <br>
+ * Names and units are compared ignoring case, and units ignoring a plural s.
+ * Parentheses and NOT nest at most {@value #MAX_DEPTH} deep.
+ * 
+ * @author SWEN Faculty
+ */
+public abstract class RecipeQuery {
+    static final int MAX_DEPTH = 32;    // Deepest nesting of parentheses and NOT, which
+                                        // bounds the recursion of parsing and matching
+
+    /**
+     * Parses a query
+     * 
+     * @param text The text of the query
+     * 
+     * @return The root of the predicate tree
+     * 
+     * @throws IllegalArgumentException if the text is not a valid query
+     */
+    public static RecipeQuery parse(String text) {
+        if (text == null || text.isBlank())
+            throw new IllegalArgumentException("Empty query");
+        Parser parser = new Parser(text);
+        RecipeQuery query = parser.or();
+        if (parser.peek() != null)
+            throw parser.error("Unexpected '" + parser.peek().text + "'");
+        return query;
+    }
+
+    /**
+     * Tests whether a {@linkplain Recipe recipe} matches the query
+     * 
+     * @param recipe The {@link Recipe recipe} to test
+     * 
+     * @return true if the recipe matches
+     */
+    public abstract boolean test(Recipe recipe);
+
+    /**
+     * Splits a name into the lower case words it is indexed and matched by
+     */
+    static List<String> words(String name) {
+        List<String> words = new ArrayList<>();
+        if (name != null) {
+            for (String word : name.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                if (!word.isEmpty())
+                    words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * The number of ingredients a recipe is indexed and matched by
+     */
+    static int ingredientCount(Recipe recipe) {
+        return recipe.getIngredients() == null ? 0 : recipe.getIngredients().size();
+    }
+
+    private static String unit(String unit) {
+        String normalized = unit == null ? "" : unit.trim().toLowerCase(Locale.ROOT);
+        return normalized.length() > 1 && normalized.endsWith("s")
+            ? normalized.substring(0,normalized.length() - 1) : normalized;
+    }
+
+    private static String quote(String text) {
+        return text.matches("[\\p{L}\\p{N}._'-]+") ? text : "\"" + text + "\"";
+    }
+
+    /**
+     * A numeric comparison
+     */
+    enum Comparison {
+        LT("<"), LE("<="), GT(">"), GE(">="), EQ("=");
+
+        private final String symbol;
+
+        Comparison(String symbol) {
+            this.symbol = symbol;
+        }
+
+        boolean test(double value, double operand) {
+            switch (this) {
+                case LT: return value < operand;
+                case LE: return value <= operand;
+                case GT: return value > operand;
+                case GE: return value >= operand;
+                default: return value == operand;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return symbol;
+        }
+    }
+
+    /**
+     * All of the terms match
+     */
+    static final class And extends RecipeQuery {
+        final List<RecipeQuery> terms;
+
+        And(List<RecipeQuery> terms) {
+            this.terms = Collections.unmodifiableList(terms);
+        }
+
+        @Override
+        public boolean test(Recipe recipe) {
+            for (RecipeQuery term : terms) {
+                if (!term.test(recipe))
+                    return false;
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return terms.stream().map(term -> term instanceof Or ? "(" + term + ")" : term.toString())
+                .collect(Collectors.joining(" AND "));
+        }
+    }
+
+    /**
+     * Any of the terms matches
+     */
+    static final class Or extends RecipeQuery {
+        final List<RecipeQuery> terms;
+
+        Or(List<RecipeQuery> terms) {
+            this.terms = Collections.unmodifiableList(terms);
+        }
+
+        @Override
+        public boolean test(Recipe recipe) {
+            for (RecipeQuery term : terms) {
+                if (term.test(recipe))
+                    return true;
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return terms.stream().map(RecipeQuery::toString).collect(Collectors.joining(" OR "));
+        }
+    }
+
+    /**
+     * The term does not match
+     */
+    static final class Not extends RecipeQuery {
+        final RecipeQuery term;
+
+        Not(RecipeQuery term) {
+            this.term = term;
+        }
+
+        @Override
+        public boolean test(Recipe recipe) {
+            return !term.test(recipe);
+        }
+
+        @Override
+        public String toString() {
+            return term instanceof And || term instanceof Or ? "NOT (" + term + ")" : "NOT " + term;
+        }
+    }
+
+    /**
+     * An ingredient's name has the words of a phrase, in order and next to each other
+     */
+    static final class HasIngredient extends RecipeQuery {
+        final List<String> words;
+
+        HasIngredient(String phrase) {
+            this.words = words(phrase);
+        }
+
+        @Override
+        public boolean test(Recipe recipe) {
+            if (recipe.getIngredients() != null) {
+                for (Ingredient ingredient : recipe.getIngredients()) {
+                    if (ingredient != null && matches(ingredient))
+                        return true;
+                }
+            }
+            return false;
+        }
+
+        boolean matches(Ingredient ingredient) {
+            return Collections.indexOfSubList(words(ingredient.getName()),words) >= 0;
+        }
+
+        @Override
+        public String toString() {
+            return "contains " + quote(String.join(" ",words));
+        }
+    }
+
+    /**
+     * The recipe's name contains a text
+     */
+    static final class NameContains extends RecipeQuery {
+        final String text;
+
+        NameContains(String text) {
+            this.text = text.toLowerCase(Locale.ROOT);
+        }
+
+        @Override
+        public boolean test(Recipe recipe) {
+            return recipe.getName() != null && recipe.getName().toLowerCase(Locale.ROOT).contains(text);
+        }
+
+        @Override
+        public String toString() {
+            return "name:" + quote(text);
+        }
+    }
+
+    /**
+     * The recipe's number of ingredients compares with a count
+     */
+    static final class IngredientCount extends RecipeQuery {
+        final Comparison comparison;
+        final int count;
+
+        IngredientCount(Comparison comparison, int count) {
+            this.comparison = comparison;
+            this.count = count;
+        }
+
+        @Override
+        public boolean test(Recipe recipe) {
+            return comparison.test(ingredientCount(recipe),count);
+        }
+
+        @Override
+        public String toString() {
+            return "ingredients " + comparison + " " + count;
+        }
+    }
+
+    /**
+     * An ingredient, optionally with a given name, is measured in a unit and its
+     * quantity compares with an amount
+     */
+    static final class Uses extends RecipeQuery {
+        final Comparison comparison;
+        final double amount;
+        final String unit;
+        final HasIngredient of;     // null for any ingredient
+
+        Uses(Comparison comparison, double amount, String unit, HasIngredient of) {
+            this.comparison = comparison;
+            this.amount = amount;
+            this.unit = unit(unit);
+            this.of = of;
+        }
+
+        @Override
+        public boolean test(Recipe recipe) {
+            if (recipe.getIngredients() != null) {
+                for (Ingredient ingredient : recipe.getIngredients()) {
+                    if (ingredient != null && unit.equals(unit(ingredient.getUnit()))
+                            && comparison.test(ingredient.getQuantity(),amount)
+                            && (of == null || of.matches(ingredient)))
+                        return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            String amountText = amount == Math.rint(amount) ? Long.toString((long) amount) : Double.toString(amount);
+            return "uses " + comparison + " " + amountText + " " + quote(unit)
+                + (of == null ? "" : " of " + quote(String.join(" ",of.words)));
+        }
+    }
+
+    /**
+     * A recursive descent parser over the tokens of a query
+     */
+    private static class Parser {
+        private final String text;
+        private final List<Token> tokens = new ArrayList<>();
+        private int next;
+        private int depth;      // Parentheses and NOT around the next token
+
+        Parser(String text) {
+            this.text = text;
+            tokenize();
+        }
+
+        RecipeQuery or() {
+            List<RecipeQuery> terms = new ArrayList<>();
+            terms.add(and());
+            while (keyword("OR")) {
+                ++next;
+                terms.add(and());
+            }
+            return terms.size() == 1 ? terms.get(0) : new Or(terms);
+        }
+
+        private RecipeQuery and() {
+            List<RecipeQuery> terms = new ArrayList<>();
+            terms.add(unary());
+            while (keyword("AND")) {
+                ++next;
+                terms.add(unary());
+            }
+            return terms.size() == 1 ? terms.get(0) : new And(terms);
+        }
+
+        private RecipeQuery unary() {
+            if (keyword("NOT")) {
+                ++next;
+                nest();
+                RecipeQuery query = new Not(unary());
+                --depth;
+                return query;
+            }
+            if (symbol("(")) {
+                ++next;
+                nest();
+                RecipeQuery query = or();
+                expect(")");
+                --depth;
+                return query;
+            }
+            return term();
+        }
+
+        /**
+         * Enters a level of nesting, refusing the query rather than overflowing the stack
+         */
+        private void nest() {
+            if (++depth > MAX_DEPTH)
+                throw error("Nested more than " + MAX_DEPTH + " deep");
+        }
+
+        private RecipeQuery term() {
+            Token token = peek();
+            if (token == null)
+                throw error("Expected a term");
+            if (comparison(token) != null) {
+                Comparison comparison = comparison(take());
+                int count = count();
+                if (!keyword("INGREDIENTS") && !keyword("INGREDIENT"))
+                    throw error("Expected 'ingredients'");
+                ++next;
+                return new IngredientCount(comparison,count);
+            }
+            if (keyword("NAME") && symbolAt(next + 1,":")) {
+                next += 2;
+                return new NameContains(word());
+            }
+            if (keyword("INGREDIENTS") && comparisonAt(next + 1)) {
+                ++next;
+                return new IngredientCount(comparison(take()),count());
+            }
+            if (keyword("USES") && comparisonAt(next + 1)) {
+                ++next;
+                Comparison comparison = comparison(take());
+                double amount = number();
+                String unit = word();
+                HasIngredient of = null;
+                if (keyword("OF")) {
+                    ++next;
+                    of = ingredient(word());
+                }
+                return new Uses(comparison,amount,unit,of);
+            }
+            if (keyword("CONTAINS") && wordAt(next + 1))
+                ++next;
+            return ingredient(word());
+        }
+
+        private HasIngredient ingredient(String phrase) {
+            HasIngredient term = new HasIngredient(phrase);
+            if (term.words.isEmpty())
+                throw error("Expected an ingredient name");
+            return term;
+        }
+
+        private String word() {
+            if (!wordAt(next) || (!peek().quoted && reserved(peek().text)))
+                throw error("Expected a word");
+            return take().text;
+        }
+
+        private int count() {
+            double number = number();
+            if (number != Math.rint(number) || number < 0 || number > Integer.MAX_VALUE)
+                throw error("Expected a whole number");
+            return (int) number;
+        }
+
+        private double number() {
+            Token token = peek();
+            if (token == null || token.quoted || token.symbol)
+                throw error("Expected a number");
+            try {
+                double number = Double.parseDouble(token.text);
+                if (Double.isNaN(number) || Double.isInfinite(number))
+                    throw error("Expected a number");
+                ++next;
+                return number;
+            }
+            catch(NumberFormatException e) {
+                throw error("Expected a number");
+            }
+        }
+
+        private void expect(String symbol) {
+            if (!symbol(symbol))
+                throw error("Expected '" + symbol + "'");
+            ++next;
+        }
+
+        private Token take() {
+            return tokens.get(next++);
+        }
+
+        Token peek() {
+            return next < tokens.size() ? tokens.get(next) : null;
+        }
+
+        private boolean keyword(String keyword) {
+            Token token = peek();
+            return token != null && !token.quoted && !token.symbol && token.text.equalsIgnoreCase(keyword);
+        }
+
+        private boolean symbol(String symbol) {
+            return symbolAt(next,symbol);
+        }
+
+        private boolean symbolAt(int index, String symbol) {
+            return index < tokens.size() && tokens.get(index).symbol && tokens.get(index).text.equals(symbol);
+        }
+
+        private boolean wordAt(int index) {
+            return index < tokens.size() && !tokens.get(index).symbol;
+        }
+
+        private boolean comparisonAt(int index) {
+            return index < tokens.size() && comparison(tokens.get(index)) != null;
+        }
+
+        private static Comparison comparison(Token token) {
+            if (!token.symbol)
+                return null;
+            switch (token.text) {
+                case "<": return Comparison.LT;
+                case "<=": case "≤": return Comparison.LE;
+                case ">": return Comparison.GT;
+                case ">=": case "≥": return Comparison.GE;
+                case "=": return Comparison.EQ;
+                default: return null;
+            }
+        }
+
+        private static boolean reserved(String word) {
+            return word.equalsIgnoreCase("AND") || word.equalsIgnoreCase("OR") || word.equalsIgnoreCase("NOT");
+        }
+
+        IllegalArgumentException error(String message) {
+            int position = next < tokens.size() ? tokens.get(next).position : text.length();
+            return new IllegalArgumentException(message + " at position " + position + " of query '" + text + "'");
+        }
+
+        private void tokenize() {
+            int i = 0;
+            while (i < text.length()) {
+                char c = text.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    ++i;
+                }
+                else if (c == '"') {
+                    int end = text.indexOf('"',i + 1);
+                    if (end < 0) {
+                        next = tokens.size();
+                        tokens.add(new Token(text.substring(i),i,true,false));
+                        throw error("Unterminated quote");
+                    }
+                    tokens.add(new Token(text.substring(i + 1,end),i,true,false));
+                    i = end + 1;
+                }
+                else if ((c == '<' || c == '>') && i + 1 < text.length() && text.charAt(i + 1) == '=') {
+                    tokens.add(new Token(text.substring(i,i + 2),i,false,true));
+                    i += 2;
+                }
+                else if ("()<>=:≤≥".indexOf(c) >= 0) {
+                    tokens.add(new Token(String.valueOf(c),i,false,true));
+                    ++i;
+                }
+                else if (wordChar(c)) {
+                    int start = i;
+                    while (i < text.length() && wordChar(text.charAt(i)))
+                        ++i;
+                    tokens.add(new Token(text.substring(start,i),start,false,false));
+                }
+                else {
+                    next = tokens.size();
+                    tokens.add(new Token(String.valueOf(c),i,false,true));
+                    throw error("Unexpected '" + c + "'");
+                }
+            }
+        }
+
+        private static boolean wordChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '.' || c == '-' || c == '_' || c == '\'';
+        }
+    }
+
+    private static class Token {
+        private final String text;
+        private final int position;
+        private final boolean quoted;
+        private final boolean symbol;
+
+        Token(String text, int position, boolean quoted, boolean symbol) {
+            this.text = text;
+            this.position = position;
+            this.quoted = quoted;
+            this.symbol = symbol;
+        }
+    }
+}
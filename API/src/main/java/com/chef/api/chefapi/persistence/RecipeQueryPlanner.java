@@ -0,0 +1,458 @@
+package com.chef.api.chefapi.persistence;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.Recipe;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Runs {@linkplain RecipeQuery recipe queries} against indexes of the catalog
+ * <p>
+ * Three indexes are kept: the trigrams of recipe names, the words of ingredient
+ * names, and recipes bucketed by their number of ingredients. For each query the
+ * planner works out which recipes an index can narrow it down to: a conjunction uses
+ * its most selective indexed term, a disjunction the union of its terms if every term
+ * is indexed. Negations, quantities and name fragments shorter than a trigram cannot
+ * be looked up, so a query with no usable index falls back to scanning every recipe.
+ * The candidates are then filtered by the whole query, which also rechecks the
+ * conditions the indexes only approximate.
+ * <br>
+ * The indexes are built from the DAO on first use and then kept up to date from its
+ * change events.
+ * 
+ * {@literal @}Component Spring annotation instantiates a single instance of this
+ * class and injects the instance into other classes as needed
+ * 
+ * @author SWEN Faculty
+ */
+@Component
+public class RecipeQueryPlanner implements ChangeListener<Recipe> {
+    private static final int GRAM = 3;  // Length of the name fragments indexed
+
+    private final RecipeDAO recipeDao;
+    private final Map<Integer,Recipe> recipes = new HashMap<>();
+    private final Map<String,Set<Integer>> nameGrams = new HashMap<>();
+    private final Map<String,Set<Integer>> ingredientWords = new HashMap<>();
+    private final NavigableMap<Integer,Set<Integer>> ingredientCounts = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean built; // Changed only while holding the write lock
+
+    /**
+     * Creates the query planner and subscribes its indexes to the DAO's changes
+     * 
+     * @param recipeDao The {@link RecipeDAO Recipe Data Access Object} the indexes are built from
+     */
+    @Autowired
+    public RecipeQueryPlanner(RecipeDAO recipeDao) {
+        this.recipeDao = recipeDao;
+        recipeDao.addChangeListener(this);
+    }
+
+    /**
+     * Finds the {@linkplain Recipe recipes} matching a query
+     * 
+     * @param query The parsed {@link RecipeQuery query}
+     * 
+     * @return The {@link Result result}, with the matching recipes in order of id and the plan used
+     * 
+     * @throws IOException if the indexes have to be built and the recipes cannot be read
+     */
+    public Result query(RecipeQuery query) throws IOException {
+        if (!built)
+            build();
+        lock.readLock().lock();
+        try {
+            Access access = plan(query);
+            if (access == null)
+                access = new Scan(recipes.keySet());
+
+            List<Recipe> matches = new ArrayList<>();
+            Set<Integer> candidates = access.ids();
+            for (int id : candidates) {
+                Recipe recipe = recipes.get(id);
+                if (query.test(recipe))
+                    matches.add(recipe);
+            }
+            matches.sort(Comparator.comparingInt(Recipe::getId));
+
+            List<String> plan = new ArrayList<>();
+            plan.add("Filter " + query);
+            access.describe(plan,"  ");
+            return new Result(query.toString(),plan,candidates.size(),matches.toArray(new Recipe[0]));
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The outcome of a query, and the plan that produced it
+     */
+    public static class Result {
+        @JsonProperty("query") private final String query;
+        @JsonProperty("plan") private final List<String> plan;
+        @JsonProperty("examined") private final int examined;
+        @JsonProperty("matched") private final int matched;
+        private final Recipe[] recipes;
+
+        Result(String query, List<String> plan, int examined, Recipe[] recipes) {
+            this.query = query;
+            this.plan = Collections.unmodifiableList(plan);
+            this.examined = examined;
+            this.matched = recipes.length;
+            this.recipes = recipes;
+        }
+
+        /**
+         * Retrieves the query in its canonical form
+         * @return The query
+         */
+        public String getQuery() {return query;}
+
+        /**
+         * Retrieves the plan, one line per step, each step reading the candidates of the indented steps below it
+         * @return The lines of the plan
+         */
+        public List<String> getPlan() {return plan;}
+
+        /**
+         * Retrieves the number of recipes the indexes narrowed the query down to and the filter tested
+         * @return The number of recipes examined
+         */
+        public int getExamined() {return examined;}
+
+        /**
+         * Retrieves the number of recipes that matched
+         * @return The number of matches
+         */
+        public int getMatched() {return matched;}
+
+        /**
+         * Retrieves the recipes that matched, in order of id
+         * @return The matching recipes
+         */
+        @JsonIgnore
+        public Recipe[] getRecipes() {return recipes;}
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onChange(ChangeEvent<Recipe> event) {
+        lock.writeLock().lock();
+        try {
+            if (!built)
+                return;  // the build will read the change from the DAO
+            remove(event.getId());
+            if (event.getType() != ChangeEvent.Type.DELETED)
+                add(event.getEntity());
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Works out the candidates an index can narrow a query down to; called with the read lock held
+     * 
+     * @return The access path, null if no index helps
+     */
+    private Access plan(RecipeQuery query) {
+        if (query instanceof RecipeQuery.HasIngredient) {
+            List<Access> lookups = new ArrayList<>();
+            for (String word : new TreeSet<>(((RecipeQuery.HasIngredient) query).words))
+                lookups.add(new Lookup("ingredient word",word,ingredientWords.get(word)));
+            return intersect(lookups);
+        }
+        if (query instanceof RecipeQuery.NameContains) {
+            String text = ((RecipeQuery.NameContains) query).text;
+            if (text.length() < GRAM)
+                return null;
+            List<Access> lookups = new ArrayList<>();
+            for (String gram : new TreeSet<>(grams(text)))
+                lookups.add(new Lookup("name trigram",gram,nameGrams.get(gram)));
+            return intersect(lookups);
+        }
+        if (query instanceof RecipeQuery.IngredientCount) {
+            RecipeQuery.IngredientCount count = (RecipeQuery.IngredientCount) query;
+            NavigableMap<Integer,Set<Integer>> buckets;
+            switch (count.comparison) {
+                case LT: buckets = ingredientCounts.headMap(count.count,false); break;
+                case LE: buckets = ingredientCounts.headMap(count.count,true); break;
+                case GT: buckets = ingredientCounts.tailMap(count.count,false); break;
+                case GE: buckets = ingredientCounts.tailMap(count.count,true); break;
+                default: buckets = ingredientCounts.subMap(count.count,true,count.count,true); break;
+            }
+            Access range = new Range(count.toString(),buckets);
+            return range.estimate() < recipes.size() ? range : null;
+        }
+        if (query instanceof RecipeQuery.And) {
+            Access best = null;
+            for (RecipeQuery term : ((RecipeQuery.And) query).terms) {
+                Access access = plan(term);
+                if (access != null && (best == null || access.estimate() < best.estimate()))
+                    best = access;
+            }
+            return best;
+        }
+        if (query instanceof RecipeQuery.Or) {
+            List<Access> accesses = new ArrayList<>();
+            for (RecipeQuery term : ((RecipeQuery.Or) query).terms) {
+                Access access = plan(term);
+                if (access == null)
+                    return null;
+                accesses.add(access);
+            }
+            Access union = new Union(accesses);
+            return union.estimate() < recipes.size() ? union : null;
+        }
+        return null;    // Not and Uses cannot be looked up
+    }
+
+    private static Access intersect(List<Access> lookups) {
+        lookups.sort(Comparator.comparingInt(Access::estimate));
+        return lookups.size() == 1 ? lookups.get(0) : new Intersection(lookups);
+    }
+
+    /**
+     * Indexes every recipe of the DAO the first time a query is run
+     */
+    private void build() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (built)
+                return;
+            for (Recipe recipe : recipeDao.getRecipes())
+                add(recipe);
+            built = true;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a recipe to the indexes; called with the write lock held
+     */
+    private void add(Recipe recipe) {
+        recipes.put(recipe.getId(),recipe);
+        for (String gram : grams(recipe))
+            nameGrams.computeIfAbsent(gram,key -> new HashSet<>()).add(recipe.getId());
+        for (String word : words(recipe))
+            ingredientWords.computeIfAbsent(word,key -> new HashSet<>()).add(recipe.getId());
+        ingredientCounts.computeIfAbsent(RecipeQuery.ingredientCount(recipe),key -> new HashSet<>()).add(recipe.getId());
+    }
+
+    /**
+     * Removes a recipe from the indexes; called with the write lock held
+     */
+    private void remove(int id) {
+        Recipe recipe = recipes.remove(id);
+        if (recipe == null)
+            return;
+        for (String gram : grams(recipe))
+            removePosting(nameGrams,gram,id);
+        for (String word : words(recipe))
+            removePosting(ingredientWords,word,id);
+        removePosting(ingredientCounts,RecipeQuery.ingredientCount(recipe),id);
+    }
+
+    private static <K> void removePosting(Map<K,Set<Integer>> index, K key, int id) {
+        Set<Integer> ids = index.get(key);
+        ids.remove(id);
+        if (ids.isEmpty())
+            index.remove(key);
+    }
+
+    private static Set<String> grams(Recipe recipe) {
+        return recipe.getName() == null ? new HashSet<>() : grams(recipe.getName().toLowerCase(Locale.ROOT));
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); ++i)
+            grams.add(text.substring(i,i + GRAM));
+        return grams;
+    }
+
+    private static Set<String> words(Recipe recipe) {
+        Set<String> words = new HashSet<>();
+        if (recipe.getIngredients() != null) {
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                if (ingredient != null)
+                    words.addAll(RecipeQuery.words(ingredient.getName()));
+            }
+        }
+        return words;
+    }
+
+    /**
+     * A way of reaching the candidate recipes of a query
+     */
+    private interface Access {
+        /**
+         * @return An upper bound on the number of candidates, cheap to compute
+         */
+        int estimate();
+
+        Set<Integer> ids();
+
+        void describe(List<String> plan, String indent);
+    }
+
+    private static class Scan implements Access {
+        private final Set<Integer> all;
+
+        Scan(Set<Integer> all) {
+            this.all = all;
+        }
+
+        @Override
+        public int estimate() {
+            return all.size();
+        }
+
+        @Override
+        public Set<Integer> ids() {
+            return all;
+        }
+
+        @Override
+        public void describe(List<String> plan, String indent) {
+            plan.add(indent + "Scan all recipes (" + all.size() + ")");
+        }
+    }
+
+    private static class Lookup implements Access {
+        private final String index;
+        private final String key;
+        private final Set<Integer> postings;
+
+        Lookup(String index, String key, Set<Integer> postings) {
+            this.index = index;
+            this.key = key;
+            this.postings = postings == null ? Collections.emptySet() : postings;
+        }
+
+        @Override
+        public int estimate() {
+            return postings.size();
+        }
+
+        @Override
+        public Set<Integer> ids() {
+            return postings;
+        }
+
+        @Override
+        public void describe(List<String> plan, String indent) {
+            plan.add(indent + "Lookup " + index + " '" + key + "' (" + postings.size() + ")");
+        }
+    }
+
+    private static class Range implements Access {
+        private final String condition;
+        private final NavigableMap<Integer,Set<Integer>> buckets;
+        private final int size;
+
+        Range(String condition, NavigableMap<Integer,Set<Integer>> buckets) {
+            this.condition = condition;
+            this.buckets = buckets;
+            this.size = buckets.values().stream().mapToInt(Set::size).sum();
+        }
+
+        @Override
+        public int estimate() {
+            return size;
+        }
+
+        @Override
+        public Set<Integer> ids() {
+            Set<Integer> ids = new HashSet<>();
+            for (Set<Integer> bucket : buckets.values())
+                ids.addAll(bucket);
+            return ids;
+        }
+
+        @Override
+        public void describe(List<String> plan, String indent) {
+            plan.add(indent + "Range ingredient count " + condition + " (" + buckets.size() + " buckets, " + size + ")");
+        }
+    }
+
+    private static class Intersection implements Access {
+        private final List<Access> accesses;    // Smallest first
+
+        Intersection(List<Access> accesses) {
+            this.accesses = accesses;
+        }
+
+        @Override
+        public int estimate() {
+            return accesses.get(0).estimate();
+        }
+
+        @Override
+        public Set<Integer> ids() {
+            Set<Integer> ids = new HashSet<>(accesses.get(0).ids());
+            for (int i = 1; i < accesses.size() && !ids.isEmpty(); ++i)
+                ids.retainAll(accesses.get(i).ids());
+            return ids;
+        }
+
+        @Override
+        public void describe(List<String> plan, String indent) {
+            plan.add(indent + "Intersect");
+            for (Access access : accesses)
+                access.describe(plan,indent + "  ");
+        }
+    }
+
+    private static class Union implements Access {
+        private final List<Access> accesses;
+
+        Union(List<Access> accesses) {
+            this.accesses = accesses;
+        }
+
+        @Override
+        public int estimate() {
+            return accesses.stream().mapToInt(Access::estimate).sum();
+        }
+
+        @Override
+        public Set<Integer> ids() {
+            Set<Integer> ids = new HashSet<>();
+            for (Access access : accesses)
+                ids.addAll(access.ids());
+            return ids;
+        }
+
+        @Override
+        public void describe(List<String> plan, String indent) {
+            plan.add(indent + "Union");
+            for (Access access : accesses)
+                access.describe(plan,indent + "  ");
+        }
+    }
+}
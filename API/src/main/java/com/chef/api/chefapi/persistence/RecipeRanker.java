@@ -0,0 +1,380 @@
+package com.chef.api.chefapi.persistence;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.Recipe;
+
+/**
+ * Ranks {@linkplain Recipe recipes} against a text by BM25 and returns only the best K
+ * <p>
+ * A recipe is scored over the words of its name and of its ingredient names, a name
+ * word counting {@value #NAME_WEIGHT} times as much as an ingredient word. Each word
+ * has a posting list of the recipes using it, in order of id, together with an upper
+ * bound on the score it can give any one recipe. A change patches the posting lists
+ * of the words it touches in place; the bounds are not lowered when a recipe is
+ * removed, which leaves them valid, only looser.
+ * <br>
+ * Queries are evaluated document at a time with MaxScore pruning: the query words are
+ * ordered by their bounds, and once the K best scores so far are known, the words
+ * whose bounds together cannot reach the K-th best are no longer used to find
+ * candidates, only to complete the score of a candidate found through the other
+ * words, and scoring a candidate stops as soon as what is left could not make it
+ * better than the K-th. The work done therefore depends on K and on how rare the
+ * query words are, rather than on the size of the catalog.
+ * <br>
+ * The index is built from the DAO on first use; its owner must pass it the DAO's
+ * change events afterwards.
+ * 
+ * @author SWEN Faculty
+ */
+public class RecipeRanker implements ChangeListener<Recipe> {
+    static final int NAME_WEIGHT = 2;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final RecipeDAO recipeDao;
+    private final Map<Integer,Recipe> recipes = new HashMap<>();
+    private final Map<Integer,Map<String,Integer>> frequencies = new HashMap<>();  // Of the words of each recipe
+    private final Map<Integer,Integer> lengths = new HashMap<>();
+    private final Map<String,Postings> postings = new HashMap<>();
+    private long totalLength;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean built; // Changed only while holding the write lock
+
+    /**
+     * Creates the ranker; its owner must pass it the DAO's change events
+     * 
+     * @param recipeDao The {@link RecipeDAO Recipe Data Access Object} the index is built from
+     */
+    public RecipeRanker(RecipeDAO recipeDao) {
+        this.recipeDao = recipeDao;
+    }
+
+    /**
+     * Finds the K {@linkplain Recipe recipes} that best match a text
+     * 
+     * @param text The text, split into words the way names are
+     * @param k The most number of {@link Recipe recipes} to return
+     * 
+     * @return The {@link Recipe recipes} using any of the words, best first and then in
+     * order of id, at most k of them
+     * 
+     * @throws IOException if the index has to be built and the recipes cannot be read
+     */
+    public Recipe[] top(String text, int k) throws IOException {
+        if (!built)
+            build();
+        lock.readLock().lock();
+        try {
+            List<Hit> hits = rank(text,k);
+            Recipe[] found = new Recipe[hits.size()];
+            for (int i = 0; i < found.length; ++i)
+                found[i] = recipes.get(hits.get(i).id);
+            return found;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the K best matches of a text with their scores
+     * 
+     * @return The hits, best first and then in order of id
+     */
+    List<Hit> search(String text, int k) throws IOException {
+        if (!built)
+            build();
+        lock.readLock().lock();
+        try {
+            return rank(text,k);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the K best matches of a text; called with the read lock held
+     */
+    private List<Hit> rank(String text, int k) {
+        if (recipes.isEmpty() || k <= 0)
+            return new ArrayList<>();
+        double averageLength = (double) totalLength / recipes.size();
+        List<Cursor> cursors = new ArrayList<>();
+        for (String word : new LinkedHashSet<>(RecipeQuery.words(text))) {
+            Postings list = postings.get(word);
+            if (list != null)
+                cursors.add(new Cursor(list,idf(list.size),averageLength));
+        }
+        cursors.sort(Comparator.comparingDouble(cursor -> cursor.bound));
+        double[] bounds = new double[cursors.size()];   // bounds[i] = sum of the bounds of cursors 0 to i
+        for (int i = 0; i < bounds.length; ++i)
+            bounds[i] = (i == 0 ? 0 : bounds[i - 1]) + cursors.get(i).bound;
+
+        PriorityQueue<Hit> best = new PriorityQueue<>(Hit.WORST_FIRST);
+        double threshold = 0;   // The score to beat, the K-th best once there are K
+        int essential = 0;      // Cursors from here on can bring in new candidates
+        while (essential < cursors.size()) {
+            int doc = Integer.MAX_VALUE;
+            for (int i = essential; i < cursors.size(); ++i)
+                doc = Math.min(doc,cursors.get(i).doc());
+            if (doc == Integer.MAX_VALUE)
+                break;  // the essential lists are exhausted
+
+            double score = 0;
+            for (int i = essential; i < cursors.size(); ++i) {
+                Cursor cursor = cursors.get(i);
+                if (cursor.doc() == doc) {
+                    score += cursor.score(lengths.get(doc));
+                    cursor.next();
+                }
+            }
+            boolean pruned = false;
+            for (int i = essential - 1; i >= 0; --i) {
+                if (score + bounds[i] <= threshold) {
+                    pruned = true;
+                    break;
+                }
+                Cursor cursor = cursors.get(i);
+                if (cursor.skipTo(doc) == doc)
+                    score += cursor.score(lengths.get(doc));
+            }
+            if (pruned || score <= threshold)
+                continue;
+
+            best.add(new Hit(doc,score));
+            if (best.size() > k)
+                best.poll();
+            if (best.size() == k) {
+                threshold = best.peek().score;
+                while (essential < cursors.size() && bounds[essential] <= threshold)
+                    ++essential;
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(Hit.WORST_FIRST.reversed());
+        return hits;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onChange(ChangeEvent<Recipe> event) {
+        lock.writeLock().lock();
+        try {
+            if (!built)
+                return;  // the build will read the change from the DAO
+            remove(event.getId());
+            if (event.getType() != ChangeEvent.Type.DELETED)
+                add(event.getEntity());
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes every recipe of the DAO the first time the index is used
+     */
+    private void build() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (built)
+                return;
+            // In order of id, so every recipe is appended to its postings
+            Recipe[] all = recipeDao.getRecipes().clone();
+            Arrays.sort(all,Comparator.comparingInt(Recipe::getId));
+            for (Recipe recipe : all)
+                add(recipe);
+            built = true;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a recipe to the postings of its words; called with the write lock held
+     */
+    private void add(Recipe recipe) {
+        Map<String,Integer> counts = words(recipe);
+        int length = 0;
+        for (int count : counts.values())
+            length += count;
+        for (Map.Entry<String,Integer> entry : counts.entrySet())
+            postings.computeIfAbsent(entry.getKey(),word -> new Postings()).put(recipe.getId(),entry.getValue(),length);
+        recipes.put(recipe.getId(),recipe);
+        frequencies.put(recipe.getId(),counts);
+        lengths.put(recipe.getId(),length);
+        totalLength += length;
+    }
+
+    /**
+     * Removes a recipe from the postings of its words; called with the write lock held
+     */
+    private void remove(int id) {
+        Map<String,Integer> counts = frequencies.remove(id);
+        if (counts == null)
+            return;
+        recipes.remove(id);
+        totalLength -= lengths.remove(id);
+        for (String word : counts.keySet()) {
+            Postings list = postings.get(word);
+            list.remove(id);
+            if (list.size == 0)
+                postings.remove(word);
+        }
+    }
+
+    /**
+     * Counts the words of a recipe's name and ingredient names, name words weighted
+     */
+    static Map<String,Integer> words(Recipe recipe) {
+        Map<String,Integer> counts = new HashMap<>();
+        for (String word : RecipeQuery.words(recipe.getName()))
+            counts.merge(word,NAME_WEIGHT,Integer::sum);
+        if (recipe.getIngredients() != null) {
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                if (ingredient != null) {
+                    for (String word : RecipeQuery.words(ingredient.getName()))
+                        counts.merge(word,1,Integer::sum);
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * The inverse document frequency of a word used by a number of recipes
+     */
+    private double idf(int documents) {
+        return Math.log(1 + (recipes.size() - documents + 0.5) / (documents + 0.5));
+    }
+
+    /**
+     * The BM25 score one word gives a recipe
+     * 
+     * @param idf The inverse document frequency of the word
+     * @param frequency The weighted number of times the recipe uses the word
+     * @param length The weighted number of words of the recipe
+     * @param averageLength The average length of a recipe
+     */
+    static double score(double idf, int frequency, int length, double averageLength) {
+        return idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+    }
+
+    /**
+     * The recipes using a word
+     */
+    private static class Postings {
+        private int[] ids = new int[4];     // In order of id, the first size of them in use
+        private int[] counts = new int[4];
+        private int size;
+        private int maxFrequency;   // Over the recipes that used the word, together
+        private int minLength = Integer.MAX_VALUE;  // bounding the score it gives any of them
+
+        /**
+         * Adds a recipe, or changes its count if it is already in the list
+         */
+        void put(int id, int count, int length) {
+            int at = Arrays.binarySearch(ids,0,size,id);
+            if (at < 0) {
+                at = -at - 1;
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids,size * 2);
+                    counts = Arrays.copyOf(counts,size * 2);
+                }
+                System.arraycopy(ids,at,ids,at + 1,size - at);
+                System.arraycopy(counts,at,counts,at + 1,size - at);
+                ids[at] = id;
+                ++size;
+            }
+            counts[at] = count;
+            maxFrequency = Math.max(maxFrequency,count);
+            minLength = Math.min(minLength,length);
+        }
+
+        void remove(int id) {
+            int at = Arrays.binarySearch(ids,0,size,id);
+            if (at < 0)
+                return;
+            System.arraycopy(ids,at + 1,ids,at,size - at - 1);
+            System.arraycopy(counts,at + 1,counts,at,size - at - 1);
+            --size;
+        }
+    }
+
+    /**
+     * A position in the postings of one query word
+     */
+    private static class Cursor {
+        private final Postings list;
+        private final double idf;
+        private final double averageLength;
+        private final double bound;     // The most this word adds to any recipe's score
+        private int position;
+
+        Cursor(Postings list, double idf, double averageLength) {
+            this.list = list;
+            this.idf = idf;
+            this.averageLength = averageLength;
+            // The score grows with the frequency and shrinks with the length
+            this.bound = RecipeRanker.score(idf,list.maxFrequency,list.minLength,averageLength);
+        }
+
+        int doc() {
+            return position < list.size ? list.ids[position] : Integer.MAX_VALUE;
+        }
+
+        void next() {
+            ++position;
+        }
+
+        /**
+         * Moves to the first recipe with an id of at least target
+         * 
+         * @return The id moved to
+         */
+        int skipTo(int target) {
+            if (doc() < target) {
+                int found = Arrays.binarySearch(list.ids,position,list.size,target);
+                position = found >= 0 ? found : -found - 1;
+            }
+            return doc();
+        }
+
+        double score(int length) {
+            return RecipeRanker.score(idf,list.counts[position],length,averageLength);
+        }
+    }
+
+    /**
+     * A recipe and its score
+     */
+    static class Hit {
+        static final Comparator<Hit> WORST_FIRST = (a,b) -> a.score != b.score
+            ? Double.compare(a.score,b.score) : Integer.compare(b.id,a.id);
+
+        final int id;
+        final double score;
+
+        Hit(int id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.chef.api.chefapi.persistence;
+
+import java.io.IOException;
+import java.text.Normalizer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.chef.api.chefapi.model.Recipe;
+
+/**
+ * Answers recipe name searches in front of a {@link RecipeDAO}, so that popular
+ * queries do not each scan the whole catalog
+ * <p>
+ * Concurrent identical queries are collapsed into a single call to
+ * {@link RecipeDAO#findRecipes(String)} whose result all of them share, and recent
+ * results are kept in a bounded least recently used cache. Every change published by
+ * the DAO advances the catalog generation; results are tagged with the generation
+ * they were computed in and only reused within it, so a change is never hidden by
+ * the cache and a search that was running while the change was made is never cached
+ * as current.
+ * <br>
+ * Typo tolerant searches are answered by a {@link FuzzyNameIndex} and relevance ranked
+ * searches by a {@link RecipeRanker}, both cached the same way.
+ * 
+ * {@literal @}Component Spring annotation instantiates a single instance of this
+ * class and injects the instance into other classes as needed
+ * 
+ * @author SWEN Faculty
+ */
+@Component
+public class RecipeSearch implements ChangeListener<Recipe> {
+    private static final String FUZZY = "\u0000fuzzy:";  // Prefixes the cache keys of fuzzy searches
+    private static final String RANKED = "\u0000ranked:";    // and of ranked searches
+
+    private final RecipeDAO recipeDao;
+    private final FuzzyNameIndex fuzzyIndex;
+    private final RecipeRanker ranker;
+    private final AtomicLong generation = new AtomicLong();  // Advanced by every catalog change
+    private final Map<String,Result> results;   // Access ordered, guarded by itself
+    private final Map<Flight,CompletableFuture<Recipe[]>> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the search layer and subscribes it to the DAO's changes
+     * 
+     * @param recipeDao The {@link RecipeDAO Recipe Data Access Object} searches are delegated to
+     * @param capacity The number of query results kept
+     */
+    @Autowired
+    public RecipeSearch(RecipeDAO recipeDao, @Value("${chef.search.cache-size:256}") int capacity) {
+        this.recipeDao = recipeDao;
+        this.fuzzyIndex = new FuzzyNameIndex(recipeDao);
+        this.ranker = new RecipeRanker(recipeDao);
+        this.results = new LinkedHashMap<>(16,0.75f,true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String,Result> eldest) {
+                return size() > capacity;
+            }
+        };
+        recipeDao.addChangeListener(this);
+    }
+
+    /**
+     * Finds all {@linkplain Recipe recipes} whose name contains the given text
+     * 
+     * @param containsText The text to match against
+     * 
+     * @return An array of {@link Recipe recipes} whose names contains the given text, may be empty
+     * 
+     * @throws IOException if an issue with underlying storage
+     */
+    public Recipe[] findRecipes(String containsText) throws IOException {
+        String query = normalize(containsText);
+        return search(query,() -> recipeDao.findRecipes(query));
+    }
+
+    /**
+     * Finds the {@linkplain Recipe recipes} whose name matches the words of a text, allowing
+     * a bounded number of typos in each word
+     * 
+     * @param text The text to match against
+     * @param maxDistance The edits allowed per word, at most 2; negative to allow
+     * more for longer words
+     * 
+     * @return An array of the matching {@link Recipe recipes}, closest first, may be empty
+     * 
+     * @throws IOException if an issue with underlying storage
+     */
+    public Recipe[] findRecipes(String text, int maxDistance) throws IOException {
+        String query = normalize(text);
+        return search(FUZZY + maxDistance + ":" + query,() -> fuzzyIndex.find(query,maxDistance));
+    }
+
+    /**
+     * Finds the {@linkplain Recipe recipes} most relevant to the words of a text, scored by
+     * BM25 over the words of their names and ingredient names
+     * 
+     * @param text The text to match against
+     * @param k The most number of {@link Recipe recipes} to return
+     * 
+     * @return An array of at most k {@link Recipe recipes}, most relevant first, may be empty
+     * 
+     * @throws IOException if an issue with underlying storage
+     */
+    public Recipe[] rankRecipes(String text, int k) throws IOException {
+        String query = normalize(text);
+        return search(RANKED + k + ":" + query,() -> ranker.top(query,k));
+    }
+
+    /**
+     * Answers a query from the cache, from a running search of the same query, or by
+     * running the lookup
+     * 
+     * @param query The cache key of the query
+     * @param lookup Computes the result if it has to be
+     */
+    private Recipe[] search(String query, Lookup lookup) throws IOException {
+        long current = generation.get();
+        synchronized (results) {
+            Result cached = results.get(query);
+            if (cached != null && cached.generation == current)
+                return cached.recipes.clone();
+        }
+
+        Flight flight = new Flight(query,current);
+        CompletableFuture<Recipe[]> mine = new CompletableFuture<>();
+        CompletableFuture<Recipe[]> running = flights.putIfAbsent(flight,mine);
+        if (running != null)
+            return join(running).clone();   // someone is already computing this
+
+        try {
+            Recipe[] recipes = lookup.find();
+            Recipe[] shared = recipes.clone();  // kept apart from the array handed to the caller
+            mine.complete(shared);
+            synchronized (results) {
+                if (generation.get() == current)
+                    results.put(query,new Result(current,shared));
+            }
+            return recipes;
+        }
+        catch(IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        finally {
+            flights.remove(flight,mine);
+        }
+    }
+
+    /**
+     * Retrieves the catalog generation
+     * 
+     * @return The number of changes seen since this search layer was created
+     */
+    public long getGeneration() {return generation.get();}
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public void onChange(ChangeEvent<Recipe> event) {
+        ranker.onChange(event);
+        fuzzyIndex.onChange(event);  // before the generation moves on, so no result of the old index is cached as new
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Normalizes a query so that the same text typed on different systems shares a result
+     * <br>
+     * Only the Unicode representation is normalized; name matching stays case sensitive
+     */
+    static String normalize(String containsText) {
+        return Normalizer.normalize(containsText,Normalizer.Form.NFC);
+    }
+
+    private static Recipe[] join(CompletableFuture<Recipe[]> running) throws IOException {
+        try {
+            return running.join();
+        }
+        catch(CompletionException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * Computes the result of a query
+     */
+    private interface Lookup {
+        Recipe[] find() throws IOException;
+    }
+
+    /**
+     * The result of a query and the generation it was computed in
+     */
+    private static class Result {
+        private final long generation;
+        private final Recipe[] recipes;
+
+        Result(long generation, Recipe[] recipes) {
+            this.generation = generation;
+            this.recipes = recipes;
+        }
+    }
+
+    /**
+     * Identifies a running search; a query is only shared within one generation
+     */
+    private static class Flight {
+        private final String query;
+        private final long generation;
+
+        Flight(String query, long generation) {
+            this.query = query;
+            this.generation = generation;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Flight))
+                return false;
+            Flight other = (Flight) o;
+            return generation == other.generation && query.equals(other.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return query.hashCode() * 31 + Long.hashCode(generation);
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.chef.api.chefapi.persistence;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.Recipe;
+
+/**
+ * Finds {@linkplain Recipe recipes} with similar ingredients without comparing a
+ * recipe against the whole catalog
+ * <p>
+ * Each recipe's set of ingredient names is summarized by a MinHash signature of
+ * {@value #HASHES} values; the fraction of positions two signatures agree on estimates
+ * the Jaccard similarity of the two sets. The signatures are split into {@value #BANDS}
+ * bands and recipes whose signatures are identical in at least one band share a
+ * bucket, so only recipes sharing a bucket with the query are ever compared. With
+ * {@value #ROWS} rows per band, a pair with a similarity of 0.5 shares a bucket with a
+ * probability of about 0.98, while a pair of 0.1 does so with a probability of about 0.03.
+ * <p>
+ * Buckets grow with the catalog, a recipe of common ingredients sharing some with
+ * most of it, so a lookup compares at most {@value #MAX_CANDIDATES} recipes, taken from
+ * the smallest buckets first: a rare band is the stronger evidence of similarity. The
+ * work of a lookup is then bounded whatever the size of the catalog, at the cost of
+ * missing some neighbours of such a recipe.
+ * <br>
+ * The index is built from the DAO on first use and then kept up to date from its
+ * change events. Recipes without ingredients are not indexed.
+ * 
+ * {@literal @}Component Spring annotation instantiates a single instance of this
+ * class and injects the instance into other classes as needed
+ * 
+ * @author SWEN Faculty
+ */
+@Component
+public class RecipeSimilarityIndex implements ChangeListener<Recipe> {
+    static final int HASHES = 96;   // Length of a signature
+    static final int ROWS = 3;      // Signature values per band
+    static final int BANDS = HASHES / ROWS;
+    static final int MAX_CANDIDATES = 512;  // Recipes compared with the query, at most
+    private static final long[] SEEDS = new long[HASHES];
+
+    static {
+        long seed = 0x2545F4914F6CDD1DL;
+        for (int i = 0; i < HASHES; ++i)
+            SEEDS[i] = seed = mix(seed + i);
+    }
+
+    private final RecipeDAO recipeDao;
+    private final Map<Integer,int[]> signatures = new HashMap<>();
+    private final List<Map<Long,Set<Integer>>> buckets = new ArrayList<>();  // One map per band
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean built; // Changed only while holding the write lock
+
+    /**
+     * Creates the similarity index and subscribes it to the DAO's changes
+     * 
+     * @param recipeDao The {@link RecipeDAO Recipe Data Access Object} the index is built from
+     */
+    @Autowired
+    public RecipeSimilarityIndex(RecipeDAO recipeDao) {
+        this.recipeDao = recipeDao;
+        for (int band = 0; band < BANDS; ++band)
+            buckets.add(new HashMap<>());
+        recipeDao.addChangeListener(this);
+    }
+
+    /**
+     * Finds the {@linkplain Recipe recipes} most similar to a recipe
+     * 
+     * @param id The id of the {@link Recipe recipe}
+     * @param k The most number of ids to return
+     * 
+     * @return The ids of up to k similar {@link Recipe recipes}, most similar first;
+     * empty if the recipe is unknown or has no ingredients
+     * 
+     * @throws IOException if the index has to be built and the recipes cannot be read
+     */
+    public List<Integer> findSimilar(int id, int k) throws IOException {
+        if (!built)
+            build();
+        lock.readLock().lock();
+        try {
+            int[] signature = signatures.get(id);
+            if (signature == null)
+                return new ArrayList<>();
+
+            Set<Integer> candidates = candidates(id,signature);
+            List<int[]> scored = new ArrayList<>(candidates.size());  // {id, agreeing positions}
+            for (Integer candidate : candidates)
+                scored.add(new int[] {candidate,agreement(signature,signatures.get(candidate))});
+            scored.sort((a,b) -> a[1] != b[1] ? Integer.compare(b[1],a[1]) : Integer.compare(a[0],b[0]));
+
+            List<Integer> similar = new ArrayList<>();
+            for (int i = 0; i < scored.size() && i < k; ++i)
+                similar.add(scored.get(i)[0]);
+            return similar;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Collects the recipes sharing a bucket with a signature, visiting the buckets from
+     * the smallest, up to {@value #MAX_CANDIDATES} of them; called with the read lock held
+     * 
+     * @param id The id of the recipe, which is not a candidate
+     * @param signature The signature of the recipe
+     * 
+     * @return The ids of the candidates
+     */
+    Set<Integer> candidates(int id, int[] signature) {
+        List<Set<Integer>> shared = new ArrayList<>(BANDS);
+        for (int band = 0; band < BANDS; ++band) {
+            Set<Integer> bucket = buckets.get(band).get(bandKey(signature,band));
+            if (bucket.size() > 1)
+                shared.add(bucket);
+        }
+        shared.sort(Comparator.comparingInt(Set::size));
+
+        Set<Integer> candidates = new HashSet<>();
+        for (Set<Integer> bucket : shared) {
+            for (int candidate : bucket) {
+                if (candidate != id && candidates.add(candidate) && candidates.size() == MAX_CANDIDATES)
+                    return candidates;
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Retrieves the signature of an indexed recipe
+     * 
+     * @return The signature, null if the recipe is not indexed
+     */
+    int[] signatureOf(int id) {
+        lock.readLock().lock();
+        try {
+            return signatures.get(id);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Estimates the Jaccard similarity of the ingredients of two indexed {@linkplain Recipe recipes}
+     * 
+     * @param a The id of one {@link Recipe recipe}
+     * @param b The id of the other {@link Recipe recipe}
+     * 
+     * @return The estimate between 0 and 1, 0 if either recipe is not indexed
+     */
+    public double estimate(int a, int b) {
+        lock.readLock().lock();
+        try {
+            int[] first = signatures.get(a);
+            int[] second = signatures.get(b);
+            if (first == null || second == null)
+                return 0;
+            return (double) agreement(first,second) / HASHES;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public void onChange(ChangeEvent<Recipe> event) {
+        lock.writeLock().lock();
+        try {
+            if (!built)
+                return;  // the build will read the change from the DAO
+            if (event.getType() == ChangeEvent.Type.DELETED)
+                remove(event.getId());
+            else
+                add(event.getEntity());
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes every recipe of the DAO the first time the index is used
+     */
+    private void build() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (built)
+                return;
+            for (Recipe recipe : recipeDao.getRecipes())
+                add(recipe);
+            built = true;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces a recipe; called with the write lock held
+     */
+    private void add(Recipe recipe) {
+        remove(recipe.getId());
+        int[] signature = signature(recipe);
+        if (signature == null)
+            return;
+        signatures.put(recipe.getId(),signature);
+        for (int band = 0; band < BANDS; ++band)
+            buckets.get(band).computeIfAbsent(bandKey(signature,band),key -> new HashSet<>()).add(recipe.getId());
+    }
+
+    /**
+     * Removes a recipe; called with the write lock held
+     */
+    private void remove(int id) {
+        int[] signature = signatures.remove(id);
+        if (signature == null)
+            return;
+        for (int band = 0; band < BANDS; ++band) {
+            Map<Long,Set<Integer>> bucketsOfBand = buckets.get(band);
+            long key = bandKey(signature,band);
+            Set<Integer> bucket = bucketsOfBand.get(key);
+            bucket.remove(id);
+            if (bucket.isEmpty())
+                bucketsOfBand.remove(key);
+        }
+    }
+
+    /**
+     * Computes the MinHash signature of a recipe's ingredient names
+     * 
+     * @return The signature, null if the recipe has no named ingredients
+     */
+    static int[] signature(Recipe recipe) {
+        Set<String> names = ingredientNames(recipe);
+        if (names.isEmpty())
+            return null;
+        int[] signature = new int[HASHES];
+        Arrays.fill(signature,Integer.MAX_VALUE);
+        for (String name : names) {
+            long hash = fnv(name);
+            for (int i = 0; i < HASHES; ++i) {
+                int value = (int) (mix(hash ^ SEEDS[i]) >>> 33);
+                if (value < signature[i])
+                    signature[i] = value;
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Collects the normalized ingredient names of a recipe, the set similarity is measured on
+     */
+    static Set<String> ingredientNames(Recipe recipe) {
+        Set<String> names = new HashSet<>();
+        if (recipe.getIngredients() != null) {
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                if (ingredient != null && ingredient.getName() != null && !ingredient.getName().isBlank())
+                    names.add(ingredient.getName().trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return names;
+    }
+
+    private static int agreement(int[] a, int[] b) {
+        int agree = 0;
+        for (int i = 0; i < HASHES; ++i) {
+            if (a[i] == b[i])
+                ++agree;
+        }
+        return agree;
+    }
+
+    private static long bandKey(int[] signature, int band) {
+        long key = band;
+        for (int row = band * ROWS; row < (band + 1) * ROWS; ++row)
+            key = key * 0x100000001B3L + signature[row];
+        return mix(key);
+    }
+
+    /**
+     * 64 bit FNV-1a hash of a string's UTF-8 bytes
+     */
+    private static long fnv(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : text.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * The SplitMix64 finalizer, turns related inputs into independent looking hashes
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,37 @@
+package com.chef.api.chefapi.persistence;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A secondary index kept by a {@link FileRepository} alongside its entities
+ * <p>
+ * The repository calls the index while holding its write lock, before the entities
+ * it was given are published, so the index never lags behind what readers see.
+ * Indexes that can only be rebuilt implement {@link #rebuild(Map)}; those that can
+ * be kept up to date entity by entity also override {@link #update(Map, Map, Set)}.
+ * 
+ * @param <T> The type of the entities
+ * 
+ * @author SWEN Faculty
+ */
+@FunctionalInterface
+public interface RepositoryIndex<T> {
+    /**
+     * Indexes a whole set of entities, when they are loaded
+     * 
+     * @param entities The entities by id; never modified afterwards
+     */
+    void rebuild(Map<Integer,T> entities);
+
+    /**
+     * Indexes a change to the entities
+     * 
+     * @param current The entities by id before the change
+     * @param updated The entities by id after the change; never modified afterwards
+     * @param changed The ids that were created, updated or deleted
+     */
+    default void update(Map<Integer,T> current, Map<Integer,T> updated, Set<Integer> changed) {
+        rebuild(updated);
+    }
+}
@@ -0,0 +1,64 @@
+package com.chef.api.chefapi.persistence;
+
+import java.io.IOException;
+
+/**
+ * Defines where a {@link FileRepository} keeps its entities
+ * <p>
+ * The repository holds every entity in memory and hands the storage the whole set
+ * whenever it changes, so a storage only has to read and write an array of them.
+ * 
+ * @param <T> The type of the entities
+ * 
+ * @author SWEN Faculty
+ */
+public interface RepositoryStorage<T> {
+    /**
+     * Retrieves the name of the storage, used in log messages
+     * 
+     * @return The name, such as the filename
+     */
+    String getName();
+
+    /**
+     * Reads every entity
+     * 
+     * @return The entities, in no particular order
+     * 
+     * @throws IOException if the storage cannot be accessed or read from
+     */
+    T[] read() throws IOException;
+
+    /**
+     * Replaces the stored entities durably and atomically, so that a crash, or someone
+     * reading the storage meanwhile, sees either the old entities or the new ones
+     * 
+     * @param entities Every entity, in order of id
+     * 
+     * @return The content written, as {@link #content()} would read it
+     * 
+     * @throws IOException if the storage cannot be accessed or written to; the stored
+     * entities are unchanged
+     */
+    byte[] write(T[] entities) throws IOException;
+
+    /**
+     * Reads the stored content as it is, so that a change can be recognised by its hash
+     * 
+     * @return The content
+     * 
+     * @throws IOException if the storage cannot be accessed or read from
+     */
+    byte[] content() throws IOException;
+
+    /**
+     * Converts content read by {@link #content()} to entities
+     * 
+     * @param content The content
+     * 
+     * @return The entities it holds
+     * 
+     * @throws IOException if the content cannot be parsed
+     */
+    T[] decode(byte[] content) throws IOException;
+}
@@ -0,0 +1,60 @@
+package com.chef.api.chefapi.persistence;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A point-in-time view of the entities of a store, unaffected by later changes
+ * <p>
+ * The file DAOs never modify a cache they have published, replacing it with a
+ * modified copy instead, so a snapshot is only a reference to the cache current
+ * when it was taken: taking it copies nothing and takes no lock, and iterating it
+ * costs no more memory however many entities there are.
+ * 
+ * @param <T> The type of the entities
+ * 
+ * @author SWEN Faculty
+ */
+public final class Snapshot<T> implements Iterable<T> {
+    private final Map<Integer,T> source;    // The cache, by id, never modified
+    private final Map<Integer,T> entities;  // A read only view of it
+
+    /**
+     * Creates a snapshot of a published cache
+     * 
+     * @param entities The entities by id; must never be modified afterwards
+     */
+    Snapshot(Map<Integer,T> entities) {
+        this.source = entities;
+        this.entities = Collections.unmodifiableMap(entities);
+    }
+
+    /**
+     * Retrieves the number of entities
+     * 
+     * @return The number of entities in the snapshot
+     */
+    public int size() {return entities.size();}
+
+    /**
+     * Iterates over the entities in order of id
+     * 
+     * @return An iterator that cannot remove
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return entities.values().iterator();
+    }
+
+    /**
+     * Tells whether two snapshots are of the same state of a store, with no change in between
+     * 
+     * @param other The other snapshot, may be null
+     * 
+     * @return true if both were taken of the same cache
+     */
+    boolean isSameAs(Snapshot<T> other) {
+        return other != null && source == other.source;
+    }
+}
@@ -0,0 +1,72 @@
+package com.chef.api.chefapi.persistence;
+
+import java.io.IOException;
+
+import com.chef.api.chefapi.model.User;
+
+/**
+ * Defines the interface for User object persistence
+ * 
+ * @author SWEN Faculty
+ */
+public interface UserDAO {
+    /**
+     * Retrieves all {@linkplain User users}
+     * 
+     * @return An array of {@link User user} objects, may be empty
+     * 
+     * @throws IOException if an issue with underlying storage
+     */
+    User[] getUsers() throws IOException;
+
+    /**
+     * Retrieves a {@linkplain User user} with the given id
+     * 
+     * @param id The id of the {@link User user} to get
+     * 
+     * @return a {@link User user} object with the matching id
+     * <br>
+     * null if no {@link User user} with a matching id is found
+     * 
+     * @throws IOException if an issue with underlying storage
+     */
+    User getUser(int id) throws IOException;
+
+    /**
+     * Creates and saves a {@linkplain User user}
+     * 
+     * @param user {@linkplain User user} object to be created and saved
+     * <br>
+     * The id of the user object is ignored and a new unique id is assigned
+     * 
+     * @return new {@link User user}
+     * 
+     * @throws IOException if an issue with underlying storage
+     */
+    User createUser(User user) throws IOException;
+
+    /**
+     * Updates and saves a {@linkplain User user}
+     * 
+     * @param user {@link User user} object to be updated and saved
+     * 
+     * @return updated {@link User user} if successful, null if
+     * {@link User user} could not be found
+     * 
+     * @throws IOException if underlying storage cannot be accessed
+     */
+    User updateUser(User user) throws IOException;
+
+    /**
+     * Deletes a {@linkplain User user} with the given id
+     * 
+     * @param id The id of the {@link User user}
+     * 
+     * @return true if the {@link User user} was deleted
+     * <br>
+     * false if user with the given id does not exist
+     * 
+     * @throws IOException if underlying storage cannot be accessed
+     */
+    boolean deleteUser(int id) throws IOException;
+}
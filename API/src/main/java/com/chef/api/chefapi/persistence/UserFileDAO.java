@@ -0,0 +1,105 @@
+package com.chef.api.chefapi.persistence;
+
+import java.io.IOException;
+
+import com.chef.api.chefapi.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Implements the functionality for JSON file-based peristance for Users
+ * <p>
+ * The users are kept by a {@link FileRepository}, like the recipes and ingredients
+ * 
+ * {@literal @}Component Spring annotation instantiates a single instance of this
+ * class and injects the instance into other classes as needed
+ * 
+ * @author SWEN Faculty
+ */
+@Component
+public class UserFileDAO implements UserDAO {
+    private final FileRepository<User> repository;  // Provides the local cache of the
+                                        // user objects, written through to the file
+
+    /**
+     * Creates a User File Data Access Object
+     * 
+     * @param filename Filename to read from and write to
+     * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
+     * @param loader Decides whether the file is read now or in the background
+     * 
+     * @throws IOException when file cannot be accessed or read from
+     */
+    @Autowired
+    public UserFileDAO(@Value("${users.file}") String filename,ObjectMapper objectMapper,
+            DataStoreLoader loader) throws IOException {
+        repository = new FileRepository<>(new JsonFileStorage<>(filename,objectMapper,User[].class),
+            User::getId,User[]::new,loader);  // load the users from the file
+    }
+
+    /**
+     * Creates a User File Data Access Object that loads its file right away
+     * 
+     * @param filename Filename to read from and write to
+     * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
+     * 
+     * @throws IOException when file cannot be accessed or read from
+     */
+    public UserFileDAO(String filename,ObjectMapper objectMapper) throws IOException {
+        this(filename,objectMapper,DataStoreLoader.EAGER);
+    }
+
+    /**
+     * Retrieves the repository keeping the users
+     * 
+     * @return The {@link FileRepository repository} of {@link User users}
+     */
+    FileRepository<User> getRepository() {
+        return repository;
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public User[] getUsers() {
+        return repository.getAll();
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public User getUser(int id) {
+        return repository.get(id);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public User createUser(User user) throws IOException {
+        // We create a new user object because the id field is immutable
+        // and we need to assign the next unique id
+        return repository.create(id -> new User(id,user.getFname(),user.getLname(),user.getPantry()));
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public User updateUser(User user) throws IOException {
+        return repository.update(user);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public boolean deleteUser(int id) throws IOException {
+        return repository.delete(id);
+    }
+}
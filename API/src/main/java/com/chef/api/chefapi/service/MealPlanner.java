@@ -0,0 +1,366 @@
+package com.chef.api.chefapi.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.MealPlan;
+import com.chef.api.chefapi.model.Recipe;
+import com.chef.api.chefapi.persistence.RecipeDAO;
+
+/**
+ * Picks the recipes for a week that make the most of a pantry
+ * <p>
+ * A plan of K recipes scores one point for every pantry ingredient it uses and loses
+ * one for every other ingredient that has to be bought. The planner starts from a
+ * greedy plan and then runs a branch-and-bound search over the recipes, ordered by how
+ * many pantry ingredients each uses. A branch is cut when even using that many new
+ * pantry ingredients with every remaining pick could not beat the best plan found so
+ * far. The upper levels of the search tree are forked onto a {@link ForkJoinPool}, so
+ * the search spreads over the available cores, and the best plan found is returned
+ * when the search finishes or the time budget runs out.
+ * 
+ * {@literal @}Component Spring annotation instantiates a single instance of this
+ * class and injects the instance into other classes as needed
+ * 
+ * @author SWEN Faculty
+ */
+@Component
+public class MealPlanner {
+    private static final Logger LOG = Logger.getLogger(MealPlanner.class.getName());
+    private static final int FORK_DEPTH = 2;    // Search tree levels split into parallel tasks
+
+    private final RecipeDAO recipeDao;
+    private final ForkJoinPool pool;
+    private final long maxBudget;   // Longest search allowed, in milliseconds
+
+    /**
+     * Creates a meal planner searching on the common fork/join pool
+     * 
+     * @param recipeDao The {@link RecipeDAO Recipe Data Access Object} the recipes are read from
+     * @param maxBudget The longest time in milliseconds a search may be given
+     */
+    @Autowired
+    public MealPlanner(RecipeDAO recipeDao, @Value("${chef.planner.max-budget:5000}") long maxBudget) {
+        this(recipeDao,maxBudget,ForkJoinPool.commonPool());
+    }
+
+    MealPlanner(RecipeDAO recipeDao, long maxBudget, ForkJoinPool pool) {
+        this.recipeDao = recipeDao;
+        this.maxBudget = maxBudget;
+        this.pool = pool;
+    }
+
+    /**
+     * Plans k recipes for a pantry
+     * 
+     * @param pantry The {@link Ingredient ingredients} at hand; those with no quantity left are ignored
+     * @param k The number of recipes to plan
+     * @param budget The time in milliseconds the search may take, at most the maximum budget
+     * 
+     * @return The best {@link MealPlan plan} found, with fewer than k recipes only if
+     * the catalog has fewer recipes with ingredients
+     * 
+     * @throws IOException if the recipes cannot be read
+     */
+    public MealPlan plan(List<Ingredient> pantry, int k, long budget) throws IOException {
+        long deadline = System.nanoTime() + Math.max(1,Math.min(budget,maxBudget)) * 1000000;
+        Problem problem = new Problem(pantry,recipeDao.getRecipes());
+        int size = Math.min(k,problem.recipes.size());
+
+        Search search = new Search(problem,size,deadline,pool.getParallelism());
+        search.offer(problem.greedy(size));
+        if (size > 0)
+            pool.invoke(search.new Branch(0,0,new long[problem.words],new int[size]));
+
+        LOG.info("Planned " + size + " of " + problem.recipes.size() + " recipes, score " + search.bestScore
+            + (search.timedOut ? " (time budget reached)" : " (optimal)"));
+        return problem.toPlan(search.best,search.bestScore,!search.timedOut);
+    }
+
+    /**
+     * The recipes and pantry as bit sets over the ingredient names
+     */
+    private static class Problem {
+        private final Map<String,Integer> names = new HashMap<>();
+        private final List<String> nameList = new ArrayList<>();
+        private final List<Recipe> recipes = new ArrayList<>();   // Ordered by pantry gain
+        private final List<int[]> ingredients = new ArrayList<>(); // Name indexes of each recipe
+        private final int[] gains;      // Pantry ingredients each recipe uses
+        private final int[] windows;    // windows[i] = gains[i] + ... + gains[n - 1]
+        private final long[] pantry;
+        private final int words;
+
+        Problem(List<Ingredient> pantryIngredients, Recipe[] catalog) {
+            List<Integer> pantryNames = new ArrayList<>();
+            if (pantryIngredients != null) {
+                for (Ingredient ingredient : pantryIngredients) {
+                    if (ingredient != null && ingredient.getQuantity() > 0 && normalize(ingredient.getName()) != null)
+                        pantryNames.add(index(ingredient.getName()));
+                }
+            }
+            List<Recipe> candidates = new ArrayList<>();
+            List<int[]> candidateIngredients = new ArrayList<>();
+            for (Recipe recipe : catalog) {
+                int[] ids = recipe.getIngredients() == null ? new int[0] : recipe.getIngredients().stream()
+                    .filter(ingredient -> ingredient != null && normalize(ingredient.getName()) != null)
+                    .mapToInt(ingredient -> index(ingredient.getName())).distinct().toArray();
+                if (ids.length > 0) {
+                    candidates.add(recipe);
+                    candidateIngredients.add(ids);
+                }
+            }
+
+            words = (nameList.size() + 63) / 64;
+            pantry = new long[words];
+            for (int id : pantryNames)
+                pantry[id >>> 6] |= 1L << id;
+
+            // Most pantry ingredients first, then fewest to buy
+            Integer[] order = new Integer[candidates.size()];
+            int[] used = new int[order.length];
+            int[] bought = new int[order.length];
+            for (int i = 0; i < order.length; ++i) {
+                order[i] = i;
+                for (int id : candidateIngredients.get(i)) {
+                    if (inPantry(id))
+                        ++used[i];
+                    else
+                        ++bought[i];
+                }
+            }
+            Arrays.sort(order,(a,b) -> used[a] != used[b] ? Integer.compare(used[b],used[a])
+                : Integer.compare(bought[a],bought[b]));
+
+            gains = new int[order.length];
+            windows = new int[order.length + 1];
+            for (int i = 0; i < order.length; ++i) {
+                recipes.add(candidates.get(order[i]));
+                ingredients.add(candidateIngredients.get(order[i]));
+                gains[i] = used[order[i]];
+            }
+            for (int i = order.length - 1; i >= 0; --i)
+                windows[i] = windows[i + 1] + gains[i];
+        }
+
+        private int index(String name) {
+            return names.computeIfAbsent(normalize(name),key -> {
+                nameList.add(key);
+                return nameList.size() - 1;
+            });
+        }
+
+        private boolean inPantry(int id) {
+            return (pantry[id >>> 6] & (1L << id)) != 0;
+        }
+
+        /**
+         * Sum of the pantry gains of the recipes from i on, at most count of them
+         * <br>
+         * Adding those recipes to a plan can raise its score by no more than this, as
+         * each pantry ingredient counts once at most and bought ones only lower it
+         */
+        int bound(int i, int count) {
+            return windows[i] - windows[Math.min(i + count,gains.length)];
+        }
+
+        int score(long[] covered) {
+            int score = 0;
+            for (int w = 0; w < words; ++w)
+                score += Long.bitCount(covered[w] & pantry[w]) - Long.bitCount(covered[w] & ~pantry[w]);
+            return score;
+        }
+
+        /**
+         * Adds a recipe's ingredients to a covered set
+         */
+        long[] cover(long[] covered, int recipe) {
+            long[] result = covered.clone();
+            for (int id : ingredients.get(recipe))
+                result[id >>> 6] |= 1L << id;
+            return result;
+        }
+
+        /**
+         * The change in score from adding a recipe's ingredients to a covered set
+         */
+        int marginal(long[] covered, int recipe) {
+            int change = 0;
+            for (int id : ingredients.get(recipe)) {
+                if ((covered[id >>> 6] & (1L << id)) == 0)
+                    change += inPantry(id) ? 1 : -1;
+            }
+            return change;
+        }
+
+        /**
+         * Picks, size times, the recipe that improves the score the most
+         */
+        int[] greedy(int size) {
+            int[] chosen = new int[size];
+            boolean[] taken = new boolean[recipes.size()];
+            long[] covered = new long[words];
+            for (int pick = 0; pick < size; ++pick) {
+                int best = -1;
+                int bestScore = Integer.MIN_VALUE;
+                for (int i = 0; i < recipes.size(); ++i) {
+                    if (taken[i])
+                        continue;
+                    int score = marginal(covered,i);
+                    if (score > bestScore) {
+                        best = i;
+                        bestScore = score;
+                    }
+                }
+                taken[best] = true;
+                chosen[pick] = best;
+                covered = cover(covered,best);
+            }
+            return chosen;
+        }
+
+        MealPlan toPlan(int[] chosen, int score, boolean optimal) {
+            List<Recipe> planned = new ArrayList<>();
+            long[] covered = new long[words];
+            for (int recipe : chosen) {
+                planned.add(recipes.get(recipe));
+                covered = cover(covered,recipe);
+            }
+            List<String> pantryUsed = new ArrayList<>();
+            List<String> toBuy = new ArrayList<>();
+            for (int id = 0; id < nameList.size(); ++id) {
+                if ((covered[id >>> 6] & (1L << id)) != 0)
+                    (inPantry(id) ? pantryUsed : toBuy).add(nameList.get(id));
+            }
+            Collections.sort(pantryUsed);
+            Collections.sort(toBuy);
+            return new MealPlan(planned,pantryUsed,toBuy,score,optimal);
+        }
+    }
+
+    /**
+     * The state shared by the tasks of one search
+     */
+    private static class Search {
+        private final Problem problem;
+        private final int size;
+        private final long deadline;
+        private final int chunk;            // Branches forked at a time
+        private int[] best;                 // Guarded by this
+        private volatile int bestScore = Integer.MIN_VALUE;
+        private volatile boolean timedOut;
+
+        Search(Problem problem, int size, long deadline, int parallelism) {
+            this.problem = problem;
+            this.size = size;
+            this.deadline = deadline;
+            this.chunk = 2 * parallelism;
+        }
+
+        synchronized void offer(int[] chosen) {
+            long[] covered = new long[problem.words];
+            for (int recipe : chosen)
+                covered = problem.cover(covered,recipe);
+            int score = problem.score(covered);
+            if (best == null || score > bestScore) {
+                best = chosen.clone();
+                bestScore = score;
+            }
+        }
+
+        /**
+         * Explores the plans that extend a partial plan with recipes from start on
+         */
+        private class Branch extends RecursiveAction {
+            private final int start;
+            private final int depth;
+            private final long[] covered;
+            private final int[] chosen;
+
+            Branch(int start, int depth, long[] covered, int[] chosen) {
+                this.start = start;
+                this.depth = depth;
+                this.covered = covered;
+                this.chosen = chosen;
+            }
+
+            @Override
+            protected void compute() {
+                if (depth < FORK_DEPTH) {
+                    // Branches are forked a few at a time, so those still to be built are
+                    // cut by the deadline and by the plans the earlier ones found
+                    List<Branch> branches = new ArrayList<>(chunk);
+                    for (int i = start; i <= problem.recipes.size() - (size - depth); ++i) {
+                        if (!promising(i))
+                            break;
+                        int[] next = chosen.clone();
+                        next[depth] = i;
+                        if (depth + 1 == size) {
+                            offer(next);
+                            continue;
+                        }
+                        branches.add(new Branch(i + 1,depth + 1,problem.cover(covered,i),next));
+                        if (branches.size() == chunk) {
+                            invokeAll(branches);
+                            branches.clear();
+                        }
+                    }
+                    invokeAll(branches);
+                }
+                else
+                    explore(start,depth,covered,chosen);
+            }
+
+            /**
+             * Sequential depth first search below the forked levels
+             */
+            private void explore(int start, int depth, long[] covered, int[] chosen) {
+                int score = problem.score(covered);
+                for (int i = start; i <= problem.recipes.size() - (size - depth); ++i) {
+                    if (System.nanoTime() > deadline) {
+                        timedOut = true;
+                        return;
+                    }
+                    // Recipes are ordered by gain, so later ones cannot do better either
+                    if (score + problem.bound(i,size - depth) <= bestScore)
+                        return;
+                    chosen[depth] = i;
+                    long[] next = problem.cover(covered,i);
+                    if (depth + 1 == size) {
+                        if (problem.score(next) > bestScore)
+                            offer(chosen);
+                    }
+                    else
+                        explore(i + 1,depth + 1,next,chosen);
+                }
+            }
+
+            private boolean promising(int i) {
+                if (System.nanoTime() > deadline) {
+                    timedOut = true;
+                    return false;
+                }
+                return problem.score(covered) + problem.bound(i,size - depth) > bestScore;
+            }
+        }
+    }
+
+    private static String normalize(String name) {
+        if (name == null || name.isBlank())
+            return null;
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
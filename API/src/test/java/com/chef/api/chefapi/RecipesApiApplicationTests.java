@@ -3,6 +3,7 @@ package com.chef.api.chefapi;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
 
 /**
  * This is a built in test that comes with the Spring framework that validates
@@ -10,6 +11,8 @@ import org.springframework.boot.test.context.SpringBootTest;
  */
 @Tag("Controller-tier")
 @SpringBootTest
+@TestPropertySource(properties = {"chef.trending.file=${java.io.tmpdir}/chef-test-trending.json",
+    "chef.backups.directory=${java.io.tmpdir}/chef-test-snapshots"})
 class RecipesApiApplicationTests {
 
 	@Test
@@ -0,0 +1,54 @@
+package com.chef.api.chefapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.logging.Logger;
+
+import com.chef.api.chefapi.persistence.DataStoreLoader;
+import com.chef.api.chefapi.persistence.IngredientDAO;
+import com.chef.api.chefapi.persistence.RecipeDAO;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the REST API service in each startup mode and reports how long it took
+ * until the server was up and until the data stores were loaded
+ */
+@Tag("Controller-tier")
+class StartupTimeTest {
+	private static final Logger LOG = Logger.getLogger(StartupTimeTest.class.getName());
+
+	@ParameterizedTest
+	@Tag("Benchmark")
+	@ValueSource(strings = {"eager","parallel","lazy"})
+	void testStartupTime(String mode) throws Exception {
+		long start = System.nanoTime();
+		try (ConfigurableApplicationContext context = SpringApplication.run(ChefApiApplication.class,
+				"--server.port=0","--chef.startup.mode=" + mode)) {
+			long started = System.nanoTime();
+
+			DataStoreLoader loader = context.getBean(DataStoreLoader.class);
+			ApplicationAvailability availability = context.getBean(ApplicationAvailability.class);
+			for (int i = 0; i < 500 && !loader.isReady(); i++)
+				Thread.sleep(10);
+			long ready = System.nanoTime();
+
+			assertEquals(mode,loader.getMode().name().toLowerCase());
+			assertTrue(loader.isReady());
+			assertEquals(ReadinessState.ACCEPTING_TRAFFIC,availability.getReadinessState());
+			assertNotNull(context.getBean(RecipeDAO.class).getRecipes());
+			assertNotNull(context.getBean(IngredientDAO.class).getIngredients());
+
+			LOG.info("Startup mode " + mode + ": server started in " + (started - start) / 1000000
+					+ " ms, data stores ready in " + (ready - start) / 1000000 + " ms");
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package com.chef.api.chefapi.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.chef.api.chefapi.persistence.CatalogBackups;
+
+/**
+ * Test the Admin Controller class
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Controller-tier")
+public class AdminControllerTest {
+    private AdminController adminController;
+    private CatalogBackups mockBackups;
+
+    /**
+     * Before each test, create a new AdminController object and inject
+     * mock backups
+     */
+    @BeforeEach
+    public void setupAdminController() {
+        mockBackups = mock(CatalogBackups.class);
+        adminController = new AdminController(mockBackups);
+    }
+
+    @Test
+    public void testTakeSnapshot() throws IOException {
+        // Setup
+        CatalogBackups.Backup backup = mock(CatalogBackups.Backup.class);
+        when(mockBackups.backup()).thenReturn(backup);
+
+        // Invoke
+        ResponseEntity<CatalogBackups.Backup> response = adminController.takeSnapshot();
+
+        // Analyze
+        assertEquals(HttpStatus.ACCEPTED,response.getStatusCode());
+        assertEquals(backup,response.getBody());
+    }
+
+    @Test
+    public void testTakeSnapshotHandleException() throws IOException {
+        // Setup: the stores kept changing while the snapshot was taken
+        doThrow(new IOException()).when(mockBackups).backup();
+
+        // Invoke
+        ResponseEntity<CatalogBackups.Backup> response = adminController.takeSnapshot();
+
+        // Analyze
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
+    }
+
+    @Test
+    public void testGetSnapshots() throws IOException {
+        // Setup
+        List<String> names = Arrays.asList("20240101T120000000Z","20240102T120000000Z");
+        when(mockBackups.getBackups()).thenReturn(names);
+
+        // Invoke
+        ResponseEntity<List<String>> response = adminController.getSnapshots();
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertEquals(names,response.getBody());
+    }
+
+    @Test
+    public void testGetSnapshotsHandleException() throws IOException {
+        // Setup
+        doThrow(new IOException()).when(mockBackups).getBackups();
+
+        // Invoke
+        ResponseEntity<List<String>> response = adminController.getSnapshots();
+
+        // Analyze
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
+    }
+
+    @Test
+    public void testRestoreSnapshot() throws IOException {
+        // Invoke
+        ResponseEntity<Void> response = adminController.restoreSnapshot("20240101T120000000Z");
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        verify(mockBackups).restore("20240101T120000000Z");
+    }
+
+    @Test
+    public void testRestoreSnapshotNotFound() throws IOException {
+        // Setup
+        doThrow(new NoSuchFileException("20240101T120000000Z")).when(mockBackups).restore("20240101T120000000Z");
+
+        // Invoke
+        ResponseEntity<Void> response = adminController.restoreSnapshot("20240101T120000000Z");
+
+        // Analyze
+        assertEquals(HttpStatus.NOT_FOUND,response.getStatusCode());
+    }
+
+    @Test
+    public void testRestoreSnapshotHandleException() throws IOException {
+        // Setup
+        doThrow(new IOException()).when(mockBackups).restore("20240101T120000000Z");
+
+        // Invoke
+        ResponseEntity<Void> response = adminController.restoreSnapshot("20240101T120000000Z");
+
+        // Analyze
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
+    }
+}
@@ -0,0 +1,108 @@
+package com.chef.api.chefapi.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Test the Admission Control class
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Controller-tier")
+public class AdmissionControlTest {
+
+    @Test
+    public void testRateLimit() {
+        // Setup
+        AdmissionControl admission = new AdmissionControl(0.001,2,10,10,10000);
+
+        // Invoke
+        ResponseEntity<String> first = admission.submit("a",AdmissionControlTest::ok).join();
+        ResponseEntity<String> second = admission.submit("a",AdmissionControlTest::ok).join();
+        ResponseEntity<String> third = admission.submit("a",AdmissionControlTest::ok).join();
+        ResponseEntity<String> other = admission.submit("b",AdmissionControlTest::ok).join();
+
+        // Analyze
+        assertEquals(HttpStatus.OK,first.getStatusCode());
+        assertEquals(HttpStatus.OK,second.getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS,third.getStatusCode());
+        assertNotNull(third.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(HttpStatus.OK,other.getStatusCode());
+    }
+
+    @Test
+    public void testQueueAndShed() {
+        // Setup: one writer, one queued write
+        AdmissionControl admission = new AdmissionControl(1000,1000,1,1,10000);
+        CompletableFuture<ResponseEntity<String>> running = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<String>> queued = new CompletableFuture<>();
+
+        // Invoke
+        CompletableFuture<ResponseEntity<String>> first = admission.submit("a",() -> running);
+        CompletableFuture<ResponseEntity<String>> second = admission.submit("a",() -> queued);
+        ResponseEntity<String> third = admission.submit("a",AdmissionControlTest::ok).join();
+
+        // Analyze
+        assertEquals(1,admission.getQueued());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE,third.getStatusCode());
+        assertEquals("1",third.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        // The queued write starts once the running one completes
+        running.complete(new ResponseEntity<>("done",HttpStatus.OK));
+        assertTrue(first.isDone());
+        assertFalse(second.isDone());
+        assertEquals(0,admission.getQueued());
+        queued.complete(new ResponseEntity<>("done",HttpStatus.OK));
+        assertEquals(HttpStatus.OK,second.join().getStatusCode());
+    }
+
+    @Test
+    public void testShedOnLatency() throws InterruptedException {
+        // Setup: writes slower than the 1 ms threshold
+        AdmissionControl admission = new AdmissionControl(1000,1000,1,10,1);
+        CompletableFuture<ResponseEntity<String>> slow = new CompletableFuture<>();
+        admission.submit("a",() -> slow);
+        Thread.sleep(20);
+        slow.complete(new ResponseEntity<>(HttpStatus.OK));
+        CompletableFuture<ResponseEntity<String>> busy = new CompletableFuture<>();
+        admission.submit("a",() -> busy);
+
+        // Invoke: the writer is busy and writes have been slow
+        ResponseEntity<String> shed = admission.submit("a",AdmissionControlTest::ok).join();
+
+        // Analyze
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE,shed.getStatusCode());
+        assertEquals(0,admission.getQueued());
+    }
+
+    @Test
+    public void testShedWriteKeepsItsToken() {
+        // Setup: one writer and no queue, and a client with a single token
+        AdmissionControl admission = new AdmissionControl(0.001,1,1,0,10000);
+        CompletableFuture<ResponseEntity<String>> running = new CompletableFuture<>();
+        admission.submit("a",() -> running);
+
+        // Invoke
+        ResponseEntity<String> shed = admission.submit("b",AdmissionControlTest::ok).join();
+        running.complete(new ResponseEntity<>("done",HttpStatus.OK));
+        ResponseEntity<String> retried = admission.submit("b",AdmissionControlTest::ok).join();
+
+        // Analyze: the retry is not rate limited for the write that was shed
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE,shed.getStatusCode());
+        assertEquals(HttpStatus.OK,retried.getStatusCode());
+    }
+
+    private static CompletableFuture<ResponseEntity<String>> ok() {
+        return CompletableFuture.completedFuture(new ResponseEntity<>("ok",HttpStatus.OK));
+    }
+}
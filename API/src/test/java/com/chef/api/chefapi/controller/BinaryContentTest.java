@@ -0,0 +1,148 @@
+package com.chef.api.chefapi.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.Recipe;
+import com.chef.api.chefapi.persistence.RecipeAsyncDAOAdapter;
+import com.chef.api.chefapi.persistence.RecipeDAO;
+import com.chef.api.chefapi.persistence.RecipePopularity;
+import com.chef.api.chefapi.persistence.RecipeSearch;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+/**
+ * Test that the API speaks CBOR and Smile to clients that ask for them, and JSON otherwise
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Controller-tier")
+public class BinaryContentTest {
+    private static final Logger LOG = Logger.getLogger(BinaryContentTest.class.getName());
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private RecipeDAO mockRecipeDAO;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setupMockMvc() {
+        mockRecipeDAO = mock(RecipeDAO.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new RecipeController(mockRecipeDAO,
+                new RecipeAsyncDAOAdapter(mockRecipeDAO,Runnable::run),new RecipeSearch(mockRecipeDAO,16),
+                new RecipePopularity(300000,12),AdmissionControl.UNLIMITED,
+                new IdempotencyCache(new ObjectMapper(),1000,3600000))).build();
+    }
+
+    @Test
+    public void testNegotiatesResponseEncoding() throws Exception {
+        // Setup
+        Recipe[] recipes = catalog(3);
+        when(mockRecipeDAO.getRecipes()).thenReturn(recipes);
+
+        // Invoke
+        byte[] json = mockMvc.perform(get("/recipes"))
+            .andExpect(status().isOk()).andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andReturn().getResponse().getContentAsByteArray();
+        byte[] cbor = mockMvc.perform(get("/recipes").accept(CBOR))
+            .andExpect(status().isOk()).andExpect(content().contentTypeCompatibleWith(CBOR))
+            .andReturn().getResponse().getContentAsByteArray();
+        byte[] smile = mockMvc.perform(get("/recipes").accept(SMILE))
+            .andExpect(status().isOk()).andExpect(content().contentTypeCompatibleWith(SMILE))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        // Analyze
+        assertArrayEquals(recipes,new ObjectMapper().readValue(json,Recipe[].class));
+        assertArrayEquals(recipes,new CBORMapper().readValue(cbor,Recipe[].class));
+        assertArrayEquals(recipes,new SmileMapper().readValue(smile,Recipe[].class));
+    }
+
+    @Test
+    public void testAcceptsBinaryRequestBody() throws Exception {
+        // Setup
+        Recipe recipe = catalog(1)[0];
+        when(mockRecipeDAO.createRecipe(any(Recipe.class))).thenReturn(recipe);
+
+        // Invoke
+        MvcResult started = mockMvc.perform(post("/recipes").contentType(CBOR).accept(CBOR)
+            .content(new CBORMapper().writeValueAsBytes(recipe))).andReturn();
+        byte[] created = mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isCreated()).andExpect(content().contentTypeCompatibleWith(CBOR))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        // Analyze
+        assertEquals(recipe,new CBORMapper().readValue(created,Recipe.class));
+    }
+
+    @Test
+    @Tag("Benchmark")
+    public void testBenchmarkLargeCatalog() throws IOException {
+        // Setup
+        Recipe[] recipes = catalog(20000);
+        ObjectMapper[] mappers = {new ObjectMapper(),new CBORMapper(),new SmileMapper()};
+        String[] names = {"JSON","CBOR","Smile"};
+        int[] sizes = new int[mappers.length];
+
+        for (int m = 0; m < mappers.length; ++m) {
+            // Invoke: warm up, then time encoding and decoding
+            byte[] encoded = mappers[m].writeValueAsBytes(recipes);
+            mappers[m].readValue(encoded,Recipe[].class);
+            long encoding = 0;
+            long decoding = 0;
+            for (int run = 0; run < 5; ++run) {
+                long start = System.nanoTime();
+                encoded = mappers[m].writeValueAsBytes(recipes);
+                encoding += System.nanoTime() - start;
+                start = System.nanoTime();
+                Recipe[] decoded = mappers[m].readValue(encoded,Recipe[].class);
+                decoding += System.nanoTime() - start;
+                assertEquals(recipes.length,decoded.length);
+            }
+            sizes[m] = encoded.length;
+            LOG.info(String.format("%s: %d recipes in %d bytes, encoded in %.1f ms, decoded in %.1f ms",
+                names[m],recipes.length,encoded.length,encoding / 5 / 1e6,decoding / 5 / 1e6));
+        }
+
+        // Analyze
+        assertTrue(sizes[1] < sizes[0]);
+        assertTrue(sizes[2] < sizes[0]);
+    }
+
+    private static Recipe[] catalog(int size) {
+        String[] names = {"Tomato","Onion","Garlic","Olive Oil","Basil","Salt","Pepper","Flour"};
+        String[] units = {"cups","tbsp","tsp","g"};
+        Recipe[] recipes = new Recipe[size];
+        for (int i = 0; i < size; ++i) {
+            List<Ingredient> ingredients = new ArrayList<>();
+            for (int n = 0; n < 8; ++n)
+                ingredients.add(new Ingredient(n + 1,names[(i + n) % names.length],0.5 * (1 + (i + n) % 7),
+                    units[(i + n) % units.length]));
+            recipes[i] = new Recipe(i + 1,"Recipe " + i,ingredients);
+        }
+        return recipes;
+    }
+}
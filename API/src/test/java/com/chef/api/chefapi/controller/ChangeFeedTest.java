@@ -0,0 +1,126 @@
+package com.chef.api.chefapi.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.chef.api.chefapi.model.Recipe;
+import com.chef.api.chefapi.persistence.ChangeEvent;
+
+/**
+ * Test the Change Feed class
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Controller-tier")
+public class ChangeFeedTest {
+    private ChangeFeed<Recipe> changeFeed;
+    private List<Runnable> dispatched;
+
+    /**
+     * Before each test, create a feed whose dispatcher only collects the drain
+     * tasks, simulating subscribers that never catch up
+     */
+    @BeforeEach
+    public void setupChangeFeed() {
+        dispatched = new ArrayList<>();
+        changeFeed = new ChangeFeed<>("recipes",4,2,60000,dispatched::add);
+    }
+
+    private ChangeEvent<Recipe> event(long sequence) {
+        return new ChangeEvent<>(sequence,ChangeEvent.Type.DELETED,(int)sequence,null);
+    }
+
+    @Test
+    public void testSubscribe() {
+        // Invoke
+        changeFeed.subscribe(null);
+        changeFeed.subscribe(null);
+
+        // Analyze
+        assertEquals(2,changeFeed.getSubscriberCount());
+        assertEquals(0,dispatched.size());
+    }
+
+    @Test
+    public void testSlowSubscriberEvicted() {
+        // Setup
+        changeFeed.subscribe(null);
+
+        // Invoke
+        changeFeed.onChange(event(1));
+        changeFeed.onChange(event(2));
+        changeFeed.onChange(event(3));
+
+        // Analyze
+        assertEquals(0,changeFeed.getSubscriberCount());
+        assertEquals(1,dispatched.size());
+    }
+
+    @Test
+    public void testResume() {
+        // Setup
+        changeFeed.onChange(event(1));
+        changeFeed.onChange(event(2));
+        changeFeed.onChange(event(3));
+
+        // Invoke
+        changeFeed.subscribe(changeFeed.eventId(2));
+        changeFeed.onChange(event(4));
+
+        // Analyze
+        assertEquals(1,changeFeed.getSubscriberCount());
+        assertEquals(1,dispatched.size());
+    }
+
+    @Test
+    public void testResumeTooFarBehind() {
+        // Setup
+        for (long sequence = 1; sequence <= 6; ++sequence)
+            changeFeed.onChange(event(sequence));
+
+        // Invoke
+        changeFeed.subscribe(changeFeed.eventId(1));
+        changeFeed.onChange(event(7));
+        changeFeed.onChange(event(8));
+
+        // Analyze - the subscriber gets a reset instead of a replay, so the
+        // new events fit in its buffer
+        assertEquals(1,changeFeed.getSubscriberCount());
+        assertEquals(1,dispatched.size());
+    }
+
+    @Test
+    public void testResumeUpToDate() {
+        // Setup
+        changeFeed.onChange(event(1));
+        changeFeed.onChange(event(2));
+
+        // Invoke
+        changeFeed.subscribe(changeFeed.eventId(2));
+
+        // Analyze - nothing to replay
+        assertEquals(1,changeFeed.getSubscriberCount());
+        assertEquals(0,dispatched.size());
+    }
+
+    @Test
+    public void testResumeFromBeforeRestart() {
+        // Setup: sequence numbers started over, so 2 is a different event now
+        changeFeed.onChange(event(1));
+        changeFeed.onChange(event(2));
+
+        // Invoke
+        changeFeed.subscribe("1-2");
+        changeFeed.subscribe("2");
+
+        // Analyze - each subscriber is sent a reset rather than nothing
+        assertEquals(2,changeFeed.getSubscriberCount());
+        assertEquals(2,dispatched.size());
+    }
+}
@@ -0,0 +1,166 @@
+package com.chef.api.chefapi.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.Recipe;
+import com.chef.api.chefapi.persistence.CatalogSnapshot;
+import com.chef.api.chefapi.persistence.IngredientDAO;
+import com.chef.api.chefapi.persistence.IngredientFileDAO;
+import com.chef.api.chefapi.persistence.RecipeDAO;
+import com.chef.api.chefapi.persistence.RecipeFileDAO;
+import com.chef.api.chefapi.persistence.Snapshot;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Test the Export Controller class
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Controller-tier")
+public class ExportControllerTest {
+    @TempDir
+    Path directory;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private RecipeFileDAO recipeDao;
+    private IngredientFileDAO ingredientDao;
+    private ExportController exportController;
+
+    @BeforeEach
+    public void setupExportController() throws IOException {
+        Ingredient[] ingredients = {new Ingredient(1,"Tomato",0,"cups"),new Ingredient(2,"Bread",0,"slices")};
+        Recipe[] recipes = {new Recipe(1,"Toast",Arrays.asList(new Ingredient(2,"Bread",2,"slices"))),
+            new Recipe(2,"Soup",Arrays.asList(new Ingredient(1,"Tomato",3,"cups")))};
+        objectMapper.writeValue(directory.resolve("ingredients.json").toFile(),ingredients);
+        objectMapper.writeValue(directory.resolve("recipes.json").toFile(),recipes);
+        recipeDao = new RecipeFileDAO(directory.resolve("recipes.json").toString(),objectMapper);
+        ingredientDao = new IngredientFileDAO(directory.resolve("ingredients.json").toString(),objectMapper);
+        exportController = new ExportController(recipeDao,ingredientDao,objectMapper);
+    }
+
+    @Test
+    public void testExportNdjson() throws IOException {
+        // Invoke: the recipe created once the export started is not part of it
+        ResponseEntity<StreamingResponseBody> response = exportController.exportCatalog("ndjson");
+        recipeDao.createRecipe(new Recipe(0,"Bruschetta",new ArrayList<>()));
+        List<JsonNode> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(stream(response))),StandardCharsets.UTF_8))) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine())
+                lines.add(objectMapper.readTree(line));
+        }
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertEquals("application/gzip",response.getHeaders().getContentType().toString());
+        assertEquals("attachment; filename=\"chef-export.ndjson.gz\"",
+            response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+        assertEquals(5,lines.size());
+        assertEquals(2,lines.get(0).path("snapshot").path("recipes").asInt());
+        assertEquals(2,lines.get(0).path("snapshot").path("ingredients").asInt());
+        assertEquals(ingredientDao.getIngredient(1),
+            objectMapper.treeToValue(lines.get(1).path("ingredient"),Ingredient.class));
+        assertEquals(recipeDao.getRecipe(2),objectMapper.treeToValue(lines.get(4).path("recipe"),Recipe.class));
+    }
+
+    @Test
+    public void testExportZip() throws IOException {
+        // Invoke
+        ResponseEntity<StreamingResponseBody> response = exportController.exportCatalog("zip");
+        Map<String,byte[]> files = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(stream(response)))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry())
+                files.put(entry.getName(),zip.readAllBytes());
+        }
+
+        // Analyze: the files read back like the data files
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertEquals("attachment; filename=\"chef-export.zip\"",
+            response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+        assertEquals(2,files.size());
+        assertArrayEquals(recipeDao.getRecipes(),objectMapper.readValue(files.get("recipes.json"),Recipe[].class));
+        assertArrayEquals(ingredientDao.getIngredients(),
+            objectMapper.readValue(files.get("ingredients.json"),Ingredient[].class));
+    }
+
+    @Test
+    public void testExportUnknownFormat() {
+        // Invoke
+        ResponseEntity<StreamingResponseBody> response = exportController.exportCatalog("xml");
+
+        // Analyze
+        assertEquals(HttpStatus.BAD_REQUEST,response.getStatusCode());
+    }
+
+    @Test
+    public void testSnapshotRetriesWhileRecipesChange() throws IOException {
+        // Setup: the recipes change once while the ingredients are being taken
+        RecipeDAO mockRecipeDAO = mock(RecipeDAO.class);
+        IngredientDAO mockIngredientDAO = mock(IngredientDAO.class);
+        when(mockRecipeDAO.snapshot()).thenReturn(recipeDao.snapshot())
+            .thenReturn(snapshotAfter(new Recipe(0,"Bruschetta",new ArrayList<>())));
+        when(mockIngredientDAO.snapshot()).thenReturn(ingredientDao.snapshot());
+
+        // Invoke
+        CatalogSnapshot snapshot = CatalogSnapshot.take(mockRecipeDAO,mockIngredientDAO);
+
+        // Analyze: the second, stable, state of the recipes was kept
+        assertEquals(3,snapshot.getRecipes().size());
+        assertEquals(2,snapshot.getIngredients().size());
+    }
+
+    @Test
+    public void testSnapshotGivesUpOnConstantChange() throws IOException {
+        // Setup
+        RecipeDAO mockRecipeDAO = mock(RecipeDAO.class);
+        IngredientDAO mockIngredientDAO = mock(IngredientDAO.class);
+        int[] calls = {0};
+        when(mockRecipeDAO.snapshot()).thenAnswer(invocation -> snapshotAfter(
+            new Recipe(0,"Recipe " + calls[0]++,new ArrayList<>())));
+        when(mockIngredientDAO.snapshot()).thenReturn(ingredientDao.snapshot());
+
+        // Invoke & Analyze
+        assertThrows(IOException.class,() -> CatalogSnapshot.take(mockRecipeDAO,mockIngredientDAO));
+    }
+
+    private Snapshot<Recipe> snapshotAfter(Recipe recipe) throws IOException {
+        recipeDao.createRecipe(recipe);
+        return recipeDao.snapshot();
+    }
+
+    private static byte[] stream(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toByteArray();
+    }
+}
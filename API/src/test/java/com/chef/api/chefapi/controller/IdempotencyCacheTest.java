@@ -0,0 +1,148 @@
+package com.chef.api.chefapi.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.chef.api.chefapi.model.Recipe;
+import com.chef.api.chefapi.persistence.RecipeAsyncDAOAdapter;
+import com.chef.api.chefapi.persistence.RecipeDAO;
+import com.chef.api.chefapi.persistence.RecipePopularity;
+import com.chef.api.chefapi.persistence.RecipeSearch;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Test the Idempotency Cache class, and the controllers' use of it
+ *
+ * @author SWEN Faculty
+ */
+@Tag("Controller-tier")
+public class IdempotencyCacheTest {
+    private static final String KEY = "5f1c0b7e-6d33-4b8e-9c1a-0e2f7a4d8b19";
+
+    private RecipeController recipeController;
+    private RecipeDAO mockRecipeDAO;
+
+    @BeforeEach
+    public void setupRecipeController() {
+        mockRecipeDAO = mock(RecipeDAO.class);
+        recipeController = new RecipeController(mockRecipeDAO,
+                new RecipeAsyncDAOAdapter(mockRecipeDAO,Runnable::run),new RecipeSearch(mockRecipeDAO,16),
+                new RecipePopularity(300000,12),AdmissionControl.UNLIMITED,
+                new IdempotencyCache(new ObjectMapper(),1000,3600000));
+    }
+
+    @Test
+    public void testRetryIsReplayed() throws IOException {
+        // Setup
+        Recipe recipe = new Recipe(0,"Toast",new ArrayList<>());
+        Recipe created = new Recipe(7,"Toast",new ArrayList<>());
+        when(mockRecipeDAO.createRecipe(any(Recipe.class))).thenReturn(created);
+
+        // Invoke
+        ResponseEntity<Recipe> first = recipeController.createRecipe(recipe,false,KEY).join();
+        ResponseEntity<Recipe> retry = recipeController.createRecipe(recipe,false,KEY).join();
+
+        // Analyze: the recipe was created once, and the retry learns its id
+        verify(mockRecipeDAO,times(1)).createRecipe(any(Recipe.class));
+        assertEquals(HttpStatus.CREATED,retry.getStatusCode());
+        assertEquals(7,retry.getBody().getId());
+        assertNull(first.getHeaders().getFirst(IdempotencyCache.REPLAYED));
+        assertEquals("true",retry.getHeaders().getFirst(IdempotencyCache.REPLAYED));
+    }
+
+    @Test
+    public void testReusedKeyIsRefused() throws IOException {
+        // Setup
+        when(mockRecipeDAO.createRecipe(any(Recipe.class))).thenReturn(new Recipe(7,"Toast",new ArrayList<>()));
+        recipeController.createRecipe(new Recipe(0,"Toast",new ArrayList<>()),false,KEY).join();
+
+        // Invoke
+        ResponseEntity<Recipe> response =
+            recipeController.createRecipe(new Recipe(0,"Soup",new ArrayList<>()),false,KEY).join();
+
+        // Analyze: a key is per request, but another endpoint may use it too
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY,response.getStatusCode());
+        when(mockRecipeDAO.deleteRecipe(7)).thenReturn(true);
+        assertEquals(HttpStatus.OK,recipeController.deleteRecipe(7,KEY).join().getStatusCode());
+    }
+
+    @Test
+    public void testFailedWriteIsMadeAgain() throws IOException {
+        // Setup
+        Recipe recipe = new Recipe(3,"Toast",new ArrayList<>());
+        when(mockRecipeDAO.updateRecipe(any(Recipe.class))).thenThrow(new IOException()).thenReturn(recipe);
+
+        // Invoke
+        ResponseEntity<Recipe> failed = recipeController.updateRecipe(recipe,KEY).join();
+        ResponseEntity<Recipe> retry = recipeController.updateRecipe(recipe,KEY).join();
+
+        // Analyze
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,failed.getStatusCode());
+        assertEquals(HttpStatus.OK,retry.getStatusCode());
+        assertNull(retry.getHeaders().getFirst(IdempotencyCache.REPLAYED));
+        verify(mockRecipeDAO,times(2)).updateRecipe(any(Recipe.class));
+    }
+
+    @Test
+    public void testCacheIsBounded() throws InterruptedException {
+        // Setup
+        IdempotencyCache cache = new IdempotencyCache(new ObjectMapper(),2,50);
+        int[] writes = {0};
+
+        // Invoke
+        for (String key : new String[] {"a","b","c","a"})
+            cache.execute(key,"POST /recipes","Toast",() -> {
+                ++writes[0];
+                return CompletableFuture.completedFuture(new ResponseEntity<Integer>(HttpStatus.CREATED));
+            }).join();
+
+        // Analyze: a was forgotten to make room for c, and everything once expired
+        assertEquals(4,writes[0]);
+        assertEquals(2,cache.size());
+        Thread.sleep(60);
+        cache.execute("d","POST /recipes","Toast",
+            () -> CompletableFuture.completedFuture(new ResponseEntity<Integer>(HttpStatus.CREATED))).join();
+        assertEquals(1,cache.size());
+    }
+
+    @Test
+    public void testRunningWriteIsNotEvicted() {
+        // Setup: a write that has not completed, in a cache with room for one
+        IdempotencyCache cache = new IdempotencyCache(new ObjectMapper(),1,3600000);
+        CompletableFuture<ResponseEntity<Integer>> running = new CompletableFuture<>();
+        int[] writes = {0};
+        cache.execute("a","POST /recipes","Toast",() -> {
+            ++writes[0];
+            return running;
+        });
+
+        // Invoke: another write overflows the cache, then the first is retried
+        cache.execute("b","POST /recipes","Soup",
+            () -> CompletableFuture.completedFuture(new ResponseEntity<Integer>(HttpStatus.CREATED))).join();
+        CompletableFuture<ResponseEntity<Integer>> retry = cache.execute("a","POST /recipes","Toast",() -> {
+            ++writes[0];
+            return CompletableFuture.completedFuture(new ResponseEntity<Integer>(HttpStatus.CREATED));
+        });
+        running.complete(new ResponseEntity<Integer>(7,HttpStatus.CREATED));
+
+        // Analyze: the retry waited for the running write instead of making it again
+        assertEquals(1,writes[0]);
+        assertEquals(7,retry.join().getBody());
+        assertEquals("true",retry.join().getHeaders().getFirst(IdempotencyCache.REPLAYED));
+    }
+}
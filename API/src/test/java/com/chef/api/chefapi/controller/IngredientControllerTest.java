@@ -0,0 +1,319 @@
+package com.chef.api.chefapi.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.persistence.IngredientAsyncDAOAdapter;
+import com.chef.api.chefapi.persistence.IngredientDAO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Test the Ingredient Controller class
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Controller-tier")
+public class IngredientControllerTest {
+    private IngredientController ingredientController;
+    private IngredientDAO mockIngredientDAO;
+
+    /**
+     * Before each test, create a new IngredientController object and inject
+     * a mock Ingredient DAO, along with an asynchronous adapter over it that runs
+     * on the calling thread
+     */
+    @BeforeEach
+    public void setupIngredientController() {
+        mockIngredientDAO = mock(IngredientDAO.class);
+        ingredientController = new IngredientController(mockIngredientDAO,
+                new IngredientAsyncDAOAdapter(mockIngredientDAO,Runnable::run),AdmissionControl.UNLIMITED,
+                new IdempotencyCache(new ObjectMapper(),1000,3600000));
+    }
+
+    @Test
+    public void testGetIngredient() throws IOException {
+        // Setup
+        Ingredient ingredient = new Ingredient(99,"Basil",3,"leaves");
+        when(mockIngredientDAO.getIngredient(99)).thenReturn(ingredient);
+
+        // Invoke
+        ResponseEntity<Ingredient> response = ingredientController.getIngredient(99);
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertEquals(ingredient,response.getBody());
+    }
+
+    @Test
+    public void testGetIngredientNotFound() throws IOException {
+        // Setup
+        when(mockIngredientDAO.getIngredient(99)).thenReturn(null);
+
+        // Invoke
+        ResponseEntity<Ingredient> response = ingredientController.getIngredient(99);
+
+        // Analyze
+        assertEquals(HttpStatus.NOT_FOUND,response.getStatusCode());
+    }
+
+    @Test
+    public void testGetIngredientHandleException() throws IOException {
+        // Setup
+        doThrow(new IOException()).when(mockIngredientDAO).getIngredient(99);
+
+        // Invoke
+        ResponseEntity<Ingredient> response = ingredientController.getIngredient(99);
+
+        // Analyze
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
+    }
+
+    @Test
+    public void testGetIngredients() throws IOException {
+        // Setup
+        Ingredient[] ingredients = {new Ingredient(1,"Basil",3,"leaves"),new Ingredient(2,"Thyme",1,"tsp")};
+        when(mockIngredientDAO.getIngredients()).thenReturn(ingredients);
+
+        // Invoke
+        ResponseEntity<Ingredient[]> response = ingredientController.getIngredients();
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertArrayEquals(ingredients,response.getBody());
+    }
+
+    @Test
+    public void testSearchIngredients() throws IOException {
+        // Setup
+        Ingredient[] ingredients = {new Ingredient(1,"Basil",3,"leaves")};
+        when(mockIngredientDAO.findIngredients("as")).thenReturn(ingredients);
+
+        // Invoke
+        ResponseEntity<Ingredient[]> response = ingredientController.searchIngredients("as");
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertArrayEquals(ingredients,response.getBody());
+    }
+
+    @Test
+    public void testLookupIngredients() throws IOException {
+        // Setup
+        Ingredient[] ingredients = {new Ingredient(1,"Basil",3,"leaves")};
+        when(mockIngredientDAO.findIngredientsByName("BASIL ")).thenReturn(ingredients);
+
+        // Invoke
+        ResponseEntity<Ingredient[]> response = ingredientController.lookupIngredients("BASIL ");
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertArrayEquals(ingredients,response.getBody());
+    }
+
+    @Test
+    public void testPrefixIngredients() throws IOException {
+        // Setup
+        Ingredient[] ingredients = {new Ingredient(1,"Basil",3,"leaves")};
+        when(mockIngredientDAO.findIngredientsByPrefix("ba",1000)).thenReturn(ingredients);
+
+        // Invoke: the limit is capped
+        ResponseEntity<Ingredient[]> response = ingredientController.prefixIngredients("ba",5000);
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertArrayEquals(ingredients,response.getBody());
+    }
+
+    @Test
+    public void testPrefixIngredientsBadLimit() throws IOException {
+        // Invoke
+        ResponseEntity<Ingredient[]> response = ingredientController.prefixIngredients("ba",0);
+
+        // Analyze
+        assertEquals(HttpStatus.BAD_REQUEST,response.getStatusCode());
+        verify(mockIngredientDAO,never()).findIngredientsByPrefix(any(),any(Integer.class));
+    }
+
+    @Test
+    public void testResolveIngredients() throws IOException {
+        // Setup
+        List<String> names = Arrays.asList("Basil","saffron");
+        Map<String,Integer> ids = new HashMap<>();
+        ids.put("Basil",1);
+        ids.put("saffron",null);
+        when(mockIngredientDAO.resolveIngredients(names)).thenReturn(ids);
+
+        // Invoke
+        ResponseEntity<Map<String,Integer>> response = ingredientController.resolveIngredients(names);
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertEquals(ids,response.getBody());
+    }
+
+    @Test
+    public void testCreateIngredient() throws IOException {
+        // Setup
+        Ingredient ingredient = new Ingredient(0,"Basil",3,"leaves");
+        Ingredient created = new Ingredient(6,"Basil",3,"leaves");
+        when(mockIngredientDAO.createIngredient(ingredient)).thenReturn(created);
+
+        // Invoke
+        ResponseEntity<Ingredient> response = ingredientController.createIngredient(ingredient,null).join();
+
+        // Analyze
+        assertEquals(HttpStatus.CREATED,response.getStatusCode());
+        assertEquals(created,response.getBody());
+    }
+
+    @Test
+    public void testCreateIngredientFailed() throws IOException {
+        // Setup: the DAO already has the same ingredient
+        Ingredient ingredient = new Ingredient(0,"Basil",3,"leaves");
+        when(mockIngredientDAO.createIngredient(ingredient)).thenReturn(null);
+
+        // Invoke
+        ResponseEntity<Ingredient> response = ingredientController.createIngredient(ingredient,null).join();
+
+        // Analyze
+        assertEquals(HttpStatus.CONFLICT,response.getStatusCode());
+    }
+
+    @Test
+    public void testCreateIngredientHandleException() throws IOException {
+        // Setup
+        Ingredient ingredient = new Ingredient(0,"Basil",3,"leaves");
+        doThrow(new IOException()).when(mockIngredientDAO).createIngredient(ingredient);
+
+        // Invoke
+        ResponseEntity<Ingredient> response = ingredientController.createIngredient(ingredient,null).join();
+
+        // Analyze
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
+    }
+
+    @Test
+    public void testCreateIngredientOncePerKey() throws IOException {
+        // Setup
+        Ingredient ingredient = new Ingredient(0,"Basil",3,"leaves");
+        Ingredient created = new Ingredient(6,"Basil",3,"leaves");
+        when(mockIngredientDAO.createIngredient(ingredient)).thenReturn(created);
+
+        // Invoke
+        ResponseEntity<Ingredient> first = ingredientController.createIngredient(ingredient,"abc").join();
+        ResponseEntity<Ingredient> retry = ingredientController.createIngredient(ingredient,"abc").join();
+        ResponseEntity<Ingredient> reused =
+            ingredientController.createIngredient(new Ingredient(0,"Thyme",1,"tsp"),"abc").join();
+
+        // Analyze: the retry is answered from the cache, not created again
+        assertEquals(HttpStatus.CREATED,first.getStatusCode());
+        assertEquals(HttpStatus.CREATED,retry.getStatusCode());
+        assertEquals(created,retry.getBody());
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY,reused.getStatusCode());
+        verify(mockIngredientDAO,times(1)).createIngredient(any());
+    }
+
+    @Test
+    public void testCreateIngredientShed() throws IOException {
+        // Setup: a single token and none added back
+        ingredientController = new IngredientController(mockIngredientDAO,
+                new IngredientAsyncDAOAdapter(mockIngredientDAO,Runnable::run),
+                new AdmissionControl(0.001,1,1,0,10000),new IdempotencyCache(new ObjectMapper(),1000,3600000));
+        Ingredient ingredient = new Ingredient(0,"Basil",3,"leaves");
+        when(mockIngredientDAO.createIngredient(ingredient)).thenReturn(new Ingredient(6,"Basil",3,"leaves"));
+        ingredientController.createIngredient(ingredient,null).join();
+
+        // Invoke
+        ResponseEntity<Ingredient> response = ingredientController.createIngredient(ingredient,null).join();
+
+        // Analyze
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS,response.getStatusCode());
+        verify(mockIngredientDAO,times(1)).createIngredient(any());
+    }
+
+    @Test
+    public void testUpdateIngredient() throws IOException {
+        // Setup
+        Ingredient ingredient = new Ingredient(1,"Sweet Basil",3,"leaves");
+        when(mockIngredientDAO.updateIngredient(ingredient)).thenReturn(ingredient);
+
+        // Invoke
+        ResponseEntity<Ingredient> response = ingredientController.updateIngredient(ingredient,null).join();
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertEquals(ingredient,response.getBody());
+    }
+
+    @Test
+    public void testUpdateIngredientNotFound() throws IOException {
+        // Setup
+        Ingredient ingredient = new Ingredient(99,"Sweet Basil",3,"leaves");
+        when(mockIngredientDAO.updateIngredient(ingredient)).thenReturn(null);
+
+        // Invoke
+        ResponseEntity<Ingredient> response = ingredientController.updateIngredient(ingredient,null).join();
+
+        // Analyze
+        assertEquals(HttpStatus.NOT_FOUND,response.getStatusCode());
+    }
+
+    @Test
+    public void testDeleteIngredient() throws IOException {
+        // Setup
+        when(mockIngredientDAO.deleteIngredient(1)).thenReturn(true,false);
+
+        // Invoke: a retry with the same key is answered OK rather than NOT_FOUND
+        ResponseEntity<Ingredient> response = ingredientController.deleteIngredient(1,"abc").join();
+        ResponseEntity<Ingredient> retry = ingredientController.deleteIngredient(1,"abc").join();
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertEquals(HttpStatus.OK,retry.getStatusCode());
+        verify(mockIngredientDAO,times(1)).deleteIngredient(1);
+    }
+
+    @Test
+    public void testDeleteIngredientNotFound() throws IOException {
+        // Setup
+        when(mockIngredientDAO.deleteIngredient(99)).thenReturn(false);
+
+        // Invoke
+        ResponseEntity<Ingredient> response = ingredientController.deleteIngredient(99,null).join();
+
+        // Analyze
+        assertEquals(HttpStatus.NOT_FOUND,response.getStatusCode());
+    }
+
+    @Test
+    public void testDeleteIngredientHandleException() throws IOException {
+        // Setup
+        doThrow(new IOException()).when(mockIngredientDAO).deleteIngredient(99);
+
+        // Invoke
+        ResponseEntity<Ingredient> response = ingredientController.deleteIngredient(99,null).join();
+
+        // Analyze
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
+    }
+}
@@ -0,0 +1,102 @@
+package com.chef.api.chefapi.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.MealPlan;
+import com.chef.api.chefapi.model.User;
+import com.chef.api.chefapi.persistence.UserDAO;
+import com.chef.api.chefapi.service.MealPlanner;
+
+/**
+ * Test the Meal Plan Controller class
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Controller-tier")
+public class MealPlanControllerTest {
+    private MealPlanController mealPlanController;
+    private UserDAO mockUserDAO;
+    private MealPlanner mockMealPlanner;
+
+    /**
+     * Before each test, create a new MealPlanController object and inject
+     * a mock User DAO and meal planner
+     */
+    @BeforeEach
+    public void setupMealPlanController() {
+        mockUserDAO = mock(UserDAO.class);
+        mockMealPlanner = mock(MealPlanner.class);
+        mealPlanController = new MealPlanController(mockUserDAO,mockMealPlanner);
+    }
+
+    @Test
+    public void testGetMealPlan() throws IOException {
+        // Setup
+        List<Ingredient> pantry = Arrays.asList(new Ingredient(1,"Bread",4,"slices"));
+        MealPlan plan = mock(MealPlan.class);
+        when(mockUserDAO.getUser(3)).thenReturn(new User(3,"Ada","Lovelace",pantry));
+        when(mockMealPlanner.plan(pantry,7,200)).thenReturn(plan);
+
+        // Invoke
+        ResponseEntity<MealPlan> response = mealPlanController.getMealPlan(3,7,200);
+
+        // Analyze: the user's pantry is planned for
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertEquals(plan,response.getBody());
+    }
+
+    @Test
+    public void testGetMealPlanBadParameters() throws IOException {
+        // Invoke
+        ResponseEntity<MealPlan> noRecipes = mealPlanController.getMealPlan(3,0,200);
+        ResponseEntity<MealPlan> noBudget = mealPlanController.getMealPlan(3,7,0);
+
+        // Analyze
+        assertEquals(HttpStatus.BAD_REQUEST,noRecipes.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,noBudget.getStatusCode());
+        verify(mockMealPlanner,never()).plan(any(),anyInt(),anyLong());
+    }
+
+    @Test
+    public void testGetMealPlanNotFound() throws IOException {
+        // Setup
+        when(mockUserDAO.getUser(99)).thenReturn(null);
+
+        // Invoke
+        ResponseEntity<MealPlan> response = mealPlanController.getMealPlan(99,7,200);
+
+        // Analyze
+        assertEquals(HttpStatus.NOT_FOUND,response.getStatusCode());
+    }
+
+    @Test
+    public void testGetMealPlanHandleException() throws IOException {
+        // Setup
+        doThrow(new IOException()).when(mockUserDAO).getUser(3);
+
+        // Invoke
+        ResponseEntity<MealPlan> response = mealPlanController.getMealPlan(3,7,200);
+
+        // Analyze
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
+    }
+}
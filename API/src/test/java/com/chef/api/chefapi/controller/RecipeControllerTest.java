@@ -1,8 +1,12 @@
 package com.chef.api.chefapi.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
@@ -17,7 +21,11 @@ import org.springframework.http.ResponseEntity;
 
 import com.chef.api.chefapi.model.Ingredient;
 import com.chef.api.chefapi.model.Recipe;
+import com.chef.api.chefapi.persistence.RecipeAsyncDAOAdapter;
 import com.chef.api.chefapi.persistence.RecipeDAO;
+import com.chef.api.chefapi.persistence.RecipePopularity;
+import com.chef.api.chefapi.persistence.RecipeSearch;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * Test the Recipe Controller class
@@ -31,12 +39,16 @@ public class RecipeControllerTest {
 
     /**
      * Before each test, create a new RecipeController object and inject
-     * a mock Recipe DAO
+     * a mock Recipe DAO, along with an asynchronous adapter over it that runs
+     * on the calling thread
      */
     @BeforeEach
     public void setupRecipeController() {
         mockRecipeDAO = mock(RecipeDAO.class);
-        recipeController = new RecipeController(mockRecipeDAO);
+        recipeController = new RecipeController(mockRecipeDAO,
+                new RecipeAsyncDAOAdapter(mockRecipeDAO,Runnable::run),new RecipeSearch(mockRecipeDAO,16),
+                new RecipePopularity(300000,12),AdmissionControl.UNLIMITED,
+                new IdempotencyCache(new ObjectMapper(),1000,3600000));
     }
 
     @Test
@@ -99,7 +111,7 @@ public class RecipeControllerTest {
         when(mockRecipeDAO.createRecipe(recipe)).thenReturn(recipe);
 
         // Invoke
-        ResponseEntity<Recipe> response = recipeController.createRecipe(recipe);
+        ResponseEntity<Recipe> response = recipeController.createRecipe(recipe,false,null).join();
 
         // Analyze
         assertEquals(HttpStatus.CREATED,response.getStatusCode());
@@ -117,12 +129,32 @@ public class RecipeControllerTest {
         when(mockRecipeDAO.createRecipe(recipe)).thenReturn(null);
 
         // Invoke
-        ResponseEntity<Recipe> response = recipeController.createRecipe(recipe);
+        ResponseEntity<Recipe> response = recipeController.createRecipe(recipe,false,null).join();
 
         // Analyze
         assertEquals(HttpStatus.CONFLICT,response.getStatusCode());
     }
 
+    @Test
+    public void testCreateRecipeReturnsExisting() throws IOException {
+        // Setup
+        List<Ingredient> ings = new ArrayList<Ingredient>();
+        Recipe recipe = new Recipe(0,"bolt ",ings);
+        Recipe existing = new Recipe(99,"Bolt",ings);
+        when(mockRecipeDAO.findDuplicate(recipe)).thenReturn(existing);
+
+        // Invoke
+        ResponseEntity<Recipe> response = recipeController.createRecipe(recipe,true,null).join();
+        ResponseEntity<Recipe> bare = recipeController.createRecipe(recipe,false,null).join();
+
+        // Analyze: the saved recipe is only sent when asked for, and nothing is written
+        assertEquals(HttpStatus.CONFLICT,response.getStatusCode());
+        assertEquals(existing,response.getBody());
+        assertEquals(HttpStatus.CONFLICT,bare.getStatusCode());
+        assertNull(bare.getBody());
+        verify(mockRecipeDAO,never()).createRecipe(any(Recipe.class));
+    }
+
     @Test
     public void testCreateRecipeHandleException() throws IOException {  // createRecipe may throw IOException
         // Setup
@@ -133,7 +165,7 @@ public class RecipeControllerTest {
         doThrow(new IOException()).when(mockRecipeDAO).createRecipe(recipe);
 
         // Invoke
-        ResponseEntity<Recipe> response = recipeController.createRecipe(recipe);
+        ResponseEntity<Recipe> response = recipeController.createRecipe(recipe,false,null).join();
 
         // Analyze
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
@@ -147,11 +179,11 @@ public class RecipeControllerTest {
         // when updateRecipe is called, return true simulating successful
         // update and save
         when(mockRecipeDAO.updateRecipe(recipe)).thenReturn(recipe);
-        ResponseEntity<Recipe> response = recipeController.updateRecipe(recipe);
+        ResponseEntity<Recipe> response = recipeController.updateRecipe(recipe,null).join();
         recipe.setName("Bolt");
 
         // Invoke
-        response = recipeController.updateRecipe(recipe);
+        response = recipeController.updateRecipe(recipe,null).join();
 
         // Analyze
         assertEquals(HttpStatus.OK,response.getStatusCode());
@@ -168,7 +200,7 @@ public class RecipeControllerTest {
         when(mockRecipeDAO.updateRecipe(recipe)).thenReturn(null);
 
         // Invoke
-        ResponseEntity<Recipe> response = recipeController.updateRecipe(recipe);
+        ResponseEntity<Recipe> response = recipeController.updateRecipe(recipe,null).join();
 
         // Analyze
         assertEquals(HttpStatus.NOT_FOUND,response.getStatusCode());
@@ -183,7 +215,7 @@ public class RecipeControllerTest {
         doThrow(new IOException()).when(mockRecipeDAO).updateRecipe(recipe);
 
         // Invoke
-        ResponseEntity<Recipe> response = recipeController.updateRecipe(recipe);
+        ResponseEntity<Recipe> response = recipeController.updateRecipe(recipe,null).join();
 
         // Analyze
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
@@ -200,7 +232,7 @@ public class RecipeControllerTest {
         when(mockRecipeDAO.getRecipes()).thenReturn(recipes);
 
         // Invoke
-        ResponseEntity<Recipe[]> response = recipeController.getRecipes();
+        ResponseEntity<?> response = recipeController.getRecipes(null);
 
         // Analyze
         assertEquals(HttpStatus.OK,response.getStatusCode());
@@ -214,7 +246,7 @@ public class RecipeControllerTest {
         doThrow(new IOException()).when(mockRecipeDAO).getRecipes();
 
         // Invoke
-        ResponseEntity<Recipe[]> response = recipeController.getRecipes();
+        ResponseEntity<?> response = recipeController.getRecipes(null);
 
         // Analyze
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
@@ -233,7 +265,7 @@ public class RecipeControllerTest {
         when(mockRecipeDAO.findRecipes(searchString)).thenReturn(recipes);
 
         // Invoke
-        ResponseEntity<Recipe[]> response = recipeController.searchRecipes(searchString);
+        ResponseEntity<?> response = recipeController.searchRecipes(searchString,false,-1,false,10,null);
 
         // Analyze
         assertEquals(HttpStatus.OK,response.getStatusCode());
@@ -248,7 +280,7 @@ public class RecipeControllerTest {
         doThrow(new IOException()).when(mockRecipeDAO).findRecipes(searchString);
 
         // Invoke
-        ResponseEntity<Recipe[]> response = recipeController.searchRecipes(searchString);
+        ResponseEntity<?> response = recipeController.searchRecipes(searchString,false,-1,false,10,null);
 
         // Analyze
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
@@ -262,7 +294,7 @@ public class RecipeControllerTest {
         when(mockRecipeDAO.deleteRecipe(recipeId)).thenReturn(true);
 
         // Invoke
-        ResponseEntity<Recipe> response = recipeController.deleteRecipe(recipeId);
+        ResponseEntity<Recipe> response = recipeController.deleteRecipe(recipeId,null).join();
 
         // Analyze
         assertEquals(HttpStatus.OK,response.getStatusCode());
@@ -276,7 +308,7 @@ public class RecipeControllerTest {
         when(mockRecipeDAO.deleteRecipe(recipeId)).thenReturn(false);
 
         // Invoke
-        ResponseEntity<Recipe> response = recipeController.deleteRecipe(recipeId);
+        ResponseEntity<Recipe> response = recipeController.deleteRecipe(recipeId,null).join();
 
         // Analyze
         assertEquals(HttpStatus.NOT_FOUND,response.getStatusCode());
@@ -290,7 +322,7 @@ public class RecipeControllerTest {
         doThrow(new IOException()).when(mockRecipeDAO).deleteRecipe(recipeId);
 
         // Invoke
-        ResponseEntity<Recipe> response = recipeController.deleteRecipe(recipeId);
+        ResponseEntity<Recipe> response = recipeController.deleteRecipe(recipeId,null).join();
 
         // Analyze
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
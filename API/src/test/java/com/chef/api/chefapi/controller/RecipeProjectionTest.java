@@ -0,0 +1,78 @@
+package com.chef.api.chefapi.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.Recipe;
+import com.chef.api.chefapi.persistence.RecipeAsyncDAOAdapter;
+import com.chef.api.chefapi.persistence.RecipeDAO;
+import com.chef.api.chefapi.persistence.RecipePopularity;
+import com.chef.api.chefapi.persistence.RecipeSearch;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Test the Recipe Projection class
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Controller-tier")
+public class RecipeProjectionTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testProject() throws IOException {
+        // Setup
+        List<Ingredient> ingredients = new ArrayList<>();
+        ingredients.add(new Ingredient(1,"Tomato",2,"cups"));
+        Recipe[] recipes = {new Recipe(1,"Tomato Soup",ingredients),new Recipe(2,"Toast",null)};
+
+        // Invoke
+        String names = objectMapper.writeValueAsString(RecipeProjection.parse("id,name").project(recipes));
+        String counts = objectMapper.writeValueAsString(RecipeProjection.parse(" ingredientCount , id").project(recipes));
+        String full = objectMapper.writeValueAsString(RecipeProjection.parse("id,name,ingredients").project(recipes));
+
+        // Analyze
+        assertEquals("[{\"id\":1,\"name\":\"Tomato Soup\"},{\"id\":2,\"name\":\"Toast\"}]",names);
+        assertEquals("[{\"ingredientCount\":1,\"id\":1},{\"ingredientCount\":0,\"id\":2}]",counts);
+        assertEquals(objectMapper.writeValueAsString(recipes),full);
+    }
+
+    @Test
+    public void testParseInvalid() {
+        assertThrows(IllegalArgumentException.class,() -> RecipeProjection.parse("id,calories"));
+        assertThrows(IllegalArgumentException.class,() -> RecipeProjection.parse("id,name,id"));
+        assertThrows(IllegalArgumentException.class,() -> RecipeProjection.parse(""));
+    }
+
+    @Test
+    public void testGetRecipesProjected() throws IOException {
+        // Setup
+        RecipeDAO mockRecipeDAO = mock(RecipeDAO.class);
+        RecipeController recipeController = new RecipeController(mockRecipeDAO,
+                new RecipeAsyncDAOAdapter(mockRecipeDAO,Runnable::run),new RecipeSearch(mockRecipeDAO,16),
+                new RecipePopularity(300000,12),AdmissionControl.UNLIMITED,
+                new IdempotencyCache(new ObjectMapper(),1000,3600000));
+        when(mockRecipeDAO.getRecipes()).thenReturn(new Recipe[] {new Recipe(7,"Pancakes",new ArrayList<>())});
+
+        // Invoke
+        ResponseEntity<?> projected = recipeController.getRecipes("name");
+        ResponseEntity<?> invalid = recipeController.getRecipes("name,secret");
+
+        // Analyze
+        assertEquals(HttpStatus.OK,projected.getStatusCode());
+        assertEquals("[{\"name\":\"Pancakes\"}]",objectMapper.writeValueAsString(projected.getBody()));
+        assertEquals(HttpStatus.BAD_REQUEST,invalid.getStatusCode());
+    }
+}
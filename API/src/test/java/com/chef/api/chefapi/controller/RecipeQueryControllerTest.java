@@ -0,0 +1,94 @@
+package com.chef.api.chefapi.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.chef.api.chefapi.model.Recipe;
+import com.chef.api.chefapi.persistence.RecipeQuery;
+import com.chef.api.chefapi.persistence.RecipeQueryPlanner;
+
+/**
+ * Test the Recipe Query Controller class
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Controller-tier")
+public class RecipeQueryControllerTest {
+    private RecipeQueryController recipeQueryController;
+    private RecipeQueryPlanner mockQueryPlanner;
+    private RecipeQueryPlanner.Result mockResult;
+    private Recipe[] recipes;
+
+    /**
+     * Before each test, create a new RecipeQueryController object and inject
+     * a mock query planner, which answers every query with the same result
+     */
+    @BeforeEach
+    public void setupRecipeQueryController() throws IOException {
+        mockQueryPlanner = mock(RecipeQueryPlanner.class);
+        mockResult = mock(RecipeQueryPlanner.Result.class);
+        recipes = new Recipe[] {new Recipe(1,"Chicken Soup",new ArrayList<>())};
+        when(mockResult.getRecipes()).thenReturn(recipes);
+        when(mockQueryPlanner.query(any(RecipeQuery.class))).thenReturn(mockResult);
+        recipeQueryController = new RecipeQueryController(mockQueryPlanner);
+    }
+
+    @Test
+    public void testQueryRecipes() {
+        // Invoke
+        ResponseEntity<?> response = recipeQueryController.queryRecipes("chicken AND NOT nuts",false);
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertArrayEquals(recipes,(Recipe[]) response.getBody());
+    }
+
+    @Test
+    public void testQueryRecipesExplain() {
+        // Invoke
+        ResponseEntity<?> response = recipeQueryController.queryRecipes("chicken AND NOT nuts",true);
+
+        // Analyze: the plan and counts are returned instead of the recipes
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertEquals(mockResult,response.getBody());
+    }
+
+    @Test
+    public void testQueryRecipesBadQuery() throws IOException {
+        // Invoke
+        ResponseEntity<?> unfinished = recipeQueryController.queryRecipes("chicken AND",false);
+        ResponseEntity<?> unbalanced = recipeQueryController.queryRecipes("(chicken",true);
+
+        // Analyze
+        assertEquals(HttpStatus.BAD_REQUEST,unfinished.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,unbalanced.getStatusCode());
+        verify(mockQueryPlanner,never()).query(any());
+    }
+
+    @Test
+    public void testQueryRecipesHandleException() throws IOException {
+        // Setup
+        doThrow(new IOException()).when(mockQueryPlanner).query(any(RecipeQuery.class));
+
+        // Invoke
+        ResponseEntity<?> response = recipeQueryController.queryRecipes("chicken",false);
+
+        // Analyze
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
+    }
+}
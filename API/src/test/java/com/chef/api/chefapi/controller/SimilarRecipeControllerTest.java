@@ -0,0 +1,114 @@
+package com.chef.api.chefapi.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.chef.api.chefapi.model.Recipe;
+import com.chef.api.chefapi.persistence.RecipeDAO;
+import com.chef.api.chefapi.persistence.RecipeSimilarityIndex;
+
+/**
+ * Test the Similar Recipe Controller class
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Controller-tier")
+public class SimilarRecipeControllerTest {
+    private SimilarRecipeController similarRecipeController;
+    private RecipeDAO mockRecipeDAO;
+    private RecipeSimilarityIndex mockSimilarityIndex;
+
+    /**
+     * Before each test, create a new SimilarRecipeController object and inject
+     * a mock Recipe DAO and similarity index
+     */
+    @BeforeEach
+    public void setupSimilarRecipeController() {
+        mockRecipeDAO = mock(RecipeDAO.class);
+        mockSimilarityIndex = mock(RecipeSimilarityIndex.class);
+        similarRecipeController = new SimilarRecipeController(mockRecipeDAO,mockSimilarityIndex);
+    }
+
+    @Test
+    public void testGetSimilarRecipes() throws IOException {
+        // Setup: recipe 3 was deleted since the index found it
+        Recipe toast = new Recipe(1,"Toast",new ArrayList<>());
+        Recipe jamToast = new Recipe(2,"Jam Toast",new ArrayList<>());
+        when(mockRecipeDAO.getRecipe(1)).thenReturn(toast);
+        when(mockRecipeDAO.getRecipe(2)).thenReturn(jamToast);
+        when(mockSimilarityIndex.findSimilar(1,5)).thenReturn(Arrays.asList(2,3));
+
+        // Invoke
+        ResponseEntity<Recipe[]> response = similarRecipeController.getSimilarRecipes(1,5);
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertArrayEquals(new Recipe[] {jamToast},response.getBody());
+    }
+
+    @Test
+    public void testGetSimilarRecipesCapsK() throws IOException {
+        // Setup
+        when(mockRecipeDAO.getRecipe(1)).thenReturn(new Recipe(1,"Toast",new ArrayList<>()));
+        when(mockSimilarityIndex.findSimilar(1,100)).thenReturn(new ArrayList<>());
+
+        // Invoke
+        ResponseEntity<Recipe[]> response = similarRecipeController.getSimilarRecipes(1,5000);
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertEquals(0,response.getBody().length);
+        verify(mockSimilarityIndex).findSimilar(1,100);
+    }
+
+    @Test
+    public void testGetSimilarRecipesBadK() throws IOException {
+        // Invoke
+        ResponseEntity<Recipe[]> response = similarRecipeController.getSimilarRecipes(1,0);
+
+        // Analyze
+        assertEquals(HttpStatus.BAD_REQUEST,response.getStatusCode());
+        verify(mockSimilarityIndex,never()).findSimilar(anyInt(),anyInt());
+    }
+
+    @Test
+    public void testGetSimilarRecipesNotFound() throws IOException {
+        // Setup
+        when(mockRecipeDAO.getRecipe(99)).thenReturn(null);
+
+        // Invoke
+        ResponseEntity<Recipe[]> response = similarRecipeController.getSimilarRecipes(99,5);
+
+        // Analyze
+        assertEquals(HttpStatus.NOT_FOUND,response.getStatusCode());
+    }
+
+    @Test
+    public void testGetSimilarRecipesHandleException() throws IOException {
+        // Setup
+        when(mockRecipeDAO.getRecipe(1)).thenReturn(new Recipe(1,"Toast",new ArrayList<>()));
+        doThrow(new IOException()).when(mockSimilarityIndex).findSimilar(1,5);
+
+        // Invoke
+        ResponseEntity<Recipe[]> response = similarRecipeController.getSimilarRecipes(1,5);
+
+        // Analyze
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
+    }
+}
@@ -0,0 +1,159 @@
+package com.chef.api.chefapi.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.Recipe;
+import com.chef.api.chefapi.persistence.IngredientFileDAO;
+import com.chef.api.chefapi.persistence.NameSuggestions;
+import com.chef.api.chefapi.persistence.RecipeFileDAO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Test the Suggestion Controller class
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Controller-tier")
+public class SuggestionControllerTest {
+    @TempDir
+    Path directory;
+    private SuggestionController suggestionController;
+    private NameSuggestions mockSuggestions;
+
+    /**
+     * Before each test, create a new SuggestionController object and inject
+     * mock name suggestions
+     */
+    @BeforeEach
+    public void setupSuggestionController() {
+        mockSuggestions = mock(NameSuggestions.class);
+        suggestionController = new SuggestionController(mockSuggestions);
+    }
+
+    @Test
+    public void testSuggestRecipes() throws IOException {
+        // Setup
+        String[] names = {"Toast","Tomato Soup"};
+        when(mockSuggestions.suggestRecipes("to",5)).thenReturn(names);
+
+        // Invoke
+        ResponseEntity<String[]> response = suggestionController.suggestRecipes("to",5);
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertArrayEquals(names,response.getBody());
+    }
+
+    @Test
+    public void testSuggestRecipesBadLimit() throws IOException {
+        // Invoke
+        ResponseEntity<String[]> response = suggestionController.suggestRecipes("to",0);
+
+        // Analyze
+        assertEquals(HttpStatus.BAD_REQUEST,response.getStatusCode());
+        verify(mockSuggestions,never()).suggestRecipes(any(),anyInt());
+    }
+
+    @Test
+    public void testSuggestRecipesHandleException() throws IOException {
+        // Setup
+        doThrow(new IOException()).when(mockSuggestions).suggestRecipes("to",5);
+
+        // Invoke
+        ResponseEntity<String[]> response = suggestionController.suggestRecipes("to",5);
+
+        // Analyze
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
+    }
+
+    @Test
+    public void testSuggestIngredients() throws IOException {
+        // Setup
+        String[] names = {"Tomato","Tomato Paste"};
+        when(mockSuggestions.suggestIngredients("tom",10)).thenReturn(names);
+
+        // Invoke
+        ResponseEntity<String[]> response = suggestionController.suggestIngredients("tom",10);
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertArrayEquals(names,response.getBody());
+    }
+
+    @Test
+    public void testSuggestIngredientsBadLimit() throws IOException {
+        // Invoke
+        ResponseEntity<String[]> response = suggestionController.suggestIngredients("tom",-1);
+
+        // Analyze
+        assertEquals(HttpStatus.BAD_REQUEST,response.getStatusCode());
+        verify(mockSuggestions,never()).suggestIngredients(any(),anyInt());
+    }
+
+    @Test
+    public void testSuggestIngredientsHandleException() throws IOException {
+        // Setup
+        doThrow(new IOException()).when(mockSuggestions).suggestIngredients("tom",10);
+
+        // Invoke
+        ResponseEntity<String[]> response = suggestionController.suggestIngredients("tom",10);
+
+        // Analyze
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
+    }
+
+    @Test
+    public void testSuggestionsFollowChanges() throws IOException {
+        // Setup: suggestions over the file DAOs rather than a mock
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.writeValue(directory.resolve("recipes.json").toFile(),new Recipe[] {
+            new Recipe(1,"Toast",Arrays.asList(new Ingredient(1,"Tomato",1,"cups"))),
+            new Recipe(2,"Tomato Soup",Arrays.asList(new Ingredient(1,"Tomato",3,"cups")))});
+        objectMapper.writeValue(directory.resolve("ingredients.json").toFile(),new Ingredient[] {
+            new Ingredient(1,"Tomato",0,"cups"),new Ingredient(2,"Tofu",0,"blocks")});
+        RecipeFileDAO recipeDao = new RecipeFileDAO(directory.resolve("recipes.json").toString(),objectMapper);
+        IngredientFileDAO ingredientDao =
+            new IngredientFileDAO(directory.resolve("ingredients.json").toString(),objectMapper);
+        suggestionController = new SuggestionController(new NameSuggestions(recipeDao,ingredientDao));
+        ResponseEntity<String[]> before = suggestionController.suggestRecipes("to",10);
+
+        // Invoke
+        recipeDao.createRecipe(new Recipe(0,"Tofu Stir Fry",Arrays.asList(new Ingredient(2,"Tofu",1,"blocks"))));
+        recipeDao.deleteRecipe(1);
+        ResponseEntity<String[]> after = suggestionController.suggestRecipes("to",10);
+        ResponseEntity<String[]> ingredients = suggestionController.suggestIngredients("TO",10);
+
+        // Analyze: the deleted recipe is no longer suggested, the new one and its ingredient are
+        assertEquals(HttpStatus.OK,before.getStatusCode());
+        assertEquals(2,before.getBody().length);
+        assertArrayEquals(new String[] {"Tofu Stir Fry","Tomato Soup"},sorted(after.getBody()));
+        assertArrayEquals(new String[] {"Tofu","Tomato"},sorted(ingredients.getBody()));
+        assertEquals(0,suggestionController.suggestRecipes("toast",10).getBody().length);
+    }
+
+    private static String[] sorted(String[] names) {
+        String[] copy = names.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+}
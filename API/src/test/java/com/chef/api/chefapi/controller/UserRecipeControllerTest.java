@@ -0,0 +1,217 @@
+package com.chef.api.chefapi.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.chef.api.chefapi.model.Recipe;
+import com.chef.api.chefapi.model.User;
+import com.chef.api.chefapi.persistence.RecipePartitions;
+import com.chef.api.chefapi.persistence.UserDAO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Test the User Recipe Controller class
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Controller-tier")
+public class UserRecipeControllerTest {
+    private static final int USER = 7;
+
+    @TempDir
+    Path directory;
+    private UserDAO mockUserDAO;
+    private RecipePartitions partitions;
+    private UserRecipeController userRecipeController;
+
+    /**
+     * Before each test, create a new UserRecipeController object and inject
+     * a mock User DAO and partitions in a temporary directory, none of which
+     * stay open once released, with the writes run on the calling thread
+     */
+    @BeforeEach
+    public void setupUserRecipeController() throws IOException {
+        mockUserDAO = mock(UserDAO.class);
+        when(mockUserDAO.getUser(USER)).thenReturn(new User(USER,"Ada","Lovelace",new ArrayList<>()));
+        partitions = new RecipePartitions(directory.toString(),new ObjectMapper(),0,3600000);
+        userRecipeController = new UserRecipeController(mockUserDAO,partitions,Runnable::run,
+            AdmissionControl.UNLIMITED);
+    }
+
+    @AfterEach
+    public void closePartitions() {
+        partitions.close();
+    }
+
+    @Test
+    public void testCreateRecipe() {
+        // Setup
+        Recipe recipe = new Recipe(0,"Toast",new ArrayList<>());
+
+        // Invoke
+        ResponseEntity<Recipe> response = userRecipeController.createRecipe(USER,recipe).join();
+
+        // Analyze
+        assertEquals(HttpStatus.CREATED,response.getStatusCode());
+        assertEquals(new Recipe(1,"Toast",new ArrayList<>()),response.getBody());
+        assertArrayEquals(new Recipe[] {response.getBody()},userRecipeController.getRecipes(USER).getBody());
+        assertEquals(response.getBody(),userRecipeController.getRecipe(USER,1).getBody());
+    }
+
+    @Test
+    public void testCreateRecipeFailed() {
+        // Setup
+        Recipe recipe = new Recipe(0,"Toast",new ArrayList<>());
+        userRecipeController.createRecipe(USER,recipe).join();
+
+        // Invoke
+        ResponseEntity<Recipe> response = userRecipeController.createRecipe(USER,recipe).join();
+
+        // Analyze
+        assertEquals(HttpStatus.CONFLICT,response.getStatusCode());
+    }
+
+    @Test
+    public void testPartitionsAreSeparate() throws IOException {
+        // Setup
+        when(mockUserDAO.getUser(8)).thenReturn(new User(8,"Alan","Turing",new ArrayList<>()));
+        userRecipeController.createRecipe(USER,new Recipe(0,"Toast",new ArrayList<>())).join();
+
+        // Invoke
+        ResponseEntity<Recipe[]> response = userRecipeController.getRecipes(8);
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertEquals(0,response.getBody().length);
+    }
+
+    @Test
+    public void testLeaseReleasedAfterWrite() {
+        // Setup: the write waits for the executor
+        List<Runnable> pending = new ArrayList<>();
+        userRecipeController = new UserRecipeController(mockUserDAO,partitions,pending::add,
+            AdmissionControl.UNLIMITED);
+
+        // Invoke
+        CompletableFuture<ResponseEntity<Recipe>> response =
+            userRecipeController.createRecipe(USER,new Recipe(0,"Toast",new ArrayList<>()));
+
+        // Analyze: the partition stays open until the write completes
+        assertFalse(response.isDone());
+        assertEquals(1,partitions.getOpen());
+        pending.forEach(Runnable::run);
+        assertTrue(response.isDone());
+        assertEquals(HttpStatus.CREATED,response.join().getStatusCode());
+        assertEquals(0,partitions.getOpen());
+    }
+
+    @Test
+    public void testUpdateRecipe() {
+        // Setup
+        userRecipeController.createRecipe(USER,new Recipe(0,"Toast",new ArrayList<>())).join();
+        Recipe recipe = new Recipe(1,"French Toast",new ArrayList<>());
+
+        // Invoke
+        ResponseEntity<Recipe> response = userRecipeController.updateRecipe(USER,recipe).join();
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertEquals(recipe,response.getBody());
+    }
+
+    @Test
+    public void testUpdateRecipeNotFound() {
+        // Invoke
+        ResponseEntity<Recipe> response =
+            userRecipeController.updateRecipe(USER,new Recipe(1,"French Toast",new ArrayList<>())).join();
+
+        // Analyze
+        assertEquals(HttpStatus.NOT_FOUND,response.getStatusCode());
+    }
+
+    @Test
+    public void testDeleteRecipe() {
+        // Setup
+        userRecipeController.createRecipe(USER,new Recipe(0,"Toast",new ArrayList<>())).join();
+
+        // Invoke
+        ResponseEntity<Recipe> response = userRecipeController.deleteRecipe(USER,1).join();
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND,userRecipeController.getRecipe(USER,1).getStatusCode());
+    }
+
+    @Test
+    public void testDeleteRecipeNotFound() {
+        // Invoke
+        ResponseEntity<Recipe> response = userRecipeController.deleteRecipe(USER,1).join();
+
+        // Analyze
+        assertEquals(HttpStatus.NOT_FOUND,response.getStatusCode());
+    }
+
+    @Test
+    public void testUserNotFound() {
+        // Invoke
+        ResponseEntity<Recipe[]> recipes = userRecipeController.getRecipes(99);
+        ResponseEntity<Recipe> recipe = userRecipeController.getRecipe(99,1);
+        ResponseEntity<Recipe> created =
+            userRecipeController.createRecipe(99,new Recipe(0,"Toast",new ArrayList<>())).join();
+
+        // Analyze: no partition is opened for a user who does not exist
+        assertEquals(HttpStatus.NOT_FOUND,recipes.getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND,recipe.getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND,created.getStatusCode());
+        assertEquals(0,partitions.getOpen());
+    }
+
+    @Test
+    public void testWriteShed() {
+        // Setup: a single token and none added back
+        userRecipeController = new UserRecipeController(mockUserDAO,partitions,Runnable::run,
+            new AdmissionControl(0.001,1,1,0,10000));
+        userRecipeController.createRecipe(USER,new Recipe(0,"Toast",new ArrayList<>())).join();
+
+        // Invoke
+        ResponseEntity<Recipe> response = userRecipeController.deleteRecipe(USER,1).join();
+
+        // Analyze
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS,response.getStatusCode());
+    }
+
+    @Test
+    public void testUserHandleException() throws IOException {
+        // Setup
+        doThrow(new IOException()).when(mockUserDAO).getUser(USER);
+
+        // Invoke
+        ResponseEntity<Recipe[]> recipes = userRecipeController.getRecipes(USER);
+        ResponseEntity<Recipe> recipe = userRecipeController.getRecipe(USER,1);
+        ResponseEntity<Recipe> deleted = userRecipeController.deleteRecipe(USER,1).join();
+
+        // Analyze
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,recipes.getStatusCode());
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,recipe.getStatusCode());
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,deleted.getStatusCode());
+    }
+}
@@ -0,0 +1,166 @@
+package com.chef.api.chefapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.Recipe;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test the Catalog Backups class
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Persistence-tier")
+public class CatalogBackupsTest {
+    @TempDir
+    Path directory;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Path snapshots;
+    private RecipeFileDAO recipeDao;
+    private IngredientFileDAO ingredientDao;
+    private CatalogTransactions transactions;
+    private CatalogBackups backups;
+
+    @BeforeEach
+    public void setupCatalogBackups() throws IOException {
+        Path recipesFile = directory.resolve("recipes.json");
+        Path ingredientsFile = directory.resolve("ingredients.json");
+        objectMapper.writeValue(ingredientsFile.toFile(),new Ingredient[] {new Ingredient(1,"Bread",0,"slices")});
+        objectMapper.writeValue(recipesFile.toFile(),new Recipe[] {
+            new Recipe(1,"Toast",Arrays.asList(new Ingredient(1,"Bread",2,"slices")))});
+        recipeDao = new RecipeFileDAO(recipesFile.toString(),objectMapper);
+        ingredientDao = new IngredientFileDAO(ingredientsFile.toString(),objectMapper);
+        transactions = new CatalogTransactions(recipeDao,ingredientDao,objectMapper,
+            directory.resolve("catalog.journal").toString(),Runnable::run);
+        snapshots = directory.resolve("snapshots");
+        backups = new CatalogBackups(recipeDao,ingredientDao,transactions,objectMapper,snapshots.toString(),2,3600000);
+    }
+
+    @AfterEach
+    public void closeCatalogBackups() {
+        backups.close();
+    }
+
+    @Test
+    public void testBackupIsPointInTime() throws IOException {
+        // Setup
+        Recipe[] recipes = recipeDao.getRecipes();
+        Ingredient[] ingredients = ingredientDao.getIngredients();
+
+        // Invoke: the stores change while the backup is written
+        CatalogBackups.Backup backup = backups.backup();
+        recipeDao.createRecipe(new Recipe(0,"Soup",Arrays.asList()));
+        Path written = backup.getWritten().join();
+
+        // Analyze: the backup restores the stores as they were when it was taken
+        assertEquals(written,snapshots.resolve(backup.getName()));
+        RecipeFileDAO restoredRecipes = new RecipeFileDAO(written.resolve("recipes.json").toString(),objectMapper);
+        IngredientFileDAO restoredIngredients =
+            new IngredientFileDAO(written.resolve("ingredients.json").toString(),objectMapper);
+        assertArrayEquals(recipes,restoredRecipes.getRecipes());
+        assertArrayEquals(ingredients,restoredIngredients.getIngredients());
+        JsonNode manifest = objectMapper.readTree(written.resolve("manifest.json").toFile());
+        assertEquals(backup.getName(),manifest.get("name").asText());
+        assertEquals(1,manifest.get("recipes").asInt());
+    }
+
+    @Test
+    public void testOldBackupsArePruned() throws IOException {
+        // Invoke
+        CatalogBackups.Backup first = backups.backup();
+        first.getWritten().join();
+        CatalogBackups.Backup second = backups.backup();
+        second.getWritten().join();
+        CatalogBackups.Backup third = backups.backup();
+        third.getWritten().join();
+
+        // Analyze: only the two most recent are retained
+        assertEquals(Arrays.asList(second.getName(),third.getName()),backups.getBackups());
+        assertFalse(Files.exists(snapshots.resolve(first.getName())));
+    }
+
+    @Test
+    public void testBackupsWhileWritingAreCoalesced() throws IOException {
+        // Setup
+        CatalogBackups.Backup first;
+        CatalogBackups.Backup second;
+
+        // Invoke: holding the monitor keeps the first backup pending
+        synchronized (backups) {
+            first = backups.backup();
+            second = backups.backup();
+        }
+        first.getWritten().join();
+        CatalogBackups.Backup third = backups.backup();
+        third.getWritten().join();
+
+        // Analyze
+        assertSame(first,second);
+        assertNotSame(first,third);
+        assertEquals(Arrays.asList(first.getName(),third.getName()),backups.getBackups());
+    }
+
+    @Test
+    public void testRestoreReplacesBothStores() throws IOException {
+        // Setup
+        Recipe[] recipes = recipeDao.getRecipes();
+        Ingredient[] ingredients = ingredientDao.getIngredients();
+        CatalogBackups.Backup backup = backups.backup();
+        backup.getWritten().join();
+        Ingredient jam = ingredientDao.createIngredient(new Ingredient(0,"Jam",0,"tbsp"));
+        recipeDao.updateRecipe(new Recipe(1,"Jam Toast",Arrays.asList(new Ingredient(1,"Bread",2,"slices"),
+            new Ingredient(jam.getId(),"Jam",1,"tbsp"))));
+        List<ChangeEvent<Recipe>> events = new ArrayList<>();
+        recipeDao.addChangeListener(events::add);
+
+        // Invoke
+        backups.restore(backup.getName());
+
+        // Analyze: both stores, and their files, are back as they were
+        assertArrayEquals(recipes,recipeDao.getRecipes());
+        assertArrayEquals(ingredients,ingredientDao.getIngredients());
+        assertArrayEquals(recipes,new RecipeFileDAO(directory.resolve("recipes.json").toString(),objectMapper)
+            .getRecipes());
+        assertEquals(1,events.size());
+        assertEquals(ChangeEvent.Type.UPDATED,events.get(0).getType());
+        assertThrows(NoSuchFileException.class,() -> backups.restore("20260101T000000000Z"));
+        assertThrows(NoSuchFileException.class,() -> backups.restore("../snapshots"));
+    }
+
+    @Test
+    public void testPartialBackupIsRemoved() throws IOException {
+        // Setup: a backup was being written when the application stopped
+        Path partial = Files.createDirectories(snapshots.resolve("20260101T000000000Z.partial"));
+        Files.write(partial.resolve("recipes.json"),"[".getBytes());
+        backups.close();
+
+        // Invoke
+        backups = new CatalogBackups(recipeDao,ingredientDao,transactions,objectMapper,snapshots.toString(),2,3600000);
+
+        // Analyze
+        List<String> names = backups.getBackups();
+        assertEquals(0,names.size());
+        assertFalse(Files.exists(partial));
+    }
+}
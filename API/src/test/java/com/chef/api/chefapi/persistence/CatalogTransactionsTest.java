@@ -0,0 +1,220 @@
+package com.chef.api.chefapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.Recipe;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test the Catalog Transactions class
+ *
+ * @author SWEN Faculty
+ */
+@Tag("Persistence-tier")
+public class CatalogTransactionsTest {
+    @TempDir
+    Path directory;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Path recipesFile;
+    private Path ingredientsFile;
+    private Path journal;
+    private RecipeFileDAO recipeDao;
+    private IngredientFileDAO ingredientDao;
+    private CatalogTransactions transactions;
+
+    @BeforeEach
+    public void setupCatalogTransactions() throws IOException {
+        recipesFile = directory.resolve("recipes.json");
+        ingredientsFile = directory.resolve("ingredients.json");
+        journal = directory.resolve("catalog.journal");
+        objectMapper.writeValue(ingredientsFile.toFile(),new Ingredient[] {
+            new Ingredient(1,"Tomato",0,"cups"),new Ingredient(2,"Bread",0,"slices")});
+        objectMapper.writeValue(recipesFile.toFile(),new Recipe[] {
+            new Recipe(1,"Toast",Arrays.asList(new Ingredient(2,"Bread",2,"slices")))});
+        open();
+    }
+
+    @Test
+    public void testCommitRecipeWithNewIngredient() throws IOException {
+        // Setup
+        List<ChangeEvent<Recipe>> events = new ArrayList<>();
+        recipeDao.addChangeListener(events::add);
+        CatalogTransaction transaction = new CatalogTransaction(
+            new CatalogTransaction.Changes<>(Arrays.asList(new Ingredient(0,"Basil",0,"cups")),null,null),
+            new CatalogTransaction.Changes<>(Arrays.asList(new Recipe(0,"Pesto",Arrays.asList(
+                new Ingredient(CatalogTransaction.BY_NAME,"basil ",2,"cups"),new Ingredient(1,"Tomato",1,"cups")))),null,Arrays.asList(1)));
+
+        // Invoke
+        CatalogTransaction.Result result = transactions.commit(transaction);
+
+        // Analyze: the recipe uses the id the ingredient was given, and both files hold the outcome
+        Ingredient basil = result.getIngredients().get(0);
+        Recipe pesto = result.getRecipes().get(0);
+        assertEquals(Arrays.asList(new Ingredient(basil.getId(),"Basil",2,"cups"),new Ingredient(1,"Tomato",1,"cups")),
+            pesto.getIngredients());
+        assertEquals(basil,ingredientDao.getIngredient(basil.getId()));
+        assertArrayEquals(new Recipe[] {pesto},recipeDao.getRecipes());
+        assertArrayEquals(ingredientDao.getIngredients(),objectMapper.readValue(ingredientsFile.toFile(),Ingredient[].class));
+        assertArrayEquals(recipeDao.getRecipes(),objectMapper.readValue(recipesFile.toFile(),Recipe[].class));
+        assertEquals(2,events.size());
+        assertFalse(Files.exists(journal));
+    }
+
+    @Test
+    public void testRefusedTransactionChangesNothing() throws IOException {
+        // Setup
+        byte[] recipes = Files.readAllBytes(recipesFile);
+        byte[] ingredients = Files.readAllBytes(ingredientsFile);
+        CatalogTransaction unknownIngredient = new CatalogTransaction(
+            new CatalogTransaction.Changes<>(Arrays.asList(new Ingredient(0,"Basil",0,"cups")),null,null),
+            new CatalogTransaction.Changes<>(Arrays.asList(new Recipe(0,"Pesto",Arrays.asList(
+                new Ingredient(CatalogTransaction.BY_NAME,"Pine Nuts",1,"cups")))),null,null));
+        CatalogTransaction ingredientInUse = new CatalogTransaction(
+            new CatalogTransaction.Changes<>(null,null,Arrays.asList(2)),null);
+        CatalogTransaction missingRecipe = new CatalogTransaction(null,
+            new CatalogTransaction.Changes<>(null,null,Arrays.asList(1,99)));
+
+        // Invoke & Analyze
+        assertThrows(IllegalStateException.class,() -> transactions.commit(unknownIngredient));
+        assertThrows(IllegalStateException.class,() -> transactions.commit(ingredientInUse));
+        assertThrows(IllegalStateException.class,() -> transactions.commit(missingRecipe));
+        assertEquals(2,ingredientDao.getIngredients().length);
+        assertEquals(1,recipeDao.getRecipes().length);
+        assertArrayEquals(recipes,Files.readAllBytes(recipesFile));
+        assertArrayEquals(ingredients,Files.readAllBytes(ingredientsFile));
+    }
+
+    @Test
+    public void testIngredientWithoutIdIsLookedUp() throws IOException {
+        // Setup: 0 is the id of a real ingredient, only a missing id means "by name"
+        objectMapper.writeValue(ingredientsFile.toFile(),new Ingredient[] {
+            new Ingredient(0,"Tomato",0,"cups"),new Ingredient(2,"Bread",0,"slices")});
+        open();
+        CatalogTransaction transaction = objectMapper.readValue("{\"recipes\":{\"create\":[{\"id\":0,"
+            + "\"name\":\"Bruschetta\",\"ingredients\":[{\"id\":0,\"name\":\"Tomato\",\"quantity\":1,"
+            + "\"unit\":\"cups\"},{\"name\":\"bread\",\"quantity\":1,\"unit\":\"slices\"}]}]}}",
+            CatalogTransaction.class);
+
+        // Invoke
+        CatalogTransaction.Result result = transactions.commit(transaction);
+
+        // Analyze
+        assertEquals(CatalogTransaction.BY_NAME,transaction.getRecipes().getCreate().get(0).getIngredients().get(1).getId());
+        assertEquals(Arrays.asList(new Ingredient(0,"Tomato",1,"cups"),new Ingredient(2,"Bread",1,"slices")),
+            result.getRecipes().get(0).getIngredients());
+    }
+
+    @Test
+    public void testIngredientWithoutIdOutsideTransaction() throws IOException {
+        // Invoke
+        Ingredient ingredient = objectMapper.readValue("{\"name\":\"bread\",\"quantity\":1,\"unit\":\"slices\"}",
+            Ingredient.class);
+
+        // Analyze: the model itself keeps its wire format
+        assertEquals(0,ingredient.getId());
+    }
+
+    @Test
+    public void testDuplicatesWithinTransaction() throws IOException {
+        // Setup
+        Recipe toast = new Recipe(0,"Toast",Arrays.asList(new Ingredient(2,"Bread",2,"slices")));
+        Recipe jam = new Recipe(0,"Jam Toast",Arrays.asList(new Ingredient(2,"Bread",1,"slices")));
+        CatalogTransaction createdTwice = new CatalogTransaction(null,
+            new CatalogTransaction.Changes<>(Arrays.asList(jam,jam),null,null));
+        CatalogTransaction alreadySaved = new CatalogTransaction(null,
+            new CatalogTransaction.Changes<>(Arrays.asList(toast),null,null));
+        CatalogTransaction replaced = new CatalogTransaction(null,
+            new CatalogTransaction.Changes<>(Arrays.asList(toast),null,Arrays.asList(1)));
+
+        // Invoke & Analyze: only a recipe the transaction deletes may be created again
+        assertThrows(IllegalStateException.class,() -> transactions.commit(createdTwice));
+        assertThrows(IllegalStateException.class,() -> transactions.commit(alreadySaved));
+        CatalogTransaction.Result result = transactions.commit(replaced);
+        assertEquals(1,recipeDao.getRecipes().length);
+        assertEquals(result.getRecipes().get(0),recipeDao.getRecipes()[0]);
+        assertEquals(null,recipeDao.getRecipe(1));
+    }
+
+    @Test
+    public void testSnapshotSeesAllOrNothing() throws Exception {
+        // Setup: a transaction keeps moving the only recipe onto a new ingredient and
+        // deleting the old one
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; i < 200; ++i) {
+                    Recipe recipe = recipeDao.getRecipes()[0];
+                    int old = recipe.getIngredients().get(0).getId();
+                    transactions.commit(new CatalogTransaction(
+                        new CatalogTransaction.Changes<>(Arrays.asList(new Ingredient(0,"Bread " + i,0,"slices")),
+                            null,old == 2 ? null : Arrays.asList(old)),
+                        new CatalogTransaction.Changes<>(null,Arrays.asList(new Recipe(recipe.getId(),"Toast",
+                            Arrays.asList(new Ingredient(CatalogTransaction.BY_NAME,"Bread " + i,1,"slices")))),null)));
+                }
+            }
+            catch(IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Invoke
+        writer.start();
+        while (writer.isAlive()) {
+            CatalogSnapshot snapshot = CatalogSnapshot.take(recipeDao,ingredientDao);
+
+            // Analyze: the ingredient of the recipe is always in the same snapshot
+            for (Recipe recipe : snapshot.getRecipes()) {
+                int id = recipe.getIngredients().get(0).getId();
+                boolean found = false;
+                for (Ingredient ingredient : snapshot.getIngredients())
+                    found |= ingredient.getId() == id;
+                assertEquals(true,found,"ingredient " + id);
+            }
+        }
+        writer.join();
+        assertEquals("Bread 199",ingredientDao.getIngredient(
+            recipeDao.getRecipes()[0].getIngredients().get(0).getId()).getName());
+    }
+
+    @Test
+    public void testRecoversUnfinishedTransaction() throws IOException {
+        // Setup: the server stopped once the journal was written, before the data files were
+        objectMapper.writeValue(journal.toFile(),new CatalogTransaction(
+            new CatalogTransaction.Changes<>(null,Arrays.asList(new Ingredient(7,"Basil",0,"cups")),Arrays.asList(1)),
+            new CatalogTransaction.Changes<>(null,Arrays.asList(new Recipe(8,"Basil Toast",Arrays.asList(
+                new Ingredient(2,"Bread",1,"slices"),new Ingredient(7,"Basil",1,"cups")))),null)));
+
+        // Invoke
+        open();
+
+        // Analyze
+        assertFalse(Files.exists(journal));
+        assertEquals(null,ingredientDao.getIngredient(1));
+        assertEquals("Basil",ingredientDao.getIngredient(7).getName());
+        assertEquals("Basil Toast",recipeDao.getRecipe(8).getName());
+        assertEquals(2,objectMapper.readValue(recipesFile.toFile(),Recipe[].class).length);
+        Ingredient created = ingredientDao.createIngredient(new Ingredient(0,"Salt",0,"tsp"));
+        assertEquals(8,created.getId());
+    }
+
+    private void open() throws IOException {
+        recipeDao = new RecipeFileDAO(recipesFile.toString(),objectMapper);
+        ingredientDao = new IngredientFileDAO(ingredientsFile.toString(),objectMapper);
+        transactions = new CatalogTransactions(recipeDao,ingredientDao,objectMapper,journal.toString(),Runnable::run);
+    }
+}
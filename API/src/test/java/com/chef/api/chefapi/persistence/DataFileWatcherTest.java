@@ -0,0 +1,115 @@
+package com.chef.api.chefapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.Recipe;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test the Data File Watcher class
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Persistence-tier")
+public class DataFileWatcherTest {
+    private static final long QUIET_PERIOD = 50;
+    private static final long TIMEOUT = 10000;
+
+    @TempDir
+    Path directory;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Path recipesFile;
+    private Path ingredientsFile;
+    private RecipeFileDAO recipeDao;
+    private IngredientFileDAO ingredientDao;
+    private DataFileWatcher watcher;
+    private final List<ChangeEvent<Recipe>> events = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void setupDataFileWatcher() throws IOException {
+        recipesFile = directory.resolve("recipes.json");
+        ingredientsFile = directory.resolve("ingredients.json");
+        objectMapper.writeValue(recipesFile.toFile(),new Recipe[] {
+            new Recipe(1,"Toast",Arrays.asList(new Ingredient(1,"Bread",2,"slices"))),
+            new Recipe(2,"Soup",new ArrayList<>())});
+        objectMapper.writeValue(ingredientsFile.toFile(),new Ingredient[] {new Ingredient(1,"Bread",0,"slices")});
+        recipeDao = new RecipeFileDAO(recipesFile.toString(),objectMapper);
+        ingredientDao = new IngredientFileDAO(ingredientsFile.toString(),objectMapper);
+        recipeDao.addChangeListener(events::add);
+        watcher = new DataFileWatcher(recipeDao,ingredientDao,recipesFile.toString(),
+            ingredientsFile.toString(),QUIET_PERIOD);
+    }
+
+    @AfterEach
+    public void closeDataFileWatcher() throws IOException {
+        watcher.close();
+    }
+
+    @Test
+    public void testOutOfBandChangeIsApplied() throws IOException, InterruptedException {
+        // Setup: a restore replaces the file, changing one recipe and adding another
+        Path restored = directory.resolve("recipes.restored");
+        objectMapper.writeValue(restored.toFile(),new Recipe[] {
+            new Recipe(1,"Toast",Arrays.asList(new Ingredient(1,"Bread",2,"slices"))),
+            new Recipe(2,"Tomato Soup",new ArrayList<>()),new Recipe(3,"Salad",new ArrayList<>())});
+
+        // Invoke
+        Files.move(restored,recipesFile,StandardCopyOption.REPLACE_EXISTING,StandardCopyOption.ATOMIC_MOVE);
+        await(() -> events.size() >= 2);
+
+        // Analyze: only the recipes that differ are published
+        assertEquals(2,events.size());
+        assertEquals(ChangeEvent.Type.UPDATED,events.get(0).getType());
+        assertEquals("Tomato Soup",events.get(0).getEntity().getName());
+        assertEquals(ChangeEvent.Type.CREATED,events.get(1).getType());
+        assertEquals(3,events.get(1).getId());
+        assertEquals("Salad",recipeDao.getRecipe(3).getName());
+        assertEquals(3,recipeDao.getRecipes().length);
+    }
+
+    @Test
+    public void testOwnWritesAreSkipped() throws IOException, InterruptedException {
+        // Setup: the DAO writes the file itself
+        recipeDao.createRecipe(new Recipe(0,"Salad",new ArrayList<>()));
+
+        // Invoke: then an edit is made out of band, which the watcher handles after
+        // the DAO's own write
+        Thread.sleep(4 * QUIET_PERIOD);
+        Recipe[] edited = recipeDao.getRecipes();
+        edited[0] = new Recipe(1,"French Toast",edited[0].getIngredients());
+        objectMapper.writeValue(recipesFile.toFile(),edited);
+        await(() -> events.size() >= 2);
+        Thread.sleep(4 * QUIET_PERIOD);
+
+        // Analyze: the DAO's own write was published once, by the write itself
+        assertEquals(2,events.size());
+        assertEquals(ChangeEvent.Type.CREATED,events.get(0).getType());
+        assertEquals(3,events.get(0).getId());
+        assertEquals(ChangeEvent.Type.UPDATED,events.get(1).getType());
+        assertEquals("French Toast",recipeDao.getRecipe(1).getName());
+        assertEquals(3,recipeDao.getRecipes().length);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+    }
+}
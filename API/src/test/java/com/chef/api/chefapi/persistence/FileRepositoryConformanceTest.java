@@ -0,0 +1,398 @@
+package com.chef.api.chefapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.Recipe;
+import com.chef.api.chefapi.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test that each store built on the File Repository class behaves as a repository:
+ * every store must pass every test of {@link Conformance}, and its DAO's lookups must
+ * follow every change to it
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Persistence-tier")
+public class FileRepositoryConformanceTest {
+    @TempDir
+    Path directory;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Nested
+    class Recipes extends Conformance<Recipe> {
+        private RecipeFileDAO dao;
+
+        @Override
+        FileRepository<Recipe> open(String filename) throws IOException {
+            dao = new RecipeFileDAO(filename,objectMapper);
+            return dao.getRepository();
+        }
+
+        @Override
+        Recipe entity(int id, String name) {
+            return new Recipe(id,name,new ArrayList<>());
+        }
+
+        @Override
+        int id(Recipe recipe) {
+            return recipe.getId();
+        }
+
+        @Test
+        public void testFindRecipesFollowsChanges() throws IOException {
+            // Setup
+            Recipe sourdough = dao.createRecipe(entity(0,"Sourdough"));
+
+            // Invoke & Analyze: found by the name index, in order of id, case sensitive
+            assertArrayEquals(new Recipe[] {entity(3,"Soup"),sourdough},dao.findRecipes("Sou"));
+            assertArrayEquals(new Recipe[] {entity(8,"Stew")},dao.findRecipes("ew"));
+            assertArrayEquals(new Recipe[0],dao.findRecipes("sou"));
+            dao.updateRecipe(entity(3,"Broth"));
+            assertArrayEquals(new Recipe[] {sourdough},dao.findRecipes("Sou"));
+            assertArrayEquals(new Recipe[] {entity(3,"Broth")},dao.findRecipes("Bro"));
+            dao.deleteRecipe(sourdough.getId());
+            assertArrayEquals(new Recipe[0],dao.findRecipes("Sou"));
+            assertEquals(2,dao.findRecipes(null).length);
+        }
+
+        @Test
+        public void testFindDuplicateFollowsChanges() throws IOException {
+            // Invoke & Analyze
+            assertNull(dao.createRecipe(entity(0,"Soup")));
+            dao.updateRecipe(entity(8,"Soup"));
+            assertEquals(entity(3,"Soup"),dao.findDuplicate(entity(0,"Soup")));
+            dao.deleteRecipe(3);
+            assertEquals(entity(8,"Soup"),dao.findDuplicate(entity(0,"Soup")));
+            assertNull(dao.findDuplicate(entity(0,"Stew")));
+        }
+
+        @Test
+        public void testReloadReindexes() throws IOException {
+            // Setup
+            dao.enableHotReload();
+
+            // Invoke
+            objectMapper.writeValue(file().toFile(),Arrays.asList(entity(3,"Soup"),entity(12,"Salad")));
+            dao.reload();
+
+            // Analyze
+            assertArrayEquals(new Recipe[] {entity(12,"Salad")},dao.findRecipes("Sal"));
+            assertArrayEquals(new Recipe[0],dao.findRecipes("Stew"));
+            assertEquals(entity(12,"Salad"),dao.findDuplicate(entity(0,"Salad")));
+            assertNull(dao.findDuplicate(entity(0,"Stew")));
+        }
+    }
+
+    @Nested
+    class Ingredients extends Conformance<Ingredient> {
+        private IngredientFileDAO dao;
+
+        @Override
+        FileRepository<Ingredient> open(String filename) throws IOException {
+            dao = new IngredientFileDAO(filename,objectMapper);
+            return dao.getRepository();
+        }
+
+        @Override
+        Ingredient entity(int id, String name) {
+            return new Ingredient(id,name,1,"cups");
+        }
+
+        @Override
+        int id(Ingredient ingredient) {
+            return ingredient.getId();
+        }
+
+        @Test
+        public void testDictionaryFollowsChanges() throws IOException {
+            // Setup
+            Ingredient creme = dao.createIngredient(entity(0,"Crème  Fraîche"));
+
+            // Invoke & Analyze: names are folded, and every change reaches the dictionary
+            assertArrayEquals(new Ingredient[] {creme},dao.findIngredientsByName("creme fraiche "));
+            assertArrayEquals(new Ingredient[] {entity(8,"Stew"),creme},dao.findIngredients("E"));
+            dao.updateIngredient(entity(3,"Stock"));
+            assertArrayEquals(new Ingredient[0],dao.findIngredientsByName("soup"));
+            assertArrayEquals(new Ingredient[] {entity(8,"Stew"),entity(3,"Stock")},
+                dao.findIngredientsByPrefix("st",5));
+            dao.createIngredient(entity(0,"stew"));
+            assertEquals(8,dao.resolveIngredients(Arrays.asList("STEW")).get("STEW"));
+            dao.deleteIngredient(8);
+            assertEquals(10,dao.resolveIngredients(Arrays.asList("STEW")).get("STEW"));
+            dao.deleteIngredient(creme.getId());
+            assertArrayEquals(new Ingredient[0],dao.findIngredientsByName("Crème Fraîche"));
+        }
+
+        @Test
+        public void testReloadReindexes() throws IOException {
+            // Setup
+            dao.enableHotReload();
+
+            // Invoke
+            objectMapper.writeValue(file().toFile(),Arrays.asList(entity(3,"Soup"),entity(12,"Salad")));
+            dao.reload();
+
+            // Analyze
+            assertArrayEquals(new Ingredient[] {entity(12,"Salad")},dao.findIngredientsByName("salad"));
+            assertArrayEquals(new Ingredient[0],dao.findIngredientsByName("stew"));
+        }
+    }
+
+    @Nested
+    class Users extends Conformance<User> {
+        @Override
+        FileRepository<User> open(String filename) throws IOException {
+            return new UserFileDAO(filename,objectMapper).getRepository();
+        }
+
+        @Override
+        User entity(int id, String name) {
+            return new User(id,name,"Smith",new ArrayList<>());
+        }
+
+        @Override
+        int id(User user) {
+            return user.getId();
+        }
+    }
+
+    /**
+     * The tests each store must pass
+     * 
+     * @param <T> The type of the entities of the store
+     */
+    abstract class Conformance<T> {
+        private Path file;
+        private FileRepository<T> repository;
+
+        /**
+         * Opens the store's repository over a file
+         */
+        abstract FileRepository<T> open(String filename) throws IOException;
+
+        /**
+         * Creates an entity of the store; entities with different names are different
+         */
+        abstract T entity(int id, String name);
+
+        /**
+         * Retrieves the id of an entity of the store
+         */
+        abstract int id(T entity);
+
+        /**
+         * Retrieves the file the store was opened over
+         */
+        Path file() {
+            return file;
+        }
+
+        @BeforeEach
+        public void setupRepository() throws IOException {
+            file = directory.resolve(getClass().getSimpleName() + ".json");
+            objectMapper.writeValue(file.toFile(),Arrays.asList(entity(3,"Soup"),entity(8,"Stew")));
+            repository = open(file.toString());
+        }
+
+        @Test
+        public void testLoadAssignsNextId() throws IOException {
+            // Invoke
+            T created = repository.create(id -> entity(id,"Salad"));
+
+            // Analyze: ids carry on after the greatest in the file
+            assertEquals(entity(3,"Soup"),repository.get(3));
+            assertEquals(entity(9,"Salad"),created);
+            assertEquals(3,repository.getAll().length);
+        }
+
+        @Test
+        public void testWritesThrough() throws IOException {
+            // Invoke
+            repository.create(id -> entity(id,"Salad"));
+            repository.update(entity(3,"Broth"));
+            repository.delete(8);
+
+            // Analyze: the file holds what the repository does
+            FileRepository<T> reopened = open(file.toString());
+            assertArrayEquals(repository.getAll(),reopened.getAll());
+            assertEquals(entity(3,"Broth"),reopened.get(3));
+            assertNull(reopened.get(8));
+        }
+
+        @Test
+        public void testMissingEntity() throws IOException {
+            // Invoke
+            T updated = repository.update(entity(42,"Toast"));
+            boolean deleted = repository.delete(42);
+
+            // Analyze
+            assertNull(updated);
+            assertFalse(deleted);
+            assertNull(repository.get(42));
+            assertEquals(2,repository.getAll().length);
+        }
+
+        @Test
+        public void testSnapshotIsIsolated() throws IOException {
+            // Setup
+            Snapshot<T> snapshot = repository.snapshot();
+
+            // Invoke
+            repository.create(id -> entity(id,"Salad"));
+            repository.delete(3);
+
+            // Analyze
+            List<T> seen = new ArrayList<>();
+            snapshot.forEach(seen::add);
+            assertEquals(Arrays.asList(entity(3,"Soup"),entity(8,"Stew")),seen);
+        }
+
+        @Test
+        public void testChangesArePublishedInOrder() throws IOException {
+            // Setup
+            List<ChangeEvent<T>> events = new ArrayList<>();
+            repository.addChangeListener(events::add);
+
+            // Invoke
+            repository.create(id -> entity(id,"Salad"));
+            repository.update(entity(3,"Broth"));
+            repository.delete(8);
+            repository.delete(8);   // nothing to delete, nothing published
+
+            // Analyze
+            assertEquals(3,events.size());
+            assertEquals(ChangeEvent.Type.CREATED,events.get(0).getType());
+            assertEquals(9,events.get(0).getId());
+            assertEquals(ChangeEvent.Type.UPDATED,events.get(1).getType());
+            assertEquals(entity(3,"Broth"),events.get(1).getEntity());
+            assertEquals(ChangeEvent.Type.DELETED,events.get(2).getType());
+            assertNull(events.get(2).getEntity());
+            for (int i = 0; i < events.size(); ++i)
+                assertEquals(i + 1,events.get(i).getSequence());
+        }
+
+        @Test
+        public void testListenersRunAfterTheWriteLock() throws Exception {
+            // Setup: a listener that holds up the first change it is given
+            CountDownLatch entered = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            List<Long> sequences = new CopyOnWriteArrayList<>();
+            repository.addChangeListener(event -> {
+                if (event.getSequence() == 1) {
+                    entered.countDown();
+                    try {
+                        release.await();
+                    }
+                    catch(InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                sequences.add(event.getSequence());
+            });
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+
+            // Invoke: write again while the first writer is still delivering
+            try {
+                Future<T> first = executor.submit(() -> repository.create(id -> entity(id,"Salad")));
+                assertTrue(entered.await(5,TimeUnit.SECONDS));
+                T second = repository.create(id -> entity(id,"Pie"));
+                boolean waited = sequences.isEmpty();
+                release.countDown();
+                first.get(5,TimeUnit.SECONDS);
+
+                // Analyze: the second write was not held up by the listener, and its
+                // change was delivered by the first writer, in order
+                assertEquals(entity(10,"Pie"),second);
+                assertTrue(waited);
+                assertEquals(Arrays.asList(1L,2L),sequences);
+            }
+            finally {
+                executor.shutdown();
+            }
+        }
+
+        @Test
+        public void testReloadSkipsOwnWrites() throws IOException {
+            // Setup
+            repository.enableHotReload();
+            List<ChangeEvent<T>> events = new ArrayList<>();
+            repository.addChangeListener(events::add);
+
+            // Invoke
+            repository.update(entity(3,"Broth"));
+            boolean ownWrite = repository.reload();
+            objectMapper.writeValue(file.toFile(),Arrays.asList(entity(3,"Broth"),entity(12,"Salad")));
+            boolean edit = repository.reload();
+
+            // Analyze: only what changed is applied, and ids carry on after it
+            assertFalse(ownWrite);
+            assertTrue(edit);
+            assertEquals(3,events.size());
+            assertEquals(ChangeEvent.Type.CREATED,events.get(1).getType());
+            assertEquals(12,events.get(1).getId());
+            assertEquals(ChangeEvent.Type.DELETED,events.get(2).getType());
+            assertEquals(8,events.get(2).getId());
+            assertEquals(entity(13,"Pie"),repository.create(id -> entity(id,"Pie")));
+            assertFalse(repository.reload());
+        }
+
+        @Test
+        public void testConcurrentCreatesGetUniqueIds() throws Exception {
+            // Setup
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            Set<Integer> ids = ConcurrentHashMap.newKeySet();
+            List<Future<?>> writers = new ArrayList<>();
+
+            // Invoke
+            try {
+                for (int writer = 0; writer < 4; ++writer) {
+                    int w = writer;
+                    writers.add(executor.submit(() -> {
+                        for (int i = 0; i < 25; ++i) {
+                            String name = "Dish " + w + "-" + i;
+                            ids.add(id(repository.create(id -> entity(id,name))));
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> writer : writers)
+                    writer.get();
+            }
+            finally {
+                executor.shutdown();
+            }
+
+            // Analyze: every create got its own id and reached the file
+            assertEquals(100,ids.size());
+            assertEquals(102,repository.getAll().length);
+            assertEquals(102,open(file.toString()).getAll().length);
+        }
+
+    }
+}
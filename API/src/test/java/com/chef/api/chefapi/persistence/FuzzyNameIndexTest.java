@@ -0,0 +1,154 @@
+package com.chef.api.chefapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import com.chef.api.chefapi.model.Recipe;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Fuzzy Name Index class
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Persistence-tier")
+public class FuzzyNameIndexTest {
+    private static final Logger LOG = Logger.getLogger(FuzzyNameIndexTest.class.getName());
+
+    @Test
+    public void testFind() throws IOException {
+        // Setup
+        RecipeDAO mockRecipeDAO = mock(RecipeDAO.class);
+        Recipe soup = new Recipe(1,"Tomato Soup",new ArrayList<>());
+        Recipe salad = new Recipe(2,"Tomato Salad",new ArrayList<>());
+        Recipe stew = new Recipe(3,"Potato Stew",new ArrayList<>());
+        when(mockRecipeDAO.getRecipes()).thenReturn(new Recipe[] {soup,salad,stew});
+        FuzzyNameIndex index = new FuzzyNameIndex(mockRecipeDAO);
+
+        // Invoke & Analyze
+        assertArrayEquals(new Recipe[] {soup},index.find("tomatoe sup",-1));
+        assertArrayEquals(new Recipe[] {soup,salad,stew},index.find("tomato",-1));
+        assertArrayEquals(new Recipe[] {soup,salad},index.find("tomato",0));
+        assertArrayEquals(new Recipe[0],index.find("tomatoe sup",0));
+        assertArrayEquals(new Recipe[0],index.find("",-1));
+    }
+
+    @Test
+    public void testMaintainedIncrementally() throws IOException {
+        // Setup
+        RecipeDAO mockRecipeDAO = mock(RecipeDAO.class);
+        when(mockRecipeDAO.getRecipes()).thenReturn(new Recipe[] {new Recipe(1,"Tomato Soup",new ArrayList<>())});
+        FuzzyNameIndex index = new FuzzyNameIndex(mockRecipeDAO);
+        index.find("soup",-1);
+        Recipe renamed = new Recipe(1,"Onion Soup",new ArrayList<>());
+
+        // Invoke: rename and delete often enough that the tree is rebuilt
+        index.onChange(new ChangeEvent<>(1,ChangeEvent.Type.UPDATED,1,renamed));
+        for (int i = 0; i < 200; ++i) {
+            index.onChange(new ChangeEvent<>(2,ChangeEvent.Type.CREATED,100 + i,new Recipe(100 + i,"word" + i,null)));
+            index.onChange(new ChangeEvent<>(3,ChangeEvent.Type.DELETED,100 + i,null));
+        }
+
+        // Analyze
+        assertArrayEquals(new Recipe[0],index.find("tomato",-1));
+        assertArrayEquals(new Recipe[] {renamed},index.find("onon",-1));
+        assertArrayEquals(new Recipe[0],index.find("word1",0));
+    }
+
+    @Test
+    @Tag("Benchmark")
+    public void testMatchesScanAt100kNames() throws IOException {
+        // Setup: 100,000 recipe names drawn from a vocabulary of 20,000 made up words
+        Random random = new Random(9);
+        String[] vocabulary = new String[20000];
+        for (int i = 0; i < vocabulary.length; ++i)
+            vocabulary[i] = word(random,4 + random.nextInt(6));
+        Recipe[] catalog = new Recipe[100000];
+        for (int i = 0; i < catalog.length; ++i) {
+            StringBuilder name = new StringBuilder(vocabulary[random.nextInt(vocabulary.length)]);
+            for (int w = random.nextInt(3); w >= 0; --w)
+                name.append(' ').append(vocabulary[random.nextInt(vocabulary.length)]);
+            catalog[i] = new Recipe(i,name.toString(),null);
+        }
+        RecipeDAO mockRecipeDAO = mock(RecipeDAO.class);
+        when(mockRecipeDAO.getRecipes()).thenReturn(catalog);
+        FuzzyNameIndex index = new FuzzyNameIndex(mockRecipeDAO);
+        index.find("warm up",-1);
+
+        // Invoke: misspell a word or two of existing names and compare with a scan
+        long indexed = 0;
+        long scanned = 0;
+        int matches = 0;
+        for (int q = 0; q < 40; ++q) {
+            List<String> words = RecipeQuery.words(catalog[random.nextInt(catalog.length)].getName());
+            String query = typo(random,words.get(0)) + (words.size() > 1 ? " " + typo(random,words.get(1)) : "");
+
+            long start = System.nanoTime();
+            Recipe[] found = index.find(query,-1);
+            indexed += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            Recipe[] expected = scan(catalog,query);
+            scanned += System.nanoTime() - start;
+
+            // Analyze
+            assertArrayEquals(expected,found,query);
+            matches += found.length;
+        }
+        LOG.info(String.format("Fuzzy search over %d names: %.2f ms per query with the BK-tree, %.2f ms scanning",
+            catalog.length,indexed / 40 / 1e6,scanned / 40 / 1e6));
+        assertTrue(matches >= 40);
+    }
+
+    private static Recipe[] scan(Recipe[] catalog, String query) {
+        List<String> queryWords = new ArrayList<>(new LinkedHashSet<>(RecipeQuery.words(query)));
+        List<int[]> scored = new ArrayList<>();  // {index, total distance}
+        for (int i = 0; i < catalog.length; ++i) {
+            List<String> nameWords = RecipeQuery.words(catalog[i].getName());
+            int total = 0;
+            for (String word : queryWords) {
+                int best = Integer.MAX_VALUE;
+                for (String nameWord : nameWords)
+                    best = Math.min(best,FuzzyNameIndex.distance(word,nameWord));
+                if (best > FuzzyNameIndex.automaticDistance(word)) {
+                    total = -1;
+                    break;
+                }
+                total += best;
+            }
+            if (total >= 0)
+                scored.add(new int[] {i,total});
+        }
+        scored.sort((a,b) -> a[1] != b[1] ? Integer.compare(a[1],b[1]) : Integer.compare(a[0],b[0]));
+        return scored.stream().map(entry -> catalog[entry[0]]).toArray(Recipe[]::new);
+    }
+
+    private static String word(Random random, int length) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < length; ++i)
+            word.append((char) ('a' + random.nextInt(26)));
+        return word.toString();
+    }
+
+    private static String typo(Random random, String word) {
+        StringBuilder typo = new StringBuilder(word);
+        int at = random.nextInt(word.length());
+        switch (random.nextInt(3)) {
+            case 0: typo.setCharAt(at,(char) ('a' + random.nextInt(26))); break;
+            case 1: typo.deleteCharAt(at); break;
+            default: typo.insert(at,(char) ('a' + random.nextInt(26))); break;
+        }
+        return typo.toString();
+    }
+}
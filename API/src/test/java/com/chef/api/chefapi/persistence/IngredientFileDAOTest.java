@@ -0,0 +1,169 @@
+package com.chef.api.chefapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test the Ingredient File DAO class
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Persistence-tier")
+public class IngredientFileDAOTest {
+    IngredientFileDAO ingredientFileDAO;
+    Ingredient[] testIngredients;
+    ObjectMapper mockObjectMapper;
+    @TempDir
+    Path directory;
+
+    /**
+     * Before each test, we will create and inject a Mock Object Mapper to
+     * isolate the tests from the underlying file
+     * @throws IOException
+     */
+    @BeforeEach
+    public void setupIngredientFileDAO() throws IOException {
+        mockObjectMapper = mock(ObjectMapper.class);
+        testIngredients = new Ingredient[5];
+        testIngredients[0] = new Ingredient(1,"Tomato",2,"cups");
+        testIngredients[1] = new Ingredient(2,"tomato ",1,"cup");
+        testIngredients[2] = new Ingredient(3,"Tomato  Paste",1,"tbsp");
+        testIngredients[3] = new Ingredient(4,"Crème Fraîche",1,"cup");
+        testIngredients[4] = new Ingredient(5,"basil",3,"leaves");
+
+        // When the object mapper is supposed to read from the file
+        // the mock object mapper will return the ingredient array above
+        // The file is written to a temporary directory, as whatever the mock
+        // object mapper converts the ingredients to
+        String filename = directory.resolve("ingredients.json").toString();
+        when(mockObjectMapper
+            .readValue(new File(filename),Ingredient[].class))
+                .thenReturn(testIngredients);
+        when(mockObjectMapper.writeValueAsBytes(any())).thenReturn(new byte[0]);
+        ingredientFileDAO = new IngredientFileDAO(filename,mockObjectMapper);
+    }
+
+    @Test
+    public void testFindIngredientsByName() {
+        // Invoke
+        Ingredient[] tomatoes = ingredientFileDAO.findIngredientsByName(" TOMATO");
+        Ingredient[] creme = ingredientFileDAO.findIngredientsByName("creme fraiche");
+
+        // Analyze
+        assertArrayEquals(new Ingredient[] {testIngredients[0],testIngredients[1]},tomatoes);
+        assertArrayEquals(new Ingredient[] {testIngredients[3]},creme);
+        assertEquals(0,ingredientFileDAO.findIngredientsByName("tomatoes").length);
+    }
+
+    @Test
+    public void testFindIngredientsByPrefix() {
+        // Invoke
+        Ingredient[] ingredients = ingredientFileDAO.findIngredientsByPrefix("Tom",10);
+        Ingredient[] limited = ingredientFileDAO.findIngredientsByPrefix("tom",2);
+
+        // Analyze
+        assertArrayEquals(new Ingredient[] {testIngredients[0],testIngredients[1],testIngredients[2]},ingredients);
+        assertArrayEquals(new Ingredient[] {testIngredients[0],testIngredients[1]},limited);
+        assertEquals(0,ingredientFileDAO.findIngredientsByPrefix("z",10).length);
+    }
+
+    @Test
+    public void testFindIngredients() {
+        // Invoke
+        Ingredient[] ingredients = ingredientFileDAO.findIngredients("PASTE");
+
+        // Analyze
+        assertArrayEquals(new Ingredient[] {testIngredients[2]},ingredients);
+        assertEquals(testIngredients.length,ingredientFileDAO.findIngredients("").length);
+    }
+
+    @Test
+    public void testResolveIngredients() {
+        // Invoke
+        Map<String,Integer> ids = ingredientFileDAO.resolveIngredients(Arrays.asList("Basil","tomato paste","thyme"));
+
+        // Analyze
+        Map<String,Integer> expected = new LinkedHashMap<>();
+        expected.put("Basil",5);
+        expected.put("tomato paste",3);
+        expected.put("thyme",null);
+        assertEquals(expected,ids);
+    }
+
+    @Test
+    public void testDictionaryFollowsChanges() throws IOException {
+        // Invoke
+        Ingredient created = ingredientFileDAO.createIngredient(new Ingredient(0,"Thyme",1,"tsp"));
+        ingredientFileDAO.updateIngredient(new Ingredient(5,"Sweet Basil",3,"leaves"));
+        ingredientFileDAO.deleteIngredient(1);
+
+        // Analyze
+        assertEquals(created.getId(),ingredientFileDAO.resolveIngredients(Arrays.asList("thyme")).get("thyme"));
+        assertEquals(0,ingredientFileDAO.findIngredientsByName("basil").length);
+        assertArrayEquals(new Ingredient[] {testIngredients[1]},ingredientFileDAO.findIngredientsByName("tomato"));
+    }
+
+    @Test
+    public void testCreateIngredientDuplicate() throws IOException {
+        // Invoke: the same name, amount and unit, or the same name spelt another way
+        Ingredient duplicate = ingredientFileDAO.createIngredient(new Ingredient(0,"tomato ",1,"cup"));
+        Ingredient other = ingredientFileDAO.createIngredient(new Ingredient(0,"Tomato",1,"cup"));
+
+        // Analyze
+        assertEquals(null,duplicate);
+        assertEquals(new Ingredient(6,"Tomato",1,"cup"),other);
+        assertEquals(6,ingredientFileDAO.getIngredients().length);
+    }
+
+    @Test
+    public void testDictionaryUpdateMatchesRebuild() {
+        // Setup: names that fold together, apart, or to nothing
+        String[] names = {"Basil","basil ","BASÍL","Thyme","thyme","Tomato","Tomato Paste","  ","Salt"};
+        Random random = new Random(7);
+        Map<Integer,Ingredient> current = new TreeMap<>();
+        IngredientDictionary dictionary = new IngredientDictionary(current);
+
+        for (int step = 0; step < 500; ++step) {
+            // Invoke: create, rename or delete one ingredient
+            int id = random.nextInt(12);
+            Map<Integer,Ingredient> updated = new TreeMap<>(current);
+            if (random.nextInt(4) == 0)
+                updated.remove(id);
+            else
+                updated.put(id,new Ingredient(id,names[random.nextInt(names.length)],1,"cups"));
+            dictionary = dictionary.update(current,updated,Set.of(id));
+            current = updated;
+
+            // Analyze
+            IngredientDictionary rebuilt = new IngredientDictionary(current);
+            for (String name : names) {
+                assertArrayEquals(rebuilt.lookup(name),dictionary.lookup(name));
+                assertEquals(rebuilt.resolve(name),dictionary.resolve(name));
+                assertArrayEquals(rebuilt.containing(name),dictionary.containing(name));
+            }
+            assertArrayEquals(rebuilt.prefix("",100),dictionary.prefix("",100));
+            assertArrayEquals(rebuilt.prefix("t",100),dictionary.prefix("t",100));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.chef.api.chefapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Name Suggester class
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Persistence-tier")
+public class NameSuggesterTest {
+
+    @Test
+    public void testSuggest() {
+        // Setup
+        NameSuggester suggester = new NameSuggester(3);
+        suggester.adjust("Tomato Soup",5);
+        suggester.adjust("Tomato Salad",2);
+        suggester.adjust("Tofu Stir Fry",4);
+        suggester.adjust("Toast",1);
+        suggester.adjust("Pancakes",9);
+
+        // Invoke & Analyze
+        assertArrayEquals(new String[] {"Tomato Soup","Tofu Stir Fry","Tomato Salad"},suggester.suggest("to",10));
+        assertArrayEquals(new String[] {"Tomato Soup","Tomato Salad"},suggester.suggest(" TOMATO",10));
+        assertArrayEquals(new String[] {"Tomato Soup"},suggester.suggest("tomato s",1));
+        assertArrayEquals(new String[] {"Pancakes","Tomato Soup","Tofu Stir Fry"},suggester.suggest("",10));
+        assertArrayEquals(new String[0],suggester.suggest("tomatoes",10));
+    }
+
+    @Test
+    public void testAdjust() {
+        // Setup
+        NameSuggester suggester = new NameSuggester(2);
+        suggester.adjust("Tomato Soup",5);
+        suggester.adjust("Tomato Salad",2);
+        suggester.adjust("Tomato",1);
+
+        // Invoke: the popular soup goes away, the plain tomato becomes the favourite
+        suggester.adjust("tomato soup",-5);
+        suggester.adjust("Tomato",6);
+
+        // Analyze
+        assertEquals(0,suggester.weight("Tomato Soup"));
+        assertEquals(7,suggester.weight("tomato"));
+        assertArrayEquals(new String[] {"Tomato","Tomato Salad"},suggester.suggest("tom",10));
+        assertArrayEquals(new String[] {"Tomato Salad"},suggester.suggest("tomato s",10));
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        // Setup
+        Random random = new Random(5);
+        NameSuggester suggester = new NameSuggester(5);
+        Map<String,Long> weights = new HashMap<>();
+        String letters = "abc";
+
+        for (int step = 0; step < 5000; ++step) {
+            // Invoke: random adjustments of short names over a small alphabet, so that
+            // edges are split and merged often
+            StringBuilder name = new StringBuilder();
+            int length = 1 + random.nextInt(5);
+            for (int i = 0; i < length; ++i)
+                name.append(letters.charAt(random.nextInt(letters.length())));
+            long delta = random.nextInt(7) - 3;
+            long current = weights.getOrDefault(name.toString(),0L);
+            if (current == 0 && delta < 0)
+                delta = -delta;
+            suggester.adjust(name.toString(),delta);
+            if (current + delta <= 0)
+                weights.remove(name.toString());
+            else
+                weights.put(name.toString(),current + delta);
+
+            // Analyze: every prefix of the name suggests the same as a scan would
+            for (int end = 0; end <= length; end += 2) {
+                String prefix = name.substring(0,end);
+                String[] expected = weights.entrySet().stream()
+                    .filter(entry -> entry.getKey().startsWith(prefix))
+                    .sorted((a,b) -> !a.getValue().equals(b.getValue())
+                        ? Long.compare(b.getValue(),a.getValue()) : a.getKey().compareTo(b.getKey()))
+                    .limit(5).map(Map.Entry::getKey).toArray(String[]::new);
+                assertArrayEquals(expected,suggester.suggest(prefix,5),"prefix '" + prefix + "' at step " + step);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.chef.api.chefapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.chef.api.chefapi.model.Recipe;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Recipe Async DAO Adapter class
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Persistence-tier")
+public class RecipeAsyncDAOAdapterTest {
+    RecipeAsyncDAOAdapter recipeAsyncDAO;
+    RecipeDAO mockRecipeDAO;
+    ExecutorService executor;
+
+    /**
+     * Before each test, wrap a mock Recipe DAO in an adapter running on its
+     * own single thread executor
+     */
+    @BeforeEach
+    public void setupRecipeAsyncDAO() {
+        mockRecipeDAO = mock(RecipeDAO.class);
+        executor = Executors.newSingleThreadExecutor();
+        recipeAsyncDAO = new RecipeAsyncDAOAdapter(mockRecipeDAO,executor);
+    }
+
+    @AfterEach
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testCreateRecipe() throws IOException {
+        // Setup
+        Recipe recipe = new Recipe(99,"Wi-Fire",new ArrayList<>());
+        when(mockRecipeDAO.createRecipe(recipe)).thenReturn(recipe);
+
+        // Invoke
+        Recipe result = recipeAsyncDAO.createRecipe(recipe).join();
+
+        // Analyze
+        assertEquals(recipe,result);
+    }
+
+    @Test
+    public void testRunsOnExecutor() throws IOException {
+        // Setup
+        Thread caller = Thread.currentThread();
+        Thread[] worker = new Thread[1];
+        when(mockRecipeDAO.deleteRecipe(99)).thenAnswer(invocation -> {
+            worker[0] = Thread.currentThread();
+            return true;
+        });
+
+        // Invoke
+        boolean result = recipeAsyncDAO.deleteRecipe(99).join();
+
+        // Analyze
+        assertTrue(result);
+        assertTrue(worker[0] != caller);
+    }
+
+    @Test
+    public void testSaveException() throws IOException {
+        // Setup
+        Recipe recipe = new Recipe(99,"Wi-Fire",new ArrayList<>());
+        doThrow(new IOException()).when(mockRecipeDAO).updateRecipe(recipe);
+
+        // Invoke & Analyze
+        CompletionException e = assertThrows(CompletionException.class,
+                        () -> recipeAsyncDAO.updateRecipe(recipe).join(),
+                        "CompletionException not thrown");
+        assertTrue(e.getCause() instanceof IOException);
+    }
+}
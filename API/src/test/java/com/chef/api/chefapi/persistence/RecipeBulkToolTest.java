@@ -0,0 +1,175 @@
+package com.chef.api.chefapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.Recipe;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test the Recipe Bulk Tool class
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Persistence-tier")
+public class RecipeBulkToolTest {
+    private static final Logger LOG = Logger.getLogger(RecipeBulkToolTest.class.getName());
+
+    @TempDir
+    Path directory;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Path recipesFile;
+    private Path ingredientsFile;
+
+    @BeforeEach
+    public void setupFiles() throws IOException {
+        recipesFile = directory.resolve("recipes.json");
+        ingredientsFile = directory.resolve("ingredients.json");
+        objectMapper.writeValue(recipesFile.toFile(),new Recipe[] {
+            new Recipe(5,"Toast",Arrays.asList(new Ingredient(2,"Bread",2,"slices")))});
+        objectMapper.writeValue(ingredientsFile.toFile(),new Ingredient[] {
+            new Ingredient(1,"Tomato",0,"cups"),new Ingredient(2,"Bread",0,"slices"),
+            new Ingredient(3,"Crème Fraîche",0,"tbsp")});
+    }
+
+    @Test
+    public void testImportFormats() throws IOException {
+        // Setup
+        Path json = write("a.json","[{\"id\":40,\"name\":\" Tomato Soup \",\"ingredients\":["
+            + "{\"name\":\"tomato\",\"quantity\":1,\"unit\":\"cups\"},{\"name\":\"TOMATO\",\"quantity\":2,\"unit\":\"Cups\"},"
+            + "{\"name\":\"creme  fraiche\",\"quantity\":1,\"unit\":\"tbsp\"}],\"source\":\"ignored\"}]");
+        Path ndjson = write("b.ndjson","{\"name\":\"Dry Toast\",\"ingredients\":[{\"name\":\"bread\",\"quantity\":1,\"unit\":\"slices\"}]}\n"
+            + "{\"name\":\"Caviar\",\"ingredients\":[{\"name\":\"caviar\",\"quantity\":1,\"unit\":\"g\"}]}\n"
+            + "{\"name\":\"\",\"ingredients\":[]}\n");
+        Path csv = write("c.csv","recipe,name,ingredient,quantity,unit\n"
+            + "x,Bruschetta,Bread,2,slices\nx,Bruschetta,Tomato,1,cups\ny,Bad,Tomato,lots,cups\n");
+
+        // Invoke
+        RecipeBulkTool.Report report = new RecipeBulkTool(2).importRecipes(Arrays.asList(json,ndjson,csv),null,
+            recipesFile,ingredientsFile,true,false);
+
+        // Analyze: the kept recipe first, then the imported ones numbered after it
+        Recipe[] recipes = objectMapper.readValue(recipesFile.toFile(),Recipe[].class);
+        assertEquals(3,report.getImported());
+        assertEquals(3,report.getRejected());
+        assertEquals(4,recipes.length);
+        assertEquals("Toast",recipes[0].getName());
+        Recipe soup = find(recipes,"Tomato Soup");
+        assertEquals(Arrays.asList(new Ingredient(1,"Tomato",3,"cups"),new Ingredient(3,"Crème Fraîche",1,"tbsp")),
+            soup.getIngredients());
+        assertEquals(Arrays.asList(new Ingredient(2,"Bread",2,"slices"),new Ingredient(1,"Tomato",1,"cups")),
+            find(recipes,"Bruschetta").getIngredients());
+        int[] ids = Arrays.stream(recipes).mapToInt(Recipe::getId).sorted().toArray();
+        assertArrayEquals(new int[] {5,6,7,8},ids);
+        assertTrue(report.getReasons().contains("Recipe 'Caviar' uses unknown ingredient caviar"));
+        assertTrue(report.getReasons().contains("Recipe 'Bad' has an invalid quantity of Tomato"));
+        assertTrue(report.getReasons().contains("A recipe has no name"));
+    }
+
+    @Test
+    public void testImportAddsIngredients() throws IOException {
+        // Setup
+        Path ndjson = write("in.ndjson","{\"name\":\"Caviar Toast\",\"ingredients\":["
+            + "{\"name\":\"Caviar\",\"quantity\":1,\"unit\":\"g\"},{\"name\":\"bread\",\"quantity\":1,\"unit\":\"slices\"}]}\n");
+
+        // Invoke
+        RecipeBulkTool.Report report = new RecipeBulkTool(1).importRecipes(Arrays.asList(ndjson),null,
+            recipesFile,ingredientsFile,false,true);
+
+        // Analyze: the existing recipes were replaced
+        Recipe[] recipes = objectMapper.readValue(recipesFile.toFile(),Recipe[].class);
+        Ingredient[] catalog = objectMapper.readValue(ingredientsFile.toFile(),Ingredient[].class);
+        assertEquals(1,report.getIngredientsAdded());
+        assertEquals(1,recipes.length);
+        assertEquals(1,recipes[0].getId());
+        assertEquals(new Ingredient(4,"Caviar",0,""),catalog[3]);
+        assertEquals(new Ingredient(4,"Caviar",1,"g"),recipes[0].getIngredients().get(0));
+    }
+
+    @Test
+    public void testMalformedInputLeavesFiles() throws IOException {
+        // Setup
+        byte[] before = Files.readAllBytes(recipesFile);
+        Path broken = write("broken.json","[{\"name\":\"Soup\",\"ingredients\":[");
+
+        // Invoke & Analyze
+        assertThrows(IOException.class,() -> new RecipeBulkTool(2).importRecipes(Arrays.asList(broken),null,
+            recipesFile,ingredientsFile,true,false));
+        assertArrayEquals(before,Files.readAllBytes(recipesFile));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(3,files.count());  // no temporary file is left behind
+        }
+    }
+
+    @Test
+    public void testExportRoundTrip() throws IOException {
+        RecipeBulkTool tool = new RecipeBulkTool(2);
+        Recipe[] original = objectMapper.readValue(recipesFile.toFile(),Recipe[].class);
+        for (RecipeBulkTool.Format format : RecipeBulkTool.Format.values()) {
+            // Invoke
+            Path exported = directory.resolve("export." + format.name().toLowerCase());
+            assertEquals(1,tool.exportRecipes(recipesFile,exported,null));
+            Path reimported = directory.resolve("reimported.json");
+            tool.importRecipes(Arrays.asList(exported),format,reimported,ingredientsFile,false,false);
+
+            // Analyze: the same recipe, numbered from 1
+            Recipe[] recipes = objectMapper.readValue(reimported.toFile(),Recipe[].class);
+            assertEquals(1,recipes.length,format.name());
+            assertEquals(original[0].getName(),recipes[0].getName());
+            assertEquals(original[0].getIngredients(),recipes[0].getIngredients(),format.name());
+        }
+    }
+
+    @Test
+    @Tag("Benchmark")
+    public void testImportLargeDataset() throws IOException {
+        // Setup: 200,000 recipes over two files
+        String[] names = {"tomato","bread","creme fraiche","Tomato"};
+        Path[] inputs = {directory.resolve("one.ndjson"),directory.resolve("two.ndjson")};
+        for (Path input : inputs) {
+            try (Writer writer = Files.newBufferedWriter(input,StandardCharsets.UTF_8)) {
+                for (int i = 0; i < 100000; ++i)
+                    writer.write("{\"name\":\"Recipe " + i + "\",\"ingredients\":[{\"name\":\"" + names[i % 4]
+                        + "\",\"quantity\":1,\"unit\":\"g\"},{\"name\":\"" + names[(i + 1) % 4]
+                        + "\",\"quantity\":2,\"unit\":\"g\"}]}\n");
+            }
+        }
+
+        // Invoke
+        RecipeBulkTool.Report report = new RecipeBulkTool(4).importRecipes(Arrays.asList(inputs),null,
+            recipesFile,ingredientsFile,false,false);
+        LOG.info(report.toString());
+
+        // Analyze
+        assertEquals(200000,report.getImported());
+        assertEquals(0,report.getRejected());
+        assertEquals(200000,new RecipeBulkTool(1).exportRecipes(recipesFile,directory.resolve("out.csv"),null));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.write(directory.resolve(name),content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Recipe find(Recipe[] recipes, String name) {
+        List<Recipe> found = Arrays.asList(recipes);
+        return found.stream().filter(recipe -> recipe.getName().equals(name)).findFirst().orElseThrow();
+    }
+}
@@ -2,9 +2,11 @@ package com.chef.api.chefapi.persistence;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -12,16 +14,20 @@ import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
 import com.chef.api.chefapi.model.Ingredient;
 import com.chef.api.chefapi.model.Recipe;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * Test the Recipe File DAO class
@@ -33,6 +39,8 @@ public class RecipeFileDAOTest {
     RecipeFileDAO recipeFileDAO;
     Recipe[] testRecipes;
     ObjectMapper mockObjectMapper;
+    @TempDir
+    Path directory;
 
     /**
      * Before each test, we will create and inject a Mock Object Mapper to
@@ -50,10 +58,14 @@ public class RecipeFileDAOTest {
 
         // When the object mapper is supposed to read from the file
         // the mock object mapper will return the recipe array above
+        // The file is written to a temporary directory, as whatever the mock
+        // object mapper converts the recipes to
+        String filename = directory.resolve("recipes.json").toString();
         when(mockObjectMapper
-            .readValue(new File("doesnt_matter.txt"),Recipe[].class))
+            .readValue(new File(filename),Recipe[].class))
                 .thenReturn(testRecipes);
-        recipeFileDAO = new RecipeFileDAO("doesnt_matter.txt",mockObjectMapper);
+        when(mockObjectMapper.writeValueAsBytes(any())).thenReturn(new byte[0]);
+        recipeFileDAO = new RecipeFileDAO(filename,mockObjectMapper);
     }
 
     @Test
@@ -99,7 +111,7 @@ public class RecipeFileDAOTest {
         // of the test recipes array - 1 (because of the delete)
         // Because recipes attribute of RecipeFileDAO is package private
         // we can access it directly
-        assertEquals(recipeFileDAO.recipes.size(),testRecipes.length-1);
+        assertEquals(recipeFileDAO.getRecipes().length,testRecipes.length-1);
     }
 
     @Test
@@ -135,20 +147,126 @@ public class RecipeFileDAOTest {
         assertEquals(actual,recipe);
     }
 
+    @Test
+    public void testChangeListener() {
+        // Setup
+        List<ChangeEvent<Recipe>> events = new ArrayList<>();
+        recipeFileDAO.addChangeListener(events::add);
+        List<Ingredient> ings = new ArrayList<Ingredient>();
+        Recipe recipe = new Recipe(99,"Galactic Agent",ings);
+
+        // Invoke
+        assertDoesNotThrow(() -> recipeFileDAO.updateRecipe(recipe),"Unexpected exception thrown");
+        assertDoesNotThrow(() -> recipeFileDAO.deleteRecipe(100),"Unexpected exception thrown");
+        assertDoesNotThrow(() -> recipeFileDAO.deleteRecipe(98),"Unexpected exception thrown");
+
+        // Analyze
+        assertEquals(2,events.size());
+        assertEquals(1,events.get(0).getSequence());
+        assertEquals(ChangeEvent.Type.UPDATED,events.get(0).getType());
+        assertEquals(recipe,events.get(0).getEntity());
+        assertEquals(2,events.get(1).getSequence());
+        assertEquals(ChangeEvent.Type.DELETED,events.get(1).getType());
+        assertEquals(100,events.get(1).getId());
+    }
+
+    @Test
+    public void testReload(@TempDir Path dir) throws IOException {
+        // Setup - a DAO over a real file with a real object mapper
+        Path file = dir.resolve("recipes.json");
+        Files.write(file,("[{\"id\":1,\"name\":\"Soup\",\"ingredients\":[]},"
+            + "{\"id\":2,\"name\":\"Stew\",\"ingredients\":[]}]").getBytes());
+        RecipeFileDAO dao = new RecipeFileDAO(file.toString(),new ObjectMapper());
+        dao.enableHotReload();
+        List<ChangeEvent<Recipe>> events = new ArrayList<>();
+        dao.addChangeListener(events::add);
+        Recipe soup = dao.getRecipe(1);
+
+        // Invoke - our own write is skipped, an out of band edit is applied
+        dao.updateRecipe(new Recipe(2,"Beef Stew",new ArrayList<>()));
+        boolean ownWrite = dao.reload();
+        Files.write(file,("[{\"id\":1,\"name\":\"Soup\",\"ingredients\":[]},"
+            + "{\"id\":7,\"name\":\"Salad\",\"ingredients\":[]}]").getBytes());
+        boolean edit = dao.reload();
+
+        // Analyze
+        assertFalse(ownWrite);
+        assertTrue(edit);
+        assertEquals(3,events.size());  // the update, then one create and one delete
+        assertEquals(ChangeEvent.Type.CREATED,events.get(1).getType());
+        assertEquals(7,events.get(1).getId());
+        assertEquals(ChangeEvent.Type.DELETED,events.get(2).getType());
+        assertEquals(2,events.get(2).getId());
+        assertTrue(soup == dao.getRecipe(1));  // unchanged recipes are kept as they were
+        assertNull(dao.getRecipe(2));
+        assertFalse(dao.reload());
+    }
+
     @Test
     public void testSaveException() throws IOException{
-        doThrow(new IOException())
+        doThrow(new JsonMappingException(null,"Could not convert"))
             .when(mockObjectMapper)
-                .writeValue(any(File.class),any(Recipe[].class));
+                .writeValueAsBytes(any(Recipe[].class));
 
         List<Ingredient> ings = new ArrayList<Ingredient>();
-        Recipe recipe = new Recipe(102,"Wi-Fire",ings);
+        Recipe recipe = new Recipe(102,"Bolt",ings);
 
         assertThrows(IOException.class,
                         () -> recipeFileDAO.createRecipe(recipe),
                         "IOException not thrown");
     }
 
+    @Test
+    public void testCreateRecipeDuplicate() throws IOException {
+        // Setup: same recipe as testRecipes[1], differently written
+        List<Ingredient> ings = new ArrayList<Ingredient>();
+        Recipe recipe = new Recipe(0,"  galactic   AGENT ",ings);
+
+        // Invoke
+        Recipe result = recipeFileDAO.createRecipe(recipe);
+        Recipe existing = recipeFileDAO.findDuplicate(recipe);
+
+        // Analyze
+        assertNull(result);
+        assertEquals(testRecipes[1].getId(),existing.getId());
+        assertEquals(testRecipes.length,recipeFileDAO.getRecipes().length);
+    }
+
+    @Test
+    public void testDuplicateIgnoresIngredientOrder() throws IOException {
+        // Setup
+        List<Ingredient> ings = new ArrayList<Ingredient>();
+        ings.add(new Ingredient(1,"Tomato",2.0,"cups"));
+        ings.add(new Ingredient(2,"Basil",1,"Leaf"));
+        Recipe created = recipeFileDAO.createRecipe(new Recipe(0,"Soup",ings));
+        List<Ingredient> reordered = new ArrayList<Ingredient>();
+        reordered.add(new Ingredient(7,"basil",1.0,"leaf"));
+        reordered.add(new Ingredient(8,"tomato ",2,"Cups"));
+
+        // Invoke
+        Recipe duplicate = recipeFileDAO.findDuplicate(new Recipe(0,"soup",reordered));
+        recipeFileDAO.deleteRecipe(created.getId());
+
+        // Analyze
+        assertEquals(created.getId(),duplicate.getId());
+        assertNull(recipeFileDAO.findDuplicate(created));
+    }
+
+    @Test
+    public void testDuplicateMadeByUpdate() throws IOException {
+        // Setup: an update gives recipe 101 the content of recipe 100
+        List<Ingredient> ings = new ArrayList<Ingredient>();
+        recipeFileDAO.updateRecipe(new Recipe(101,"Galactic Agent",ings));
+
+        // Invoke: the recipe found for that content is deleted, its copy remains
+        recipeFileDAO.deleteRecipe(100);
+        Recipe created = recipeFileDAO.createRecipe(new Recipe(0,"Galactic Agent",ings));
+
+        // Analyze
+        assertNull(created);
+        assertEquals(101,recipeFileDAO.findDuplicate(new Recipe(0,"galactic agent",ings)).getId());
+    }
+
     @Test
     public void testGetRecipeNotFound() {
         // Invoke
@@ -166,7 +284,7 @@ public class RecipeFileDAOTest {
 
         // Analyze
         assertEquals(result,false);
-        assertEquals(recipeFileDAO.recipes.size(),testRecipes.length);
+        assertEquals(recipeFileDAO.getRecipes().length,testRecipes.length);
     }
 
     @Test
@@ -0,0 +1,115 @@
+package com.chef.api.chefapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import com.chef.api.chefapi.model.Recipe;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test the Recipe Partitions class
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Persistence-tier")
+public class RecipePartitionsTest {
+    private static final long IDLE = 3600000;
+
+    @TempDir
+    Path directory;
+    private RecipePartitions partitions;
+
+    @BeforeEach
+    public void setupRecipePartitions() {
+        partitions = new RecipePartitions(directory.toString(),new ObjectMapper(),2,IDLE);
+    }
+
+    @AfterEach
+    public void closeRecipePartitions() {
+        partitions.close();
+    }
+
+    @Test
+    public void testPartitionsAreSeparate() throws IOException {
+        // Invoke
+        try (RecipePartitions.Lease lease = partitions.lease(1)) {
+            lease.getRecipeDao().createRecipe(new Recipe(0,"Toast",new ArrayList<>()));
+        }
+        try (RecipePartitions.Lease lease = partitions.lease(2)) {
+            lease.getRecipeDao().createRecipe(new Recipe(0,"Soup",new ArrayList<>()));
+            lease.getRecipeDao().createRecipe(new Recipe(0,"Salad",new ArrayList<>()));
+        }
+
+        // Analyze: each user numbers their own recipes, in their own file
+        try (RecipePartitions.Lease lease = partitions.lease(1)) {
+            assertEquals(1,lease.getRecipeDao().getRecipes().length);
+            assertEquals("Toast",lease.getRecipeDao().getRecipe(1).getName());
+        }
+        try (RecipePartitions.Lease lease = partitions.lease(2)) {
+            assertEquals("Salad",lease.getRecipeDao().getRecipe(2).getName());
+        }
+        assertTrue(Files.exists(directory.resolve("1").resolve("recipes.json")));
+        assertTrue(Files.exists(directory.resolve("2").resolve("recipes.json")));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsClosed() throws IOException {
+        // Setup
+        RecipeDAO first;
+        try (RecipePartitions.Lease lease = partitions.lease(1)) {
+            first = lease.getRecipeDao();
+            first.createRecipe(new Recipe(0,"Toast",new ArrayList<>()));
+        }
+        try (RecipePartitions.Lease lease = partitions.lease(2)) {}
+        try (RecipePartitions.Lease lease = partitions.lease(1)) {
+            assertSame(first,lease.getRecipeDao());  // still open, and now the most recent
+        }
+
+        // Invoke
+        try (RecipePartitions.Lease lease = partitions.lease(3)) {}
+
+        // Analyze: user 2 was closed, user 1 is still open
+        assertEquals(2,partitions.getOpen());
+        try (RecipePartitions.Lease lease = partitions.lease(1)) {
+            assertSame(first,lease.getRecipeDao());
+        }
+    }
+
+    @Test
+    public void testLeasedPartitionStaysOpen() throws IOException {
+        // Setup
+        RecipePartitions.Lease held = partitions.lease(1);
+
+        // Invoke: user 2 is closed to make room for user 3, and user 3 once idle
+        try (RecipePartitions.Lease lease = partitions.lease(2)) {}
+        try (RecipePartitions.Lease lease = partitions.lease(3)) {}
+        assertEquals(1,partitions.closeIdle(System.currentTimeMillis() + IDLE));
+
+        // Analyze: the held partition is the only one left, and reopened partitions
+        // read what was written before they were closed
+        assertEquals(1,partitions.getOpen());
+        held.getRecipeDao().createRecipe(new Recipe(0,"Toast",new ArrayList<>()));
+        held.close();
+        assertEquals(1,partitions.closeIdle(System.currentTimeMillis() + IDLE));
+        assertEquals(0,partitions.getOpen());
+        try (RecipePartitions.Lease lease = partitions.lease(1)) {
+            assertNotSame(held.getRecipeDao(),lease.getRecipeDao());
+            assertEquals("Toast",lease.getRecipeDao().getRecipe(1).getName());
+        }
+        assertFalse(partitions.closeIdle(System.currentTimeMillis()) > 0);
+    }
+}
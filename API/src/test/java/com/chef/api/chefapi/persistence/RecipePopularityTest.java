@@ -0,0 +1,122 @@
+package com.chef.api.chefapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test the Recipe Popularity class
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Persistence-tier")
+public class RecipePopularityTest {
+    private static final Logger LOG = Logger.getLogger(RecipePopularityTest.class.getName());
+    private static final long WINDOW = 3600000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testHeavyHittersAmongMany() {
+        // Setup: recipe i is viewed 20000 / i times, over many more recipes than a
+        // sketch row has counters
+        RecipePopularity popularity = new RecipePopularity(WINDOW,12);
+        for (int id = 1; id <= 10000; ++id)
+            for (int view = 0; view < 20000 / id; ++view)
+                popularity.recordView(id);
+
+        // Invoke
+        popularity.refresh(System.currentTimeMillis());
+
+        // Analyze
+        assertArrayEquals(new int[] {1,2,3,4,5,6,7,8,9,10},popularity.top(10));
+        assertEquals(RecipePopularity.CAPACITY,popularity.top(1000).length);
+    }
+
+    @Test
+    public void testOldViewsDecay() {
+        // Setup: recipe 1 was viewed a lot some windows ago, recipe 2 a little now
+        RecipePopularity popularity = new RecipePopularity(WINDOW,12);
+        long now = System.currentTimeMillis();
+        for (int view = 0; view < 100; ++view)
+            popularity.recordView(1);
+        popularity.refresh(now);
+        assertArrayEquals(new int[] {1},popularity.top(5));
+
+        // Invoke
+        popularity.refresh(now + 10 * WINDOW);
+        for (int view = 0; view < 10; ++view)
+            popularity.recordView(2);
+        popularity.refresh(now + 10 * WINDOW);
+
+        // Analyze: 100 views weigh 0.75^10 of 10 fresh ones, and are forgotten
+        // once they are older than the windows kept
+        assertArrayEquals(new int[] {2,1},popularity.top(5));
+        popularity.refresh(now + 12 * WINDOW);
+        popularity.recordView(2);
+        popularity.refresh(now + 12 * WINDOW);
+        assertArrayEquals(new int[] {2},popularity.top(5));
+    }
+
+    @Test
+    public void testCountsSurviveRestart() throws IOException {
+        // Setup
+        String filename = directory.resolve("trending.json").toString();
+        RecipePopularity popularity = new RecipePopularity(filename,new ObjectMapper(),WINDOW,12,WINDOW,WINDOW);
+        for (int view = 0; view < 3; ++view)
+            popularity.recordView(7);
+        popularity.recordView(8);
+
+        // Invoke
+        popularity.close();
+        RecipePopularity restarted = new RecipePopularity(filename,new ObjectMapper(),WINDOW,12,WINDOW,WINDOW);
+
+        // Analyze: only the counters of the two recipes were written
+        assertTrue(Files.size(directory.resolve("trending.json")) < 4096);
+        assertArrayEquals(new int[] {7,8},restarted.top(5));
+        restarted.close();
+    }
+
+    @Test
+    @Tag("Benchmark")
+    public void testViewOverhead() throws InterruptedException {
+        // Setup
+        RecipePopularity popularity = new RecipePopularity(WINDOW,12);
+        int threads = 4;
+        int views = 1000000;
+        Thread[] viewers = new Thread[threads];
+        for (int t = 0; t < threads; ++t) {
+            int seed = t;
+            viewers[t] = new Thread(() -> {
+                for (int view = 0; view < views; ++view)
+                    popularity.recordView((view * 31 + seed) % 1000);
+            });
+        }
+
+        // Invoke
+        long start = System.nanoTime();
+        for (Thread viewer : viewers)
+            viewer.start();
+        for (Thread viewer : viewers)
+            viewer.join();
+        long elapsed = System.nanoTime() - start;
+
+        // Analyze: report only, timings vary too much between machines to assert on
+        LOG.info("Counted " + threads * views + " views on " + threads + " threads at "
+            + elapsed / views + " ns per view");
+        popularity.refresh(System.currentTimeMillis());
+        assertEquals(10,popularity.top(10).length);
+    }
+}
@@ -0,0 +1,154 @@
+package com.chef.api.chefapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.Recipe;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Recipe Query Planner class
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Persistence-tier")
+public class RecipeQueryPlannerTest {
+    RecipeDAO mockRecipeDAO;
+    RecipeQueryPlanner planner;
+    Recipe[] testRecipes;
+
+    @BeforeEach
+    public void setupRecipeQueryPlanner() throws IOException {
+        testRecipes = new Recipe[4];
+        testRecipes[0] = new Recipe(1,"Chicken Curry",List.of(new Ingredient(0,"Chicken Breast",2,"cups"),
+            new Ingredient(0,"curry paste",1,"tbsp"),new Ingredient(0,"rice",2,"cups")));
+        testRecipes[1] = new Recipe(2,"Satay",List.of(new Ingredient(0,"chicken thigh",1,"cup"),
+            new Ingredient(0,"peanuts",1,"cup"),new Ingredient(0,"nuts",1,"cup")));
+        testRecipes[2] = new Recipe(3,"Chicken Soup",List.of(new Ingredient(0,"chicken",1,"cup"),
+            new Ingredient(0,"stock",4,"cups")));
+        testRecipes[3] = new Recipe(4,"Olive Bread",List.of(new Ingredient(0,"olive oil",3,"tbsp"),
+            new Ingredient(0,"flour",3,"cups"),new Ingredient(0,"water",1,"cup"),
+            new Ingredient(0,"yeast",1,"tsp"),new Ingredient(0,"salt",1,"tsp"),
+            new Ingredient(0,"olives",1,"cup"),new Ingredient(0,"sugar",1,"tsp")));
+        mockRecipeDAO = mock(RecipeDAO.class);
+        when(mockRecipeDAO.getRecipes()).thenReturn(testRecipes);
+        planner = new RecipeQueryPlanner(mockRecipeDAO);
+    }
+
+    @Test
+    public void testQuery() throws IOException {
+        // Invoke
+        RecipeQueryPlanner.Result result = planner.query(
+            RecipeQuery.parse("contains chicken AND NOT nuts AND ≤ 6 ingredients AND uses ≥ 2 cups"));
+
+        // Analyze: the ingredient word index is the most selective access path
+        assertArrayEquals(new Recipe[] {testRecipes[0],testRecipes[2]},result.getRecipes());
+        assertEquals("  Lookup ingredient word 'chicken' (3)",result.getPlan().get(1));
+        assertEquals(3,result.getExamined());
+    }
+
+    @Test
+    public void testPlans() throws IOException {
+        // Analyze: each query uses the access path expected of it
+        assertPlan("name:sat","  Lookup name trigram 'sat' (1)",1);
+        assertPlan("name:\"olive bread\"","  Intersect",1);
+        assertPlan("ingredients > 5","  Range ingredient count ingredients > 5 (1 buckets, 1)",1);
+        assertPlan("\"olive oil\" OR rice","  Union",2);
+        assertPlan("NOT rice","  Scan all recipes (4)",4);
+        assertPlan("rice OR uses = 4 cups","  Scan all recipes (4)",4);
+        assertPlan("name:so","  Scan all recipes (4)",4);
+    }
+
+    @Test
+    public void testMaintainedIncrementally() throws IOException {
+        // Setup
+        planner.query(RecipeQuery.parse("chicken"));
+        Recipe renamed = new Recipe(3,"Noodle Soup",List.of(new Ingredient(0,"noodles",1,"cup")));
+
+        // Invoke
+        planner.onChange(new ChangeEvent<>(1,ChangeEvent.Type.UPDATED,3,renamed));
+        planner.onChange(new ChangeEvent<>(2,ChangeEvent.Type.DELETED,2,null));
+
+        // Analyze
+        assertArrayEquals(new Recipe[] {testRecipes[0]},planner.query(RecipeQuery.parse("chicken")).getRecipes());
+        assertArrayEquals(new Recipe[] {renamed},planner.query(RecipeQuery.parse("name:noodle")).getRecipes());
+        assertEquals(0,planner.query(RecipeQuery.parse("peanuts")).getExamined());
+    }
+
+    @Test
+    public void testMatchesScan() throws IOException {
+        // Setup
+        Random random = new Random(3);
+        String[] words = {"chicken","beef","rice","nuts","oil","olive","salt","stock"};
+        Recipe[] catalog = new Recipe[300];
+        for (int i = 0; i < catalog.length; ++i) {
+            List<Ingredient> ingredients = new ArrayList<>();
+            int count = random.nextInt(8);
+            for (int j = 0; j < count; ++j)
+                ingredients.add(new Ingredient(0,words[random.nextInt(words.length)] + " "
+                    + words[random.nextInt(words.length)],1 + random.nextInt(4),random.nextBoolean() ? "cup" : "tbsp"));
+            catalog[i] = new Recipe(i,words[random.nextInt(words.length)] + " dish " + i,ingredients);
+        }
+        when(mockRecipeDAO.getRecipes()).thenReturn(catalog);
+        RecipeQueryPlanner indexed = new RecipeQueryPlanner(mockRecipeDAO);
+        String[] queries = {"chicken AND NOT nuts","\"olive oil\" OR beef","name:ric AND ingredients >= 3",
+            "(rice OR stock) AND ingredients < 4","uses >= 3 cups of salt","NOT (oil OR ingredients = 0)"};
+
+        for (String text : queries) {
+            // Invoke
+            RecipeQuery query = RecipeQuery.parse(text);
+            Recipe[] found = indexed.query(query).getRecipes();
+
+            // Analyze
+            Recipe[] expected = Arrays.stream(catalog).filter(query::test).toArray(Recipe[]::new);
+            assertArrayEquals(expected,found,text);
+        }
+    }
+
+    @Test
+    public void testParse() {
+        // Analyze
+        assertEquals("contains chicken AND NOT (contains nuts OR name:satay) AND ingredients <= 6",
+            RecipeQuery.parse("Chicken and not (contains NUTS or NAME:Satay) and <= 6 ingredients").toString());
+        assertEquals("uses >= 2 cup of \"olive oil\"",RecipeQuery.parse("uses >= 2 cups of \"Olive Oil\"").toString());
+        assertThrows(IllegalArgumentException.class,() -> RecipeQuery.parse("chicken AND"));
+        assertThrows(IllegalArgumentException.class,() -> RecipeQuery.parse("(chicken"));
+        assertThrows(IllegalArgumentException.class,() -> RecipeQuery.parse("ingredients <= many"));
+        assertThrows(IllegalArgumentException.class,() -> RecipeQuery.parse("\"olive oil"));
+        assertThrows(IllegalArgumentException.class,() -> RecipeQuery.parse("chicken rice"));
+    }
+
+    @Test
+    public void testParseRefusesDeepNesting() {
+        // Setup
+        String nested = "(".repeat(RecipeQuery.MAX_DEPTH) + "chicken" + ")".repeat(RecipeQuery.MAX_DEPTH);
+
+        // Analyze: queries too deep to parse are refused, not left to overflow the stack
+        assertEquals("contains chicken",RecipeQuery.parse(nested).toString());
+        assertThrows(IllegalArgumentException.class,() -> RecipeQuery.parse("(" + nested + ")"));
+        assertThrows(IllegalArgumentException.class,
+            () -> RecipeQuery.parse("(".repeat(2000) + "name:a" + ")".repeat(2000)));
+        assertThrows(IllegalArgumentException.class,() -> RecipeQuery.parse("NOT ".repeat(8000) + "chicken"));
+    }
+
+    private void assertPlan(String text, String access, int examined) throws IOException {
+        RecipeQueryPlanner.Result result = planner.query(RecipeQuery.parse(text));
+        assertEquals(access,result.getPlan().get(1),text);
+        assertEquals(examined,result.getExamined(),text);
+        assertTrue(result.getMatched() <= examined,text);
+    }
+}
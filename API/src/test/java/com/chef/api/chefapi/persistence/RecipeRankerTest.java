@@ -0,0 +1,223 @@
+package com.chef.api.chefapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.Recipe;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Recipe Ranker class
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Persistence-tier")
+public class RecipeRankerTest {
+    private static final Logger LOG = Logger.getLogger(RecipeRankerTest.class.getName());
+
+    @Test
+    public void testTop() throws IOException {
+        // Setup
+        RecipeDAO mockRecipeDAO = mock(RecipeDAO.class);
+        Recipe soup = new Recipe(1,"Tomato Soup",ingredients("tomato","onion","salt"));
+        Recipe salad = new Recipe(2,"Green Salad",ingredients("lettuce","tomato"));
+        Recipe pasta = new Recipe(3,"Pasta",ingredients("basil","tomato","garlic"));
+        Recipe bread = new Recipe(4,"Garlic Bread",ingredients("bread","garlic","butter"));
+        when(mockRecipeDAO.getRecipes()).thenReturn(new Recipe[] {soup,salad,pasta,bread});
+        RecipeRanker ranker = new RecipeRanker(mockRecipeDAO);
+
+        // Invoke & Analyze: a name word outweighs an ingredient word, a short recipe a long one
+        assertArrayEquals(new Recipe[] {soup,pasta,salad},ranker.top("tomato",10));
+        assertArrayEquals(new Recipe[] {pasta,bread},ranker.top("garlic basil",2));
+        assertArrayEquals(new Recipe[] {soup},ranker.top("TOMATO soup",1));
+        assertArrayEquals(new Recipe[0],ranker.top("chocolate",10));
+        assertArrayEquals(new Recipe[0],ranker.top("tomato",0));
+    }
+
+    @Test
+    public void testMaintainedIncrementally() throws IOException {
+        // Setup
+        RecipeDAO mockRecipeDAO = mock(RecipeDAO.class);
+        Recipe soup = new Recipe(1,"Tomato Soup",ingredients("tomato"));
+        Recipe salad = new Recipe(2,"Green Salad",ingredients("lettuce"));
+        when(mockRecipeDAO.getRecipes()).thenReturn(new Recipe[] {soup,salad});
+        RecipeRanker ranker = new RecipeRanker(mockRecipeDAO);
+        ranker.top("soup",10);
+        Recipe renamed = new Recipe(2,"Tomato Salad",ingredients("lettuce","tomato"));
+
+        // Invoke
+        ranker.onChange(new ChangeEvent<>(1,ChangeEvent.Type.UPDATED,2,renamed));
+        ranker.onChange(new ChangeEvent<>(2,ChangeEvent.Type.DELETED,1,null));
+
+        // Analyze
+        assertArrayEquals(new Recipe[] {renamed},ranker.top("tomato soup",10));
+        assertArrayEquals(new Recipe[0],ranker.top("green",10));
+    }
+
+    @Test
+    public void testChangesMatchRebuild() throws IOException {
+        // Setup: a small catalog, then a stream of creates, updates and deletes
+        Random random = new Random(5);
+        String[] vocabulary = new String[200];
+        for (int i = 0; i < vocabulary.length; ++i)
+            vocabulary[i] = "w" + i;
+        Map<Integer,Recipe> catalog = new HashMap<>();
+        for (int id = 0; id < 2000; ++id)
+            catalog.put(id,randomRecipe(random,vocabulary,id));
+        RecipeDAO mockRecipeDAO = mock(RecipeDAO.class);
+        when(mockRecipeDAO.getRecipes()).thenReturn(catalog.values().toArray(new Recipe[0]));
+        RecipeRanker ranker = new RecipeRanker(mockRecipeDAO);
+        ranker.top("w1",1);
+
+        // Invoke
+        for (int change = 1; change <= 2000; ++change) {
+            int id = random.nextInt(2500);
+            if (catalog.containsKey(id) && random.nextInt(3) == 0) {
+                catalog.remove(id);
+                ranker.onChange(new ChangeEvent<>(change,ChangeEvent.Type.DELETED,id,null));
+            }
+            else {
+                ChangeEvent.Type type = catalog.containsKey(id) ? ChangeEvent.Type.UPDATED : ChangeEvent.Type.CREATED;
+                Recipe recipe = randomRecipe(random,vocabulary,id);
+                catalog.put(id,recipe);
+                ranker.onChange(new ChangeEvent<>(change,type,id,recipe));
+            }
+        }
+
+        // Analyze: the same hits as a ranker built from the final catalog
+        RecipeDAO rebuiltDAO = mock(RecipeDAO.class);
+        when(rebuiltDAO.getRecipes()).thenReturn(catalog.values().toArray(new Recipe[0]));
+        RecipeRanker rebuilt = new RecipeRanker(rebuiltDAO);
+        for (int q = 0; q < 50; ++q) {
+            String query = skewed(random,vocabulary) + " " + skewed(random,vocabulary);
+            List<RecipeRanker.Hit> expected = rebuilt.search(query,10);
+            List<RecipeRanker.Hit> found = ranker.search(query,10);
+            assertEquals(expected.size(),found.size(),query);
+            for (int i = 0; i < expected.size(); ++i) {
+                assertEquals(expected.get(i).id,found.get(i).id,query);
+                assertEquals(expected.get(i).score,found.get(i).score,1e-9,query);
+            }
+        }
+    }
+
+    @Test
+    @Tag("Benchmark")
+    public void testMatchesExhaustiveScoring() throws IOException {
+        // Setup: 50,000 recipes over a vocabulary with a few common and many rare words
+        Random random = new Random(11);
+        String[] vocabulary = new String[5000];
+        for (int i = 0; i < vocabulary.length; ++i)
+            vocabulary[i] = "w" + i;
+        Recipe[] catalog = new Recipe[50000];
+        for (int i = 0; i < catalog.length; ++i) {
+            String name = skewed(random,vocabulary) + " " + skewed(random,vocabulary);
+            String[] names = new String[2 + random.nextInt(8)];
+            for (int n = 0; n < names.length; ++n)
+                names[n] = skewed(random,vocabulary);
+            catalog[i] = new Recipe(i,name,ingredients(names));
+        }
+        RecipeDAO mockRecipeDAO = mock(RecipeDAO.class);
+        when(mockRecipeDAO.getRecipes()).thenReturn(catalog);
+        RecipeRanker ranker = new RecipeRanker(mockRecipeDAO);
+        ranker.top("w1",1);
+        List<Map<String,Integer>> documents = new ArrayList<>();
+        for (Recipe recipe : catalog)
+            documents.add(RecipeRanker.words(recipe));
+
+        long ranked = 0;
+        long exhaustive = 0;
+        for (int q = 0; q < 50; ++q) {
+            String query = skewed(random,vocabulary) + " " + skewed(random,vocabulary) + " " + skewed(random,vocabulary);
+            int k = 1 + random.nextInt(20);
+
+            // Invoke
+            long start = System.nanoTime();
+            List<RecipeRanker.Hit> found = ranker.search(query,k);
+            ranked += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            double[] expected = exhaustive(documents,query,k);
+            exhaustive += System.nanoTime() - start;
+
+            // Analyze: the same scores, ties may be broken by a rounding difference
+            assertEquals(expected.length,found.size(),query);
+            for (int i = 0; i < expected.length; ++i)
+                assertEquals(expected[i],found.get(i).score,1e-9,query);
+        }
+        LOG.info(String.format("BM25 top-k over %d recipes: %.2f ms per query with MaxScore, %.2f ms scoring every recipe",
+            catalog.length,ranked / 50 / 1e6,exhaustive / 50 / 1e6));
+    }
+
+    /**
+     * Scores every recipe and returns the k best scores
+     */
+    private static double[] exhaustive(List<Map<String,Integer>> documents, String query, int k) {
+        Map<String,Integer> documentFrequencies = new HashMap<>();
+        long total = 0;
+        for (Map<String,Integer> counts : documents) {
+            for (Map.Entry<String,Integer> entry : counts.entrySet()) {
+                documentFrequencies.merge(entry.getKey(),1,Integer::sum);
+                total += entry.getValue();
+            }
+        }
+        double averageLength = (double) total / documents.size();
+        List<Double> scores = new ArrayList<>();
+        for (Map<String,Integer> counts : documents) {
+            int length = counts.values().stream().mapToInt(Integer::intValue).sum();
+            double score = 0;
+            for (String word : new LinkedHashSet<>(RecipeQuery.words(query))) {
+                Integer frequency = counts.get(word);
+                if (frequency != null) {
+                    int df = documentFrequencies.get(word);
+                    double idf = Math.log(1 + (documents.size() - df + 0.5) / (df + 0.5));
+                    score += RecipeRanker.score(idf,frequency,length,averageLength);
+                }
+            }
+            if (score > 0)
+                scores.add(score);
+        }
+        double[] best = scores.stream().mapToDouble(Double::doubleValue).toArray();
+        Arrays.sort(best);
+        double[] top = new double[Math.min(k,best.length)];
+        for (int i = 0; i < top.length; ++i)
+            top[i] = best[best.length - 1 - i];
+        return top;
+    }
+
+    /**
+     * Draws a word, low numbered words far more often than high numbered ones
+     */
+    private static String skewed(Random random, String[] vocabulary) {
+        double u = random.nextDouble();
+        return vocabulary[(int) (vocabulary.length * u * u * u)];
+    }
+
+    private static Recipe randomRecipe(Random random, String[] vocabulary, int id) {
+        String[] names = new String[1 + random.nextInt(5)];
+        for (int n = 0; n < names.length; ++n)
+            names[n] = skewed(random,vocabulary);
+        return new Recipe(id,skewed(random,vocabulary) + " " + skewed(random,vocabulary),ingredients(names));
+    }
+
+    private static List<Ingredient> ingredients(String... names) {
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (int i = 0; i < names.length; ++i)
+            ingredients.add(new Ingredient(i,names[i],1,"cup"));
+        return ingredients;
+    }
+}
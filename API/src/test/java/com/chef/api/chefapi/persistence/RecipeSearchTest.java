@@ -0,0 +1,131 @@
+package com.chef.api.chefapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.chef.api.chefapi.model.Recipe;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Recipe Search class
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Persistence-tier")
+public class RecipeSearchTest {
+    RecipeDAO mockRecipeDAO;
+    RecipeSearch recipeSearch;
+    Recipe[] soups;
+
+    @BeforeEach
+    public void setupRecipeSearch() {
+        mockRecipeDAO = mock(RecipeDAO.class);
+        recipeSearch = new RecipeSearch(mockRecipeDAO,2);
+        soups = new Recipe[] {new Recipe(1,"Tomato soup",new ArrayList<>())};
+    }
+
+    @Test
+    public void testCached() throws IOException {
+        // Setup
+        when(mockRecipeDAO.findRecipes("soup")).thenReturn(soups);
+
+        // Invoke
+        recipeSearch.findRecipes("soup");
+        Recipe[] result = recipeSearch.findRecipes("soup");
+
+        // Analyze
+        assertArrayEquals(soups,result);
+        verify(mockRecipeDAO,times(1)).findRecipes("soup");
+    }
+
+    @Test
+    public void testInvalidatedByChange() throws IOException {
+        // Setup
+        when(mockRecipeDAO.findRecipes("soup")).thenReturn(soups);
+        recipeSearch.findRecipes("soup");
+
+        // Invoke
+        recipeSearch.onChange(new ChangeEvent<>(1,ChangeEvent.Type.CREATED,2,new Recipe(2,"Leek soup",null)));
+        recipeSearch.findRecipes("soup");
+
+        // Analyze
+        assertEquals(1,recipeSearch.getGeneration());
+        verify(mockRecipeDAO,times(2)).findRecipes("soup");
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws IOException {
+        // Setup
+        when(mockRecipeDAO.findRecipes("a")).thenReturn(new Recipe[0]);
+        when(mockRecipeDAO.findRecipes("b")).thenReturn(new Recipe[0]);
+        when(mockRecipeDAO.findRecipes("c")).thenReturn(new Recipe[0]);
+
+        // Invoke: "a" is used again, so "b" is the one evicted by "c"
+        recipeSearch.findRecipes("a");
+        recipeSearch.findRecipes("b");
+        recipeSearch.findRecipes("a");
+        recipeSearch.findRecipes("c");
+        recipeSearch.findRecipes("a");
+        recipeSearch.findRecipes("b");
+
+        // Analyze
+        verify(mockRecipeDAO,times(1)).findRecipes("a");
+        verify(mockRecipeDAO,times(2)).findRecipes("b");
+    }
+
+    @Test
+    public void testConcurrentQueriesCoalesced() throws Exception {
+        // Setup: the first search blocks until every caller has arrived
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        when(mockRecipeDAO.findRecipes("chi")).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5,TimeUnit.SECONDS);
+            return soups;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            // Invoke
+            Future<Recipe[]> first = executor.submit(() -> recipeSearch.findRecipes("chi"));
+            started.await(5,TimeUnit.SECONDS);
+            CompletableFuture<?>[] others = new CompletableFuture<?>[3];
+            for (int i = 0; i < others.length; i++)
+                others[i] = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return recipeSearch.findRecipes("chi");
+                    }
+                    catch(IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                },executor);
+            Thread.sleep(100);
+            release.countDown();
+
+            // Analyze
+            assertArrayEquals(soups,first.get(5,TimeUnit.SECONDS));
+            for (CompletableFuture<?> other : others)
+                assertArrayEquals(soups,(Recipe[]) other.get(5,TimeUnit.SECONDS));
+            verify(mockRecipeDAO,times(1)).findRecipes("chi");
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+}
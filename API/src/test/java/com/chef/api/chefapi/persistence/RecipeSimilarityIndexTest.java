@@ -0,0 +1,182 @@
+package com.chef.api.chefapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.Recipe;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Recipe Similarity Index class
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Persistence-tier")
+public class RecipeSimilarityIndexTest {
+    private static final Logger LOG = Logger.getLogger(RecipeSimilarityIndexTest.class.getName());
+
+    @Test
+    public void testRecallAgainstExactJaccard() throws IOException {
+        // Setup: families of recipes that vary a few ingredients of a base recipe,
+        // drawn from a large vocabulary so unrelated recipes rarely overlap
+        Random random = new Random(42);
+        List<Recipe> catalog = new ArrayList<>();
+        for (int family = 0; family < 200; ++family) {
+            List<Integer> base = sample(random,2000,10);
+            for (int variant = 0; variant < 20; ++variant) {
+                List<Integer> names = new ArrayList<>(base);
+                int swaps = random.nextInt(4);
+                for (int i = 0; i < swaps; ++i)
+                    names.set(random.nextInt(names.size()),random.nextInt(2000));
+                catalog.add(recipe(catalog.size() + 1,names));
+            }
+        }
+        RecipeDAO mockRecipeDAO = mock(RecipeDAO.class);
+        when(mockRecipeDAO.getRecipes()).thenReturn(catalog.toArray(new Recipe[0]));
+        RecipeSimilarityIndex index = new RecipeSimilarityIndex(mockRecipeDAO);
+        index.findSimilar(1,1);  // build
+
+        // Invoke: compare the index with an exact scan for every 40th recipe
+        int k = 10;
+        int found = 0;
+        int relevant = 0;
+        long elapsed = 0;
+        for (int q = 0; q < catalog.size(); q += 40) {
+            Recipe query = catalog.get(q);
+            long start = System.nanoTime();
+            Set<Integer> approximate = new HashSet<>(index.findSimilar(query.getId(),k));
+            elapsed += System.nanoTime() - start;
+
+            List<double[]> exact = new ArrayList<>();
+            for (Recipe other : catalog) {
+                if (other.getId() != query.getId())
+                    exact.add(new double[] {other.getId(),jaccard(query,other)});
+            }
+            exact.sort((a,b) -> Double.compare(b[1],a[1]));
+            // Only neighbours above the index's threshold are expected, and any recipe
+            // as similar as the k-th exact neighbour is an equally good answer
+            double kth = Math.max(exact.get(k - 1)[1],0.5);
+            int expected = 0;
+            for (int i = 0; i < k && exact.get(i)[1] >= 0.5; ++i)
+                ++expected;
+            int hits = 0;
+            for (double[] neighbour : exact) {
+                if (neighbour[1] >= kth && approximate.contains((int) neighbour[0]))
+                    ++hits;
+            }
+            relevant += expected;
+            found += Math.min(hits,expected);
+        }
+
+        // Analyze
+        double recall = (double) found / relevant;
+        LOG.info(String.format("Recall@%d against exact Jaccard: %.3f over %d neighbours, %.1f us per lookup",
+            k,recall,relevant,elapsed / 1000.0 / (catalog.size() / 40)));
+        assertTrue(relevant > 0);
+        assertTrue(recall >= 0.9,"recall " + recall);
+    }
+
+    @Test
+    public void testMaintainedIncrementally() throws IOException {
+        // Setup
+        RecipeDAO mockRecipeDAO = mock(RecipeDAO.class);
+        Recipe soup = recipe(1,List.of(1,2,3,4,5,6));
+        when(mockRecipeDAO.getRecipes()).thenReturn(new Recipe[] {soup});
+        RecipeSimilarityIndex index = new RecipeSimilarityIndex(mockRecipeDAO);
+        assertTrue(index.findSimilar(1,5).isEmpty());
+
+        // Invoke: create a near copy, then change it completely, then delete it
+        Recipe copy = recipe(2,List.of(1,2,3,4,5,7));
+        index.onChange(new ChangeEvent<>(1,ChangeEvent.Type.CREATED,2,copy));
+        List<Integer> afterCreate = index.findSimilar(1,5);
+        index.onChange(new ChangeEvent<>(2,ChangeEvent.Type.UPDATED,2,recipe(2,List.of(100,101,102))));
+        List<Integer> afterUpdate = index.findSimilar(1,5);
+        index.onChange(new ChangeEvent<>(3,ChangeEvent.Type.DELETED,2,null));
+
+        // Analyze
+        assertEquals(List.of(2),afterCreate);
+        assertFalse(afterUpdate.contains(2));
+        assertEquals(0,index.estimate(1,2));
+    }
+
+    @Test
+    public void testCandidatesAreCapped() throws IOException {
+        // Setup: a crowd of recipes sharing every bucket, and a close pair of rarer ones
+        List<Recipe> catalog = new ArrayList<>();
+        for (int i = 1; i <= 3 * RecipeSimilarityIndex.MAX_CANDIDATES; ++i)
+            catalog.add(recipe(i,List.of(1,2,3,i % 2 == 0 ? 4 : 5)));
+        int first = catalog.size() + 1;
+        catalog.add(recipe(first,List.of(1,2,3,10,11,12,13,14)));
+        catalog.add(recipe(first + 1,List.of(1,2,3,10,11,12,13,15)));
+        RecipeDAO mockRecipeDAO = mock(RecipeDAO.class);
+        when(mockRecipeDAO.getRecipes()).thenReturn(catalog.toArray(new Recipe[0]));
+        RecipeSimilarityIndex index = new RecipeSimilarityIndex(mockRecipeDAO);
+
+        // Invoke
+        List<Integer> similar = index.findSimilar(1,5);
+        Set<Integer> crowd = index.candidates(1,index.signatureOf(1));
+        Set<Integer> pair = index.candidates(first,index.signatureOf(first));
+
+        // Analyze: the crowd is cut at the cap, the rare bucket is visited first
+        assertEquals(5,similar.size());
+        assertEquals(RecipeSimilarityIndex.MAX_CANDIDATES,crowd.size());
+        assertTrue(pair.contains(first + 1));
+        assertEquals(List.of(first + 1),index.findSimilar(first,1));
+    }
+
+    @Test
+    public void testEstimate() throws IOException {
+        // Setup
+        RecipeDAO mockRecipeDAO = mock(RecipeDAO.class);
+        Recipe a = recipe(1,List.of(1,2,3,4,5,6,7,8));
+        Recipe b = recipe(2,List.of(1,2,3,4,5,6,9,10));
+        when(mockRecipeDAO.getRecipes()).thenReturn(new Recipe[] {a,b});
+        RecipeSimilarityIndex index = new RecipeSimilarityIndex(mockRecipeDAO);
+        index.findSimilar(1,1);
+
+        // Invoke
+        double estimate = index.estimate(1,2);
+
+        // Analyze: exact Jaccard is 6/10
+        assertEquals(jaccard(a,b),estimate,0.2);
+    }
+
+    private static List<Integer> sample(Random random, int bound, int size) {
+        List<Integer> all = new ArrayList<>();
+        for (int i = 0; i < bound; ++i)
+            all.add(i);
+        Collections.shuffle(all,random);
+        return new ArrayList<>(all.subList(0,size));
+    }
+
+    private static Recipe recipe(int id, List<Integer> names) {
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (int name : names)
+            ingredients.add(new Ingredient(name,"ingredient " + name,1,"cup"));
+        return new Recipe(id,"Recipe " + id,ingredients);
+    }
+
+    private static double jaccard(Recipe a, Recipe b) {
+        Set<String> first = RecipeSimilarityIndex.ingredientNames(a);
+        Set<String> second = RecipeSimilarityIndex.ingredientNames(b);
+        Set<String> union = new HashSet<>(first);
+        union.addAll(second);
+        first.retainAll(second);
+        return union.isEmpty() ? 0 : (double) first.size() / union.size();
+    }
+}
@@ -0,0 +1,137 @@
+package com.chef.api.chefapi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import com.chef.api.chefapi.model.Ingredient;
+import com.chef.api.chefapi.model.MealPlan;
+import com.chef.api.chefapi.model.Recipe;
+import com.chef.api.chefapi.persistence.RecipeDAO;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Meal Planner class
+ * 
+ * @author SWEN Faculty
+ */
+@Tag("Service-tier")
+public class MealPlannerTest {
+
+    @Test
+    public void testPlan() throws IOException {
+        // Setup
+        RecipeDAO mockRecipeDAO = mock(RecipeDAO.class);
+        Recipe soup = recipe(1,"tomato","onion","stock");
+        Recipe salad = recipe(2,"tomato","lettuce");
+        Recipe cake = recipe(3,"flour","sugar","eggs","butter");
+        when(mockRecipeDAO.getRecipes()).thenReturn(new Recipe[] {cake,salad,soup});
+        List<Ingredient> pantry = ingredients("Tomato","onion","lettuce");
+        MealPlanner planner = new MealPlanner(mockRecipeDAO,1000);
+
+        // Invoke
+        MealPlan plan = planner.plan(pantry,2,1000);
+
+        // Analyze: soup and salad use the whole pantry and only need stock
+        assertTrue(plan.isOptimal());
+        assertEquals(Set.of(soup,salad),new HashSet<>(plan.getRecipes()));
+        assertEquals(List.of("lettuce","onion","tomato"),plan.getPantryUsed());
+        assertEquals(List.of("stock"),plan.getToBuy());
+        assertEquals(2,plan.getScore());
+    }
+
+    @Test
+    public void testMatchesExhaustiveSearch() throws IOException {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; ++round) {
+            // Setup
+            Recipe[] catalog = new Recipe[14];
+            for (int i = 0; i < catalog.length; ++i) {
+                String[] names = new String[2 + random.nextInt(5)];
+                for (int j = 0; j < names.length; ++j)
+                    names[j] = "i" + random.nextInt(20);
+                catalog[i] = recipe(i,names);
+            }
+            String[] pantryNames = new String[8];
+            for (int j = 0; j < pantryNames.length; ++j)
+                pantryNames[j] = "i" + random.nextInt(20);
+            RecipeDAO mockRecipeDAO = mock(RecipeDAO.class);
+            when(mockRecipeDAO.getRecipes()).thenReturn(catalog);
+            MealPlanner planner = new MealPlanner(mockRecipeDAO,5000,new ForkJoinPool(4));
+
+            // Invoke
+            MealPlan plan = planner.plan(ingredients(pantryNames),3,5000);
+
+            // Analyze
+            assertTrue(plan.isOptimal());
+            assertEquals(exhaustive(catalog,new HashSet<>(List.of(pantryNames)),3),plan.getScore());
+        }
+    }
+
+    @Test
+    public void testTimeBudget() throws IOException {
+        // Setup: far too many plans to search exhaustively
+        Random random = new Random(11);
+        Recipe[] catalog = new Recipe[20000];
+        for (int i = 0; i < catalog.length; ++i) {
+            String[] names = new String[3 + random.nextInt(8)];
+            for (int j = 0; j < names.length; ++j)
+                names[j] = "i" + random.nextInt(500);
+            catalog[i] = recipe(i,names);
+        }
+        String[] pantryNames = new String[60];
+        for (int j = 0; j < pantryNames.length; ++j)
+            pantryNames[j] = "i" + random.nextInt(500);
+        RecipeDAO mockRecipeDAO = mock(RecipeDAO.class);
+        when(mockRecipeDAO.getRecipes()).thenReturn(catalog);
+        MealPlanner planner = new MealPlanner(mockRecipeDAO,5000);
+
+        // Invoke
+        long start = System.nanoTime();
+        MealPlan plan = planner.plan(ingredients(pantryNames),7,100);
+        long elapsed = (System.nanoTime() - start) / 1000000;
+
+        // Analyze
+        assertEquals(7,plan.getRecipes().size());
+        assertTrue(elapsed < 2000,"took " + elapsed + " ms");
+    }
+
+    private static int exhaustive(Recipe[] catalog, Set<String> pantry, int k) {
+        int best = Integer.MIN_VALUE;
+        for (int a = 0; a < catalog.length; ++a)
+            for (int b = a + 1; b < catalog.length; ++b)
+                for (int c = b + 1; c < catalog.length; ++c) {
+                    Set<String> covered = new HashSet<>();
+                    for (Recipe recipe : new Recipe[] {catalog[a],catalog[b],catalog[c]})
+                        for (Ingredient ingredient : recipe.getIngredients())
+                            covered.add(ingredient.getName());
+                    int score = 0;
+                    for (String name : covered)
+                        score += pantry.contains(name) ? 1 : -1;
+                    best = Math.max(best,score);
+                }
+        return best;
+    }
+
+    private static Recipe recipe(int id, String... names) {
+        return new Recipe(id,"Recipe " + id,ingredients(names));
+    }
+
+    private static List<Ingredient> ingredients(String... names) {
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (String name : names)
+            ingredients.add(new Ingredient(0,name,1,"cup"));
+        return ingredients;
+    }
+}
@@ -17,7 +17,7 @@ export class DashboardComponent implements OnInit {
   }
 
   getRecipes(): void {
-    this.recipeService.getRecipes()
-      .subscribe(recipes => this.recipes = recipes.slice(1, 5));
+    this.recipeService.getTopRecipes(4)
+      .subscribe(recipes => this.recipes = recipes);
   }
 }
@@ -16,6 +16,7 @@ import { RecipeService } from '../recipe.service';
 })
 export class RecipeSearchComponent implements OnInit {
   recipes$!: Observable<Recipe[]>;
+  suggestions$!: Observable<string[]>;
   private searchTerms = new Subject<string>();
 
   constructor(private recipeService: RecipeService) {}
@@ -26,6 +27,13 @@ export class RecipeSearchComponent implements OnInit {
   }
 
   ngOnInit(): void {
+    // suggestions are small, so they can follow the typing closely
+    this.suggestions$ = this.searchTerms.pipe(
+      debounceTime(50),
+      distinctUntilChanged(),
+      switchMap((term: string) => this.recipeService.suggestRecipes(term)),
+    );
+
     this.recipes$ = this.searchTerms.pipe(
       // wait 300ms after each keystroke before considering the term
       debounceTime(300),
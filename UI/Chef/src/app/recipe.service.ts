@@ -10,6 +10,7 @@ import { catchError, map, tap } from 'rxjs/operators';
 })
 export class RecipeService {
   private recipesUrl = 'http://localhost:8080/recipes';  // URL to web api
+  private listFields = 'id,name';  // the fields list views show; skips the ingredients
 
   httpOptions = {
     headers: new HttpHeaders({ 'Content-Type': 'application/json' })
@@ -26,13 +27,22 @@ export class RecipeService {
 
   /** GET recipees from the server */
   getRecipes(): Observable<Recipe[]> {
-    return this.http.get<Recipe[]>(this.recipesUrl)
+    return this.http.get<Recipe[]>(this.recipesUrl, { params: { fields: this.listFields } })
       .pipe(
         tap(_ => this.log('fetched recipes')),
         catchError(this.handleError<Recipe[]>('getRecipes', []))
       );
   }
 
+  /** GET the k recipes viewed the most lately, most viewed first */
+  getTopRecipes(k: number): Observable<Recipe[]> {
+    return this.http.get<Recipe[]>(`${this.recipesUrl}/top`, { params: { k: k.toString() } })
+      .pipe(
+        tap(_ => this.log('fetched top recipes')),
+        catchError(this.handleError<Recipe[]>('getTopRecipes', []))
+      );
+  }
+
   /** GET recipe by id. Will 404 if id not found */
   getRecipe(id: number): Observable<Recipe> {
     const url = `${this.recipesUrl}/${id}`;
@@ -88,7 +98,7 @@ export class RecipeService {
       // if not search term, return empty recipe array.
       return of([]);
     }
-    return this.http.get<Recipe[]>(`${this.recipesUrl}/?name=${term}`).pipe(
+    return this.http.get<Recipe[]>(`${this.recipesUrl}/?name=${term}&fields=${this.listFields}`).pipe(
       tap(x => x.length ?
         this.log(`found recipes matching "${term}"`) :
         this.log(`no recipes matching "${term}"`)),
@@ -96,6 +106,17 @@ export class RecipeService {
     );
   }
 
+  /* GET the most popular recipe names starting with the typed prefix */
+  suggestRecipes(prefix: string, limit = 10): Observable<string[]> {
+    if (!prefix.trim()) {
+      return of([]);
+    }
+    return this.http.get<string[]>(`${this.recipesUrl}/suggest`,
+      { params: { prefix: prefix, limit: limit } }).pipe(
+      catchError(this.handleError<string[]>('suggestRecipes', []))
+    );
+  }
+
   /**
  * Handle Http operation that failed.
  * Let the app continue.